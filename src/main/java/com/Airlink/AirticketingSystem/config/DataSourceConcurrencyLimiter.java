@@ -0,0 +1,134 @@
+package com.Airlink.AirticketingSystem.config;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+import org.springframework.stereotype.Component;
+
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.SQLTransientConnectionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Caps the number of connections in use at once with a fair semaphore.
+ *
+ * With virtual threads every request gets its own thread, so thousands of them can
+ * reach the connection pool together. With db.limiter enabled they queue here in
+ * arrival order, and a caller that gets no connection within acquire-timeout-ms
+ * fails fast instead of waiting out the pool's connection timeout.
+ */
+@Component
+public class DataSourceConcurrencyLimiter implements BeanPostProcessor, MeterBinder {
+
+    private final boolean enabled;
+    private final long acquireTimeoutMs;
+    private final Semaphore permits;
+    private final AtomicLong rejected = new AtomicLong();
+
+    public DataSourceConcurrencyLimiter(@Value("${db.limiter.enabled:false}") boolean enabled,
+                                        @Value("${db.limiter.max-concurrent:${spring.datasource.hikari.maximum-pool-size:10}}") int maxConcurrent,
+                                        @Value("${db.limiter.acquire-timeout-ms:2000}") long acquireTimeoutMs) {
+        this.enabled = enabled;
+        this.acquireTimeoutMs = acquireTimeoutMs;
+        this.permits = new Semaphore(maxConcurrent, true);
+    }
+
+    @Override
+    public Object postProcessAfterInitialization(Object bean, String beanName) {
+        if (enabled && bean instanceof DataSource dataSource && !(bean instanceof LimitedDataSource)) {
+            return new LimitedDataSource(dataSource);
+        }
+        return bean;
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        Gauge.builder("db.limiter.waiting", permits, Semaphore::getQueueLength)
+                .description("Callers waiting for a database connection permit").register(registry);
+        FunctionCounter.builder("db.limiter.rejected", rejected, AtomicLong::get)
+                .description("Callers that got no database connection permit in time").register(registry);
+    }
+
+    private Connection acquire(ConnectionOpener opener) throws SQLException {
+        try {
+            if (!permits.tryAcquire(acquireTimeoutMs, TimeUnit.MILLISECONDS)) {
+                rejected.incrementAndGet();
+                throw new SQLTransientConnectionException(
+                        "Database concurrency limit reached, no connection within " + acquireTimeoutMs + " ms");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new SQLTransientConnectionException("Interrupted while waiting for a database connection", e);
+        }
+
+        try {
+            return releasingOnClose(opener.open());
+        } catch (SQLException | RuntimeException e) {
+            permits.release();
+            throw e;
+        }
+    }
+
+    private Connection releasingOnClose(Connection connection) {
+        AtomicBoolean released = new AtomicBoolean();
+        return (Connection) Proxy.newProxyInstance(Connection.class.getClassLoader(), new Class<?>[]{Connection.class},
+                (proxy, method, args) -> switch (method.getName()) {
+                    case "equals" -> proxy == args[0];
+                    case "hashCode" -> System.identityHashCode(proxy);
+                    case "close" -> {
+                        try {
+                            yield invoke(connection, method, args);
+                        } finally {
+                            // close() may be called more than once, the permit is returned once
+                            if (released.compareAndSet(false, true)) {
+                                permits.release();
+                            }
+                        }
+                    }
+                    default -> invoke(connection, method, args);
+                });
+    }
+
+    private static Object invoke(Connection connection, Method method, Object[] args) throws Throwable {
+        try {
+            return method.invoke(connection, args);
+        } catch (InvocationTargetException e) {
+            throw e.getTargetException();
+        }
+    }
+
+    private class LimitedDataSource extends DelegatingDataSource {
+
+        LimitedDataSource(DataSource target) {
+            super(target);
+        }
+
+        @Override
+        public Connection getConnection() throws SQLException {
+            DataSource target = obtainTargetDataSource();
+            return acquire(target::getConnection);
+        }
+
+        @Override
+        public Connection getConnection(String username, String password) throws SQLException {
+            DataSource target = obtainTargetDataSource();
+            return acquire(() -> target.getConnection(username, password));
+        }
+    }
+
+    private interface ConnectionOpener {
+        Connection open() throws SQLException;
+    }
+}
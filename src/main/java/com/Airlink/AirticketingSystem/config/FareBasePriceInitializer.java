@@ -0,0 +1,35 @@
+package com.Airlink.AirticketingSystem.config;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.persistence.EntityManagerFactory;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.util.logging.Logger;
+
+/**
+ * Fares created before base prices were stored only have the price they were
+ * created with in current_price. It becomes their base price, so repricing
+ * starts from it instead of from zero.
+ */
+@Component
+public class FareBasePriceInitializer {
+
+    private static final Logger logger = Logger.getLogger(FareBasePriceInitializer.class.getName());
+
+    private final JdbcTemplate jdbcTemplate;
+
+    // The EntityManagerFactory dependency makes this run after Hibernate has created the table
+    public FareBasePriceInitializer(JdbcTemplate jdbcTemplate, EntityManagerFactory entityManagerFactory) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    @PostConstruct
+    public void backfillBasePrices() {
+        int filled = jdbcTemplate.update("UPDATE fare_class_prices SET base_price = current_price " +
+                "WHERE base_price = 0 AND current_price > 0");
+        if (filled > 0) {
+            logger.info("Filled in base prices for " + filled + " fares");
+        }
+    }
+}
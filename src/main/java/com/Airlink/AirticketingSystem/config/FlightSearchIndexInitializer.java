@@ -0,0 +1,46 @@
+package com.Airlink.AirticketingSystem.config;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.persistence.EntityManagerFactory;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import com.Airlink.AirticketingSystem.repository.FlightRepository;
+
+import java.util.logging.Logger;
+
+/**
+ * Sets up the flight search index: a pg_trgm GIN index on flights.search_text,
+ * which lets the LIKE '%query%' searches in FlightRepository use an index.
+ * Also fills search_text for flights created before the column existed.
+ */
+@Component
+public class FlightSearchIndexInitializer {
+
+    private static final Logger logger = Logger.getLogger(FlightSearchIndexInitializer.class.getName());
+
+    private final JdbcTemplate jdbcTemplate;
+
+    // The EntityManagerFactory dependency makes this run after Hibernate has added the column
+    public FlightSearchIndexInitializer(JdbcTemplate jdbcTemplate, EntityManagerFactory entityManagerFactory) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    @PostConstruct
+    public void createIndex() {
+        try {
+            jdbcTemplate.execute("CREATE EXTENSION IF NOT EXISTS pg_trgm");
+            jdbcTemplate.execute("CREATE INDEX IF NOT EXISTS idx_flights_search_text_trgm " +
+                    "ON flights USING gin (search_text gin_trgm_ops)");
+        } catch (Exception e) {
+            // Searches still work without the index, they just scan
+            logger.warning("Could not create the flight search index: " + e.getMessage());
+        }
+
+        int filled = jdbcTemplate.update("UPDATE flights f SET search_text = " + FlightRepository.SEARCH_TEXT +
+                " WHERE f.search_text IS NULL");
+        if (filled > 0) {
+            logger.info("Built search text for " + filled + " flights");
+        }
+    }
+}
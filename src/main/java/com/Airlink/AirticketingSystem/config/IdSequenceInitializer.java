@@ -0,0 +1,55 @@
+package com.Airlink.AirticketingSystem.config;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.persistence.EntityManagerFactory;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.logging.Logger;
+
+/**
+ * Moves each id sequence past the ids already present in its table.
+ *
+ * Flights, fare class prices, bookings, passengers, payments and refresh tokens take their ids
+ * from pooled sequences (so Hibernate can batch inserts) instead of IDENTITY
+ * columns. On a database created before that change the new sequences start
+ * at 1; this makes sure they never hand out an id that is already in use.
+ */
+@Component
+public class IdSequenceInitializer {
+
+    private static final Logger logger = Logger.getLogger(IdSequenceInitializer.class.getName());
+
+    private static final Map<String, String> SEQUENCES = Map.of(
+            "flights", "flights_seq",
+            "fare_class_prices", "fare_class_prices_seq",
+            "bookings", "bookings_seq",
+            "passengers", "passengers_seq",
+            "payments", "payments_seq",
+            "refresh_tokens", "refresh_tokens_seq"
+    );
+
+    private final JdbcTemplate jdbcTemplate;
+
+    // The EntityManagerFactory dependency makes this run after Hibernate has created the sequences
+    public IdSequenceInitializer(JdbcTemplate jdbcTemplate, EntityManagerFactory entityManagerFactory) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    @PostConstruct
+    public void alignSequences() {
+        SEQUENCES.forEach((table, sequence) -> {
+            try {
+                // Never moves a sequence backwards
+                jdbcTemplate.queryForObject(
+                        "SELECT setval('" + sequence + "', GREATEST(" +
+                        "(SELECT COALESCE(MAX(id), 0) FROM " + table + "), " +
+                        "(SELECT last_value FROM " + sequence + ")))",
+                        Long.class);
+            } catch (Exception e) {
+                logger.warning("Could not align sequence " + sequence + ": " + e.getMessage());
+            }
+        });
+    }
+}
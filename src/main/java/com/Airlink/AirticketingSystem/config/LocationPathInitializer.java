@@ -0,0 +1,47 @@
+package com.Airlink.AirticketingSystem.config;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.persistence.EntityManagerFactory;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.util.logging.Logger;
+
+/**
+ * Sets up the materialized location paths (see Location.path): a btree index with
+ * varchar_pattern_ops, so subtree queries (path LIKE '/1/12/%') use it whatever the
+ * database collation, and paths for locations created before the column existed.
+ */
+@Component
+public class LocationPathInitializer {
+
+    private static final Logger logger = Logger.getLogger(LocationPathInitializer.class.getName());
+
+    private final JdbcTemplate jdbcTemplate;
+
+    // The EntityManagerFactory dependency makes this run after Hibernate has added the column
+    public LocationPathInitializer(JdbcTemplate jdbcTemplate, EntityManagerFactory entityManagerFactory) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    @PostConstruct
+    public void buildPaths() {
+        try {
+            jdbcTemplate.execute("CREATE INDEX IF NOT EXISTS idx_locations_path ON locations (path varchar_pattern_ops)");
+        } catch (Exception e) {
+            // Subtree queries still work without the index, they just scan
+            logger.warning("Could not create the location path index: " + e.getMessage());
+        }
+
+        // Rebuilt from the parent links, only rows whose path is missing or wrong are written
+        int built = jdbcTemplate.update("WITH RECURSIVE tree (id, path) AS (" +
+                "SELECT id, '/' || id || '/' FROM locations WHERE parent_id IS NULL " +
+                "UNION ALL " +
+                "SELECT l.id, t.path || l.id || '/' FROM locations l JOIN tree t ON l.parent_id = t.id) " +
+                "UPDATE locations l SET path = tree.path FROM tree " +
+                "WHERE l.id = tree.id AND l.path IS DISTINCT FROM tree.path");
+        if (built > 0) {
+            logger.info("Built materialized paths for " + built + " locations");
+        }
+    }
+}
@@ -0,0 +1,39 @@
+package com.Airlink.AirticketingSystem.config;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.persistence.EntityManagerFactory;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.util.logging.Logger;
+
+/**
+ * Replaces refresh tokens stored in full by their SHA-256 digest (see TokenUtil.digest),
+ * so sessions started before tokens were stored hashed keep working.
+ * A digest is 64 characters, a stored JWT is always longer, so this runs once per row.
+ */
+@Component
+public class RefreshTokenDigestInitializer {
+
+    private static final Logger logger = Logger.getLogger(RefreshTokenDigestInitializer.class.getName());
+
+    private final JdbcTemplate jdbcTemplate;
+
+    // The EntityManagerFactory dependency makes this run after Hibernate has updated the schema
+    public RefreshTokenDigestInitializer(JdbcTemplate jdbcTemplate, EntityManagerFactory entityManagerFactory) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    @PostConstruct
+    public void hashStoredTokens() {
+        try {
+            int hashed = jdbcTemplate.update("UPDATE refresh_tokens " +
+                    "SET token = encode(sha256(convert_to(token, 'UTF8')), 'hex') WHERE length(token) > 64");
+            if (hashed > 0) {
+                logger.info("Replaced " + hashed + " stored refresh tokens by their digest");
+            }
+        } catch (Exception e) {
+            logger.warning("Could not hash stored refresh tokens: " + e.getMessage());
+        }
+    }
+}
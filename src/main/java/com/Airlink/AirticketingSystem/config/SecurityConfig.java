@@ -1,10 +1,14 @@
 package com.Airlink.AirticketingSystem.config;
 
+import com.Airlink.AirticketingSystem.security.BCryptStrengthCalibrator;
+import com.Airlink.AirticketingSystem.security.BoundedPasswordEncoder;
 import com.Airlink.AirticketingSystem.security.CustomUserDetailsService;
 import com.Airlink.AirticketingSystem.security.JwtAccessDeniedHandler;
 import com.Airlink.AirticketingSystem.security.JwtAuthenticationEntryPoint;
 import com.Airlink.AirticketingSystem.security.JwtAuthenticationFilter;
+import io.micrometer.core.instrument.MeterRegistry;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.http.HttpMethod;
@@ -41,16 +45,35 @@ public class SecurityConfig {
     @Autowired
     private JwtAuthenticationFilter jwtAuthenticationFilter;
 
+    // Never below the BCrypt default of 10
+    private static final int MIN_BCRYPT_STRENGTH = 10;
+    private static final int MAX_BCRYPT_STRENGTH = 16;
+
     @Bean
-    public PasswordEncoder passwordEncoder() {
-        return new BCryptPasswordEncoder();
+    public PasswordEncoder passwordEncoder(MeterRegistry meterRegistry,
+                                           @Value("${auth.password.bcrypt-strength:0}") int strength,
+                                           @Value("${auth.password.target-hash-ms:250}") long targetHashMs,
+                                           @Value("${auth.password.hash-threads:0}") int threads,
+                                           @Value("${auth.password.queue-capacity:64}") int queueCapacity,
+                                           @Value("${auth.password.retry-after-seconds:1}") long retryAfterSeconds) {
+        if (strength <= 0) {
+            strength = BCryptStrengthCalibrator.calibrate(targetHashMs, MIN_BCRYPT_STRENGTH, MAX_BCRYPT_STRENGTH);
+        }
+        if (threads <= 0) {
+            // Leave half of the cores to the rest of the application
+            threads = Math.max(1, Runtime.getRuntime().availableProcessors() / 2);
+        }
+        return new BoundedPasswordEncoder(new BCryptPasswordEncoder(strength), threads, queueCapacity,
+                retryAfterSeconds, meterRegistry);
     }
 
     @Bean
-    public DaoAuthenticationProvider authenticationProvider() {
+    public DaoAuthenticationProvider authenticationProvider(PasswordEncoder passwordEncoder) {
         DaoAuthenticationProvider authProvider = new DaoAuthenticationProvider();
         authProvider.setUserDetailsService(userDetailsService);
-        authProvider.setPasswordEncoder(passwordEncoder());
+        authProvider.setPasswordEncoder(passwordEncoder);
+        // Rehashes the password on login when it was hashed with a lower strength
+        authProvider.setUserDetailsPasswordService(userDetailsService);
         return authProvider;
     }
 
@@ -75,7 +98,7 @@ public class SecurityConfig {
     }
 
     @Bean
-    public SecurityFilterChain filterChain(HttpSecurity http) throws Exception {
+    public SecurityFilterChain filterChain(HttpSecurity http, DaoAuthenticationProvider authenticationProvider) throws Exception {
         http.cors(cors -> cors.configurationSource(corsConfigurationSource()))
                 .csrf(csrf -> csrf.disable())
                 .exceptionHandling(exception -> exception
@@ -87,10 +110,15 @@ public class SecurityConfig {
                         // Public endpoints
                         .requestMatchers("/api/auth/**").permitAll()
                         .requestMatchers("/api/flights/search**").permitAll()
+                        .requestMatchers(HttpMethod.GET, "/api/flights/availability").permitAll()
+                        .requestMatchers("/actuator/health").permitAll()
                         .requestMatchers("/api/airports/**").permitAll()
                         .requestMatchers("/api/locations/**").permitAll()
                         .requestMatchers("/swagger-ui/**", "/api-docs/**", "/v3/api-docs/**").permitAll()
 
+                        // Keyset exports of every booking and payment
+                        .requestMatchers(HttpMethod.GET, "/api/bookings/scroll", "/api/payments/scroll").hasAnyRole("AGENT", "ADMIN")
+
                         // Customer endpoints
                         .requestMatchers(HttpMethod.GET, "/api/bookings/**").authenticated()
                         .requestMatchers(HttpMethod.POST, "/api/bookings").authenticated()
@@ -107,6 +135,7 @@ public class SecurityConfig {
                         // Admin only endpoints
                         .requestMatchers(HttpMethod.DELETE, "/api/flights/**").hasRole("ADMIN")
                         .requestMatchers("/api/users/**").hasRole("ADMIN")
+                        .requestMatchers("/actuator/**").hasRole("ADMIN")
                         .requestMatchers(HttpMethod.POST, "/api/airports").hasRole("ADMIN")
                         .requestMatchers(HttpMethod.PUT, "/api/airports/**").hasRole("ADMIN")
                         .requestMatchers(HttpMethod.DELETE, "/api/airports/**").hasRole("ADMIN")
@@ -114,7 +143,7 @@ public class SecurityConfig {
                         // Any other request must be authenticated
                         .anyRequest().authenticated()
                 )
-                .authenticationProvider(authenticationProvider())
+                .authenticationProvider(authenticationProvider)
                 .addFilterBefore(jwtAuthenticationFilter, UsernamePasswordAuthenticationFilter.class);
 
         return http.build();
@@ -93,8 +93,9 @@ public class AirportController {
     public ResponseEntity<List<AirportResponseDTO>> getNearestAirports(
             @RequestParam double latitude,
             @RequestParam double longitude,
-            @RequestParam(defaultValue = "100") double radiusKm) {
-        List<AirportResponseDTO> airports = airportService.getNearestAirports(latitude, longitude, radiusKm);
+            @RequestParam(required = false) Double radiusKm,
+            @RequestParam(required = false) Integer limit) {
+        List<AirportResponseDTO> airports = airportService.getNearestAirports(latitude, longitude, radiusKm, limit);
         return ResponseEntity.ok(airports);
     }
 
@@ -1,6 +1,7 @@
 package com.Airlink.AirticketingSystem.controller;
 
 import com.Airlink.AirticketingSystem.dto.BookingRequestDTO;
+import com.Airlink.AirticketingSystem.dto.CursorPage;
 import com.Airlink.AirticketingSystem.dto.BookingResponseDTO;
 import com.Airlink.AirticketingSystem.service.BookingService;
 import jakarta.validation.Valid;
@@ -46,6 +47,15 @@ public class BookingController {
         return ResponseEntity.ok(bookings);
     }
 
+    // Keyset pagination for long walks (exports); no total count, follow nextCursor until it is null
+    @GetMapping("/scroll")
+    public ResponseEntity<CursorPage<BookingResponseDTO>> scrollBookings(
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "50") int size) {
+        CursorPage<BookingResponseDTO> bookings = bookingService.scrollBookings(cursor, size);
+        return ResponseEntity.ok(bookings);
+    }
+
     @GetMapping("/user/{userId}")
     public ResponseEntity<Page<BookingResponseDTO>> getBookingsByUser(
             @PathVariable Long userId,
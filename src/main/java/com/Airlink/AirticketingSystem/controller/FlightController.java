@@ -1,7 +1,12 @@
 package com.Airlink.AirticketingSystem.controller;
 
 import com.Airlink.AirticketingSystem.dto.FlightRequestDTO;
+import com.Airlink.AirticketingSystem.dto.CursorPage;
+import com.Airlink.AirticketingSystem.dto.FlightAvailabilityDTO;
 import com.Airlink.AirticketingSystem.dto.FlightResponseDTO;
+import com.Airlink.AirticketingSystem.dto.FlightSearchCriteria;
+import com.Airlink.AirticketingSystem.model.enums.FlightStatus;
+import com.Airlink.AirticketingSystem.model.enums.FlightType;
 import com.Airlink.AirticketingSystem.service.FlightService;
 import jakarta.validation.Valid;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -13,7 +18,9 @@ import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
+import java.time.LocalDate;
 import java.time.LocalDateTime;
+import java.util.List;
 
 @RestController
 @RequestMapping("/api/flights")
@@ -48,8 +55,20 @@ public class FlightController {
         return ResponseEntity.ok(flights);
     }
 
+    // Keyset pagination for long walks (exports); no total count, follow nextCursor until it is null
+    @GetMapping("/scroll")
+    public ResponseEntity<CursorPage<FlightResponseDTO>> scrollFlights(
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "50") int size) {
+        CursorPage<FlightResponseDTO> flights = flightService.scrollFlights(cursor, size);
+        return ResponseEntity.ok(flights);
+    }
+
     @GetMapping("/search")
     public ResponseEntity<Page<FlightResponseDTO>> searchFlights(
+            @RequestParam(required = false) String query,
+            @RequestParam(required = false) FlightType flightType,
+            @RequestParam(required = false) FlightStatus status,
             @RequestParam(required = false) Long originId,
             @RequestParam(required = false) Long destinationId,
             @RequestParam(required = false) String departureDate,
@@ -62,21 +81,35 @@ public class FlightController {
         Sort sort = sortDir.equalsIgnoreCase("DESC") ? Sort.by(sortBy).descending() : Sort.by(sortBy).ascending();
         Pageable pageable = PageRequest.of(page, size, sort);
         
-        LocalDateTime departureDateTime = null;
+        FlightSearchCriteria criteria = FlightSearchCriteria.builder()
+            .query(query)
+            .flightType(flightType)
+            .status(status)
+            .originId(originId)
+            .destinationId(destinationId)
+            // Ensure passenger count is at least 1
+            .passengerCount(Math.max(1, passengerCount))
+            .build();
+        
+        // Flights departing on the given day
         if (departureDate != null && !departureDate.isEmpty()) {
-            departureDateTime = LocalDateTime.parse(departureDate);
+            LocalDateTime startOfDay = LocalDateTime.parse(departureDate).toLocalDate().atStartOfDay();
+            criteria.setDepartureFrom(startOfDay);
+            criteria.setDepartureTo(startOfDay.plusDays(1));
         }
         
-        // Ensure passenger count is at least 1
-        passengerCount = Math.max(1, passengerCount);
-        
-        Page<FlightResponseDTO> flights = flightService.searchFlights(
-            originId, 
-            destinationId, 
-            departureDateTime, 
-            passengerCount,
-            pageable
-        );
+        Page<FlightResponseDTO> flights = flightService.searchFlights(criteria, pageable);
+        return ResponseEntity.ok(flights);
+    }
+
+    @GetMapping("/availability")
+    public ResponseEntity<List<FlightAvailabilityDTO>> getRouteAvailability(
+            @RequestParam FlightType flightType,
+            @RequestParam Long originId,
+            @RequestParam Long destinationId,
+            @RequestParam String date) {
+        List<FlightAvailabilityDTO> flights = flightService.getRouteAvailability(
+            flightType, originId, destinationId, LocalDate.parse(date));
         return ResponseEntity.ok(flights);
     }
 
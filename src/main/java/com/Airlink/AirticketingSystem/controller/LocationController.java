@@ -66,6 +66,14 @@ public class LocationController {
         return ResponseEntity.ok(locations);
     }
 
+    @GetMapping("/{id}/descendants")
+    public ResponseEntity<List<LocationResponseDTO>> getDescendantLocations(
+            @PathVariable Long id,
+            @RequestParam(required = false) LocationType type) {
+        List<LocationResponseDTO> locations = locationService.getDescendantLocations(id, type);
+        return ResponseEntity.ok(locations);
+    }
+
     @GetMapping("/{id}/hierarchy")
     public ResponseEntity<LocationResponseDTO> getLocationHierarchy(@PathVariable Long id) {
         LocationResponseDTO location = locationService.getLocationHierarchy(id);
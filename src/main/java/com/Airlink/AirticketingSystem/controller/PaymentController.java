@@ -1,6 +1,7 @@
 package com.Airlink.AirticketingSystem.controller;
 
 import com.Airlink.AirticketingSystem.dto.PaymentRequestDTO;
+import com.Airlink.AirticketingSystem.dto.CursorPage;
 import com.Airlink.AirticketingSystem.dto.PaymentResponseDTO;
 import com.Airlink.AirticketingSystem.model.enums.PaymentStatus;
 import com.Airlink.AirticketingSystem.service.PaymentService;
@@ -52,6 +53,15 @@ public class PaymentController {
         return ResponseEntity.ok(payments);
     }
 
+    // Keyset pagination for long walks (exports); no total count, follow nextCursor until it is null
+    @GetMapping("/scroll")
+    public ResponseEntity<CursorPage<PaymentResponseDTO>> scrollPayments(
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "50") int size) {
+        CursorPage<PaymentResponseDTO> payments = paymentService.scrollPayments(cursor, size);
+        return ResponseEntity.ok(payments);
+    }
+
     @GetMapping("/status/{status}")
     public ResponseEntity<Page<PaymentResponseDTO>> getPaymentsByStatus(
             @PathVariable PaymentStatus status,
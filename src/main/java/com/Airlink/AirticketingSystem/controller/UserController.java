@@ -1,6 +1,7 @@
 package com.Airlink.AirticketingSystem.controller;
 
 import com.Airlink.AirticketingSystem.dto.UserRequestDTO;
+import com.Airlink.AirticketingSystem.dto.CursorPage;
 import com.Airlink.AirticketingSystem.dto.UserResponseDTO;
 import com.Airlink.AirticketingSystem.model.enums.UserRole;
 import com.Airlink.AirticketingSystem.service.UserService;
@@ -54,6 +55,15 @@ public class UserController {
         return ResponseEntity.ok(users);
     }
 
+    // Keyset pagination for long walks (exports); no total count, follow nextCursor until it is null
+    @GetMapping("/scroll")
+    public ResponseEntity<CursorPage<UserResponseDTO>> scrollUsers(
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "50") int size) {
+        CursorPage<UserResponseDTO> users = userService.scrollUsers(cursor, size);
+        return ResponseEntity.ok(users);
+    }
+
     @GetMapping("/role/{role}")
     public ResponseEntity<Page<UserResponseDTO>> getUsersByRole(
             @PathVariable UserRole role,
@@ -74,6 +84,16 @@ public class UserController {
         return ResponseEntity.ok(users);
     }
 
+    @GetMapping("/location/{locationId}/subtree")
+    public ResponseEntity<Page<UserResponseDTO>> getUsersInLocationSubtree(
+            @PathVariable Long locationId,
+            @RequestParam(defaultValue = "0") int page,
+            @RequestParam(defaultValue = "10") int size) {
+        Pageable pageable = PageRequest.of(page, size);
+        Page<UserResponseDTO> users = userService.getUsersInLocationSubtree(locationId, pageable);
+        return ResponseEntity.ok(users);
+    }
+
     @GetMapping("/email-check/{email}")
     public ResponseEntity<Boolean> checkEmailExists(@PathVariable String email) {
         boolean exists = userService.existsByEmail(email);
@@ -31,6 +31,9 @@ public class AirportResponseDTO {
     private LocalDateTime createdAt;
     private LocalDateTime updatedAt;
     
+    // Distance from the requested point (nearby airport lookups only)
+    private Double distanceKm;
+    
     // Flight counts
     private Integer departingFlightsCount;
     private Integer arrivingFlightsCount;
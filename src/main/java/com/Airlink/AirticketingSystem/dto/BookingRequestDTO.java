@@ -1,5 +1,6 @@
 package com.Airlink.AirticketingSystem.dto;
 
+import com.Airlink.AirticketingSystem.model.enums.FareClass;
 import jakarta.validation.constraints.NotNull;
 import java.util.List;
 
@@ -13,6 +14,8 @@ public class BookingRequestDTO {
     @NotNull(message = "Total amount is required")
     private Double totalAmount;
 
+    private FareClass fareClass;
+
     private List<PassengerRequestDTO> passengers;
 
     // Getters and Setters
@@ -25,6 +28,9 @@ public class BookingRequestDTO {
     public Double getTotalAmount() { return totalAmount; }
     public void setTotalAmount(Double totalAmount) { this.totalAmount = totalAmount; }
 
+    public FareClass getFareClass() { return fareClass; }
+    public void setFareClass(FareClass fareClass) { this.fareClass = fareClass; }
+
     public List<PassengerRequestDTO> getPassengers() { return passengers; }
     public void setPassengers(List<PassengerRequestDTO> passengers) { this.passengers = passengers; }
 }
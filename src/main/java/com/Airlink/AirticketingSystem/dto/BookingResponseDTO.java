@@ -1,5 +1,6 @@
 package com.Airlink.AirticketingSystem.dto;
 
+import com.Airlink.AirticketingSystem.model.enums.FareClass;
 import java.time.LocalDateTime;
 import java.util.List;
 
@@ -11,6 +12,7 @@ public class BookingResponseDTO {
     private UserResponseDTO user;
     private Double totalAmount;
     private String status;
+    private FareClass fareClass;
     private List<PassengerResponseDTO> passengers;
     private PaymentResponseDTO payment;
 
@@ -38,6 +40,9 @@ public class BookingResponseDTO {
     public String getStatus() { return status; }
     public void setStatus(String status) { this.status = status; }
 
+    public FareClass getFareClass() { return fareClass; }
+    public void setFareClass(FareClass fareClass) { this.fareClass = fareClass; }
+
     public List<PassengerResponseDTO> getPassengers() { return passengers; }
     public void setPassengers(List<PassengerResponseDTO> passengers) { this.passengers = passengers; }
 
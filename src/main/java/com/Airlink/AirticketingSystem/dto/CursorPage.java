@@ -0,0 +1,72 @@
+package com.Airlink.AirticketingSystem.dto;
+
+import com.Airlink.AirticketingSystem.exception.BadRequestException;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.List;
+
+/**
+ * One slice of a keyset-paginated listing. Unlike {@link org.springframework.data.domain.Page}
+ * it has no total count, so fetching it never runs a COUNT query nor skips rows with an OFFSET.
+ * Pass {@code nextCursor} back to get the following slice; it is null on the last one.
+ */
+public class CursorPage<T> {
+    public static final int MAX_SIZE = 1000;
+
+    private static final String SEPARATOR = "|";
+
+    private final List<T> content;
+    private final String nextCursor;
+
+    public CursorPage(List<T> content, String nextCursor) {
+        this.content = content;
+        this.nextCursor = nextCursor;
+    }
+
+    public List<T> getContent() { return content; }
+    public String getNextCursor() { return nextCursor; }
+    public int getSize() { return content.size(); }
+    public boolean isLast() { return nextCursor == null; }
+
+    public static int clampSize(int size) {
+        return Math.max(1, Math.min(size, MAX_SIZE));
+    }
+
+    // Opaque token holding the sort key values of the last row of a slice
+    public static String encodeCursor(Object... keys) {
+        StringBuilder cursor = new StringBuilder();
+        for (Object key : keys) {
+            if (cursor.length() > 0) {
+                cursor.append(SEPARATOR);
+            }
+            cursor.append(key);
+        }
+        return Base64.getUrlEncoder().withoutPadding()
+                .encodeToString(cursor.toString().getBytes(StandardCharsets.UTF_8));
+    }
+
+    public static String[] decodeCursor(String cursor, int keyCount) {
+        try {
+            String[] keys = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8)
+                    .split("\\" + SEPARATOR, -1);
+            if (keys.length == keyCount) {
+                return keys;
+            }
+        } catch (IllegalArgumentException e) {
+            // Not base64, reported below
+        }
+        throw new BadRequestException("Invalid cursor");
+    }
+
+    public static long decodeIdCursor(String cursor) {
+        if (cursor == null || cursor.isEmpty()) {
+            return 0L;
+        }
+        try {
+            return Long.parseLong(decodeCursor(cursor, 1)[0]);
+        } catch (NumberFormatException e) {
+            throw new BadRequestException("Invalid cursor");
+        }
+    }
+}
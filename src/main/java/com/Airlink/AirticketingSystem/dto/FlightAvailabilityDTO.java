@@ -0,0 +1,48 @@
+package com.Airlink.AirticketingSystem.dto;
+
+import com.Airlink.AirticketingSystem.model.enums.FareClass;
+import java.time.LocalDateTime;
+import java.util.EnumMap;
+import java.util.Map;
+
+public class FlightAvailabilityDTO {
+    private Long flightId;
+    private String flightNumber;
+    private String airline;
+    private LocalDateTime departureTime;
+    private LocalDateTime arrivalTime;
+    private Double price;
+    private int availableSeats;
+    private Map<FareClass, Double> fareClassPrices = new EnumMap<>(FareClass.class);
+    private Map<FareClass, Integer> availableSeatsPerClass = new EnumMap<>(FareClass.class);
+
+    public FlightAvailabilityDTO() {}
+
+    // Getters and Setters
+    public Long getFlightId() { return flightId; }
+    public void setFlightId(Long flightId) { this.flightId = flightId; }
+
+    public String getFlightNumber() { return flightNumber; }
+    public void setFlightNumber(String flightNumber) { this.flightNumber = flightNumber; }
+
+    public String getAirline() { return airline; }
+    public void setAirline(String airline) { this.airline = airline; }
+
+    public LocalDateTime getDepartureTime() { return departureTime; }
+    public void setDepartureTime(LocalDateTime departureTime) { this.departureTime = departureTime; }
+
+    public LocalDateTime getArrivalTime() { return arrivalTime; }
+    public void setArrivalTime(LocalDateTime arrivalTime) { this.arrivalTime = arrivalTime; }
+
+    public Double getPrice() { return price; }
+    public void setPrice(Double price) { this.price = price; }
+
+    public int getAvailableSeats() { return availableSeats; }
+    public void setAvailableSeats(int availableSeats) { this.availableSeats = availableSeats; }
+
+    public Map<FareClass, Double> getFareClassPrices() { return fareClassPrices; }
+    public void setFareClassPrices(Map<FareClass, Double> fareClassPrices) { this.fareClassPrices = fareClassPrices; }
+
+    public Map<FareClass, Integer> getAvailableSeatsPerClass() { return availableSeatsPerClass; }
+    public void setAvailableSeatsPerClass(Map<FareClass, Integer> availableSeatsPerClass) { this.availableSeatsPerClass = availableSeatsPerClass; }
+}
@@ -41,6 +41,8 @@ public class FlightResponseDTO {
     
     private Map<FareClass, Double> fareClassPrices = new EnumMap<>(FareClass.class);
     private Map<FareClass, Integer> availableSeatsPerClass = new EnumMap<>(FareClass.class);
+    // Current prices for the requested number of passengers (search results only)
+    private Map<FareClass, Double> dynamicFareClassPrices = new EnumMap<>(FareClass.class);
 
     public FlightResponseDTO() {}
 
@@ -143,4 +145,12 @@ public class FlightResponseDTO {
     public void setAvailableSeatsPerClass(Map<FareClass, Integer> availableSeatsPerClass) {
         this.availableSeatsPerClass = availableSeatsPerClass != null ? new EnumMap<>(availableSeatsPerClass) : new EnumMap<>(FareClass.class);
     }
+    
+    public Map<FareClass, Double> getDynamicFareClassPrices() {
+        return dynamicFareClassPrices;
+    }
+    
+    public void setDynamicFareClassPrices(Map<FareClass, Double> dynamicFareClassPrices) {
+        this.dynamicFareClassPrices = dynamicFareClassPrices != null ? new EnumMap<>(dynamicFareClassPrices) : new EnumMap<>(FareClass.class);
+    }
 }
@@ -0,0 +1,33 @@
+package com.Airlink.AirticketingSystem.dto;
+
+import com.Airlink.AirticketingSystem.model.enums.FlightStatus;
+import com.Airlink.AirticketingSystem.model.enums.FlightType;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * Optional filters for a flight search; null fields are not applied.
+ * Origin and destination ids are location ids for domestic flights and airport ids
+ * for international ones (either, when no flight type is given).
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class FlightSearchCriteria {
+    private String query;
+    private FlightType flightType;
+    private FlightStatus status;
+    private Long originId;
+    private Long destinationId;
+
+    // Departure time range, start inclusive and end exclusive
+    private LocalDateTime departureFrom;
+    private LocalDateTime departureTo;
+
+    private Integer passengerCount;
+}
@@ -1,11 +1,15 @@
 package com.Airlink.AirticketingSystem.model;
 
+import java.time.Instant;
 import java.util.List;
 import jakarta.persistence.*;
 import com.Airlink.AirticketingSystem.model.enums.AirportType;
 
 @Entity
-@Table(name = "airports")
+@Table(name = "airports", indexes = {
+    // Bounding-box prefilter of nearby airport lookups
+    @Index(name = "idx_airports_lat_lon", columnList = "latitude, longitude")
+})
 public class Airport {
 
     @Id
@@ -41,6 +45,21 @@ public class Airport {
     @Column(length = 50)
     private String timezone;  // e.g., "Africa/Kigali", "America/New_York"
 
+    // Flights from and to this airport. Only changed by the counter statements in AirportRepository,
+    // never by saving the entity, so an airport edit cannot overwrite a concurrent flight change
+    @Column(name = "departing_flights_count", columnDefinition = "integer default 0 not null",
+            insertable = false, updatable = false)
+    private int departingFlightsCount;
+
+    @Column(name = "arriving_flights_count", columnDefinition = "integer default 0 not null",
+            insertable = false, updatable = false)
+    private int arrivingFlightsCount;
+
+    // Set on every insert and update of the entity, so the airport catalog of each instance
+    // can tell the table changed (see AirportRepository.findCatalogFingerprint)
+    @Column(name = "updated_at")
+    private Instant updatedAt;
+
     // Relationships
     @OneToMany(mappedBy = "originAirport", fetch = FetchType.LAZY)
     private List<Flight> departingFlights;
@@ -173,6 +192,24 @@ public class Airport {
         this.arrivingFlights = arrivingFlights;
     }
 
+    public int getDepartingFlightsCount() {
+        return departingFlightsCount;
+    }
+
+    public int getArrivingFlightsCount() {
+        return arrivingFlightsCount;
+    }
+
+    public Instant getUpdatedAt() {
+        return updatedAt;
+    }
+
+    @PrePersist
+    @PreUpdate
+    void touch() {
+        updatedAt = Instant.now();
+    }
+
     // Helper methods
     @Override
     public String toString() {
@@ -10,20 +10,26 @@ import jakarta.persistence.FetchType;
 import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
+import jakarta.persistence.Index;
 import jakarta.persistence.JoinColumn;
 import jakarta.persistence.ManyToOne;
+import jakarta.persistence.SequenceGenerator;
 import jakarta.persistence.Table;
 import jakarta.persistence.OneToMany;
 import jakarta.persistence.OneToOne;
 import java.util.List;
 
 import com.Airlink.AirticketingSystem.model.enums.BookingStatus;
+import com.Airlink.AirticketingSystem.model.enums.FareClass;
 
 @Entity
-@Table(name = "bookings")
+@Table(name = "bookings", indexes = {
+    @Index(name = "idx_bookings_status", columnList = "status")
+})
 public class Booking {
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "bookings_seq")
+    @SequenceGenerator(name = "bookings_seq", sequenceName = "bookings_seq", allocationSize = 50)
     private Long id;
 
     @Column(name = "booking_code", unique = true)
@@ -50,6 +56,10 @@ public class Booking {
     @Enumerated(EnumType.STRING)
     private BookingStatus status;
 
+    @Enumerated(EnumType.STRING)
+    @Column(name = "fare_class")
+    private FareClass fareClass;
+
     public Long getId() {
         return id;
     }
@@ -106,6 +116,14 @@ public class Booking {
         this.status = status;
     }
 
+    public FareClass getFareClass() {
+        return fareClass;
+    }
+
+    public void setFareClass(FareClass fareClass) {
+        this.fareClass = fareClass;
+    }
+
     public List<Passenger> getPassengers() {
         return passengers;
     }
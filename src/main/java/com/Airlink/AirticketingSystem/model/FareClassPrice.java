@@ -9,7 +9,8 @@ import lombok.Data;
 @Data
 public class FareClassPrice {
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "fare_class_prices_seq")
+    @SequenceGenerator(name = "fare_class_prices_seq", sequenceName = "fare_class_prices_seq", allocationSize = 50)
     private Long id;
     
     @ManyToOne(fetch = FetchType.LAZY)
@@ -13,8 +13,10 @@ import jakarta.persistence.FetchType;
 import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
+import jakarta.persistence.Index;
 import jakarta.persistence.JoinColumn;
 import jakarta.persistence.ManyToOne;
+import jakarta.persistence.SequenceGenerator;
 import jakarta.persistence.OneToMany;
 import jakarta.persistence.Table;
 
@@ -23,10 +25,16 @@ import com.Airlink.AirticketingSystem.model.enums.FlightStatus;
 import com.Airlink.AirticketingSystem.model.enums.FlightType;
 
 @Entity
-@Table(name = "flights")
+@Table(name = "flights", indexes = {
+    @Index(name = "idx_flights_departure", columnList = "departure_time, id"),
+    @Index(name = "idx_flights_type_departure", columnList = "flight_type, departure_time"),
+    @Index(name = "idx_flights_airport_route", columnList = "origin_airport_id, destination_airport_id, departure_time"),
+    @Index(name = "idx_flights_location_route", columnList = "origin_location_id, destination_location_id, departure_time")
+})
 public class Flight {
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "flights_seq")
+    @SequenceGenerator(name = "flights_seq", sequenceName = "flights_seq", allocationSize = 50)
     private Long id;
 
     @Column(name = "flight_number", nullable = false, unique = true)
@@ -74,6 +82,10 @@ public class Flight {
     @Column(name = "available_seats", nullable = false)
     private int availableSeats;
 
+    // Lowercased origin/destination names and codes, written only by FlightRepository.refreshSearchText*
+    @Column(name = "search_text", columnDefinition = "text", insertable = false, updatable = false)
+    private String searchText;
+
     @OneToMany(mappedBy = "flight", cascade = CascadeType.ALL, orphanRemoval = true)
     private Set<FareClassPrice> fareClassPrices = new HashSet<>();
 
@@ -198,6 +210,10 @@ public class Flight {
         this.availableSeats = availableSeats;
     }
 
+    public String getSearchText() {
+        return searchText;
+    }
+
     public Set<FareClassPrice> getFareClassPrices() {
         return fareClassPrices;
     }
@@ -269,6 +285,7 @@ public class Flight {
     public void addFareClassPrice(FareClass fareClass, double price, int availableSeats) {
         FareClassPrice fareClassPrice = new FareClassPrice();
         fareClassPrice.setFareClass(fareClass);
+        fareClassPrice.setBasePrice(price);
         fareClassPrice.setCurrentPrice(price);
         fareClassPrice.setAvailableSeats(availableSeats);
         fareClassPrice.setFlight(this);
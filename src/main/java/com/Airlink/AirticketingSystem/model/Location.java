@@ -39,6 +39,11 @@ public class Location {
     @JoinColumn(name = "parent_id")
     private Location parent;
 
+    // Materialized path of ids from the root down to this location, e.g. "/1/12/140/";
+    // a subtree is every location whose path starts with the path of its root
+    @Column(name = "path")
+    private String path;
+
     // Rwanda Location fields
     @Column(name = "province_code")
     private Integer provinceCode;
@@ -112,6 +117,14 @@ public class Location {
         this.parent = parent;
     }
 
+    public String getPath() {
+        return path;
+    }
+
+    public void setPath(String path) {
+        this.path = path;
+    }
+
     public Integer getProvinceCode() {
         return provinceCode;
     }
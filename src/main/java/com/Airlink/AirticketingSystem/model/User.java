@@ -80,6 +80,9 @@ public class User {
 
     private Instant lockoutUntil;
 
+    // Access tokens issued before this instant are rejected (set on a role or password change)
+    private Instant tokensValidAfter;
+
     public Long getId() {
         return id;
     }
@@ -231,4 +234,12 @@ public class User {
     public void setLockoutUntil(Instant lockoutUntil) {
         this.lockoutUntil = lockoutUntil;
     }
+
+    public Instant getTokensValidAfter() {
+        return tokensValidAfter;
+    }
+
+    public void setTokensValidAfter(Instant tokensValidAfter) {
+        this.tokensValidAfter = tokensValidAfter;
+    }
 }
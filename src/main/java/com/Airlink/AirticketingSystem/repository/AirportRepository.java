@@ -2,9 +2,11 @@ package com.Airlink.AirticketingSystem.repository;
 
 import com.Airlink.AirticketingSystem.model.Airport;
 import com.Airlink.AirticketingSystem.model.enums.AirportType;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
@@ -14,6 +16,7 @@ import java.util.Optional;
 
 @Repository
 public interface AirportRepository extends JpaRepository<Airport, Long> {
+
     Optional<Airport> findByCode(String code);
     boolean existsByCode(String code);
     
@@ -29,19 +32,74 @@ public interface AirportRepository extends JpaRepository<Airport, Long> {
     // Filter by country
     Page<Airport> findByCountryIgnoreCase(String country, Pageable pageable);
     
-    // Find airports within a certain radius (in kilometers)
+    // Airports within a radius (in kilometers), closest first. Only rows inside the bounding box
+    // of the circle reach the distance formula, so the lat/lon index does most of the work
     @Query("SELECT a FROM Airport a WHERE " +
-           "6371 * acos(" +
-           "cos(radians(:latitude)) * cos(radians(a.latitude)) * " +
-           "cos(radians(a.longitude) - radians(:longitude)) + " +
-           "sin(radians(:latitude)) * sin(radians(a.latitude))" +
-           ") <= :radiusKm")
+           "a.latitude BETWEEN :minLatitude AND :maxLatitude AND " +
+           "a.longitude BETWEEN :minLongitude AND :maxLongitude AND " +
+           DISTANCE_KM + " <= :radiusKm " +
+           "ORDER BY " + DISTANCE_KM)
     List<Airport> findNearbyAirports(
             @Param("latitude") double latitude,
             @Param("longitude") double longitude,
-            @Param("radiusKm") double radiusKm
+            @Param("radiusKm") double radiusKm,
+            @Param("minLatitude") double minLatitude,
+            @Param("maxLatitude") double maxLatitude,
+            @Param("minLongitude") double minLongitude,
+            @Param("maxLongitude") double maxLongitude,
+            Limit limit
     );
+
+    // Coordinates of every located airport: [id, latitude, longitude]
+    @Query("SELECT a.id, a.latitude, a.longitude FROM Airport a " +
+           "WHERE a.latitude IS NOT NULL AND a.longitude IS NOT NULL")
+    List<Object[]> findCoordinates();
     
+    // Move the flight counters of an airport by the given amounts
+    @Modifying
+    @Query("UPDATE Airport a SET a.departingFlightsCount = a.departingFlightsCount + :departing, " +
+           "a.arrivingFlightsCount = a.arrivingFlightsCount + :arriving WHERE a.id = :id")
+    int adjustFlightCounts(@Param("id") Long id, @Param("departing") int departing, @Param("arriving") int arriving);
+
+    // [row count, last entity write] of the airports table: changes when an airport is created,
+    // edited or deleted, but not when only its flight counters move
+    @Query("SELECT COUNT(a), MAX(a.updatedAt) FROM Airport a")
+    List<Object[]> findCatalogFingerprint();
+    
+    // Flight counters of every airport: [id, departingFlightsCount, arrivingFlightsCount]
+    @Query("SELECT a.id, a.departingFlightsCount, a.arrivingFlightsCount FROM Airport a")
+    List<Object[]> findFlightCounts();
+
+    // Airports whose counters differ from a recount of the flights:
+    // [id, code, departing_flights_count, arriving_flights_count, departing recount, arriving recount]
+    @Query(value = "SELECT a.id, a.code, a.departing_flights_count, a.arriving_flights_count, r.departing, r.arriving " +
+                   "FROM airports a JOIN (" + FLIGHT_RECOUNT + ") r ON r.id = a.id " +
+                   "WHERE a.departing_flights_count <> r.departing OR a.arriving_flights_count <> r.arriving " +
+                   "ORDER BY a.id", nativeQuery = true)
+    List<Object[]> findFlightCountDrift();
+
+    // Set the counters that differ from a recount of the flights
+    @Modifying
+    @Query(value = "UPDATE airports a SET departing_flights_count = r.departing, arriving_flights_count = r.arriving " +
+                   "FROM (" + FLIGHT_RECOUNT + ") r " +
+                   "WHERE r.id = a.id AND (a.departing_flights_count <> r.departing OR a.arriving_flights_count <> r.arriving)",
+           nativeQuery = true)
+    int recountFlightCounts();
+
     // Check if airport with same name and city exists (for validation)
     boolean existsByNameAndCityIgnoreCase(String name, String city);
+    
+    // Great-circle distance in kilometers from (:latitude, :longitude) to an airport
+    String DISTANCE_KM = "6371 * acos(least(1.0, " +
+            "cos(radians(:latitude)) * cos(radians(a.latitude)) * " +
+            "cos(radians(a.longitude) - radians(:longitude)) + " +
+            "sin(radians(:latitude)) * sin(radians(a.latitude))))";
+    
+    // Flights from and to each airport: (id, departing, arriving)
+    String FLIGHT_RECOUNT = "SELECT ap.id, coalesce(dep.n, 0) AS departing, coalesce(arr.n, 0) AS arriving " +
+            "FROM airports ap " +
+            "LEFT JOIN (SELECT origin_airport_id AS id, count(*) AS n FROM flights " +
+            "WHERE origin_airport_id IS NOT NULL GROUP BY origin_airport_id) dep ON dep.id = ap.id " +
+            "LEFT JOIN (SELECT destination_airport_id AS id, count(*) AS n FROM flights " +
+            "WHERE destination_airport_id IS NOT NULL GROUP BY destination_airport_id) arr ON arr.id = ap.id";
 }
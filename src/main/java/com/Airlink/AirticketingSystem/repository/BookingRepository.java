@@ -1,15 +1,23 @@
 package com.Airlink.AirticketingSystem.repository;
 
 import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 
+import org.springframework.data.domain.Limit;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import com.Airlink.AirticketingSystem.model.Booking;
+import com.Airlink.AirticketingSystem.model.enums.BookingStatus;
+import com.Airlink.AirticketingSystem.model.enums.PaymentStatus;
 
 @Repository
 public interface BookingRepository extends JpaRepository<Booking, Long> {
@@ -22,6 +30,42 @@ public interface BookingRepository extends JpaRepository<Booking, Long> {
     @EntityGraph(attributePaths = {"payment", "flight", "user", "passengers"})
     Optional<Booking> findWithPaymentById(Long id);
     
-    @EntityGraph(attributePaths = {"payment", "flight", "user", "passengers"})
-    Optional<Booking> findWithPaymentByBookingCode(String bookingCode);
+    // Booking detail: the booking and its payment; flight, user and passengers are loaded by id
+    @EntityGraph(attributePaths = {"payment"})
+    Optional<Booking> findDetailById(Long id);
+    
+    @EntityGraph(attributePaths = {"payment"})
+    Optional<Booking> findDetailByBookingCode(String bookingCode);
+    
+    // Booking read model: a page of ids first, then the whole page with its graph in one query
+    @Query("SELECT b.id FROM Booking b")
+    Page<Long> findPageIds(Pageable pageable);
+    
+    @Query("SELECT b.id FROM Booking b WHERE b.user.id = :userId")
+    Page<Long> findPageIdsByUserId(@Param("userId") Long userId, Pageable pageable);
+    
+    @Query("SELECT b.id FROM Booking b WHERE b.flight.id = :flightId")
+    Page<Long> findPageIdsByFlightId(@Param("flightId") Long flightId, Pageable pageable);
+    
+    // Keyset pagination: ids after the last one of the previous slice
+    @Query("SELECT b.id FROM Booking b WHERE b.id > :afterId ORDER BY b.id")
+    List<Long> findIdsAfter(@Param("afterId") Long afterId, Limit limit);
+    
+    @EntityGraph(attributePaths = {"payment", "flight", "flight.originAirport", "flight.destinationAirport",
+            "flight.originLocation", "flight.destinationLocation", "user", "user.location", "passengers"})
+    List<Booking> findWithPaymentByIdIn(Collection<Long> ids);
+    
+    // [bookingId, bookingDate, paymentDate] of bookings in a given status, with the date of their payment
+    // if it is in the given payment status, else null (used to re-arm seat holds on startup)
+    @Query("SELECT b.id, b.bookingDate, p.paymentDate FROM Booking b " +
+           "LEFT JOIN b.payment p ON p.status = :paymentStatus WHERE b.status = :status")
+    List<Object[]> findHoldsByStatus(@Param("status") BookingStatus status,
+                                     @Param("paymentStatus") PaymentStatus paymentStatus);
+    
+    // Change the status only if nobody else changed it first; returns 0 when the booking moved on
+    @Modifying
+    @Query("UPDATE Booking b SET b.status = :status WHERE b.id = :id AND b.status = :expected")
+    int updateStatusIfCurrent(@Param("id") Long id,
+                              @Param("expected") BookingStatus expected,
+                              @Param("status") BookingStatus status);
 }
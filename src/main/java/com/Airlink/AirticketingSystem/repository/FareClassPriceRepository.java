@@ -0,0 +1,67 @@
+package com.Airlink.AirticketingSystem.repository;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import com.Airlink.AirticketingSystem.model.FareClassPrice;
+import com.Airlink.AirticketingSystem.model.enums.FareClass;
+
+@Repository
+public interface FareClassPriceRepository extends JpaRepository<FareClassPrice, Long> {
+
+    // Seat counters per fare class for flights that have not departed yet: [flightId, fareClass, availableSeats]
+    @Query("SELECT p.flight.id, p.fareClass, p.availableSeats FROM FareClassPrice p " +
+           "WHERE p.flight.departureTime > :now")
+    List<Object[]> findSeatSnapshotDepartingAfter(@Param("now") LocalDateTime now);
+
+    // Seat counters per fare class for a single flight: [fareClass, availableSeats]
+    @Query("SELECT p.fareClass, p.availableSeats FROM FareClassPrice p WHERE p.flight.id = :flightId")
+    List<Object[]> findSeatSnapshotByFlightId(@Param("flightId") Long flightId);
+
+    // Fares of a set of flights: [flightId, fareClass, basePrice, availableSeats]
+    @Query("SELECT p.flight.id, p.fareClass, p.basePrice, p.availableSeats FROM FareClassPrice p " +
+           "WHERE p.flight.id IN :flightIds")
+    List<Object[]> findFareRowsByFlightIds(@Param("flightIds") Collection<Long> flightIds);
+
+    // Fares of flights that have not departed, in id order after the given fare:
+    // [id, flightId, fareClass, basePrice, currentPrice, availableSeats, departureTime, totalCapacity]
+    @Query("SELECT p.id, f.id, p.fareClass, p.basePrice, p.currentPrice, p.availableSeats, f.departureTime, f.totalCapacity " +
+           "FROM FareClassPrice p JOIN p.flight f WHERE f.departureTime > :now AND p.id > :afterId ORDER BY p.id")
+    List<Object[]> findRepricingRowsAfter(@Param("now") LocalDateTime now, @Param("afterId") Long afterId, Limit limit);
+
+    // Same rows as findRepricingRowsAfter, for the given flights
+    @Query("SELECT p.id, f.id, p.fareClass, p.basePrice, p.currentPrice, p.availableSeats, f.departureTime, f.totalCapacity " +
+           "FROM FareClassPrice p JOIN p.flight f WHERE f.departureTime > :now AND f.id IN :flightIds")
+    List<Object[]> findRepricingRowsByFlightIds(@Param("now") LocalDateTime now, @Param("flightIds") Collection<Long> flightIds);
+
+    // Set current prices in one statement; rows already at their price are not written
+    @Modifying
+    @Query(value = "UPDATE fare_class_prices p SET current_price = v.price " +
+                   "FROM unnest(CAST(:ids AS bigint[]), CAST(:prices AS float8[])) AS v(id, price) " +
+                   "WHERE p.id = v.id AND p.current_price IS DISTINCT FROM v.price", nativeQuery = true)
+    int updateCurrentPrices(@Param("ids") Long[] ids, @Param("prices") Double[] prices);
+
+    // Take seats in a fare class only if enough are left; returns 0 when not offered or sold out
+    @Modifying
+    @Query("UPDATE FareClassPrice p SET p.availableSeats = p.availableSeats - :seats " +
+           "WHERE p.flight.id = :flightId AND p.fareClass = :fareClass AND p.availableSeats >= :seats")
+    int reserveSeats(@Param("flightId") Long flightId,
+                     @Param("fareClass") FareClass fareClass,
+                     @Param("seats") int seats);
+
+    // Give seats back to a fare class; returns 0 when the fare class is not offered
+    @Modifying
+    @Query("UPDATE FareClassPrice p SET p.availableSeats = p.availableSeats + :seats " +
+           "WHERE p.flight.id = :flightId AND p.fareClass = :fareClass")
+    int releaseSeats(@Param("flightId") Long flightId,
+                     @Param("fareClass") FareClass fareClass,
+                     @Param("seats") int seats);
+}
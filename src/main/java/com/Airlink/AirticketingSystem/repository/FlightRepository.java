@@ -3,19 +3,34 @@ package com.Airlink.AirticketingSystem.repository;
 import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Optional;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import com.Airlink.AirticketingSystem.model.Flight;
+import com.Airlink.AirticketingSystem.model.enums.BookingStatus;
 import com.Airlink.AirticketingSystem.model.enums.FlightStatus;
 import com.Airlink.AirticketingSystem.model.enums.FlightType;
 
 @Repository
-public interface FlightRepository extends JpaRepository<Flight, Long> {
+public interface FlightRepository extends JpaRepository<Flight, Long>, JpaSpecificationExecutor<Flight> {
+    
+    // Searchable text of a flight (alias f): location names and codes for domestic flights,
+    // airport names, codes, cities and countries otherwise. Fields are separated by '|'
+    // so a query never matches across two of them.
+    String SEARCH_TEXT = "lower(CASE WHEN f.flight_type = 'DOMESTIC' THEN concat_ws('|', " +
+           "(SELECT concat_ws('|', l.name, l.code) FROM locations l WHERE l.id = f.origin_location_id), " +
+           "(SELECT concat_ws('|', l.name, l.code) FROM locations l WHERE l.id = f.destination_location_id)) " +
+           "ELSE concat_ws('|', " +
+           "(SELECT concat_ws('|', a.name, a.code, a.city, a.country) FROM airports a WHERE a.id = f.origin_airport_id), " +
+           "(SELECT concat_ws('|', a.name, a.code, a.city, a.country) FROM airports a WHERE a.id = f.destination_airport_id)) END)";
+    
     
     @Query("SELECT DISTINCT f FROM Flight f " +
            "LEFT JOIN FETCH f.originLocation " +
@@ -79,36 +94,32 @@ public interface FlightRepository extends JpaRepository<Flight, Long> {
         Pageable pageable
     );
     
-    // =============================================
+    // Seats held by the bookings of a flight (alias f) that are not cancelled:
+    // one per passenger, at least one per booking
+    String BOOKED_SEATS = "(SELECT COALESCE(SUM(CASE WHEN size(b.passengers) > 1 THEN size(b.passengers) ELSE 1 END), 0) " +
+           "FROM Booking b WHERE b.flight = f AND b.status <> :cancelled)";
+    
+        // =============================================
     // Generic Search Methods
     // =============================================
     
-    // Search flights by query string (searches both domestic and international)
-    @Query("SELECT f FROM Flight f WHERE " +
-           "(f.flightType = 'DOMESTIC' AND " +
-           " (f.originLocation.name LIKE %:query% OR f.originLocation.code LIKE %:query% OR " +
-           "  f.destinationLocation.name LIKE %:query% OR f.destinationLocation.code LIKE %:query%)) " +
-           "OR " +
-           "(f.flightType = 'INTERNATIONAL' AND " +
-           " (f.originAirport.name LIKE %:query% OR f.originAirport.code LIKE %:query% OR " +
-           "  f.destinationAirport.name LIKE %:query% OR f.destinationAirport.code LIKE %:query% OR " +
-           "  f.originAirport.city LIKE %:query% OR f.destinationAirport.city LIKE %:query% OR " +
-           "  f.originAirport.country LIKE %:query% OR f.destinationAirport.country LIKE %:query%))")
-    Page<Flight> searchFlights(@Param("query") String query, Pageable pageable);
-    
-    // Search domestic flights by query string
-    @Query("SELECT f FROM Flight f WHERE f.flightType = 'DOMESTIC' AND " +
-           "(f.originLocation.name LIKE %:query% OR f.originLocation.code LIKE %:query% OR " +
-           "f.destinationLocation.name LIKE %:query% OR f.destinationLocation.code LIKE %:query%)")
-    Page<Flight> searchDomesticFlights(@Param("query") String query, Pageable pageable);
-    
-    // Search international flights by query string
-    @Query("SELECT f FROM Flight f WHERE f.flightType = 'INTERNATIONAL' AND " +
-           "(f.originAirport.name LIKE %:query% OR f.originAirport.code LIKE %:query% OR " +
-           "f.destinationAirport.name LIKE %:query% OR f.destinationAirport.code LIKE %:query% OR " +
-           "f.originAirport.city LIKE %:query% OR f.destinationAirport.city LIKE %:query% OR " +
-           "f.originAirport.country LIKE %:query% OR f.destinationAirport.country LIKE %:query%)")
-    Page<Flight> searchInternationalFlights(@Param("query") String query, Pageable pageable);
+    // Text, type, route, status and date searches are built from FlightSpecifications.
+    // search_text has a trigram GIN index, see FlightSearchIndexInitializer
+    
+    // Rebuild search_text after a flight or one of its airports/locations changed
+    @Modifying(flushAutomatically = true)
+    @Query(value = "UPDATE flights f SET search_text = " + SEARCH_TEXT + " WHERE f.id = :id", nativeQuery = true)
+    int refreshSearchText(@Param("id") Long id);
+    
+    @Modifying(flushAutomatically = true)
+    @Query(value = "UPDATE flights f SET search_text = " + SEARCH_TEXT +
+           " WHERE f.origin_airport_id = :airportId OR f.destination_airport_id = :airportId", nativeQuery = true)
+    int refreshSearchTextByAirportId(@Param("airportId") Long airportId);
+    
+    @Modifying(flushAutomatically = true)
+    @Query(value = "UPDATE flights f SET search_text = " + SEARCH_TEXT +
+           " WHERE f.origin_location_id = :locationId OR f.destination_location_id = :locationId", nativeQuery = true)
+    int refreshSearchTextByLocationId(@Param("locationId") Long locationId);
     
     // =============================================
     // Common Methods
@@ -133,4 +144,44 @@ public interface FlightRepository extends JpaRepository<Flight, Long> {
     
     // Find all flights ordered by departure time
     Page<Flight> findAllByOrderByDepartureTimeAsc(Pageable pageable);
+    
+    // Keyset pagination over (departureTime, id), see idx_flights_departure
+    @Query("SELECT f FROM Flight f ORDER BY f.departureTime, f.id")
+    List<Flight> findFirstByDeparture(Limit limit);
+    
+    @Query("SELECT f FROM Flight f WHERE f.departureTime > :departureTime " +
+           "OR (f.departureTime = :departureTime AND f.id > :id) ORDER BY f.departureTime, f.id")
+    List<Flight> findNextByDeparture(@Param("departureTime") LocalDateTime departureTime,
+                                     @Param("id") Long id,
+                                     Limit limit);
+    
+    // =============================================
+    // Seat Inventory
+    // =============================================
+    
+    // Seat counters for flights that have not departed yet: [flightId, availableSeats]
+    @Query("SELECT f.id, f.availableSeats FROM Flight f WHERE f.departureTime > :now")
+    List<Object[]> findSeatSnapshotDepartingAfter(@Param("now") LocalDateTime now);
+    
+    @Query("SELECT f.availableSeats FROM Flight f WHERE f.id = :id")
+    Optional<Integer> findAvailableSeatsById(@Param("id") Long id);
+    
+    // Lower the seats of upcoming flights that exceed what their bookings leave of the capacity,
+    // as after seat reservations were lost before being written; returns the number of flights lowered
+    @Modifying
+    @Query("UPDATE Flight f SET f.availableSeats = f.totalCapacity - " + BOOKED_SEATS +
+           " WHERE f.departureTime > :now AND f.availableSeats > f.totalCapacity - " + BOOKED_SEATS)
+    int capSeatsToBookings(@Param("now") LocalDateTime now, @Param("cancelled") BookingStatus cancelled);
+    
+    // Take seats only if enough are left; returns 0 when the flight is missing or sold out
+    @Modifying
+    @Query("UPDATE Flight f SET f.availableSeats = f.availableSeats - :seats " +
+           "WHERE f.id = :id AND f.availableSeats >= :seats")
+    int reserveSeats(@Param("id") Long id, @Param("seats") int seats);
+    
+    // Give seats back without exceeding capacity; returns 0 when the flight is missing or already full
+    @Modifying
+    @Query("UPDATE Flight f SET f.availableSeats = f.availableSeats + :seats " +
+           "WHERE f.id = :id AND f.availableSeats + :seats <= f.totalCapacity")
+    int releaseSeats(@Param("id") Long id, @Param("seats") int seats);
 }
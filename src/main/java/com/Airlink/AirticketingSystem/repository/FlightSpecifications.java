@@ -0,0 +1,100 @@
+package com.Airlink.AirticketingSystem.repository;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.springframework.data.jpa.domain.Specification;
+
+import com.Airlink.AirticketingSystem.dto.FlightSearchCriteria;
+import com.Airlink.AirticketingSystem.model.Flight;
+import com.Airlink.AirticketingSystem.model.enums.FlightStatus;
+import com.Airlink.AirticketingSystem.model.enums.FlightType;
+
+/**
+ * Composable filters for {@link FlightRepository#findAll(Specification, org.springframework.data.domain.Pageable)}.
+ * Route and departure filters line up with the composite indexes declared on {@link Flight}.
+ */
+public final class FlightSpecifications {
+
+    private FlightSpecifications() {
+    }
+
+    public static Specification<Flight> matching(FlightSearchCriteria criteria) {
+        List<Specification<Flight>> filters = new ArrayList<>();
+        if (criteria.getQuery() != null && !criteria.getQuery().trim().isEmpty()) {
+            filters.add(searchTextContains(criteria.getQuery()));
+        }
+        if (criteria.getFlightType() != null) {
+            filters.add(hasFlightType(criteria.getFlightType()));
+        }
+        if (criteria.getStatus() != null) {
+            filters.add(hasStatus(criteria.getStatus()));
+        }
+        if (criteria.getOriginId() != null) {
+            filters.add(departsFrom(criteria.getOriginId(), criteria.getFlightType()));
+        }
+        if (criteria.getDestinationId() != null) {
+            filters.add(arrivesAt(criteria.getDestinationId(), criteria.getFlightType()));
+        }
+        if (criteria.getDepartureFrom() != null || criteria.getDepartureTo() != null) {
+            filters.add(departsBetween(criteria.getDepartureFrom(), criteria.getDepartureTo()));
+        }
+        if (criteria.getPassengerCount() != null && criteria.getPassengerCount() > 1) {
+            filters.add(hasSeatsFor(criteria.getPassengerCount()));
+        }
+        return Specification.allOf(filters);
+    }
+
+    // Matches the trigram-indexed search text, see FlightRepository.SEARCH_TEXT
+    public static Specification<Flight> searchTextContains(String query) {
+        String pattern = "%" + query.trim().toLowerCase() + "%";
+        return (root, cq, cb) -> cb.like(root.get("searchText"), pattern);
+    }
+
+    public static Specification<Flight> hasFlightType(FlightType flightType) {
+        return (root, cq, cb) -> cb.equal(root.get("flightType"), flightType);
+    }
+
+    public static Specification<Flight> hasStatus(FlightStatus status) {
+        return (root, cq, cb) -> cb.equal(root.get("status"), status);
+    }
+
+    public static Specification<Flight> departsFrom(Long originId, FlightType flightType) {
+        return endpoint("originLocation", "originAirport", originId, flightType);
+    }
+
+    public static Specification<Flight> arrivesAt(Long destinationId, FlightType flightType) {
+        return endpoint("destinationLocation", "destinationAirport", destinationId, flightType);
+    }
+
+    public static Specification<Flight> departsBetween(LocalDateTime from, LocalDateTime to) {
+        return (root, cq, cb) -> {
+            if (from != null && to != null) {
+                return cb.and(cb.greaterThanOrEqualTo(root.get("departureTime"), from),
+                        cb.lessThan(root.get("departureTime"), to));
+            }
+            return from != null
+                    ? cb.greaterThanOrEqualTo(root.get("departureTime"), from)
+                    : cb.lessThan(root.get("departureTime"), to);
+        };
+    }
+
+    // Stored seats: callers recheck the flights found against the live seat counters
+    public static Specification<Flight> hasSeatsFor(int passengerCount) {
+        return (root, cq, cb) -> cb.greaterThanOrEqualTo(root.get("availableSeats"), passengerCount);
+    }
+
+    // Compares the foreign key columns directly, without joining locations or airports
+    private static Specification<Flight> endpoint(String location, String airport, Long id, FlightType flightType) {
+        return (root, cq, cb) -> {
+            if (flightType == FlightType.DOMESTIC) {
+                return cb.equal(root.get(location).get("id"), id);
+            }
+            if (flightType == FlightType.INTERNATIONAL) {
+                return cb.equal(root.get(airport).get("id"), id);
+            }
+            return cb.or(cb.equal(root.get(location).get("id"), id), cb.equal(root.get(airport).get("id"), id));
+        };
+    }
+}
@@ -5,6 +5,9 @@ import java.util.List;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import com.Airlink.AirticketingSystem.model.Location;
@@ -24,4 +27,33 @@ public interface LocationRepository extends JpaRepository<Location, Long> {
     List<Location> findByNameContainingIgnoreCase(String name);
     List<Location> findByNameAndType(String name, LocationType type);
     List<Location> findByCodeAndType(String code, LocationType type);
+    
+    // Every location as [id, parentId, name, code, type, provinceName, districtName, sectorName, cellName, villageName]
+    @Query("SELECT l.id, p.id, l.name, l.code, l.type, " +
+           "l.provinceName, l.districtName, l.sectorName, l.cellName, l.villageName " +
+           "FROM Location l LEFT JOIN l.parent p ORDER BY l.id")
+    List<Object[]> findTreeRows();
+    
+    // Move a subtree: rewrite the start of every path under oldPath (see Location.path)
+    @Modifying(flushAutomatically = true)
+    @Query("UPDATE Location l SET l.path = CONCAT(:newPath, SUBSTRING(l.path, :oldPathLength + 1)) " +
+           "WHERE l.path LIKE CONCAT(:oldPath, '%')")
+    int moveSubtree(@Param("oldPath") String oldPath,
+                    @Param("oldPathLength") int oldPathLength,
+                    @Param("newPath") String newPath);
+    
+    // Copy the names of its ancestors into the province/district/sector/cell/village name columns
+    // of every location in a subtree; ancestors are found by the ids in the path
+    @Modifying(flushAutomatically = true)
+    @Query(value = "UPDATE locations d SET " +
+           "province_name = (" + ANCESTOR_NAME + " AND a.type = 'PROVINCE' LIMIT 1), " +
+           "district_name = (" + ANCESTOR_NAME + " AND a.type = 'DISTRICT' LIMIT 1), " +
+           "sector_name = (" + ANCESTOR_NAME + " AND a.type = 'SECTOR' LIMIT 1), " +
+           "cell_name = (" + ANCESTOR_NAME + " AND a.type = 'CELL' LIMIT 1), " +
+           "village_name = (" + ANCESTOR_NAME + " AND a.type = 'VILLAGE' LIMIT 1) " +
+           "WHERE d.path LIKE :path || '%'", nativeQuery = true)
+    int refreshHierarchyNames(@Param("path") String path);
+    
+    String ANCESTOR_NAME = "SELECT a.name FROM locations a " +
+            "WHERE a.id = ANY (string_to_array(trim(BOTH '/' FROM d.path), '/')::bigint[])";
 }
@@ -3,6 +3,7 @@ package com.Airlink.AirticketingSystem.repository;
 import java.util.List;
 import java.util.Optional;
 
+import org.springframework.data.domain.Limit;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
@@ -46,4 +47,8 @@ public interface PaymentRepository extends JpaRepository<Payment, Long> {
             }
         }
     }
+    
+    // Keyset pagination: the payments after the last one of the previous slice
+    @Query("SELECT p FROM Payment p WHERE p.id > :afterId ORDER BY p.id")
+    List<Payment> findAfter(@Param("afterId") Long afterId, Limit limit);
 }
@@ -7,19 +7,24 @@ import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.time.Instant;
 import java.util.Optional;
 
 @Repository
 public interface RefreshTokenRepository extends JpaRepository<RefreshToken, Long> {
-    Optional<RefreshToken> findByToken(String token);
+    Optional<RefreshToken> findByTokenHash(String tokenHash);
     
     void deleteByUser(User user);
     
-    int deleteByUserAndToken(User user, String token);
+    int deleteByUserAndTokenHash(User user, String tokenHash);
     
+    // Delete at most :limit expired tokens, oldest first, so each purge step holds few row locks
     @Modifying
-    @Query("DELETE FROM RefreshToken rt WHERE rt.expiryDate < :expiryDate")
-    void deleteByExpiryDateBefore(@Param("expiryDate") Instant expiryDate);
+    @Transactional
+    @Query(value = "DELETE FROM refresh_tokens WHERE id IN (" +
+                   "SELECT id FROM refresh_tokens WHERE expiry_date < :now ORDER BY expiry_date LIMIT :limit)",
+           nativeQuery = true)
+    int deleteExpiredChunk(@Param("now") Instant now, @Param("limit") int limit);
 }
@@ -1,14 +1,20 @@
 package com.Airlink.AirticketingSystem.repository;
 
+import java.time.Instant;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
+import org.springframework.data.domain.Limit;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
 import com.Airlink.AirticketingSystem.model.User;
 import com.Airlink.AirticketingSystem.model.enums.LocationType;
@@ -17,6 +23,9 @@ import com.Airlink.AirticketingSystem.model.enums.UserRole;
 @Repository
 public interface UserRepository extends JpaRepository<User, Long> {
     Optional<User> findByEmail(String email);
+    
+    @EntityGraph(attributePaths = {"location"})
+    Optional<User> findWithLocationById(Long id);
     boolean existsByEmail(String email);
     Page<User> findAllByRole(UserRole role, Pageable pageable);
     Page<User> findAllByLocation_Id(Long locationId, Pageable pageable);
@@ -27,11 +36,47 @@ public interface UserRepository extends JpaRepository<User, Long> {
     // Email verification query
     Optional<User> findByVerificationToken(String verificationToken);
     
-    // Custom query to find users by province code
-    @Query("SELECT u FROM User u WHERE u.location.type = :type AND u.location.code = :code")
-    Page<User> findByLocationTypeAndCode(@Param("type") LocationType type, @Param("code") String code, Pageable pageable);
+    // Users anywhere under a location, by the location's materialized path (see Location.path)
+    @Query("SELECT u FROM User u WHERE u.location.path LIKE CONCAT(:path, '%')")
+    Page<User> findInLocationSubtree(@Param("path") String path, Pageable pageable);
+    
+    // Users anywhere under the location(s) of a type with a given code, e.g. everyone in a province
+    @Query("SELECT u FROM User u, Location root WHERE root.type = :type AND root.code = :code " +
+           "AND u.location.path LIKE CONCAT(root.path, '%')")
+    Page<User> findInSubtreeOfLocationTypeAndCode(@Param("type") LocationType type, @Param("code") String code, Pageable pageable);
+    
+    // Same, for the location(s) of a type with a given name
+    @Query("SELECT u FROM User u, Location root WHERE root.type = :type AND root.name = :name " +
+           "AND u.location.path LIKE CONCAT(root.path, '%')")
+    Page<User> findInSubtreeOfLocationTypeAndName(@Param("type") LocationType type, @Param("name") String name, Pageable pageable);
+    
+    // Keyset pagination: the users after the last one of the previous slice
+    @Query("SELECT u FROM User u WHERE u.id > :afterId ORDER BY u.id")
+    List<User> findAfter(@Param("afterId") Long afterId, Limit limit);
+    
+    // Emails of disabled accounts, whose access tokens are revoked on startup
+    @Query("SELECT u.email FROM User u WHERE u.isActive = false")
+    List<String> findEmailsByIsActiveFalse();
+    
+    // [email, tokensValidAfter] of users whose access tokens were revoked after an instant
+    @Query("SELECT u.email, u.tokensValidAfter FROM User u WHERE u.tokensValidAfter > :since")
+    List<Object[]> findTokenRevocationsAfter(@Param("since") Instant since);
+    
+    // The emails among these that still belong to a user
+    @Query("SELECT u.email FROM User u WHERE u.email IN :emails")
+    List<String> findExistingEmails(@Param("emails") Collection<String> emails);
+    
+    // Failed-attempt counter and lockout written back by LoginAttemptService, without loading the user
+    @Modifying
+    @Transactional
+    @Query("UPDATE User u SET u.failedLoginAttempts = :failedAttempts, u.lockoutUntil = :lockoutUntil WHERE u.id = :id")
+    int updateLoginState(@Param("id") Long id,
+                         @Param("failedAttempts") int failedAttempts,
+                         @Param("lockoutUntil") Instant lockoutUntil);
     
-    // Custom query to find users by province name
-    @Query("SELECT u FROM User u WHERE u.location.type = :type AND u.location.name = :name")
-    Page<User> findByLocationTypeAndName(@Param("type") LocationType type, @Param("name") String name, Pageable pageable);
+    // Password rehashed on login with the current hashing strength
+    @Modifying
+    @Transactional
+    @Query("UPDATE User u SET u.password = :password WHERE u.email = :email")
+    int updatePassword(@Param("email") String email, @Param("password") String password);
 }
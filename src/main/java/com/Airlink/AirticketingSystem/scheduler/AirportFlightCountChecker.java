@@ -0,0 +1,57 @@
+package com.Airlink.AirticketingSystem.scheduler;
+
+import com.Airlink.AirticketingSystem.service.AirportCatalogService;
+import com.Airlink.AirticketingSystem.service.AirportFlightCountService;
+import com.Airlink.AirticketingSystem.service.AirportSpatialIndex;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+@Component
+public class AirportFlightCountChecker {
+
+    @Autowired
+    private AirportFlightCountService airportFlightCountService;
+
+    @Autowired
+    private AirportCatalogService airportCatalogService;
+
+    @Autowired
+    private AirportSpatialIndex airportSpatialIndex;
+
+    /**
+     * Recount the flights of every airport and report drifted counters
+     * Runs at startup (filling in counters of existing flights) and then every
+     * airports.flight-counts.check-interval-ms (default 1 hour)
+     */
+    @Scheduled(fixedDelayString = "${airports.flight-counts.check-interval-ms:3600000}")
+    public void checkFlightCounts() {
+        try {
+            airportFlightCountService.check();
+        } catch (Exception e) {
+            // Log the error but don't throw - the next run checks again
+            System.err.println("Error during airport flight count check: " + e.getMessage());
+            e.printStackTrace();
+        }
+    }
+
+    /**
+     * Reload the airport catalog if airports changed, and its flight counts, from the
+     * database, so airports and flights written on other instances show up here too
+     * Runs every airports.flight-counts.sync-interval-ms (default 1 minute)
+     */
+    @Scheduled(fixedDelayString = "${airports.flight-counts.sync-interval-ms:60000}",
+               initialDelayString = "${airports.flight-counts.sync-interval-ms:60000}")
+    public void syncFlightCounts() {
+        try {
+            if (airportCatalogService.refreshIfChanged()) {
+                airportSpatialIndex.invalidate();
+            }
+            airportFlightCountService.syncCatalog();
+        } catch (Exception e) {
+            // Log the error but don't throw - the next run syncs again
+            System.err.println("Error during airport flight count sync: " + e.getMessage());
+            e.printStackTrace();
+        }
+    }
+}
@@ -0,0 +1,43 @@
+package com.Airlink.AirticketingSystem.scheduler;
+
+import com.Airlink.AirticketingSystem.service.FareRepricingService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+@Component
+public class FareRepricingScheduler {
+
+    @Autowired
+    private FareRepricingService fareRepricingService;
+
+    /**
+     * Reprice the fares of all upcoming flights
+     * Runs every pricing.reprice.interval-ms (default 15 minutes), first one minute after startup
+     */
+    @Scheduled(fixedDelayString = "${pricing.reprice.interval-ms:900000}", initialDelay = 60000)
+    public void repriceAllFares() {
+        try {
+            fareRepricingService.repriceAll();
+        } catch (Exception e) {
+            // Log the error but don't throw - the next run starts over
+            System.err.println("Error during fare repricing: " + e.getMessage());
+            e.printStackTrace();
+        }
+    }
+
+    /**
+     * Reprice flights whose seats crossed a price step or whose fares were edited
+     * Runs every pricing.reprice.changed-interval-ms (default 1 second)
+     */
+    @Scheduled(fixedDelayString = "${pricing.reprice.changed-interval-ms:1000}")
+    public void repriceChangedFares() {
+        try {
+            fareRepricingService.repriceChanged();
+        } catch (Exception e) {
+            // Log the error but don't throw - the flights stay marked and are retried on the next run
+            System.err.println("Error during fare repricing of changed flights: " + e.getMessage());
+            e.printStackTrace();
+        }
+    }
+}
@@ -0,0 +1,39 @@
+package com.Airlink.AirticketingSystem.scheduler;
+
+import com.Airlink.AirticketingSystem.service.LoginAttemptService;
+import com.Airlink.AirticketingSystem.service.RefreshTokenBatcher;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+@Component
+public class LoginStateFlushScheduler {
+
+    @Autowired
+    private RefreshTokenBatcher refreshTokenBatcher;
+
+    @Autowired
+    private LoginAttemptService loginAttemptService;
+
+    /**
+     * Persist refresh tokens and failed-attempt counters kept in memory by logins
+     * Runs every auth.login.flush-interval-ms (default 200 ms)
+     */
+    @Scheduled(fixedDelayString = "${auth.login.flush-interval-ms:200}")
+    public void flushLoginState() {
+        try {
+            refreshTokenBatcher.flush();
+        } catch (Exception e) {
+            // Log the error but don't throw - tokens are kept and retried on the next run
+            System.err.println("Error during refresh token flush: " + e.getMessage());
+            e.printStackTrace();
+        }
+        try {
+            loginAttemptService.flush();
+        } catch (Exception e) {
+            // Log the error but don't throw - counters are kept and retried on the next run
+            System.err.println("Error during login attempt flush: " + e.getMessage());
+            e.printStackTrace();
+        }
+    }
+}
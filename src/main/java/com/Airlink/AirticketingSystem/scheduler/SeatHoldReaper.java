@@ -0,0 +1,34 @@
+package com.Airlink.AirticketingSystem.scheduler;
+
+import com.Airlink.AirticketingSystem.service.BookingService;
+import com.Airlink.AirticketingSystem.service.SeatHoldService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+@Component
+public class SeatHoldReaper {
+
+    @Autowired
+    private SeatHoldService seatHoldService;
+
+    @Autowired
+    private BookingService bookingService;
+
+    /**
+     * Cancel unpaid bookings whose seat hold ran out and give their seats back
+     * Runs every booking.hold.tick-ms (default 1 second)
+     */
+    @Scheduled(fixedDelayString = "${booking.hold.tick-ms:1000}")
+    public void expireHolds() {
+        for (Long bookingId : seatHoldService.collectExpired()) {
+            try {
+                bookingService.expireBooking(bookingId);
+            } catch (Exception e) {
+                // Log the error but don't throw - other expired holds must still be processed
+                System.err.println("Error expiring booking " + bookingId + ": " + e.getMessage());
+                e.printStackTrace();
+            }
+        }
+    }
+}
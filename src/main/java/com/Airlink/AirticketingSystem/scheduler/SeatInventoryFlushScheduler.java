@@ -0,0 +1,28 @@
+package com.Airlink.AirticketingSystem.scheduler;
+
+import com.Airlink.AirticketingSystem.service.SeatInventoryService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+@Component
+public class SeatInventoryFlushScheduler {
+
+    @Autowired
+    private SeatInventoryService seatInventoryService;
+
+    /**
+     * Persist seat changes admitted by the in-memory inventory
+     * Runs every inventory.flush-interval-ms (default 500 ms)
+     */
+    @Scheduled(fixedDelayString = "${inventory.flush-interval-ms:500}")
+    public void flushSeatDeltas() {
+        try {
+            seatInventoryService.flush();
+        } catch (Exception e) {
+            // Log the error but don't throw - deltas are kept and retried on the next run
+            System.err.println("Error during seat inventory flush: " + e.getMessage());
+            e.printStackTrace();
+        }
+    }
+}
@@ -0,0 +1,141 @@
+package com.Airlink.AirticketingSystem.scheduler;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Hierarchical timing wheel keyed by an id.
+ *
+ * Four wheels of 64 slots each: the first one holds timers due within 64 ticks,
+ * each next one covers 64 times the range of the previous. Scheduling and
+ * cancelling are O(1); timers are cascaded to a finer wheel when their slot
+ * comes up, so each timer is moved at most once per level.
+ */
+public class TimingWheel<K> {
+
+    private static final int WHEEL_BITS = 6;
+    private static final int WHEEL_SIZE = 1 << WHEEL_BITS;
+    private static final int WHEEL_MASK = WHEEL_SIZE - 1;
+    private static final int LEVELS = 4;
+
+    private final long tickMs;
+    private final long originMs;
+    // Slot s of wheel level l at index l * WHEEL_SIZE + s
+    private final List<ArrayDeque<Timer<K>>> slots;
+    private final Map<K, Timer<K>> timers = new HashMap<>();
+    private long currentTick;
+
+    public TimingWheel(long tickMs, long originMs) {
+        if (tickMs <= 0) {
+            throw new IllegalArgumentException("Tick duration must be positive");
+        }
+        this.tickMs = tickMs;
+        this.originMs = originMs;
+        this.slots = new ArrayList<>(LEVELS * WHEEL_SIZE);
+        for (int i = 0; i < LEVELS * WHEEL_SIZE; i++) {
+            slots.add(new ArrayDeque<>());
+        }
+    }
+
+    /**
+     * Schedule (or reschedule) the timer of a key. Deadlines in the past fire on the next tick.
+     */
+    public synchronized void schedule(K key, long deadlineMs) {
+        cancel(key);
+        long deadlineTick = Math.max(currentTick + 1, Math.floorDiv(deadlineMs - originMs + tickMs - 1, tickMs));
+        Timer<K> timer = new Timer<>(key, deadlineTick);
+        timers.put(key, timer);
+        place(timer);
+    }
+
+    /**
+     * Cancel the timer of a key.
+     * @return true if a pending timer was cancelled
+     */
+    public synchronized boolean cancel(K key) {
+        Timer<K> timer = timers.remove(key);
+        if (timer == null) {
+            return false;
+        }
+        // Removed lazily when its slot is next visited
+        timer.cancelled = true;
+        return true;
+    }
+
+    /**
+     * Advance the wheel up to the given time.
+     * @return keys whose deadline has passed, in deadline order
+     */
+    public synchronized List<K> advanceTo(long nowMs) {
+        List<K> expired = new ArrayList<>();
+        long targetTick = Math.floorDiv(nowMs - originMs, tickMs);
+
+        while (currentTick < targetTick) {
+            currentTick++;
+            cascade();
+
+            ArrayDeque<Timer<K>> slot = slot(0, currentTick);
+            Timer<K> timer;
+            while ((timer = slot.poll()) != null) {
+                if (!timer.cancelled) {
+                    timers.remove(timer.key);
+                    expired.add(timer.key);
+                }
+            }
+        }
+        return expired;
+    }
+
+    public synchronized int size() {
+        return timers.size();
+    }
+
+    private void cascade() {
+        // Find the coarsest wheel whose slot boundary we just crossed, then move timers down from it
+        int topLevel = 0;
+        while (topLevel + 1 < LEVELS && (currentTick & ((1L << (WHEEL_BITS * (topLevel + 1))) - 1)) == 0) {
+            topLevel++;
+        }
+        for (int level = topLevel; level >= 1; level--) {
+            ArrayDeque<Timer<K>> slot = slot(level, currentTick >>> (WHEEL_BITS * level));
+            Timer<K> timer;
+            while ((timer = slot.poll()) != null) {
+                if (!timer.cancelled) {
+                    place(timer);
+                }
+            }
+        }
+    }
+
+    private void place(Timer<K> timer) {
+        long delta = timer.deadlineTick - currentTick;
+        for (int level = 0; level < LEVELS; level++) {
+            if (delta < 1L << (WHEEL_BITS * (level + 1))) {
+                slot(level, timer.deadlineTick >>> (WHEEL_BITS * level)).add(timer);
+                return;
+            }
+        }
+        // Beyond the wheel horizon: park in the last slot of the coarsest wheel and re-place on cascade
+        int top = LEVELS - 1;
+        slot(top, (currentTick >>> (WHEEL_BITS * top)) + WHEEL_MASK).add(timer);
+    }
+
+    // Slot of a wheel level for a position on that level, wrapping around the wheel
+    private ArrayDeque<Timer<K>> slot(int level, long position) {
+        return slots.get(level * WHEEL_SIZE + (int) (position & WHEEL_MASK));
+    }
+
+    private static final class Timer<K> {
+        final K key;
+        final long deadlineTick;
+        boolean cancelled;
+
+        Timer(K key, long deadlineTick) {
+            this.key = key;
+            this.deadlineTick = deadlineTick;
+        }
+    }
+}
@@ -1,7 +1,13 @@
 package com.Airlink.AirticketingSystem.scheduler;
 
 import com.Airlink.AirticketingSystem.repository.RefreshTokenRepository;
+import com.Airlink.AirticketingSystem.security.TokenRevocationService;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Component;
 
@@ -13,15 +19,51 @@ public class TokenCleanupScheduler {
     @Autowired
     private RefreshTokenRepository refreshTokenRepository;
 
+    @Autowired
+    private TokenRevocationService tokenRevocationService;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Value("${token.purge.batch-size:1000}")
+    private int batchSize;
+
+    @Value("${token.purge.max-batches:100}")
+    private int maxBatches;
+
+    private Counter purgedTokens;
+    private Timer purgeTime;
+
+    @PostConstruct
+    void registerMetrics() {
+        purgedTokens = Counter.builder("token.purge.deleted")
+                .description("Expired refresh tokens deleted").register(meterRegistry);
+        purgeTime = Timer.builder("token.purge")
+                .description("Time spent purging expired refresh tokens").register(meterRegistry);
+    }
+
     /**
      * Clean up expired refresh tokens
-     * Runs daily at 2:00 AM (0 0 2 * * ?)
+     * Runs every minute by default and deletes in small chunks, each in its own transaction,
+     * so the table is never locked for long and the work is spread over the day
      */
-    @Scheduled(cron = "0 0 2 * * ?")
+    @Scheduled(fixedDelayString = "${token.purge.interval-ms:60000}")
     public void cleanupExpiredTokens() {
         try {
-            // Delete all refresh tokens that expired before now
-            refreshTokenRepository.deleteByExpiryDateBefore(Instant.now());
+            purgeTime.record(() -> {
+                Instant now = Instant.now();
+                for (int batch = 0; batch < maxBatches; batch++) {
+                    int deleted = refreshTokenRepository.deleteExpiredChunk(now, batchSize);
+                    purgedTokens.increment(deleted);
+                    if (deleted < batchSize) {
+                        break;
+                    }
+                }
+            });
+            // Revocations that can no longer match an unexpired access token
+            tokenRevocationService.purgeExpired();
+            // Revocations made since the last run on other instances or outside of the application
+            tokenRevocationService.syncFromDatabase();
         } catch (Exception e) {
             // Log the error but don't throw - scheduler should continue running
             System.err.println("Error during token cleanup: " + e.getMessage());
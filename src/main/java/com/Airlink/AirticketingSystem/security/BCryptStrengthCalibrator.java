@@ -0,0 +1,44 @@
+package com.Airlink.AirticketingSystem.security;
+
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+
+import java.util.logging.Logger;
+
+/**
+ * Picks the BCrypt strength that makes one hash take about a target time on this host.
+ */
+public final class BCryptStrengthCalibrator {
+
+    private static final Logger logger = Logger.getLogger(BCryptStrengthCalibrator.class.getName());
+
+    private static final String SAMPLE = "calibration-sample";
+
+    private BCryptStrengthCalibrator() {
+    }
+
+    /**
+     * Highest strength between min and max whose hash takes at most targetMs (min if even that is slower).
+     * Each strength step doubles the work, so a single measurement at min strength is enough.
+     */
+    public static int calibrate(long targetMs, int minStrength, int maxStrength) {
+        BCryptPasswordEncoder encoder = new BCryptPasswordEncoder(minStrength);
+        // Warm-up, then keep the fastest run so a hiccup does not lower the strength
+        encoder.encode(SAMPLE);
+        long fastestNanos = Long.MAX_VALUE;
+        for (int i = 0; i < 3; i++) {
+            long start = System.nanoTime();
+            encoder.encode(SAMPLE);
+            fastestNanos = Math.min(fastestNanos, System.nanoTime() - start);
+        }
+
+        double hashMs = fastestNanos / 1_000_000.0;
+        int strength = minStrength;
+        while (strength < maxStrength && hashMs * 2 <= targetMs) {
+            hashMs *= 2;
+            strength++;
+        }
+        logger.info(String.format("BCrypt strength %d selected (about %.0f ms per hash, target %d ms)",
+                strength, hashMs, targetMs));
+        return strength;
+    }
+}
@@ -2,22 +2,124 @@ package com.Airlink.AirticketingSystem.security;
 
 import com.Airlink.AirticketingSystem.model.User;
 import com.Airlink.AirticketingSystem.repository.UserRepository;
-import org.springframework.beans.factory.annotation.Autowired;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.core.userdetails.UserDetailsPasswordService;
 import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
 
 import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
 
+/**
+ * Loads users for authentication through a size- and TTL-bounded cache keyed by email.
+ * Entries are evicted when a {@link UserAccessChangedEvent} for the user commits.
+ * Also stores passwords rehashed on login after the hashing strength was raised.
+ */
 @Service
-public class CustomUserDetailsService implements UserDetailsService {
-    @Autowired
-    private UserRepository userRepository;
+public class CustomUserDetailsService implements UserDetailsService, UserDetailsPasswordService {
+
+    private static final int GENERATION_STRIPES = 256;
+
+    private final UserRepository userRepository;
+    private final int maxSize;
+    private final long ttlMs;
+
+    private final Counter hits;
+    private final Counter misses;
+    private final Timer loads;
+
+    // Access-ordered, so the least recently used user is evicted first
+    private final LinkedHashMap<String, CachedUser> cache;
+    // Bumped under the cache lock whenever a user is evicted, so a load racing with the
+    // eviction cannot put back the old password or role; users hashing to the same stripe share a counter
+    private final long[] generations = new long[GENERATION_STRIPES];
+
+    public CustomUserDetailsService(UserRepository userRepository,
+                                    MeterRegistry meterRegistry,
+                                    @Value("${auth.user-cache.max-size:10000}") int maxSize,
+                                    @Value("${auth.user-cache.ttl-seconds:300}") long ttlSeconds) {
+        this.userRepository = userRepository;
+        this.maxSize = maxSize;
+        this.ttlMs = ttlSeconds * 1000;
+        this.cache = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, CachedUser> eldest) {
+                return size() > CustomUserDetailsService.this.maxSize;
+            }
+        };
+
+        this.hits = Counter.builder("auth.user.cache.requests").tag("result", "hit")
+                .description("User lookups served from the cache").register(meterRegistry);
+        this.misses = Counter.builder("auth.user.cache.requests").tag("result", "miss")
+                .description("User lookups loaded from the database").register(meterRegistry);
+        this.loads = Timer.builder("auth.user.cache.load")
+                .description("Time to load a user from the database on a cache miss").register(meterRegistry);
+        meterRegistry.gauge("auth.user.cache.size", cache, this::sizeOf);
+    }
 
     @Override
     public UserDetails loadUserByUsername(String email) throws UsernameNotFoundException {
+        long now = System.currentTimeMillis();
+        CachedUser cached;
+        long generation;
+        synchronized (cache) {
+            cached = cache.get(email);
+            generation = generations[stripe(email)];
+        }
+
+        if (cached != null && cached.expiresAt > now) {
+            hits.increment();
+        } else {
+            misses.increment();
+            cached = new CachedUser(loads.record(() -> load(email)), now + ttlMs);
+            synchronized (cache) {
+                // Kept only if the user was not evicted while it was loading
+                if (generations[stripe(email)] == generation) {
+                    cache.put(email, cached);
+                }
+            }
+        }
+
+        // A copy, because authentication erases the credentials of the instance it is given
+        return org.springframework.security.core.userdetails.User.withUserDetails(cached.userDetails).build();
+    }
+
+    /**
+     * Store a password rehashed with the current strength. The password itself is unchanged,
+     * so issued tokens stay valid.
+     */
+    @Override
+    public UserDetails updatePassword(UserDetails user, String newPassword) {
+        userRepository.updatePassword(user.getUsername(), newPassword);
+        evict(user.getUsername());
+        return org.springframework.security.core.userdetails.User.withUserDetails(user).password(newPassword).build();
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onUserAccessChanged(UserAccessChangedEvent event) {
+        evict(event.email());
+    }
+
+    private void evict(String email) {
+        synchronized (cache) {
+            cache.remove(email);
+            generations[stripe(email)]++;
+        }
+    }
+
+    private static int stripe(String email) {
+        return email.hashCode() & (GENERATION_STRIPES - 1);
+    }
+
+    private UserDetails load(String email) {
         User user = userRepository.findByEmail(email)
                 .orElseThrow(() -> new UsernameNotFoundException("User not found with email: " + email));
 
@@ -31,4 +133,13 @@ public class CustomUserDetailsService implements UserDetailsService {
                 Collections.singletonList(new SimpleGrantedAuthority("ROLE_" + user.getRole().toString()))
         );
     }
+
+    private double sizeOf(Map<String, CachedUser> map) {
+        synchronized (cache) {
+            return map.size();
+        }
+    }
+
+    private record CachedUser(UserDetails userDetails, long expiresAt) {
+    }
 }
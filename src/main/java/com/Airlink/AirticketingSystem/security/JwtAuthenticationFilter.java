@@ -1,12 +1,16 @@
 package com.Airlink.AirticketingSystem.security;
 
+import io.jsonwebtoken.Claims;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.core.userdetails.User;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.security.web.authentication.WebAuthenticationDetailsSource;
 import org.springframework.stereotype.Component;
@@ -14,6 +18,7 @@ import org.springframework.util.StringUtils;
 import org.springframework.web.filter.OncePerRequestFilter;
 
 import java.io.IOException;
+import java.util.List;
 
 @Component
 public class JwtAuthenticationFilter extends OncePerRequestFilter {
@@ -23,15 +28,36 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
     @Autowired
     private CustomUserDetailsService userDetailsService;
 
+    @Autowired
+    private TokenRevocationService tokenRevocationService;
+
+    // Trust the roles embedded in access tokens instead of loading the user on every request
+    @Value("${jwt.stateless:false}")
+    private boolean stateless;
+
     @Override
     protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
             throws ServletException, IOException {
         try {
             String jwt = extractJwtFromRequest(request);
 
-            if (StringUtils.hasText(jwt) && jwtService.validateToken(jwt)) {
-                String username = jwtService.extractUsername(jwt);
-                UserDetails userDetails = userDetailsService.loadUserByUsername(username);
+            // Verified and parsed once, the claims are used from here on
+            Claims claims = StringUtils.hasText(jwt) ? jwtService.parseToken(jwt) : null;
+            if (claims != null) {
+                String username = claims.getSubject();
+                UserDetails userDetails;
+                if (stateless && claims.get(JwtService.ROLES_CLAIM) instanceof List<?> roles) {
+                    if (tokenRevocationService.isRevoked(username, claims.getIssuedAt())) {
+                        filterChain.doFilter(request, response);
+                        return;
+                    }
+                    userDetails = new User(username, "", roles.stream()
+                            .map(role -> new SimpleGrantedAuthority(role.toString()))
+                            .toList());
+                } else {
+                    // Tokens issued without role claims, or stateless mode turned off
+                    userDetails = userDetailsService.loadUserByUsername(username);
+                }
 
                 UsernamePasswordAuthenticationToken authentication =
                         new UsernamePasswordAuthenticationToken(userDetails, null, userDetails.getAuthorities());
@@ -0,0 +1,180 @@
+package com.Airlink.AirticketingSystem.security;
+
+import com.Airlink.AirticketingSystem.repository.UserRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.logging.Logger;
+
+/**
+ * Revocation list for stateless access tokens.
+ *
+ * Access tokens are trusted on their claims alone, so a role change, a password change,
+ * a deletion or a disabled account would otherwise go unnoticed until the token expires.
+ * Each of those publishes a {@link UserAccessChangedEvent}; the time of the change is
+ * recorded for the user, and tokens issued before it are rejected. Entries are dropped
+ * once every token they could reject has expired.
+ *
+ * The list is held per instance and rebuilt from the database by {@link #syncFromDatabase()},
+ * at startup and with every token cleanup: role and password changes are persisted as
+ * {@code User.tokensValidAfter}, accounts disabled directly in the database are found by
+ * their flag, and users seen presenting a token are revoked once they no longer exist.
+ * Other instances and restarts thus catch up within one cleanup interval.
+ */
+@Service
+public class TokenRevocationService {
+
+    private static final Logger logger = Logger.getLogger(TokenRevocationService.class.getName());
+
+    // Emails checked for existence per query
+    private static final int EXISTENCE_CHECK_BATCH = 500;
+
+    private final UserRepository userRepository;
+    private final ApplicationEventPublisher eventPublisher;
+    private final long accessTokenLifetimeMs;
+
+    // email -> tokens issued before this instant are revoked
+    private final ConcurrentHashMap<String, Instant> revokedBefore = new ConcurrentHashMap<>();
+    // Accounts found disabled by the last scan, already revoked; scans overlapping at startup
+    // at worst revoke an account twice
+    private volatile Set<String> disabledUsers = Set.of();
+    // Users that presented a token since the last sync, checked to still exist
+    private final Set<String> seenUsers = ConcurrentHashMap.newKeySet();
+    // Persisted revocations up to this instant are loaded
+    private volatile Instant syncedUntil;
+
+    public TokenRevocationService(UserRepository userRepository,
+                                  ApplicationEventPublisher eventPublisher,
+                                  @Value("${jwt.expiration}") long accessTokenLifetimeMs) {
+        this.userRepository = userRepository;
+        this.eventPublisher = eventPublisher;
+        this.accessTokenLifetimeMs = accessTokenLifetimeMs;
+    }
+
+    /**
+     * The instant to revoke tokens before, for a change made now.
+     * Token issue times have second precision: a token issued in the same second survives,
+     * so a login right after the change is never rejected.
+     */
+    public static Instant revocationTime() {
+        return Instant.now().truncatedTo(ChronoUnit.SECONDS);
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onUserAccessChanged(UserAccessChangedEvent event) {
+        revokeUser(event.email());
+    }
+
+    /**
+     * Revoke every access token issued to a user so far.
+     */
+    public void revokeUser(String email) {
+        if (email == null) {
+            return;
+        }
+        revokeBefore(email, revocationTime());
+    }
+
+    public boolean isRevoked(String email, Date issuedAt) {
+        Instant revoked = revokedBefore.get(email);
+        if (revoked != null && (issuedAt == null || issuedAt.toInstant().isBefore(revoked))) {
+            return true;
+        }
+        seenUsers.add(email);
+        return false;
+    }
+
+    /**
+     * Forget revocations older than the access token lifetime.
+     * @return number of entries removed
+     */
+    public int purgeExpired() {
+        Instant cutoff = Instant.now().minusMillis(accessTokenLifetimeMs);
+        int before = revokedBefore.size();
+        revokedBefore.values().removeIf(revoked -> revoked.isBefore(cutoff));
+        return before - revokedBefore.size();
+    }
+
+    /**
+     * Catch up with revocations made outside of this instance: at startup, whatever happened
+     * within the access token lifetime before it, later whatever happened since the last sync.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void syncFromDatabase() {
+        loadPersistedRevocations();
+        revokeDisabledUsers();
+        revokeDeletedUsers();
+    }
+
+    private void loadPersistedRevocations() {
+        Instant now = Instant.now();
+        // Overlap the previous sync by a lifetime at startup, by a minute later on, for changes
+        // committed after the previous sync with an earlier timestamp
+        Instant since = syncedUntil == null
+                ? now.minusMillis(accessTokenLifetimeMs)
+                : syncedUntil.minus(1, ChronoUnit.MINUTES);
+        for (Object[] row : userRepository.findTokenRevocationsAfter(since)) {
+            revokeBefore((String) row[0], (Instant) row[1]);
+        }
+        syncedUntil = now;
+    }
+
+    /**
+     * Revoke accounts that were disabled since the last scan, whatever disabled them.
+     * Publishes a {@link UserAccessChangedEvent} for each, so cached user details are dropped too.
+     */
+    private void revokeDisabledUsers() {
+        List<String> emails = userRepository.findEmailsByIsActiveFalse();
+        Set<String> disabled = new HashSet<>(emails);
+        int revoked = 0;
+        for (String email : disabled) {
+            if (!disabledUsers.contains(email)) {
+                eventPublisher.publishEvent(new UserAccessChangedEvent(email));
+                revoked++;
+            }
+        }
+        disabledUsers = disabled;
+        if (revoked > 0) {
+            logger.info("Revoked access tokens of " + revoked + " disabled users");
+        }
+    }
+
+    /**
+     * Revoke the users seen since the last sync that no longer exist, deleted here before
+     * a restart or on another instance. Revoked users are not seen again, so each is checked once.
+     */
+    private void revokeDeletedUsers() {
+        List<String> seen = new ArrayList<>(seenUsers);
+        seenUsers.removeAll(seen);
+        int revoked = 0;
+        for (int from = 0; from < seen.size(); from += EXISTENCE_CHECK_BATCH) {
+            List<String> batch = seen.subList(from, Math.min(from + EXISTENCE_CHECK_BATCH, seen.size()));
+            Set<String> existing = new HashSet<>(userRepository.findExistingEmails(batch));
+            for (String email : batch) {
+                if (!existing.contains(email)) {
+                    eventPublisher.publishEvent(new UserAccessChangedEvent(email));
+                    revoked++;
+                }
+            }
+        }
+        if (revoked > 0) {
+            logger.info("Revoked access tokens of " + revoked + " deleted users");
+        }
+    }
+
+    private void revokeBefore(String email, Instant instant) {
+        revokedBefore.merge(email, instant, (previous, current) -> current.isAfter(previous) ? current : previous);
+    }
+}
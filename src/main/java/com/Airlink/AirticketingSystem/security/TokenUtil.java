@@ -1,8 +1,12 @@
 package com.Airlink.AirticketingSystem.security;
 
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
 import java.security.SecureRandom;
 import java.time.Instant;
 import java.util.Base64;
+import java.util.HexFormat;
 
 import org.springframework.stereotype.Service;
 
@@ -20,6 +24,19 @@ public class TokenUtil {
         return Base64.getUrlEncoder().withoutPadding().encodeToString(tokenBytes);
     }
 
+    /**
+     * Fixed-size digest of a token (SHA-256, hex), used to store and look up refresh tokens
+     */
+    public String digest(String token) {
+        try {
+            byte[] hash = MessageDigest.getInstance("SHA-256").digest(token.getBytes(StandardCharsets.UTF_8));
+            return HexFormat.of().formatHex(hash);
+        } catch (NoSuchAlgorithmException e) {
+            // Every JVM ships SHA-256
+            throw new IllegalStateException(e);
+        }
+    }
+
     /**
      * Get expiration time for password reset tokens (1 hour)
      */
@@ -0,0 +1,8 @@
+package com.Airlink.AirticketingSystem.security;
+
+/**
+ * Published when something that authentication relies on changes for a user:
+ * role, password, active flag or the account itself.
+ */
+public record UserAccessChangedEvent(String email) {
+}
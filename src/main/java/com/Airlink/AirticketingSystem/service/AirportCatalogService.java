@@ -0,0 +1,398 @@
+package com.Airlink.AirticketingSystem.service;
+
+import com.Airlink.AirticketingSystem.dto.AirportResponseDTO;
+import com.Airlink.AirticketingSystem.model.Airport;
+import com.Airlink.AirticketingSystem.model.enums.AirportType;
+import com.Airlink.AirticketingSystem.repository.AirportRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.UnaryOperator;
+import java.util.logging.Logger;
+
+/**
+ * All airports, held in memory as an immutable snapshot indexed by id, IATA code,
+ * city and country.
+ *
+ * Airports change rarely, so reads never touch the database or an airport proxy.
+ * A write copies the snapshot with the airport replaced or removed and swaps it in
+ * once its transaction commits; readers keep whichever snapshot they started with.
+ * Flight counts change with every flight write, so they are kept next to the
+ * snapshot and moved in place instead.
+ *
+ * The catalog is held per instance: airport writes reach the instance that made them
+ * at once, and other instances on their next {@link #refreshIfChanged()}, which reloads
+ * the snapshot whenever the row count or last write time of the airports table moved.
+ */
+@Service
+public class AirportCatalogService {
+
+    private static final Logger logger = Logger.getLogger(AirportCatalogService.class.getName());
+
+    private final AirportRepository airportRepository;
+    private final MeterRegistry meterRegistry;
+
+    private volatile Snapshot snapshot;
+    // Held by loads and swaps; a lock rather than a monitor, so virtual threads waiting on the
+    // load query do not pin their carriers
+    private final ReentrantLock lock = new ReentrantLock();
+    // airport id -> flights from and to it, as in the airport's counter columns
+    private final ConcurrentHashMap<Long, FlightCounts> flightCounts = new ConcurrentHashMap<>();
+
+    public AirportCatalogService(AirportRepository airportRepository, MeterRegistry meterRegistry) {
+        this.airportRepository = airportRepository;
+        this.meterRegistry = meterRegistry;
+    }
+
+    @PostConstruct
+    void registerMetrics() {
+        // Registered once constructed: the gauge holds on to this catalog
+        meterRegistry.gauge("airports.catalog.size", this, catalog -> {
+            Snapshot current = catalog.snapshot;
+            return current != null ? current.byId.size() : 0;
+        });
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void load() {
+        Snapshot catalog = snapshot();
+        logger.info(String.format("Airport catalog loaded with %d airports (about %.1f MB)",
+                catalog.byId.size(), catalog.estimatedBytes() / (1024.0 * 1024.0)));
+    }
+
+    /**
+     * @return the airport, or null if there is none with this id
+     */
+    public AirportResponseDTO get(Long id) {
+        Entry entry = snapshot().byId.get(id);
+        return entry != null ? toDTO(entry) : null;
+    }
+
+    /**
+     * @return the airport with this IATA code (any case), or null if there is none
+     */
+    public AirportResponseDTO getByCode(String code) {
+        Entry entry = code != null ? snapshot().byCode.get(code.toUpperCase(Locale.ROOT)) : null;
+        return entry != null ? toDTO(entry) : null;
+    }
+
+    /**
+     * A page of the airports in a city (any case), or null if the pageable is sorted by
+     * something other than id, name, code, city or country.
+     */
+    public Page<AirportResponseDTO> getByCity(String city, Pageable pageable) {
+        return page(snapshot().byCity.get(key(city)), pageable);
+    }
+
+    /**
+     * A page of the airports in a country (any case), or null if the pageable is sorted by
+     * something other than id, name, code, city or country.
+     */
+    public Page<AirportResponseDTO> getByCountry(String country, Pageable pageable) {
+        return page(snapshot().byCountry.get(key(country)), pageable);
+    }
+
+    /**
+     * Reload the catalog if airports were created, changed or deleted since it was loaded,
+     * on this instance or another one. Does nothing while the catalog is not loaded yet.
+     *
+     * @return whether the catalog was reloaded
+     */
+    public boolean refreshIfChanged() {
+        Snapshot current = snapshot;
+        if (current == null || current.fingerprint.equals(fingerprint())) {
+            return false;
+        }
+        lock.lock();
+        try {
+            Snapshot reloaded = read();
+            // Counts of the airports read are set again, those of deleted ones dropped
+            flightCounts.keySet().retainAll(reloaded.byId.keySet());
+            snapshot = reloaded;
+        } finally {
+            lock.unlock();
+        }
+        logger.info(String.format("Airport catalog reloaded with %d airports", snapshot.byId.size()));
+        return true;
+    }
+
+    /**
+     * Put a created or changed airport in the catalog once the current transaction commits.
+     */
+    public void put(Airport airport) {
+        Entry entry = Entry.of(airport);
+        afterCommit(() -> swap(current -> current.with(entry, null)));
+    }
+
+    /**
+     * Take a deleted airport out of the catalog once the current transaction commits.
+     */
+    public void remove(Long id) {
+        afterCommit(() -> {
+            swap(current -> current.with(null, id));
+            flightCounts.remove(id);
+        });
+    }
+
+    /**
+     * Move the flight counts of an airport once the current transaction commits,
+     * matching an update of its counter columns in that transaction.
+     */
+    public void adjustFlightCounts(Long id, int departing, int arriving) {
+        afterCommit(() -> flightCounts.merge(id, new FlightCounts(departing, arriving), FlightCounts::plus));
+    }
+
+    /**
+     * Set the flight counts of an airport, after its counter columns were recounted.
+     */
+    public void setFlightCounts(Long id, int departing, int arriving) {
+        flightCounts.put(id, new FlightCounts(departing, arriving));
+    }
+
+    private AirportResponseDTO toDTO(Entry entry) {
+        return entry.toDTO(flightCounts.getOrDefault(entry.id(), FlightCounts.NONE));
+    }
+
+    private static void afterCommit(Runnable change) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    change.run();
+                }
+            });
+        } else {
+            change.run();
+        }
+    }
+
+    private void swap(UnaryOperator<Snapshot> change) {
+        lock.lock();
+        try {
+            // Not loaded yet: the first read loads the committed change anyway
+            if (snapshot != null) {
+                snapshot = change.apply(snapshot);
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private Snapshot snapshot() {
+        Snapshot current = snapshot;
+        if (current != null) {
+            return current;
+        }
+        // Loaded under the same lock as swaps, so a change committed meanwhile is applied on top
+        lock.lock();
+        try {
+            if (snapshot == null) {
+                snapshot = read();
+            }
+            return snapshot;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    // Caller holds the lock
+    private Snapshot read() {
+        // Taken before the rows, so a write committed in between shows up as a change next time
+        List<Object> fingerprint = fingerprint();
+        List<Airport> airports = airportRepository.findAll();
+        for (Airport airport : airports) {
+            setFlightCounts(airport.getId(), airport.getDepartingFlightsCount(), airport.getArrivingFlightsCount());
+        }
+        return Snapshot.of(airports.stream().map(Entry::of).toList(), fingerprint);
+    }
+
+    // [row count, last write] of the airports table, compared with equals
+    private List<Object> fingerprint() {
+        List<Object[]> rows = airportRepository.findCatalogFingerprint();
+        return rows.isEmpty() ? List.of() : Arrays.asList(rows.get(0));
+    }
+
+    private Page<AirportResponseDTO> page(List<Entry> entries, Pageable pageable) {
+        List<Entry> matches = entries != null ? entries : List.of();
+        if (pageable.getSort().isSorted()) {
+            Comparator<Entry> comparator = comparator(pageable.getSort());
+            if (comparator == null) {
+                return null;
+            }
+            matches = matches.stream().sorted(comparator).toList();
+        }
+        List<AirportResponseDTO> content = pageable.isPaged()
+                ? matches.stream().skip(pageable.getOffset()).limit(pageable.getPageSize()).map(this::toDTO).toList()
+                : matches.stream().map(this::toDTO).toList();
+        return new PageImpl<>(content, pageable, matches.size());
+    }
+
+    private static Comparator<Entry> comparator(Sort sort) {
+        Comparator<Entry> comparator = null;
+        for (Sort.Order order : sort) {
+            Comparator<Entry> next = switch (order.getProperty()) {
+                case "id" -> Comparator.comparing(Entry::id);
+                case "name" -> Comparator.comparing(Entry::name, Comparator.nullsLast(Comparator.naturalOrder()));
+                case "code" -> Comparator.comparing(Entry::code, Comparator.nullsLast(Comparator.naturalOrder()));
+                case "city" -> Comparator.comparing(Entry::city, Comparator.nullsLast(Comparator.naturalOrder()));
+                case "country" -> Comparator.comparing(Entry::country, Comparator.nullsLast(Comparator.naturalOrder()));
+                default -> null;
+            };
+            if (next == null) {
+                return null;
+            }
+            if (order.isDescending()) {
+                next = next.reversed();
+            }
+            comparator = comparator == null ? next : comparator.thenComparing(next);
+        }
+        return comparator;
+    }
+
+    private static String key(String value) {
+        return value != null ? value.toLowerCase(Locale.ROOT) : "";
+    }
+
+    /**
+     * Immutable indexes over the airports; city and country lists are in id order.
+     */
+    private static final class Snapshot {
+        final Map<Long, Entry> byId;
+        final Map<String, Entry> byCode;
+        final Map<String, List<Entry>> byCity;
+        final Map<String, List<Entry>> byCountry;
+        // Fingerprint of the airports table when it was read; copies keep it, so a local write
+        // also reloads the catalog once
+        final List<Object> fingerprint;
+
+        private Snapshot(Map<Long, Entry> byId, List<Object> fingerprint) {
+            this.byId = byId;
+            this.fingerprint = fingerprint;
+            Map<String, Entry> codes = new HashMap<>();
+            Map<String, List<Entry>> cities = new HashMap<>();
+            Map<String, List<Entry>> countries = new HashMap<>();
+            List<Entry> ordered = new ArrayList<>(byId.values());
+            ordered.sort(Comparator.comparing(Entry::id));
+            for (Entry entry : ordered) {
+                if (entry.code() != null) {
+                    codes.put(entry.code().toUpperCase(Locale.ROOT), entry);
+                }
+                cities.computeIfAbsent(key(entry.city()), k -> new ArrayList<>()).add(entry);
+                countries.computeIfAbsent(key(entry.country()), k -> new ArrayList<>()).add(entry);
+            }
+            cities.replaceAll((k, entries) -> List.copyOf(entries));
+            countries.replaceAll((k, entries) -> List.copyOf(entries));
+            this.byCode = Map.copyOf(codes);
+            this.byCity = Map.copyOf(cities);
+            this.byCountry = Map.copyOf(countries);
+        }
+
+        static Snapshot of(Collection<Entry> entries, List<Object> fingerprint) {
+            // Cities, countries and time zones repeat across airports, keep one copy of each
+            Map<String, String> strings = new HashMap<>();
+            Map<Long, Entry> byId = new HashMap<>();
+            for (Entry entry : entries) {
+                byId.put(entry.id(), entry.shareStrings(strings));
+            }
+            return new Snapshot(Map.copyOf(byId), fingerprint);
+        }
+
+        // Copy with one airport added or replaced, or removed
+        Snapshot with(Entry changed, Long removedId) {
+            Map<Long, Entry> byId = new HashMap<>(this.byId);
+            if (changed != null) {
+                byId.put(changed.id(), changed);
+            }
+            if (removedId != null) {
+                byId.remove(removedId);
+            }
+            return new Snapshot(Map.copyOf(byId), fingerprint);
+        }
+
+        // Rough heap use: entry, boxed values and map slots per airport plus the characters of distinct strings
+        long estimatedBytes() {
+            long bytes = 0;
+            Set<String> counted = Collections.newSetFromMap(new IdentityHashMap<>());
+            for (Entry entry : byId.values()) {
+                bytes += 64 + 16 + 2 * 16 + 4 * 48;
+                for (String value : new String[] {entry.name(), entry.code(), entry.description(), entry.city(),
+                        entry.country(), entry.iataCityCode(), entry.timezone()}) {
+                    if (value != null && counted.add(value)) {
+                        bytes += 40 + value.length();
+                    }
+                }
+            }
+            return bytes;
+        }
+    }
+
+    private record Entry(Long id, String name, String code, String description, AirportType type,
+                         String city, String country, String iataCityCode,
+                         Double latitude, Double longitude, String timezone) {
+
+        static Entry of(Airport airport) {
+            return new Entry(airport.getId(), airport.getName(), airport.getCode(), airport.getDescription(),
+                    airport.getType(), airport.getCity(), airport.getCountry(), airport.getIataCityCode(),
+                    airport.getLatitude(), airport.getLongitude(), airport.getTimezone());
+        }
+
+        Entry shareStrings(Map<String, String> strings) {
+            return new Entry(id, name, code, description, type,
+                    share(strings, city), share(strings, country), share(strings, iataCityCode),
+                    latitude, longitude, share(strings, timezone));
+        }
+
+        private static String share(Map<String, String> strings, String value) {
+            return value != null ? strings.computeIfAbsent(value, v -> v) : null;
+        }
+
+        AirportResponseDTO toDTO(FlightCounts counts) {
+            return AirportResponseDTO.builder()
+                    .id(id)
+                    .name(name)
+                    .code(code)
+                    .description(description)
+                    .type(type)
+                    .city(city)
+                    .country(country)
+                    .iataCityCode(iataCityCode)
+                    .latitude(latitude)
+                    .longitude(longitude)
+                    .timezone(timezone)
+                    .departingFlightsCount(counts.departing())
+                    .arrivingFlightsCount(counts.arriving())
+                    .build();
+        }
+    }
+
+    private record FlightCounts(int departing, int arriving) {
+
+        static final FlightCounts NONE = new FlightCounts(0, 0);
+
+        FlightCounts plus(FlightCounts other) {
+            return new FlightCounts(departing + other.departing, arriving + other.arriving);
+        }
+    }
+}
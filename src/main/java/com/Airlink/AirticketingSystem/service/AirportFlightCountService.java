@@ -0,0 +1,124 @@
+package com.Airlink.AirticketingSystem.service;
+
+import com.Airlink.AirticketingSystem.repository.AirportRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+import java.util.Objects;
+import java.util.TreeMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.logging.Logger;
+
+/**
+ * Departing and arriving flight counters of airports.
+ *
+ * The counters are columns on the airport row, moved by flight writes in the same
+ * transaction and mirrored in the {@link AirportCatalogService} once it commits, so
+ * reading them costs nothing. The catalog only sees the flight writes of its own
+ * instance; {@link #syncCatalog()} reloads its counts from the columns, so writes made
+ * elsewhere show up within one sync interval. {@link #check()} recounts the flights
+ * from scratch, reports airports whose counters drifted and, with
+ * airports.flight-counts.repair enabled, sets them to the recount.
+ */
+@Service
+public class AirportFlightCountService {
+
+    private static final Logger logger = Logger.getLogger(AirportFlightCountService.class.getName());
+
+    // Drifted airports logged one by one per check, the rest only counted
+    private static final int MAX_REPORTED = 20;
+
+    private final AirportRepository airportRepository;
+    private final AirportCatalogService airportCatalogService;
+    private final TransactionTemplate transactionTemplate;
+    private final boolean repair;
+
+    private final AtomicInteger lastDrift = new AtomicInteger();
+
+    public AirportFlightCountService(AirportRepository airportRepository,
+                                     AirportCatalogService airportCatalogService,
+                                     TransactionTemplate transactionTemplate,
+                                     MeterRegistry meterRegistry,
+                                     @Value("${airports.flight-counts.repair:true}") boolean repair) {
+        this.airportRepository = airportRepository;
+        this.airportCatalogService = airportCatalogService;
+        this.transactionTemplate = transactionTemplate;
+        this.repair = repair;
+        meterRegistry.gauge("airports.flight_counts.drift", lastDrift);
+    }
+
+    /**
+     * Move the counters for a flight whose airports changed, in the caller's transaction.
+     * Airports are null for a flight being created or deleted, and for domestic flights.
+     */
+    public void flightChanged(Long oldOriginId, Long oldDestinationId, Long newOriginId, Long newDestinationId) {
+        // airport id -> {departing, arriving}, in id order so concurrent flight writes lock airport rows in the same order
+        TreeMap<Long, int[]> deltas = new TreeMap<>();
+        if (!Objects.equals(oldOriginId, newOriginId)) {
+            add(deltas, oldOriginId, -1, 0);
+            add(deltas, newOriginId, 1, 0);
+        }
+        if (!Objects.equals(oldDestinationId, newDestinationId)) {
+            add(deltas, oldDestinationId, 0, -1);
+            add(deltas, newDestinationId, 0, 1);
+        }
+        deltas.forEach((airportId, delta) -> {
+            if (delta[0] != 0 || delta[1] != 0) {
+                airportRepository.adjustFlightCounts(airportId, delta[0], delta[1]);
+                airportCatalogService.adjustFlightCounts(airportId, delta[0], delta[1]);
+            }
+        });
+    }
+
+    /**
+     * Recount the flights of every airport and compare with the counters.
+     * @return number of airports whose counters drifted
+     */
+    public int check() {
+        List<Object[]> drifted = airportRepository.findFlightCountDrift();
+        lastDrift.set(drifted.size());
+        if (drifted.isEmpty()) {
+            return 0;
+        }
+
+        for (Object[] row : drifted.subList(0, Math.min(MAX_REPORTED, drifted.size()))) {
+            logger.warning(String.format("Flight counters of airport %s (id %s) drifted: departing %s, recount %s; arriving %s, recount %s",
+                    row[1], row[0], row[2], row[4], row[3], row[5]));
+        }
+        logger.warning(drifted.size() + " airports with drifted flight counters" + (repair ? ", setting them to the recount" : ""));
+
+        if (repair) {
+            // Recounted again by the statement, so flights written since the check are included
+            transactionTemplate.executeWithoutResult(status -> airportRepository.recountFlightCounts());
+            // From the columns as repaired, not from the drift rows read before the repair
+            syncCatalog();
+        }
+        return drifted.size();
+    }
+
+    /**
+     * Set the flight counts of the airport catalog to the counter columns.
+     * A flight write committing meanwhile may be undone in the catalog until the next sync.
+     * @return number of airports synced
+     */
+    public int syncCatalog() {
+        List<Object[]> counts = airportRepository.findFlightCounts();
+        for (Object[] row : counts) {
+            airportCatalogService.setFlightCounts(((Number) row[0]).longValue(),
+                    ((Number) row[1]).intValue(), ((Number) row[2]).intValue());
+        }
+        return counts.size();
+    }
+
+    private static void add(TreeMap<Long, int[]> deltas, Long airportId, int departing, int arriving) {
+        if (airportId == null) {
+            return;
+        }
+        int[] delta = deltas.computeIfAbsent(airportId, id -> new int[2]);
+        delta[0] += departing;
+        delta[1] += arriving;
+    }
+}
@@ -21,6 +21,7 @@ public interface AirportService {
     // New methods for location-based searches
     Page<AirportResponseDTO> getAirportsByCity(String city, Pageable pageable);
     Page<AirportResponseDTO> getAirportsByCountry(String country, Pageable pageable);
-    List<AirportResponseDTO> getNearestAirports(Double latitude, Double longitude, Double radiusKm);
+    // Closest first; radiusKm and limit are optional (100 km when neither is given)
+    List<AirportResponseDTO> getNearestAirports(Double latitude, Double longitude, Double radiusKm, Integer limit);
 }
 
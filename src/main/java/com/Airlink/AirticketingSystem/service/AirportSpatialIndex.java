@@ -0,0 +1,283 @@
+package com.Airlink.AirticketingSystem.service;
+
+import com.Airlink.AirticketingSystem.repository.AirportRepository;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.PriorityQueue;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.logging.Logger;
+
+/**
+ * Airport coordinates held in memory as a k-d tree, for nearest-airport lookups.
+ *
+ * Airports are placed on the unit sphere as (x, y, z) points, so the straight-line
+ * distance between two points grows with their great-circle distance and the tree
+ * needs no special case at the poles or across the 180th meridian. A change drops
+ * the tree once its transaction completes; the next lookup rebuilds it with a
+ * single query.
+ */
+@Service
+public class AirportSpatialIndex {
+
+    private static final Logger logger = Logger.getLogger(AirportSpatialIndex.class.getName());
+
+    public static final double EARTH_RADIUS_KM = 6371.0;
+
+    private final AirportRepository airportRepository;
+
+    // Bumped on every change, so a tree built concurrently with a change is not kept
+    private final AtomicLong generation = new AtomicLong();
+    private final ReentrantLock loadLock = new ReentrantLock();
+    private volatile KdTree tree;
+
+    public AirportSpatialIndex(AirportRepository airportRepository) {
+        this.airportRepository = airportRepository;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void load() {
+        logger.info("Airport spatial index built with " + tree().size() + " airports");
+    }
+
+    /**
+     * Airports within radiusKm of a point, closest first, at most limit of them.
+     * @param radiusKm null for no distance limit
+     * @param limit null for every airport in the radius
+     */
+    public List<Neighbor> findNearest(double latitude, double longitude, Double radiusKm, Integer limit) {
+        KdTree current = tree();
+        double maxChord = radiusKm != null ? chordOf(radiusKm) : Double.POSITIVE_INFINITY;
+        int k = limit != null ? limit : Integer.MAX_VALUE;
+        return current.nearest(latitude, longitude, maxChord * maxChord, k);
+    }
+
+    /**
+     * Drop the tree once the current transaction completes (right away outside of one).
+     */
+    public void invalidate() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    drop();
+                }
+            });
+        } else {
+            drop();
+        }
+    }
+
+    /**
+     * Great-circle distance between two points in kilometers (haversine formula).
+     */
+    public static double distanceKm(double latitude1, double longitude1, double latitude2, double longitude2) {
+        double dLat = Math.toRadians(latitude2 - latitude1);
+        double dLon = Math.toRadians(longitude2 - longitude1);
+        double a = Math.sin(dLat / 2) * Math.sin(dLat / 2)
+                + Math.cos(Math.toRadians(latitude1)) * Math.cos(Math.toRadians(latitude2))
+                * Math.sin(dLon / 2) * Math.sin(dLon / 2);
+        return 2 * EARTH_RADIUS_KM * Math.asin(Math.min(1.0, Math.sqrt(a)));
+    }
+
+    // Straight-line distance on the unit sphere between two points radiusKm apart
+    private static double chordOf(double radiusKm) {
+        return radiusKm >= Math.PI * EARTH_RADIUS_KM ? 2.0 : 2 * Math.sin(radiusKm / (2 * EARTH_RADIUS_KM));
+    }
+
+    private void drop() {
+        generation.incrementAndGet();
+        tree = null;
+    }
+
+    private KdTree tree() {
+        KdTree current = tree;
+        if (current != null) {
+            return current;
+        }
+        // One load at a time; a lock rather than a monitor, so virtual threads waiting
+        // on the query do not pin their carriers
+        loadLock.lock();
+        try {
+            current = tree;
+            if (current == null) {
+                long loadGeneration = generation.get();
+                current = KdTree.of(airportRepository.findCoordinates());
+                // Keep it only if no airport changed while it was loading
+                if (generation.get() == loadGeneration) {
+                    tree = current;
+                }
+            }
+            return current;
+        } finally {
+            loadLock.unlock();
+        }
+    }
+
+    /**
+     * An airport found near a point.
+     */
+    public record Neighbor(Long airportId, double distanceKm) {
+    }
+
+    /**
+     * Balanced k-d tree in implicit layout: the node of a range [lo, hi) sits at its
+     * middle, splitting on x, y and z in turn by depth, with its halves on either side.
+     */
+    private static final class KdTree {
+        final long[] ids;
+        final double[] latitudes;
+        final double[] longitudes;
+        // Unit-sphere coordinates by axis: points[axis][i]
+        final double[][] points;
+
+        private KdTree(int size) {
+            ids = new long[size];
+            latitudes = new double[size];
+            longitudes = new double[size];
+            points = new double[3][size];
+        }
+
+        // Rows as returned by AirportRepository.findCoordinates
+        static KdTree of(List<Object[]> rows) {
+            KdTree tree = new KdTree(rows.size());
+            for (int i = 0; i < rows.size(); i++) {
+                Object[] row = rows.get(i);
+                tree.ids[i] = (Long) row[0];
+                tree.latitudes[i] = (Double) row[1];
+                tree.longitudes[i] = (Double) row[2];
+                double[] point = toPoint(tree.latitudes[i], tree.longitudes[i]);
+                for (int axis = 0; axis < 3; axis++) {
+                    tree.points[axis][i] = point[axis];
+                }
+            }
+            tree.build(0, rows.size(), 0);
+            return tree;
+        }
+
+        int size() {
+            return ids.length;
+        }
+
+        List<Neighbor> nearest(double latitude, double longitude, double maxChord2, int k) {
+            double[] target = toPoint(latitude, longitude);
+            // Farthest kept candidate on top, so it is the one replaced by a closer point
+            PriorityQueue<double[]> best = new PriorityQueue<>(Comparator.comparingDouble((double[] c) -> c[0]).reversed());
+            search(0, size(), 0, target, maxChord2, k, best);
+
+            List<Neighbor> neighbors = new ArrayList<>(best.size());
+            for (double[] candidate : best) {
+                int i = (int) candidate[1];
+                neighbors.add(new Neighbor(ids[i], distanceKm(latitude, longitude, latitudes[i], longitudes[i])));
+            }
+            neighbors.sort(Comparator.comparingDouble(Neighbor::distanceKm));
+            return neighbors;
+        }
+
+        private void search(int lo, int hi, int axis, double[] target, double maxChord2, int k,
+                            PriorityQueue<double[]> best) {
+            if (lo >= hi) {
+                return;
+            }
+            int node = (lo + hi) >>> 1;
+            double chord2 = 0;
+            for (int a = 0; a < 3; a++) {
+                double d = points[a][node] - target[a];
+                chord2 += d * d;
+            }
+            if (chord2 <= bound(maxChord2, k, best)) {
+                best.add(new double[] {chord2, node});
+                if (best.size() > k) {
+                    best.poll();
+                }
+            }
+
+            double split = target[axis] - points[axis][node];
+            int next = (axis + 1) % 3;
+            // The side holding the target first, the other only if it can hold something closer
+            if (split < 0) {
+                search(lo, node, next, target, maxChord2, k, best);
+                if (split * split <= bound(maxChord2, k, best)) {
+                    search(node + 1, hi, next, target, maxChord2, k, best);
+                }
+            } else {
+                search(node + 1, hi, next, target, maxChord2, k, best);
+                if (split * split <= bound(maxChord2, k, best)) {
+                    search(lo, node, next, target, maxChord2, k, best);
+                }
+            }
+        }
+
+        private static double bound(double maxChord2, int k, PriorityQueue<double[]> best) {
+            return best.size() < k ? maxChord2 : Math.min(maxChord2, best.peek()[0]);
+        }
+
+        private void build(int lo, int hi, int axis) {
+            if (hi - lo <= 1) {
+                return;
+            }
+            int middle = (lo + hi) >>> 1;
+            select(lo, hi - 1, middle, points[axis]);
+            int next = (axis + 1) % 3;
+            build(lo, middle, next);
+            build(middle + 1, hi, next);
+        }
+
+        // Quickselect: puts the k-th smallest of keys[left..right] at k, smaller ones before it
+        private void select(int left, int right, int k, double[] keys) {
+            while (left < right) {
+                double pivot = keys[(left + right) >>> 1];
+                int i = left;
+                int j = right;
+                while (i <= j) {
+                    while (keys[i] < pivot) {
+                        i++;
+                    }
+                    while (keys[j] > pivot) {
+                        j--;
+                    }
+                    if (i <= j) {
+                        swap(i++, j--);
+                    }
+                }
+                if (k <= j) {
+                    right = j;
+                } else if (k >= i) {
+                    left = i;
+                } else {
+                    return;
+                }
+            }
+        }
+
+        private void swap(int i, int j) {
+            long id = ids[i];
+            ids[i] = ids[j];
+            ids[j] = id;
+            double latitude = latitudes[i];
+            latitudes[i] = latitudes[j];
+            latitudes[j] = latitude;
+            double longitude = longitudes[i];
+            longitudes[i] = longitudes[j];
+            longitudes[j] = longitude;
+            for (double[] axis : points) {
+                double value = axis[i];
+                axis[i] = axis[j];
+                axis[j] = value;
+            }
+        }
+
+        private static double[] toPoint(double latitude, double longitude) {
+            double lat = Math.toRadians(latitude);
+            double lon = Math.toRadians(longitude);
+            return new double[] {Math.cos(lat) * Math.cos(lon), Math.cos(lat) * Math.sin(lon), Math.sin(lat)};
+        }
+    }
+}
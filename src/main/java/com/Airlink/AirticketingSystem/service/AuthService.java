@@ -15,19 +15,23 @@ import com.Airlink.AirticketingSystem.exception.ResourceNotFoundException;
 import com.Airlink.AirticketingSystem.model.RefreshToken;
 import com.Airlink.AirticketingSystem.model.User;
 import com.Airlink.AirticketingSystem.model.enums.UserRole;
-import com.Airlink.AirticketingSystem.repository.RefreshTokenRepository;
 import com.Airlink.AirticketingSystem.repository.UserRepository;
 import com.Airlink.AirticketingSystem.security.JwtService;
+import com.Airlink.AirticketingSystem.security.TokenRevocationService;
+import com.Airlink.AirticketingSystem.security.UserAccessChangedEvent;
 import com.Airlink.AirticketingSystem.security.TokenUtil;
 import org.modelmapper.ModelMapper;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.security.authentication.AuthenticationManager;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.Authentication;
+import org.springframework.security.core.AuthenticationException;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.time.Instant;
@@ -44,9 +48,6 @@ public class AuthService {
     @Autowired
     private UserRepository userRepository;
 
-    @Autowired
-    private RefreshTokenRepository refreshTokenRepository;
-
     @Autowired
     private PasswordEncoder passwordEncoder;
 
@@ -56,6 +57,15 @@ public class AuthService {
     @Autowired
     private TokenUtil tokenUtil;
 
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    @Autowired
+    private LoginAttemptService loginAttemptService;
+
+    @Autowired
+    private RefreshTokenBatcher refreshTokenBatcher;
+
     public AuthResponse register(AuthRegisterRequest request) {
         // Check if email already exists
         if (userRepository.existsByEmail(request.getEmail())) {
@@ -91,7 +101,8 @@ public class AuthService {
                         "",
                         org.springframework.security.core.authority.AuthorityUtils
                                 .createAuthorityList("ROLE_" + savedUser.getRole())
-                )
+                ),
+                savedUser.getId()
         );
 
         String refreshToken = jwtService.generateRefreshToken(
@@ -116,12 +127,15 @@ public class AuthService {
         );
     }
 
+    // No transaction: the password check is CPU-bound and must not hold a connection,
+    // failed attempts and the refresh token are written by their own services
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
     public AuthResponse login(LoginRequest request) {
         User user = userRepository.findByEmail(request.getEmail())
                 .orElseThrow(() -> new BadRequestException("Invalid email or password"));
 
         // Check if account is locked
-        if (user.getLockoutUntil() != null && Instant.now().isBefore(user.getLockoutUntil())) {
+        if (loginAttemptService.isLocked(user)) {
             throw new BadRequestException("Account is locked. Try again later.");
         }
 
@@ -130,63 +144,57 @@ public class AuthService {
             throw new BadRequestException("Please verify your email before logging in. Check your email for verification link.");
         }
 
+        Authentication authentication;
         try {
-            Authentication authentication = authenticationManager.authenticate(
+            authentication = authenticationManager.authenticate(
                     new UsernamePasswordAuthenticationToken(
                             request.getEmail(),
                             request.getPassword()
                     )
             );
+        } catch (AuthenticationException e) {
+            // Counts towards the lockout after 5 failed attempts
+            loginAttemptService.loginFailed(user);
+            throw new BadRequestException("Invalid email or password");
+        }
 
-            SecurityContextHolder.getContext().setAuthentication(authentication);
-
-            // Reset failed attempts on successful login
-            user.setFailedLoginAttempts(0);
-            user.setLockoutUntil(null);
-
-            UserDetails userDetails = (UserDetails) authentication.getPrincipal();
+        SecurityContextHolder.getContext().setAuthentication(authentication);
 
-            String accessToken = jwtService.generateToken(userDetails);
-            String refreshToken = jwtService.generateRefreshToken(userDetails);
+        // Reset failed attempts on successful login
+        loginAttemptService.loginSucceeded(user);
 
-            // Save refresh token
-            saveRefreshToken(user, refreshToken);
-            userRepository.save(user);
+        UserDetails userDetails = (UserDetails) authentication.getPrincipal();
 
-            UserResponseDTO userResponseDTO = convertToDTO(user);
+        String accessToken = jwtService.generateToken(userDetails, user.getId());
+        String refreshToken = jwtService.generateRefreshToken(userDetails);
 
-            return new AuthResponse(
-                    accessToken,
-                    refreshToken,
-                    jwtService.getExpirationTime(),
-                    userResponseDTO
-            );
-        } catch (Exception e) {
-            // Increment failed login attempts
-            user.setFailedLoginAttempts((user.getFailedLoginAttempts() != null ? user.getFailedLoginAttempts() : 0) + 1);
+        // Save refresh token
+        saveRefreshToken(user, refreshToken);
 
-            // Lock account after 5 failed attempts for 15 minutes
-            if (user.getFailedLoginAttempts() >= 5) {
-                user.setLockoutUntil(Instant.now().plusSeconds(900)); // 15 minutes
-            }
+        UserResponseDTO userResponseDTO = convertToDTO(user);
 
-            userRepository.save(user);
-            throw new BadRequestException("Invalid email or password");
-        }
+        return new AuthResponse(
+                accessToken,
+                refreshToken,
+                jwtService.getExpirationTime(),
+                userResponseDTO
+        );
     }
 
     public AuthResponse refreshToken(RefreshTokenRequest request) {
         String refreshTokenValue = request.getRefreshToken();
 
-        RefreshToken refreshToken = refreshTokenRepository.findByToken(refreshTokenValue)
+        RefreshToken refreshToken = refreshTokenBatcher.findByTokenHash(tokenUtil.digest(refreshTokenValue))
                 .orElseThrow(() -> new BadRequestException("Invalid refresh token"));
 
         if (refreshToken.isExpired()) {
-            refreshTokenRepository.delete(refreshToken);
+            refreshTokenBatcher.delete(refreshToken);
             throw new BadRequestException("Refresh token has expired");
         }
 
-        User user = refreshToken.getUser();
+        // A token still pending in the batcher holds the user as it was at login, read the current row
+        User user = userRepository.findById(refreshToken.getUser().getId())
+                .orElseThrow(() -> new BadRequestException("Invalid refresh token"));
 
         if (!user.getIsActive()) {
             throw new BadRequestException("User account is disabled");
@@ -199,11 +207,11 @@ public class AuthService {
                         .createAuthorityList("ROLE_" + user.getRole())
         );
 
-        String newAccessToken = jwtService.generateToken(userDetails);
+        String newAccessToken = jwtService.generateToken(userDetails, user.getId());
         String newRefreshToken = jwtService.generateRefreshToken(userDetails);
 
         // Delete old refresh token and save new one
-        refreshTokenRepository.delete(refreshToken);
+        refreshTokenBatcher.delete(refreshToken);
         saveRefreshToken(user, newRefreshToken);
 
         UserResponseDTO userResponseDTO = convertToDTO(user);
@@ -217,10 +225,10 @@ public class AuthService {
     }
 
     public void logout(String refreshTokenValue) {
-        RefreshToken refreshToken = refreshTokenRepository.findByToken(refreshTokenValue)
+        RefreshToken refreshToken = refreshTokenBatcher.findByTokenHash(tokenUtil.digest(refreshTokenValue))
                 .orElseThrow(() -> new BadRequestException("Invalid refresh token"));
 
-        refreshTokenRepository.delete(refreshToken);
+        refreshTokenBatcher.delete(refreshToken);
     }
 
     public UserResponseDTO getCurrentUser() {
@@ -245,15 +253,17 @@ public class AuthService {
 
         user.setPassword(passwordEncoder.encode(request.getNewPassword()));
         user.setUpdatedAt(new java.util.Date());
+        user.setTokensValidAfter(TokenRevocationService.revocationTime());
         userRepository.save(user);
+        eventPublisher.publishEvent(new UserAccessChangedEvent(user.getEmail()));
     }
 
     private void saveRefreshToken(User user, String token) {
         RefreshToken refreshToken = new RefreshToken();
-        refreshToken.setToken(token);
+        refreshToken.setTokenHash(tokenUtil.digest(token));
         refreshToken.setUser(user);
         refreshToken.setExpiryDate(Instant.now().plusSeconds(jwtService.getRefreshTokenExpirationTime() / 1000));
-        refreshTokenRepository.save(refreshToken);
+        refreshTokenBatcher.save(refreshToken);
     }
 
     private UserResponseDTO convertToDTO(User user) {
@@ -297,7 +307,9 @@ public class AuthService {
         user.setPassword(passwordEncoder.encode(request.getNewPassword()));
         user.setPasswordResetToken(null);
         user.setPasswordResetTokenExpiry(null);
+        user.setTokensValidAfter(TokenRevocationService.revocationTime());
         userRepository.save(user);
+        eventPublisher.publishEvent(new UserAccessChangedEvent(user.getEmail()));
     }
 
     // ============ Email Verification Methods ============
@@ -1,5 +1,6 @@
 package com.Airlink.AirticketingSystem.service;
 
+import com.Airlink.AirticketingSystem.dto.CursorPage;
 import com.Airlink.AirticketingSystem.dto.BookingRequestDTO;
 import com.Airlink.AirticketingSystem.dto.BookingResponseDTO;
 import org.springframework.data.domain.Page;
@@ -10,10 +11,13 @@ public interface BookingService {
     BookingResponseDTO getBookingById(Long id);
     BookingResponseDTO getBookingByCode(String bookingCode);
     Page<BookingResponseDTO> getAllBookings(Pageable pageable);
+    // Keyset pagination without a count query; pass null for the first slice
+    CursorPage<BookingResponseDTO> scrollBookings(String cursor, int size);
     Page<BookingResponseDTO> getBookingsByUser(Long userId, Pageable pageable);
     Page<BookingResponseDTO> getBookingsByFlight(Long flightId, Pageable pageable);
     BookingResponseDTO updateBookingStatus(Long id, String status);
     void cancelBooking(Long id);
+    void expireBooking(Long id);
     void deleteBooking(Long id);
 }
 
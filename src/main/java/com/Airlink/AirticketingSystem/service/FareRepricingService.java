@@ -0,0 +1,274 @@
+package com.Airlink.AirticketingSystem.service;
+
+import com.Airlink.AirticketingSystem.model.enums.FareClass;
+import com.Airlink.AirticketingSystem.repository.FareClassPriceRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Limit;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.logging.Logger;
+
+/**
+ * Keeps FareClassPrice.currentPrice in line with the {@link PricingService} rules
+ * (days to departure and seats left) for a single passenger.
+ *
+ * A full pass walks the fares of all upcoming flights in chunks, prices each chunk
+ * in parallel on a fork-join pool and writes only the changed prices with one
+ * set-based UPDATE per chunk. Between full passes, flights whose seats crossed a
+ * price step or whose fares were edited are repriced by a short pass of their own.
+ */
+@Service
+public class FareRepricingService {
+
+    private static final Logger logger = Logger.getLogger(FareRepricingService.class.getName());
+
+    // Fares priced by one fork-join leaf task
+    private static final int LEAF_SIZE = 1024;
+
+    private final FareClassPriceRepository fareClassPriceRepository;
+    private final SeatInventoryService seatInventoryService;
+    private final TransactionTemplate transactionTemplate;
+    private final MeterRegistry meterRegistry;
+    private final int chunkSize;
+    private final ForkJoinPool pool;
+
+    // Only one pass writes prices at a time
+    private final ReentrantLock passLock = new ReentrantLock();
+    // Flights to reprice before the next full pass
+    private final Set<Long> dirtyFlights = ConcurrentHashMap.newKeySet();
+    // Capacity of the upcoming flights seen by the last passes, to tell a price step from any seat change
+    private volatile ConcurrentHashMap<Long, Integer> capacities = new ConcurrentHashMap<>();
+
+    private final Counter flightsRepriced;
+    private final Counter faresUpdated;
+    private final Timer fullPasses;
+    private final Timer changedPasses;
+    private volatile double lastThroughput;
+
+    public FareRepricingService(FareClassPriceRepository fareClassPriceRepository,
+                                SeatInventoryService seatInventoryService,
+                                TransactionTemplate transactionTemplate,
+                                MeterRegistry meterRegistry,
+                                @Value("${pricing.reprice.chunk-size:5000}") int chunkSize,
+                                @Value("${pricing.reprice.parallelism:0}") int parallelism) {
+        this.fareClassPriceRepository = fareClassPriceRepository;
+        this.seatInventoryService = seatInventoryService;
+        this.transactionTemplate = transactionTemplate;
+        this.meterRegistry = meterRegistry;
+        this.chunkSize = Math.max(1, chunkSize);
+        this.pool = new ForkJoinPool(parallelism > 0 ? parallelism : Runtime.getRuntime().availableProcessors());
+
+        this.flightsRepriced = Counter.builder("pricing.reprice.flights")
+                .description("Flights whose fares were repriced").register(meterRegistry);
+        this.faresUpdated = Counter.builder("pricing.reprice.fares.updated")
+                .description("Fare prices that changed and were written").register(meterRegistry);
+        this.fullPasses = Timer.builder("pricing.reprice").tag("pass", "full")
+                .description("Repricing passes over all upcoming flights").register(meterRegistry);
+        this.changedPasses = Timer.builder("pricing.reprice").tag("pass", "changed")
+                .description("Repricing passes over flights whose seats crossed a price step").register(meterRegistry);
+    }
+
+    @PostConstruct
+    void registerMetrics() {
+        // Registered once constructed: the gauge holds on to this service
+        meterRegistry.gauge("pricing.reprice.throughput", this, service -> service.lastThroughput);
+    }
+
+    @EventListener
+    public void onSeatsChanged(SeatsChangedEvent event) {
+        Integer capacity = capacities.get(event.flightId());
+        // Unknown flights are repriced anyway, which also records their capacity
+        if (capacity == null || PricingService.crossesSeatThreshold(event.seatsBefore(), event.seatsAfter(), capacity)) {
+            dirtyFlights.add(event.flightId());
+        }
+    }
+
+    /**
+     * Reprice a flight whose fares were created or edited, once the current transaction commits.
+     */
+    public void repriceLater(Long flightId) {
+        if (flightId == null) {
+            return;
+        }
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    dirtyFlights.add(flightId);
+                }
+            });
+        } else {
+            dirtyFlights.add(flightId);
+        }
+    }
+
+    /**
+     * Reprice every fare of every flight that has not departed yet.
+     * @return number of flights repriced
+     */
+    public int repriceAll() {
+        passLock.lock();
+        try {
+            long start = System.nanoTime();
+            LocalDateTime now = LocalDateTime.now();
+            // Everything marked so far is covered by this pass
+            dirtyFlights.clear();
+
+            ConcurrentHashMap<Long, Integer> seen = new ConcurrentHashMap<>();
+            int updated = 0;
+            Long afterId = 0L;
+            List<Object[]> rows;
+            do {
+                rows = fareClassPriceRepository.findRepricingRowsAfter(now, afterId, Limit.of(chunkSize));
+                if (rows.isEmpty()) {
+                    break;
+                }
+                updated += reprice(rows, now.toLocalDate(), seen);
+                afterId = (Long) rows.get(rows.size() - 1)[0];
+            } while (rows.size() == chunkSize);
+            capacities = seen;
+
+            long elapsedNanos = System.nanoTime() - start;
+            fullPasses.record(elapsedNanos, TimeUnit.NANOSECONDS);
+            flightsRepriced.increment(seen.size());
+            lastThroughput = seen.size() / Math.max(elapsedNanos / 1e9, 1e-3);
+            logger.info(String.format("Repriced %d flights (%d fares changed) in %d ms, %.0f flights/s",
+                    seen.size(), updated, TimeUnit.NANOSECONDS.toMillis(elapsedNanos), lastThroughput));
+            return seen.size();
+        } finally {
+            passLock.unlock();
+        }
+    }
+
+    /**
+     * Reprice the flights marked since the last pass. Skipped while another pass runs;
+     * the flights stay marked for the next run.
+     * @return number of flights repriced
+     */
+    public int repriceChanged() {
+        if (dirtyFlights.isEmpty() || !passLock.tryLock()) {
+            return 0;
+        }
+        try {
+            List<Long> batch = new ArrayList<>();
+            for (Long flightId : dirtyFlights) {
+                dirtyFlights.remove(flightId);
+                batch.add(flightId);
+            }
+            if (batch.isEmpty()) {
+                return 0;
+            }
+
+            long start = System.nanoTime();
+            LocalDateTime now = LocalDateTime.now();
+            try {
+                for (int from = 0; from < batch.size(); from += chunkSize) {
+                    List<Long> flightIds = batch.subList(from, Math.min(from + chunkSize, batch.size()));
+                    reprice(fareClassPriceRepository.findRepricingRowsByFlightIds(now, flightIds),
+                            now.toLocalDate(), capacities);
+                }
+            } catch (RuntimeException e) {
+                // Mark them again so the next run retries them
+                dirtyFlights.addAll(batch);
+                throw e;
+            }
+
+            changedPasses.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+            flightsRepriced.increment(batch.size());
+            return batch.size();
+        } finally {
+            passLock.unlock();
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        pool.shutdownNow();
+    }
+
+    // Prices a chunk of rows as returned by the repricing queries and writes the changed ones
+    private int reprice(List<Object[]> rows, LocalDate today, Map<Long, Integer> seen) {
+        Object[][] fares = rows.toArray(new Object[0][]);
+        double[] prices = new double[fares.length];
+        pool.invoke(new PriceTask(fares, prices, 0, fares.length, today));
+
+        List<Long> ids = new ArrayList<>();
+        List<Double> changed = new ArrayList<>();
+        Set<Long> flights = new HashSet<>();
+        for (int i = 0; i < fares.length; i++) {
+            if (flights.add((Long) fares[i][1])) {
+                seen.put((Long) fares[i][1], (Integer) fares[i][7]);
+            }
+            if (prices[i] != (Double) fares[i][4]) {
+                ids.add((Long) fares[i][0]);
+                changed.add(prices[i]);
+            }
+        }
+        if (ids.isEmpty()) {
+            return 0;
+        }
+
+        Integer written = transactionTemplate.execute(status -> fareClassPriceRepository.updateCurrentPrices(
+                ids.toArray(new Long[0]), changed.toArray(new Double[0])));
+        faresUpdated.increment(written);
+        return written;
+    }
+
+    /**
+     * Prices fares[from .. to) into prices, splitting the range across the pool.
+     * Seats come from the live inventory when the flight is loaded there, else from the row.
+     */
+    private final class PriceTask extends RecursiveAction {
+        private final Object[][] fares;
+        private final double[] prices;
+        private final int from;
+        private final int to;
+        private final LocalDate today;
+
+        PriceTask(Object[][] fares, double[] prices, int from, int to, LocalDate today) {
+            this.fares = fares;
+            this.prices = prices;
+            this.from = from;
+            this.to = to;
+            this.today = today;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from > LEAF_SIZE) {
+                int middle = (from + to) >>> 1;
+                invokeAll(new PriceTask(fares, prices, from, middle, today),
+                        new PriceTask(fares, prices, middle, to, today));
+                return;
+            }
+            for (int i = from; i < to; i++) {
+                Object[] fare = fares[i];
+                int seats = seatInventoryService.peekAvailableSeats((Long) fare[1], (FareClass) fare[2], (Integer) fare[5]);
+                long daysUntilDeparture = ChronoUnit.DAYS.between(today, ((LocalDateTime) fare[6]).toLocalDate());
+                prices[i] = PricingService.currentPrice((Double) fare[3], daysUntilDeparture, seats, (Integer) fare[7]);
+            }
+        }
+    }
+}
@@ -1,20 +1,33 @@
 package com.Airlink.AirticketingSystem.service;
 
+import com.Airlink.AirticketingSystem.dto.CursorPage;
+import com.Airlink.AirticketingSystem.dto.FlightAvailabilityDTO;
 import com.Airlink.AirticketingSystem.dto.FlightRequestDTO;
 import com.Airlink.AirticketingSystem.dto.FlightResponseDTO;
+import com.Airlink.AirticketingSystem.dto.FlightSearchCriteria;
 import com.Airlink.AirticketingSystem.model.enums.FlightType;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 
+import java.time.LocalDate;
 import java.time.LocalDateTime;
+import java.util.List;
 
 public interface FlightService {
     FlightResponseDTO createFlight(FlightRequestDTO request);
     FlightResponseDTO getFlightById(Long id);
     Page<FlightResponseDTO> getAllFlights(Pageable pageable);
+    // Keyset pagination without a count query; pass null for the first slice
+    CursorPage<FlightResponseDTO> scrollFlights(String cursor, int size);
     // Search flights by query string and flight type
     Page<FlightResponseDTO> searchFlights(String query, FlightType flightType, LocalDateTime departureDate, Pageable pageable);
     
+    // Search flights by any combination of filters
+    Page<FlightResponseDTO> searchFlights(FlightSearchCriteria criteria, Pageable pageable);
+    
+    // Flights of a route on one day with live seat counts (cached per route and day)
+    List<FlightAvailabilityDTO> getRouteAvailability(FlightType flightType, Long originId, Long destinationId, LocalDate date);
+    
     // For backward compatibility
     @Deprecated
     default Page<FlightResponseDTO> searchFlights(Long originId, Long destinationId, LocalDateTime departureDate, Pageable pageable) {
@@ -17,5 +17,6 @@ public interface LocationService {
     void deleteLocation(Long id);
     LocationResponseDTO getLocationHierarchy(Long id);
     List<LocationResponseDTO> searchLocationsByName(String name);
+    List<LocationResponseDTO> getDescendantLocations(Long id, LocationType type);
 }
 
@@ -0,0 +1,343 @@
+package com.Airlink.AirticketingSystem.service;
+
+import com.Airlink.AirticketingSystem.dto.LocationResponseDTO;
+import com.Airlink.AirticketingSystem.exception.BadRequestException;
+import com.Airlink.AirticketingSystem.model.enums.LocationType;
+import com.Airlink.AirticketingSystem.repository.LocationRepository;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.logging.Logger;
+import java.util.stream.IntStream;
+
+/**
+ * The whole location hierarchy, held in memory as an immutable tree.
+ *
+ * Locations (province, district, sector, cell, village) are few and change rarely,
+ * so every read is served from a snapshot with parent pointers, child lists and
+ * precomputed full paths instead of walking lazy parents one query per hop.
+ * A change drops the snapshot once its transaction completes; the next read
+ * loads a new one with a single query.
+ */
+@Service
+public class LocationTreeService {
+
+    private static final Logger logger = Logger.getLogger(LocationTreeService.class.getName());
+
+    private static final String PATH_SEPARATOR = " > ";
+
+    private final LocationRepository locationRepository;
+
+    // Bumped on every change, so a snapshot loaded concurrently with a change is not kept
+    private final AtomicLong generation = new AtomicLong();
+    private final ReentrantLock loadLock = new ReentrantLock();
+    private volatile Snapshot snapshot;
+
+    public LocationTreeService(LocationRepository locationRepository) {
+        this.locationRepository = locationRepository;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void load() {
+        logger.info("Location tree loaded with " + snapshot().size() + " locations");
+    }
+
+    /**
+     * @return the location, or null if there is none with this id
+     */
+    public LocationResponseDTO get(Long id) {
+        Snapshot tree = snapshot();
+        int index = tree.indexOf(id);
+        return index < 0 ? null : tree.toDTO(index);
+    }
+
+    public List<LocationResponseDTO> getByType(LocationType type) {
+        Snapshot tree = snapshot();
+        return Arrays.stream(tree.byType[type.ordinal()]).mapToObj(tree::toDTO).toList();
+    }
+
+    public List<LocationResponseDTO> getChildren(Long parentId) {
+        Snapshot tree = snapshot();
+        int parent = tree.indexOf(parentId);
+        if (parent < 0) {
+            return List.of();
+        }
+        return IntStream.range(tree.childStart[parent], tree.childStart[parent + 1])
+                .map(i -> tree.children[i])
+                .mapToObj(tree::toDTO)
+                .toList();
+    }
+
+    /**
+     * Every location under the given one, optionally only of one type, in depth-first order.
+     * @return null if there is no location with this id
+     */
+    public List<LocationResponseDTO> getDescendants(Long id, LocationType type) {
+        Snapshot tree = snapshot();
+        int root = tree.indexOf(id);
+        if (root < 0) {
+            return null;
+        }
+        List<LocationResponseDTO> descendants = new ArrayList<>();
+        ArrayDeque<Integer> pending = new ArrayDeque<>();
+        pending.push(root);
+        while (!pending.isEmpty()) {
+            int current = pending.pop();
+            if (current != root && (type == null || tree.types[current] == type)) {
+                descendants.add(tree.toDTO(current));
+            }
+            // Pushed in reverse so children come out in id order
+            for (int i = tree.childStart[current + 1] - 1; i >= tree.childStart[current]; i--) {
+                pending.push(tree.children[i]);
+            }
+        }
+        return descendants;
+    }
+
+    public List<LocationResponseDTO> searchByName(String name) {
+        Snapshot tree = snapshot();
+        String needle = name.toLowerCase(Locale.ROOT);
+        return IntStream.range(0, tree.size())
+                .filter(i -> tree.lowerNames[i].contains(needle))
+                .mapToObj(tree::toDTO)
+                .toList();
+    }
+
+    /**
+     * A page of locations, by id unless the pageable is sorted by id, name, code or type.
+     */
+    public Page<LocationResponseDTO> getPage(Pageable pageable) {
+        Snapshot tree = snapshot();
+        IntStream order = IntStream.range(0, tree.size());
+        if (pageable.getSort().isSorted()) {
+            order = order.boxed().sorted(tree.comparator(pageable.getSort())).mapToInt(Integer::intValue);
+        }
+        List<LocationResponseDTO> content = pageable.isPaged()
+                ? order.skip(pageable.getOffset()).limit(pageable.getPageSize()).mapToObj(tree::toDTO).toList()
+                : order.mapToObj(tree::toDTO).toList();
+        return new PageImpl<>(content, pageable, tree.size());
+    }
+
+    /**
+     * Full path ("Province > District > ...") of a location from the loaded tree,
+     * or null if the tree is not loaded or does not have it. Never loads the tree, so
+     * it is safe inside a transaction that changes locations.
+     */
+    public String findPath(Long id) {
+        Snapshot tree = snapshot;
+        if (tree == null) {
+            return null;
+        }
+        int index = tree.indexOf(id);
+        return index < 0 ? null : tree.paths[index];
+    }
+
+    /**
+     * Drop the tree once the current transaction completes (right away outside of one).
+     */
+    public void invalidate() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    drop();
+                }
+            });
+        } else {
+            drop();
+        }
+    }
+
+    private void drop() {
+        generation.incrementAndGet();
+        snapshot = null;
+    }
+
+    private Snapshot snapshot() {
+        Snapshot current = snapshot;
+        if (current != null) {
+            return current;
+        }
+        // One load at a time; a lock rather than a monitor, so virtual threads waiting
+        // on the query do not pin their carriers
+        loadLock.lock();
+        try {
+            current = snapshot;
+            if (current == null) {
+                long loadGeneration = generation.get();
+                current = Snapshot.of(locationRepository.findTreeRows());
+                // Keep it only if no location changed while it was loading
+                if (generation.get() == loadGeneration) {
+                    snapshot = current;
+                }
+            }
+            return current;
+        } finally {
+            loadLock.unlock();
+        }
+    }
+
+    /**
+     * Locations by index in id order. Parents, children and types refer to indexes;
+     * children of a location are children[childStart[i] .. childStart[i + 1]).
+     */
+    private static final class Snapshot {
+        final long[] ids;
+        final int[] parents;
+        final String[] names;
+        final String[] lowerNames;
+        final String[] codes;
+        final LocationType[] types;
+        // Province, district, sector, cell and village name columns, by LocationType ordinal
+        final String[][] levelNames;
+        final String[] paths;
+        final int[] childStart;
+        final int[] children;
+        final int[][] byType;
+
+        private Snapshot(int size) {
+            ids = new long[size];
+            parents = new int[size];
+            names = new String[size];
+            lowerNames = new String[size];
+            codes = new String[size];
+            types = new LocationType[size];
+            levelNames = new String[LocationType.values().length][size];
+            paths = new String[size];
+            childStart = new int[size + 1];
+            children = new int[size];
+            byType = new int[LocationType.values().length][];
+        }
+
+        // Rows as returned by LocationRepository.findTreeRows, ordered by id
+        static Snapshot of(List<Object[]> rows) {
+            Snapshot tree = new Snapshot(rows.size());
+            for (int i = 0; i < rows.size(); i++) {
+                Object[] row = rows.get(i);
+                tree.ids[i] = (Long) row[0];
+                tree.names[i] = (String) row[2];
+                tree.lowerNames[i] = tree.names[i] != null ? tree.names[i].toLowerCase(Locale.ROOT) : "";
+                tree.codes[i] = (String) row[3];
+                tree.types[i] = (LocationType) row[4];
+                for (int level = 0; level < tree.levelNames.length; level++) {
+                    tree.levelNames[level][i] = (String) row[5 + level];
+                }
+            }
+            for (int i = 0; i < rows.size(); i++) {
+                Long parentId = (Long) rows.get(i)[1];
+                tree.parents[i] = parentId != null ? tree.indexOf(parentId) : -1;
+            }
+
+            tree.linkChildren();
+            tree.groupByType();
+            tree.buildPaths();
+            return tree;
+        }
+
+        int size() {
+            return ids.length;
+        }
+
+        int indexOf(Long id) {
+            if (id == null) {
+                return -1;
+            }
+            int index = Arrays.binarySearch(ids, id);
+            return index >= 0 ? index : -1;
+        }
+
+        LocationResponseDTO toDTO(int i) {
+            LocationResponseDTO dto = new LocationResponseDTO();
+            dto.setId(ids[i]);
+            dto.setName(names[i]);
+            dto.setCode(codes[i]);
+            dto.setType(types[i]);
+            if (parents[i] >= 0) {
+                dto.setParentId(ids[parents[i]]);
+                dto.setParentName(names[parents[i]]);
+            }
+            dto.setProvinceName(levelNames[LocationType.PROVINCE.ordinal()][i]);
+            dto.setDistrictName(levelNames[LocationType.DISTRICT.ordinal()][i]);
+            dto.setSectorName(levelNames[LocationType.SECTOR.ordinal()][i]);
+            dto.setCellName(levelNames[LocationType.CELL.ordinal()][i]);
+            dto.setVillageName(levelNames[LocationType.VILLAGE.ordinal()][i]);
+            dto.setFullHierarchy(paths[i]);
+            return dto;
+        }
+
+        Comparator<Integer> comparator(Sort sort) {
+            Comparator<Integer> comparator = null;
+            for (Sort.Order order : sort) {
+                Comparator<Integer> next = switch (order.getProperty()) {
+                    case "id" -> Comparator.comparingLong(i -> ids[i]);
+                    case "name" -> Comparator.comparing(i -> names[i], Comparator.nullsLast(Comparator.naturalOrder()));
+                    case "code" -> Comparator.comparing(i -> codes[i], Comparator.nullsLast(Comparator.naturalOrder()));
+                    case "type" -> Comparator.comparing(i -> types[i]);
+                    default -> throw new BadRequestException("Cannot sort locations by: " + order.getProperty());
+                };
+                if (order.isDescending()) {
+                    next = next.reversed();
+                }
+                comparator = comparator == null ? next : comparator.thenComparing(next);
+            }
+            return comparator;
+        }
+
+        private void linkChildren() {
+            for (int parent : parents) {
+                if (parent >= 0) {
+                    childStart[parent + 1]++;
+                }
+            }
+            for (int i = 0; i < size(); i++) {
+                childStart[i + 1] += childStart[i];
+            }
+            int[] next = Arrays.copyOf(childStart, size());
+            for (int i = 0; i < size(); i++) {
+                if (parents[i] >= 0) {
+                    children[next[parents[i]]++] = i;
+                }
+            }
+        }
+
+        private void groupByType() {
+            for (LocationType type : LocationType.values()) {
+                byType[type.ordinal()] = IntStream.range(0, size()).filter(i -> types[i] == type).toArray();
+            }
+        }
+
+        private void buildPaths() {
+            List<Integer> chain = new ArrayList<>();
+            for (int i = 0; i < size(); i++) {
+                // Walk up to the first ancestor whose path is known, then fill in on the way down
+                chain.clear();
+                int current = i;
+                while (current >= 0 && paths[current] == null && chain.size() <= size()) {
+                    chain.add(current);
+                    current = parents[current];
+                }
+                String path = current >= 0 ? paths[current] : null;
+                for (int j = chain.size() - 1; j >= 0; j--) {
+                    int index = chain.get(j);
+                    path = path == null ? names[index] : path + PATH_SEPARATOR + names[index];
+                    paths[index] = path;
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,169 @@
+package com.Airlink.AirticketingSystem.service;
+
+import com.Airlink.AirticketingSystem.model.User;
+import com.Airlink.AirticketingSystem.repository.UserRepository;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.logging.Logger;
+
+/**
+ * Failed login attempts and account lockout.
+ *
+ * The state of a user is read from the user row on first use and then kept in
+ * memory. With auth.login.write-behind enabled, changes are written back in
+ * batches by {@link #flush()}, so a burst of logins costs no writes on the
+ * request thread. With it disabled (several application instances) every
+ * change is written right away. Either way the write happens in its own
+ * transaction, so a failed attempt is recorded even though the login fails.
+ * Each flush also drops the states that are written and hold no lockout in force,
+ * so memory follows the accounts currently locked rather than every account that
+ * ever failed a login.
+ */
+@Service
+public class LoginAttemptService {
+
+    private static final Logger logger = Logger.getLogger(LoginAttemptService.class.getName());
+
+    // Lock the account for 15 minutes after 5 failed attempts
+    private static final int MAX_FAILED_ATTEMPTS = 5;
+    private static final long LOCKOUT_SECONDS = 900;
+
+    private final UserRepository userRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final boolean writeBehind;
+
+    // email -> login state, authoritative over the user row while present
+    private final ConcurrentHashMap<String, LoginState> states = new ConcurrentHashMap<>();
+    private final Set<String> dirtyUsers = ConcurrentHashMap.newKeySet();
+
+    public LoginAttemptService(UserRepository userRepository,
+                               TransactionTemplate transactionTemplate,
+                               @Value("${auth.login.write-behind:false}") boolean writeBehind) {
+        this.userRepository = userRepository;
+        this.transactionTemplate = transactionTemplate;
+        this.writeBehind = writeBehind;
+    }
+
+    public boolean isLocked(User user) {
+        return stateOf(user).isLockedAt(Instant.now());
+    }
+
+    public void loginFailed(User user) {
+        LoginState state = states.compute(user.getEmail(), (email, current) -> {
+            LoginState previous = current != null ? current : LoginState.of(user);
+            int failedAttempts = previous.failedAttempts() + 1;
+            Instant lockoutUntil = failedAttempts >= MAX_FAILED_ATTEMPTS
+                    ? Instant.now().plusSeconds(LOCKOUT_SECONDS)
+                    : previous.lockoutUntil();
+            return changed(email, new LoginState(user.getId(), failedAttempts, lockoutUntil));
+        });
+        writeThrough(state);
+    }
+
+    public void loginSucceeded(User user) {
+        if (stateOf(user).isCleared()) {
+            // Nothing to reset, which is the case for almost every login
+            return;
+        }
+        LoginState cleared = states.compute(user.getEmail(), (email, current) ->
+                changed(email, new LoginState(user.getId(), 0, null)));
+        writeThrough(cleared);
+    }
+
+    /**
+     * Write the state of every user changed since the last flush in a single transaction,
+     * then drop the states the user rows now hold as well, unless a lockout is in force.
+     * @return number of users written
+     */
+    public int flush() {
+        List<String> batch = new ArrayList<>();
+        for (String email : dirtyUsers) {
+            dirtyUsers.remove(email);
+            batch.add(email);
+        }
+
+        if (!batch.isEmpty()) {
+            try {
+                transactionTemplate.executeWithoutResult(status -> {
+                    for (String email : batch) {
+                        LoginState state = states.get(email);
+                        if (state != null) {
+                            write(state);
+                        }
+                    }
+                });
+            } catch (RuntimeException e) {
+                // Mark them again so the next flush retries them
+                dirtyUsers.addAll(batch);
+                throw e;
+            }
+        }
+
+        // Evicted here, after the write, so no state is dropped between a drain and its write;
+        // without write-behind a state may go before its own write, which still lands
+        Instant now = Instant.now();
+        for (String email : states.keySet()) {
+            states.computeIfPresent(email, (key, state) ->
+                    dirtyUsers.contains(key) || state.isLockedAt(now) ? state : null);
+        }
+        return batch.size();
+    }
+
+    @PreDestroy
+    public void flushOnShutdown() {
+        try {
+            flush();
+        } catch (Exception e) {
+            logger.warning("Could not write login attempts on shutdown: " + e.getMessage());
+        }
+    }
+
+    private LoginState stateOf(User user) {
+        LoginState state = states.get(user.getEmail());
+        return state != null ? state : LoginState.of(user);
+    }
+
+    // Marks a state for the next flush while it replaces the previous one,
+    // so an eviction never drops a change the flush has not written yet
+    private LoginState changed(String email, LoginState state) {
+        if (writeBehind) {
+            dirtyUsers.add(email);
+        }
+        return state;
+    }
+
+    private void writeThrough(LoginState state) {
+        if (!writeBehind) {
+            transactionTemplate.executeWithoutResult(status -> write(state));
+        }
+    }
+
+    private void write(LoginState state) {
+        userRepository.updateLoginState(state.userId(), state.failedAttempts(), state.lockoutUntil());
+    }
+
+    private record LoginState(Long userId, int failedAttempts, Instant lockoutUntil) {
+
+        static LoginState of(User user) {
+            return new LoginState(user.getId(),
+                    user.getFailedLoginAttempts() != null ? user.getFailedLoginAttempts() : 0,
+                    user.getLockoutUntil());
+        }
+
+        boolean isCleared() {
+            return failedAttempts == 0 && lockoutUntil == null;
+        }
+
+        boolean isLockedAt(Instant now) {
+            return lockoutUntil != null && now.isBefore(lockoutUntil);
+        }
+    }
+}
@@ -1,5 +1,6 @@
 package com.Airlink.AirticketingSystem.service;
 
+import com.Airlink.AirticketingSystem.dto.CursorPage;
 import com.Airlink.AirticketingSystem.dto.PaymentResponseDTO;
 import com.Airlink.AirticketingSystem.model.enums.PaymentMethod;
 import com.Airlink.AirticketingSystem.model.enums.PaymentStatus;
@@ -11,6 +12,8 @@ public interface PaymentService {
     PaymentResponseDTO getPaymentById(Long id);
     PaymentResponseDTO getPaymentByReference(String reference);
     Page<PaymentResponseDTO> getAllPayments(Pageable pageable);
+    // Keyset pagination without a count query; pass null for the first slice
+    CursorPage<PaymentResponseDTO> scrollPayments(String cursor, int size);
     Page<PaymentResponseDTO> getPaymentsByStatus(PaymentStatus status, Pageable pageable);
     Page<PaymentResponseDTO> getPaymentsByBooking(Long bookingId, Pageable pageable);
     PaymentResponseDTO updatePaymentStatus(Long id, PaymentStatus status);
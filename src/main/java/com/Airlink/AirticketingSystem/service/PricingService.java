@@ -1,56 +1,263 @@
 package com.Airlink.AirticketingSystem.service;
 
 import com.Airlink.AirticketingSystem.model.Flight;
-import com.Airlink.AirticketingSystem.model.FareClassPrice;
 import com.Airlink.AirticketingSystem.model.enums.FareClass;
+import com.Airlink.AirticketingSystem.repository.FareClassPriceRepository;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
 import java.time.LocalDate;
 import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
 
+/**
+ * Dynamic fare prices.
+ *
+ * Base prices are kept per flight in a fare table indexed by FareClass ordinal, loaded
+ * for a whole page of flights with one query and dropped when the flight changes.
+ * Seat counts come live from {@link SeatInventoryService} for flights whose counters
+ * are loaded, so bookings and cancellations are reflected without touching the tables;
+ * other flights are priced with the seats loaded with their table.
+ */
 @Service
 public class PricingService {
-    
+
     private static final double DEMAND_FACTOR = 0.1; // 10% increase per demand level
     private static final double TIME_FACTOR = 0.05; // 5% increase per week closer to departure
-    
+
+    private static final FareClass[] FARE_CLASSES = FareClass.values();
+    private static final int GENERATION_STRIPES = 256;
+
+    private final FareClassPriceRepository fareClassPriceRepository;
+    private final SeatInventoryService seatInventoryService;
+    private final int maxFlights;
+
+    // Access-ordered, so the least recently quoted flight is dropped first
+    private final LinkedHashMap<Long, FareTable> tables;
+    // Bumped under the tables lock whenever a flight is evicted, so a load racing with the
+    // eviction is not kept; flights hashing to the same stripe share a counter
+    private final long[] generations = new long[GENERATION_STRIPES];
+
+    public PricingService(FareClassPriceRepository fareClassPriceRepository,
+                          SeatInventoryService seatInventoryService,
+                          @Value("${pricing.fare-table.max-flights:50000}") int maxFlights) {
+        this.fareClassPriceRepository = fareClassPriceRepository;
+        this.seatInventoryService = seatInventoryService;
+        this.maxFlights = maxFlights;
+        this.tables = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Long, FareTable> eldest) {
+                return size() > PricingService.this.maxFlights;
+            }
+        };
+    }
+
     public double calculateDynamicPrice(Flight flight, FareClass fareClass, int passengerCount) {
-        FareClassPrice price = flight.getFareClassPrices().stream()
-                .filter(p -> p.getFareClass() == fareClass)
-                .findFirst()
-                .orElseThrow(() -> new IllegalArgumentException("Fare class not available for this flight"));
-        
-        double basePrice = price.getBasePrice();
-        double dynamicPrice = basePrice;
-        
-        // Adjust for time before departure (closer to departure = higher price)
-        long daysUntilDeparture = ChronoUnit.DAYS.between(
-            LocalDate.now(), 
-            flight.getDepartureTime().toLocalDate()
-        );
-        
+        double price = quote(List.of(flight), passengerCount).get(flight.getId()).prices()[fareClass.ordinal()];
+        if (Double.isNaN(price)) {
+            throw new IllegalArgumentException("Fare class not available for this flight");
+        }
+        return price;
+    }
+
+    /**
+     * Price every fare class of the given flights in one pass.
+     * Fare tables missing from the cache are loaded together with a single query.
+     * @return quote by flight id
+     */
+    public Map<Long, FareQuote> quote(List<Flight> flights, int passengerCount) {
+        Map<Long, FareTable> fares = tablesFor(flights);
+        LocalDate today = LocalDate.now();
+        double groupFactor = groupFactor(passengerCount);
+
+        Map<Long, FareQuote> quotes = new HashMap<>();
+        for (Flight flight : flights) {
+            FareTable table = fares.get(flight.getId());
+            double dateFactor = dateFactor(ChronoUnit.DAYS.between(today, flight.getDepartureTime().toLocalDate()));
+
+            double[] prices = new double[FARE_CLASSES.length];
+            for (int i = 0; i < prices.length; i++) {
+                double basePrice = table.basePrices[i];
+                if (Double.isNaN(basePrice)) {
+                    prices[i] = Double.NaN;
+                    continue;
+                }
+                // Never loads counters: a page of quotes stays one query at most, and flights deleted meanwhile do not fail it
+                int seats = seatInventoryService.peekAvailableSeats(flight.getId(), FARE_CLASSES[i], table.seats[i]);
+                prices[i] = price(basePrice, dateFactor, seatFactor(seats, flight.getTotalCapacity()), groupFactor);
+            }
+            quotes.put(flight.getId(), new FareQuote(table.basePrices.clone(), prices));
+        }
+        return quotes;
+    }
+
+    /**
+     * Price of a single seat, as {@link #quote} prices it for one passenger.
+     * @param seats seats left in the fare class, negative when unknown
+     */
+    public static double currentPrice(double basePrice, long daysUntilDeparture, int seats, int totalCapacity) {
+        return price(basePrice, dateFactor(daysUntilDeparture), seatFactor(seats, totalCapacity), 1.0);
+    }
+
+    /**
+     * Whether going from one seat count to another changes the seat-availability price step.
+     */
+    public static boolean crossesSeatThreshold(int seatsBefore, int seatsAfter, int totalCapacity) {
+        return seatFactor(seatsBefore, totalCapacity) != seatFactor(seatsAfter, totalCapacity);
+    }
+
+    /**
+     * Drop the fare table of a flight whose fares changed or which was deleted.
+     * Drops it again once the transaction completes, so a quote racing with the change cannot keep the old fares.
+     */
+    public void invalidate(Long flightId) {
+        if (flightId == null) {
+            return;
+        }
+        evict(flightId);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    evict(flightId);
+                }
+            });
+        }
+    }
+
+    private void evict(Long flightId) {
+        synchronized (tables) {
+            tables.remove(flightId);
+            generations[stripe(flightId)]++;
+        }
+    }
+
+    private static int stripe(Long flightId) {
+        return Long.hashCode(flightId) & (GENERATION_STRIPES - 1);
+    }
+
+    private Map<Long, FareTable> tablesFor(List<Flight> flights) {
+        Map<Long, FareTable> fares = new HashMap<>();
+        List<Long> missing = new ArrayList<>();
+        List<Long> loadGenerations = new ArrayList<>();
+        synchronized (tables) {
+            for (Flight flight : flights) {
+                FareTable table = tables.get(flight.getId());
+                if (table != null) {
+                    fares.put(flight.getId(), table);
+                } else {
+                    missing.add(flight.getId());
+                    loadGenerations.add(generations[stripe(flight.getId())]);
+                }
+            }
+        }
+        if (missing.isEmpty()) {
+            return fares;
+        }
+
+        // Loaded outside of the lock so a slow query never blocks other quotes
+        for (Long flightId : missing) {
+            fares.put(flightId, new FareTable());
+        }
+        for (Object[] row : fareClassPriceRepository.findFareRowsByFlightIds(missing)) {
+            FareTable table = fares.get((Long) row[0]);
+            int index = ((FareClass) row[1]).ordinal();
+            table.basePrices[index] = (Double) row[2];
+            table.seats[index] = (Integer) row[3];
+        }
+        synchronized (tables) {
+            for (int i = 0; i < missing.size(); i++) {
+                Long flightId = missing.get(i);
+                // Kept only if the flight was not evicted while it was loading
+                if (generations[stripe(flightId)] == loadGenerations.get(i)) {
+                    tables.put(flightId, fares.get(flightId));
+                }
+            }
+        }
+        return fares;
+    }
+
+    private static double price(double basePrice, double dateFactor, double seatFactor, double groupFactor) {
+        double dynamicPrice = basePrice * dateFactor * seatFactor * groupFactor;
+        // Ensure price doesn't go below base price
+        return Math.max(basePrice, Math.round(dynamicPrice * 100.0) / 100.0);
+    }
+
+    // Closer to departure = higher price
+    private static double dateFactor(long daysUntilDeparture) {
         if (daysUntilDeparture < 7) {
-            dynamicPrice *= 1.3; // 30% more expensive if less than a week away
+            return 1.3; // 30% more expensive if less than a week away
         } else if (daysUntilDeparture < 30) {
-            dynamicPrice *= 1.15; // 15% more expensive if less than a month away
+            return 1.15; // 15% more expensive if less than a month away
         }
-        
-        // Adjust for seat availability (fewer seats left = higher price)
-        double seatRatio = (double) price.getAvailableSeats() / flight.getTotalCapacity();
+        return 1.0;
+    }
+
+    // Fewer seats left = higher price
+    private static double seatFactor(int seats, int totalCapacity) {
+        if (seats < 0) {
+            return 1.0;
+        }
+        double seatRatio = (double) seats / totalCapacity;
         if (seatRatio < 0.2) { // Less than 20% seats left
-            dynamicPrice *= 1.2; // 20% more expensive
+            return 1.2; // 20% more expensive
         } else if (seatRatio < 0.5) { // Less than 50% seats left
-            dynamicPrice *= 1.1; // 10% more expensive
+            return 1.1; // 10% more expensive
         }
-        
-        // Adjust for number of passengers (discount for group bookings)
+        return 1.0;
+    }
+
+    // Discount for group bookings
+    private static double groupFactor(int passengerCount) {
         if (passengerCount >= 10) {
-            dynamicPrice *= 0.9; // 10% discount for groups of 10 or more
+            return 0.9; // 10% discount for groups of 10 or more
         } else if (passengerCount >= 4) {
-            dynamicPrice *= 0.95; // 5% discount for groups of 4-9
+            return 0.95; // 5% discount for groups of 4-9
+        }
+        return 1.0;
+    }
+
+    /**
+     * Base and dynamic prices of one flight by FareClass ordinal, NaN when the fare class is not offered.
+     */
+    public record FareQuote(double[] basePrices, double[] prices) {
+
+        public Map<FareClass, Double> basePriceMap() {
+            return toMap(basePrices);
+        }
+
+        public Map<FareClass, Double> priceMap() {
+            return toMap(prices);
+        }
+
+        private static Map<FareClass, Double> toMap(double[] byOrdinal) {
+            Map<FareClass, Double> map = new EnumMap<>(FareClass.class);
+            for (int i = 0; i < byOrdinal.length; i++) {
+                if (!Double.isNaN(byOrdinal[i])) {
+                    map.put(FARE_CLASSES[i], byOrdinal[i]);
+                }
+            }
+            return map;
+        }
+    }
+
+    // Base prices (NaN when not offered) and seats as loaded, by FareClass ordinal; seats only stand in
+    // for flights whose counters are not in memory
+    private static final class FareTable {
+        final double[] basePrices = new double[FARE_CLASSES.length];
+        final int[] seats = new int[FARE_CLASSES.length];
+
+        FareTable() {
+            Arrays.fill(basePrices, Double.NaN);
+            Arrays.fill(seats, -1);
         }
-        
-        // Ensure price doesn't go below base price
-        return Math.max(basePrice, Math.round(dynamicPrice * 100.0) / 100.0);
     }
 }
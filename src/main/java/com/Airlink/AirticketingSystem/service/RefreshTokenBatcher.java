@@ -0,0 +1,135 @@
+package com.Airlink.AirticketingSystem.service;
+
+import com.Airlink.AirticketingSystem.model.RefreshToken;
+import com.Airlink.AirticketingSystem.repository.RefreshTokenRepository;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.logging.Logger;
+
+/**
+ * Batched persistence of newly issued refresh tokens.
+ *
+ * With auth.login.write-behind enabled, new tokens are held in memory and inserted
+ * together by {@link #flush()}; lookups and deletes see the pending tokens, so a
+ * token can be refreshed or revoked before it is written. With it disabled
+ * (several application instances) each token is inserted right away.
+ */
+@Service
+public class RefreshTokenBatcher {
+
+    private static final Logger logger = Logger.getLogger(RefreshTokenBatcher.class.getName());
+
+    private final RefreshTokenRepository refreshTokenRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final boolean writeBehind;
+
+    // token hash -> token not written yet
+    private final ConcurrentHashMap<String, RefreshToken> pending = new ConcurrentHashMap<>();
+    // Held while a batch is written, so a delete cannot miss a token in flight; a lock rather
+    // than a monitor, so virtual threads waiting on the JDBC batch do not pin their carriers
+    private final ReentrantLock flushLock = new ReentrantLock();
+
+    public RefreshTokenBatcher(RefreshTokenRepository refreshTokenRepository,
+                               TransactionTemplate transactionTemplate,
+                               @Value("${auth.login.write-behind:false}") boolean writeBehind) {
+        this.refreshTokenRepository = refreshTokenRepository;
+        this.transactionTemplate = transactionTemplate;
+        this.writeBehind = writeBehind;
+    }
+
+    /**
+     * Save a new token. Inside a transaction the token is only queued once it commits.
+     */
+    public void save(RefreshToken refreshToken) {
+        if (!writeBehind) {
+            refreshTokenRepository.save(refreshToken);
+            return;
+        }
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    pending.put(refreshToken.getTokenHash(), refreshToken);
+                }
+            });
+        } else {
+            pending.put(refreshToken.getTokenHash(), refreshToken);
+        }
+    }
+
+    public Optional<RefreshToken> findByTokenHash(String tokenHash) {
+        RefreshToken refreshToken = pending.get(tokenHash);
+        return refreshToken != null ? Optional.of(refreshToken) : refreshTokenRepository.findByTokenHash(tokenHash);
+    }
+
+    public void delete(RefreshToken refreshToken) {
+        flushLock.lock();
+        try {
+            if (pending.remove(refreshToken.getTokenHash()) != null) {
+                return;
+            }
+        } finally {
+            flushLock.unlock();
+        }
+        refreshTokenRepository.delete(refreshToken);
+    }
+
+    /**
+     * Insert all pending tokens in a single transaction.
+     * @return number of tokens written
+     */
+    public int flush() {
+        flushLock.lock();
+        try {
+            List<RefreshToken> batch = new ArrayList<>(pending.values());
+            if (batch.isEmpty()) {
+                return 0;
+            }
+
+            try {
+                transactionTemplate.executeWithoutResult(status -> refreshTokenRepository.saveAll(batch));
+            } catch (RuntimeException e) {
+                // One bad token (e.g. its user was deleted) must not hold back the others
+                logger.warning("Batch insert of refresh tokens failed, inserting one by one: " + e.getMessage());
+                batch.forEach(this::saveAlone);
+            }
+
+            for (RefreshToken refreshToken : batch) {
+                pending.remove(refreshToken.getTokenHash(), refreshToken);
+            }
+            return batch.size();
+        } finally {
+            flushLock.unlock();
+        }
+    }
+
+    @PreDestroy
+    public void flushOnShutdown() {
+        try {
+            flush();
+        } catch (Exception e) {
+            logger.warning("Could not write refresh tokens on shutdown: " + e.getMessage());
+        }
+    }
+
+    private void saveAlone(RefreshToken refreshToken) {
+        // The id assigned by the rolled back batch was never written
+        refreshToken.setId(null);
+        try {
+            transactionTemplate.executeWithoutResult(status -> refreshTokenRepository.save(refreshToken));
+        } catch (RuntimeException e) {
+            refreshToken.setId(null);
+            logger.warning("Dropping refresh token of user " + refreshToken.getUser().getId() + ": " + e.getMessage());
+        }
+    }
+}
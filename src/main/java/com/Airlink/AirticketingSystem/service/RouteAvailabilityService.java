@@ -0,0 +1,252 @@
+package com.Airlink.AirticketingSystem.service;
+
+import com.Airlink.AirticketingSystem.dto.FlightAvailabilityDTO;
+import com.Airlink.AirticketingSystem.dto.FlightSearchCriteria;
+import com.Airlink.AirticketingSystem.model.Flight;
+import com.Airlink.AirticketingSystem.model.enums.FareClass;
+import com.Airlink.AirticketingSystem.model.enums.FlightType;
+import com.Airlink.AirticketingSystem.repository.FlightRepository;
+import com.Airlink.AirticketingSystem.repository.FlightSpecifications;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Sort;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Read-through cache of the flights on a route for one departure day.
+ *
+ * Entries hold compact flight summaries (times and fare prices). Seat counts are
+ * read live from {@link SeatInventoryService} on every lookup (falling back to the
+ * counts loaded with the entry for flights whose counters are not in memory), so
+ * bookings and cancellations never make an entry stale. Flight changes evict the
+ * entries of the route/day the flight was on before and after the change.
+ */
+@Service
+public class RouteAvailabilityService {
+
+    private static final int FARE_CLASS_COUNT = FareClass.values().length;
+    private static final int GENERATION_STRIPES = 256;
+
+    private final FlightRepository flightRepository;
+    private final SeatInventoryService seatInventoryService;
+    private final TransactionTemplate transactionTemplate;
+    private final int maxRoutes;
+    private final long ttlMs;
+
+    private final Counter hits;
+    private final Counter misses;
+    private final Counter evictions;
+
+    // Access-ordered, so the least recently used route is evicted first
+    private final LinkedHashMap<RouteKey, CachedRoute> routes;
+    // Bumped under the routes lock whenever a route is evicted, so a load racing with the
+    // eviction is not kept; routes hashing to the same stripe share a counter
+    private final long[] generations = new long[GENERATION_STRIPES];
+
+    public RouteAvailabilityService(FlightRepository flightRepository,
+                                    SeatInventoryService seatInventoryService,
+                                    TransactionTemplate transactionTemplate,
+                                    MeterRegistry meterRegistry,
+                                    @Value("${availability.cache.max-routes:10000}") int maxRoutes,
+                                    @Value("${availability.cache.ttl-seconds:300}") long ttlSeconds) {
+        this.flightRepository = flightRepository;
+        this.seatInventoryService = seatInventoryService;
+        this.transactionTemplate = transactionTemplate;
+        this.maxRoutes = maxRoutes;
+        this.ttlMs = ttlSeconds * 1000;
+
+        this.routes = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<RouteKey, CachedRoute> eldest) {
+                if (size() > RouteAvailabilityService.this.maxRoutes) {
+                    evictions.increment();
+                    return true;
+                }
+                return false;
+            }
+        };
+
+        this.hits = Counter.builder("route.availability.cache.requests").tag("result", "hit")
+                .description("Route availability lookups served from the cache").register(meterRegistry);
+        this.misses = Counter.builder("route.availability.cache.requests").tag("result", "miss")
+                .description("Route availability lookups loaded from the database").register(meterRegistry);
+        this.evictions = Counter.builder("route.availability.cache.evictions")
+                .description("Routes evicted to stay within availability.cache.max-routes").register(meterRegistry);
+        meterRegistry.gauge("route.availability.cache.size", routes, this::sizeOf);
+    }
+
+    /**
+     * Flights of a route departing on the given day, with live seat counts.
+     * Origin and destination are location ids for domestic flights and airport ids otherwise.
+     */
+    public List<FlightAvailabilityDTO> getAvailability(FlightType flightType, Long originId,
+                                                       Long destinationId, LocalDate date) {
+        RouteKey key = new RouteKey(flightType, originId, destinationId, date);
+        long now = System.currentTimeMillis();
+
+        CachedRoute route;
+        long generation;
+        synchronized (routes) {
+            route = routes.get(key);
+            generation = generations[stripe(key)];
+        }
+        if (route != null && route.expiresAt > now) {
+            hits.increment();
+        } else {
+            misses.increment();
+            // Loaded outside of the lock so a slow query never blocks other routes
+            route = new CachedRoute(transactionTemplate.execute(status -> load(key)), now + ttlMs);
+            synchronized (routes) {
+                // Kept only if the route was not evicted while it was loading
+                if (generations[stripe(key)] == generation) {
+                    routes.put(key, route);
+                }
+            }
+        }
+
+        return Arrays.stream(route.flights).map(this::toDTO).toList();
+    }
+
+    /**
+     * Evict the route/day a flight is on. Called before and after a flight changes;
+     * evicts again after commit so a lookup racing with the change cannot keep the old data.
+     */
+    public void invalidate(Flight flight) {
+        RouteKey key = keyOf(flight);
+        if (key == null) {
+            return;
+        }
+        evict(key);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    evict(key);
+                }
+            });
+        }
+    }
+
+    private void evict(RouteKey key) {
+        synchronized (routes) {
+            routes.remove(key);
+            generations[stripe(key)]++;
+        }
+    }
+
+    private static int stripe(RouteKey key) {
+        return key.hashCode() & (GENERATION_STRIPES - 1);
+    }
+
+    private FlightSummary[] load(RouteKey key) {
+        FlightSearchCriteria criteria = FlightSearchCriteria.builder()
+                .flightType(key.flightType)
+                .originId(key.originId)
+                .destinationId(key.destinationId)
+                .departureFrom(key.date.atStartOfDay())
+                .departureTo(key.date.plusDays(1).atStartOfDay())
+                .build();
+
+        return flightRepository.findAll(FlightSpecifications.matching(criteria), Sort.by("departureTime", "id"))
+                .stream()
+                .map(FlightSummary::of)
+                .toArray(FlightSummary[]::new);
+    }
+
+    private FlightAvailabilityDTO toDTO(FlightSummary flight) {
+        FlightAvailabilityDTO dto = new FlightAvailabilityDTO();
+        dto.setFlightId(flight.id);
+        dto.setFlightNumber(flight.flightNumber);
+        dto.setAirline(flight.airline);
+        dto.setDepartureTime(flight.departureTime);
+        dto.setArrivalTime(flight.arrivalTime);
+        dto.setPrice(flight.price);
+        // Never loads counters: a lookup stays one cache read, and flights deleted meanwhile do not fail it
+        dto.setAvailableSeats(seatInventoryService.peekAvailableSeats(flight.id, flight.availableSeats));
+
+        for (FareClass fareClass : FareClass.values()) {
+            double farePrice = flight.farePrices[fareClass.ordinal()];
+            if (!Double.isNaN(farePrice)) {
+                dto.getFareClassPrices().put(fareClass, farePrice);
+                dto.getAvailableSeatsPerClass().put(fareClass, Math.max(0,
+                        seatInventoryService.peekAvailableSeats(flight.id, fareClass, flight.fareSeats[fareClass.ordinal()])));
+            }
+        }
+        return dto;
+    }
+
+    private static RouteKey keyOf(Flight flight) {
+        if (flight.getFlightType() == null || flight.getDepartureTime() == null) {
+            return null;
+        }
+        Long originId;
+        Long destinationId;
+        if (flight.getFlightType() == FlightType.DOMESTIC) {
+            originId = flight.getOriginLocation() != null ? flight.getOriginLocation().getId() : null;
+            destinationId = flight.getDestinationLocation() != null ? flight.getDestinationLocation().getId() : null;
+        } else {
+            originId = flight.getOriginAirport() != null ? flight.getOriginAirport().getId() : null;
+            destinationId = flight.getDestinationAirport() != null ? flight.getDestinationAirport().getId() : null;
+        }
+        if (originId == null || destinationId == null) {
+            return null;
+        }
+        return new RouteKey(flight.getFlightType(), originId, destinationId, flight.getDepartureTime().toLocalDate());
+    }
+
+    private double sizeOf(Map<RouteKey, CachedRoute> map) {
+        synchronized (routes) {
+            return map.size();
+        }
+    }
+
+    private record RouteKey(FlightType flightType, Long originId, Long destinationId, LocalDate date) {
+    }
+
+    private record CachedRoute(FlightSummary[] flights, long expiresAt) {
+    }
+
+    // Fare prices and seats are indexed by FareClass ordinal, NaN when the fare class is not offered;
+    // seat counts are as loaded and only stand in for flights whose counters are not in memory
+    private record FlightSummary(Long id, String flightNumber, String airline,
+                                 LocalDateTime departureTime, LocalDateTime arrivalTime,
+                                 double price, double[] farePrices, int availableSeats, int[] fareSeats) {
+
+        static FlightSummary of(Flight flight) {
+            double[] farePrices = new double[FARE_CLASS_COUNT];
+            int[] fareSeats = new int[FARE_CLASS_COUNT];
+            Arrays.fill(farePrices, Double.NaN);
+            flight.getFareClassPrices().forEach(fcp -> {
+                farePrices[fcp.getFareClass().ordinal()] = fcp.getBasePrice();
+                fareSeats[fcp.getFareClass().ordinal()] = fcp.getAvailableSeats();
+            });
+
+            // Same rule as the flight listing: economy price, else the first fare class, else the flight price
+            double price = flight.getPrice();
+            if (!Double.isNaN(farePrices[FareClass.ECONOMY.ordinal()])) {
+                price = farePrices[FareClass.ECONOMY.ordinal()];
+            } else {
+                for (double farePrice : farePrices) {
+                    if (!Double.isNaN(farePrice)) {
+                        price = farePrice;
+                        break;
+                    }
+                }
+            }
+            return new FlightSummary(flight.getId(), flight.getFlightNumber(), flight.getAirline(),
+                    flight.getDepartureTime(), flight.getArrivalTime(), price, farePrices,
+                    flight.getAvailableSeats(), fareSeats);
+        }
+    }
+}
@@ -0,0 +1,147 @@
+package com.Airlink.AirticketingSystem.service;
+
+import com.Airlink.AirticketingSystem.model.enums.BookingStatus;
+import com.Airlink.AirticketingSystem.model.enums.PaymentStatus;
+import com.Airlink.AirticketingSystem.repository.BookingRepository;
+import com.Airlink.AirticketingSystem.scheduler.TimingWheel;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.List;
+import java.util.logging.Logger;
+
+/**
+ * Temporary seat holds for unpaid (PENDING) bookings.
+ *
+ * Each hold is a timer in a {@link TimingWheel}; the reaper advances the wheel
+ * and cancels the bookings whose hold ran out, so no periodic scan of the
+ * bookings table is needed. Holds are re-armed from the database once on startup.
+ *
+ * A booking with a PENDING payment is held until payment-ttl after the payment
+ * started, if that is later, so a payment in progress is not cut off by the hold.
+ * Bookings whose hold ran out while the application was down are given a fresh
+ * hold at startup, unless booking.hold.expire-overdue-on-startup cancels them.
+ */
+@Service
+public class SeatHoldService {
+
+    private static final Logger logger = Logger.getLogger(SeatHoldService.class.getName());
+
+    private final BookingRepository bookingRepository;
+    private final TimingWheel<Long> holds;
+    private final long ttlMs;
+    private final long paymentTtlMs;
+    private final boolean expireOverdueOnStartup;
+
+    public SeatHoldService(BookingRepository bookingRepository,
+                           @Value("${booking.hold.ttl-minutes:15}") long ttlMinutes,
+                           @Value("${booking.hold.payment-ttl-minutes:30}") long paymentTtlMinutes,
+                           @Value("${booking.hold.expire-overdue-on-startup:false}") boolean expireOverdueOnStartup,
+                           @Value("${booking.hold.tick-ms:1000}") long tickMs) {
+        this.bookingRepository = bookingRepository;
+        this.ttlMs = ttlMinutes * 60_000L;
+        this.paymentTtlMs = paymentTtlMinutes * 60_000L;
+        this.expireOverdueOnStartup = expireOverdueOnStartup;
+        this.holds = new TimingWheel<>(tickMs, System.currentTimeMillis());
+    }
+
+    /**
+     * Hold the seats of a new booking until its payment arrives.
+     * The timer only starts once the booking transaction commits.
+     */
+    public void hold(Long bookingId, LocalDateTime bookingDate) {
+        hold(bookingId, bookingDate, null);
+    }
+
+    /**
+     * Hold the seats of a booking, for longer while a payment started at paymentDate is pending.
+     * Also takes the extension back once the payment failed (paymentDate null).
+     */
+    public void hold(Long bookingId, LocalDateTime bookingDate, LocalDateTime paymentDate) {
+        long deadline = deadline(bookingDate, paymentDate);
+        afterCommit(() -> holds.schedule(bookingId, deadline));
+    }
+
+    /**
+     * Re-arm the hold of a booking whose timer fired but which is still held,
+     * as when its payment started on another instance.
+     * @return true if the hold has not run out
+     */
+    public boolean rearmIfHeld(Long bookingId, LocalDateTime bookingDate, LocalDateTime paymentDate) {
+        long deadline = deadline(bookingDate, paymentDate);
+        if (deadline <= System.currentTimeMillis()) {
+            return false;
+        }
+        afterCommit(() -> holds.schedule(bookingId, deadline));
+        return true;
+    }
+
+    /**
+     * Stop the hold of a booking that was paid, cancelled or deleted.
+     */
+    public void releaseHold(Long bookingId) {
+        afterCommit(() -> holds.cancel(bookingId));
+    }
+
+    /**
+     * @return bookings whose hold has expired since the last call
+     */
+    public List<Long> collectExpired() {
+        return holds.advanceTo(System.currentTimeMillis());
+    }
+
+    public int getActiveHolds() {
+        return holds.size();
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void rearmPendingHolds() {
+        List<Object[]> pending = bookingRepository.findHoldsByStatus(BookingStatus.PENDING, PaymentStatus.PENDING);
+        long now = System.currentTimeMillis();
+        int overdue = 0;
+        for (Object[] row : pending) {
+            LocalDateTime bookingDate = row[1] != null ? (LocalDateTime) row[1] : LocalDateTime.now();
+            long deadline = deadline(bookingDate, (LocalDateTime) row[2]);
+            if (deadline <= now) {
+                overdue++;
+                if (!expireOverdueOnStartup) {
+                    deadline = now + ttlMs;
+                }
+            }
+            holds.schedule((Long) row[0], deadline);
+        }
+        logger.info("Seat holds re-armed for " + pending.size() + " pending bookings");
+        if (overdue > 0) {
+            logger.info(overdue + " pending bookings were past their hold at startup, "
+                    + (expireOverdueOnStartup ? "cancelling them" : "held for another " + ttlMs / 60_000L + " minutes"));
+        }
+    }
+
+    private long deadline(LocalDateTime bookingDate, LocalDateTime paymentDate) {
+        long deadline = toEpochMillis(bookingDate) + ttlMs;
+        return paymentDate != null ? Math.max(deadline, toEpochMillis(paymentDate) + paymentTtlMs) : deadline;
+    }
+
+    private static long toEpochMillis(LocalDateTime dateTime) {
+        return dateTime.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+    }
+
+    private static void afterCommit(Runnable action) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            action.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                action.run();
+            }
+        });
+    }
+}
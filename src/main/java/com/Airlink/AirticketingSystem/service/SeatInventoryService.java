@@ -0,0 +1,625 @@
+package com.Airlink.AirticketingSystem.service;
+
+import com.Airlink.AirticketingSystem.exception.BadRequestException;
+import com.Airlink.AirticketingSystem.exception.ResourceNotFoundException;
+import com.Airlink.AirticketingSystem.model.enums.BookingStatus;
+import com.Airlink.AirticketingSystem.model.enums.FareClass;
+import com.Airlink.AirticketingSystem.repository.FareClassPriceRepository;
+import com.Airlink.AirticketingSystem.repository.FlightRepository;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.concurrent.locks.StampedLock;
+import java.util.function.Consumer;
+import java.util.logging.Logger;
+
+/**
+ * Live seat counters per flight and per fare class.
+ *
+ * Seats are admitted with lock-free CAS on in-memory counters, so concurrent
+ * bookings on the same flight never oversell and never queue on the flight row.
+ * With inventory.write-behind enabled, committed changes are accumulated as deltas
+ * and written back in batches by {@link #flush()}. With it disabled (several
+ * application instances) every reservation is also written synchronously with a
+ * guarded UPDATE, so the database remains the authority. Either way the only
+ * statements touching available_seats are the conditional ones in the repositories.
+ *
+ * Write-behind trades durability for throughput: deltas not flushed when the process
+ * dies are lost. Lost releases only leave seats unsold, but lost reservations would be
+ * sold again, so {@link #reconcile()} first lowers the seats of every upcoming flight to
+ * what its bookings leave of the capacity. Fare class seats have no capacity to check
+ * against; the flight counter still caps the seats sold across them.
+ *
+ * Counters are the database value plus the committed deltas not flushed yet, minus
+ * the seats held by transactions still open. When the counters of a flight are
+ * reloaded (its seats were rewritten, or a flush found them drifted), the unflushed
+ * deltas and open holds carry over to the new counters, and commit callbacks always
+ * apply to the counters current at that time.
+ */
+@Service
+public class SeatInventoryService {
+
+    private static final Logger logger = Logger.getLogger(SeatInventoryService.class.getName());
+
+    private static final int FARE_CLASS_COUNT = FareClass.values().length;
+    private static final int NOT_OFFERED = -1;
+
+    private final FlightRepository flightRepository;
+    private final FareClassPriceRepository fareClassPriceRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final ApplicationEventPublisher eventPublisher;
+    private final boolean writeBehind;
+
+    private final ConcurrentHashMap<Long, FlightInventory> inventories = new ConcurrentHashMap<>();
+    private final Set<Long> dirtyFlights = ConcurrentHashMap.newKeySet();
+    // Held by a flush and by every reload, so a reload never reads the database between a drain and its commit
+    private final ReentrantLock flushLock = new ReentrantLock();
+
+    public SeatInventoryService(FlightRepository flightRepository,
+                                FareClassPriceRepository fareClassPriceRepository,
+                                TransactionTemplate transactionTemplate,
+                                ApplicationEventPublisher eventPublisher,
+                                @Value("${inventory.write-behind:false}") boolean writeBehind) {
+        this.flightRepository = flightRepository;
+        this.fareClassPriceRepository = fareClassPriceRepository;
+        this.transactionTemplate = transactionTemplate;
+        this.eventPublisher = eventPublisher;
+        this.writeBehind = writeBehind;
+    }
+
+    /**
+     * Reserve seats on a flight, optionally within a fare class.
+     * Must be called inside the booking transaction: the seats are returned if it rolls back.
+     */
+    public void reserve(Long flightId, FareClass fareClass, int seats) {
+        if (!take(flightId, fareClass, seats)) {
+            if (writeBehind) {
+                throw notEnoughSeats(fareClass);
+            }
+            // Another instance may have released seats, retry once against fresh counters
+            reload(flightId);
+            if (!take(flightId, fareClass, seats)) {
+                throw notEnoughSeats(fareClass);
+            }
+        }
+
+        int fareIndex = fareClass != null ? fareClass.ordinal() : NOT_OFFERED;
+        afterCompletion(
+                () -> {
+                    FlightInventory inventory = apply(flightId, current -> {
+                        addHeld(current, fareIndex, -seats);
+                        if (writeBehind) {
+                            addPending(current, fareIndex, -seats);
+                        }
+                    });
+                    if (writeBehind) {
+                        dirtyFlights.add(flightId);
+                    }
+                    if (inventory != null && fareIndex != NOT_OFFERED) {
+                        int left = inventory.fareAvailable.get(fareIndex);
+                        eventPublisher.publishEvent(new SeatsChangedEvent(flightId, fareClass, left + seats, left));
+                    }
+                },
+                () -> apply(flightId, current -> {
+                    addHeld(current, fareIndex, -seats);
+                    addAvailable(current, fareIndex, seats);
+                }));
+
+        if (!writeBehind) {
+            // The database disagrees with our counters: reject this booking and reload them
+            if (!writeFlightSeats(flightId, -seats)
+                    || fareIndex != NOT_OFFERED && !writeFareSeats(flightId, fareClass, -seats)) {
+                invalidate(flightId);
+                throw notEnoughSeats(fareClass);
+            }
+        }
+    }
+
+    /**
+     * Return seats to a flight once the surrounding transaction commits.
+     */
+    public void release(Long flightId, FareClass fareClass, int seats) {
+        FlightInventory inventory = getInventory(flightId);
+        int fareIndex = fareClass != null && inventory.fareAvailable.get(fareClass.ordinal()) != NOT_OFFERED
+                ? fareClass.ordinal() : NOT_OFFERED;
+
+        if (!writeBehind) {
+            boolean written = writeFlightSeats(flightId, seats);
+            if (fareIndex != NOT_OFFERED) {
+                written &= writeFareSeats(flightId, fareClass, seats);
+            }
+            if (!written) {
+                logger.warning("Seat release for flight " + flightId + " did not match the database, reloading");
+                invalidate(flightId);
+                return;
+            }
+        }
+
+        afterCompletion(() -> {
+            FlightInventory current = apply(flightId, changed -> {
+                addAvailable(changed, fareIndex, seats);
+                if (writeBehind) {
+                    addPending(changed, fareIndex, seats);
+                }
+            });
+            if (writeBehind) {
+                dirtyFlights.add(flightId);
+            }
+            if (current != null && fareIndex != NOT_OFFERED) {
+                int left = current.fareAvailable.get(fareIndex);
+                eventPublisher.publishEvent(new SeatsChangedEvent(flightId, fareClass, left - seats, left));
+            }
+        }, () -> { });
+    }
+
+    /**
+     * Live number of seats left on a flight, including changes not yet flushed.
+     */
+    public int getAvailableSeats(Long flightId) {
+        return getInventory(flightId).available.get();
+    }
+
+    /**
+     * Live number of seats left in a fare class, or -1 when the flight does not offer it.
+     */
+    public int getAvailableSeats(Long flightId, FareClass fareClass) {
+        return getInventory(flightId).fareAvailable.get(fareClass.ordinal());
+    }
+
+    /**
+     * Live number of seats left on a flight if its counters are loaded, otherwise the
+     * given fallback. Never loads, so it is cheap for bulk readers.
+     */
+    public int peekAvailableSeats(Long flightId, int fallback) {
+        FlightInventory inventory = inventories.get(flightId);
+        return inventory != null ? inventory.available.get() : fallback;
+    }
+
+    /**
+     * Live number of seats left in a fare class if the counters of the flight are loaded,
+     * otherwise the given fallback. Never loads, so it is cheap for bulk readers.
+     */
+    public int peekAvailableSeats(Long flightId, FareClass fareClass, int fallback) {
+        FlightInventory inventory = inventories.get(flightId);
+        return inventory != null ? inventory.fareAvailable.get(fareClass.ordinal()) : fallback;
+    }
+
+    /**
+     * Reload the counters of a flight whose seats were rewritten or which was deleted,
+     * once the surrounding transaction completes. Deltas not flushed yet and seats held
+     * by open transactions carry over to the reloaded counters.
+     */
+    public void invalidate(Long flightId) {
+        if (flightId == null) {
+            return;
+        }
+        Runnable refresh = () -> {
+            if (!inventories.containsKey(flightId)) {
+                return;
+            }
+            try {
+                reload(flightId);
+            } catch (RuntimeException e) {
+                logger.warning("Could not reload seat counters of flight " + flightId + ": " + e.getMessage());
+            }
+        };
+        afterCompletion(refresh, refresh);
+    }
+
+    /**
+     * Write all pending seat deltas to the database in a single transaction.
+     * Deltas of one flight are coalesced into one statement per counter.
+     * @return number of flights written
+     */
+    public int flush() {
+        flushLock.lock();
+        try {
+            List<PendingDelta> batch = drainPendingDeltas();
+            if (batch.isEmpty()) {
+                return 0;
+            }
+
+            List<Long> drifted = new ArrayList<>();
+            try {
+                transactionTemplate.executeWithoutResult(status -> {
+                    drifted.clear();
+                    for (PendingDelta delta : batch) {
+                        boolean written = delta.seats == 0 || writeFlightSeats(delta.flightId, delta.seats);
+                        for (int i = 0; i < FARE_CLASS_COUNT; i++) {
+                            if (delta.fareSeats[i] != 0) {
+                                written &= writeFareSeats(delta.flightId, FareClass.values()[i], delta.fareSeats[i]);
+                            }
+                        }
+                        if (!written) {
+                            drifted.add(delta.flightId);
+                        }
+                    }
+                });
+            } catch (RuntimeException e) {
+                // Put the deltas back so the next flush retries them
+                batch.forEach(this::restore);
+                throw e;
+            }
+
+            for (Long flightId : drifted) {
+                logger.warning("Seat counters of flight " + flightId + " drifted from the database, reloading");
+                try {
+                    reload(flightId);
+                } catch (RuntimeException e) {
+                    logger.warning("Could not reload seat counters of flight " + flightId + ": " + e.getMessage());
+                }
+            }
+            return batch.size();
+        } finally {
+            flushLock.unlock();
+        }
+    }
+
+    @PreDestroy
+    public void flushOnShutdown() {
+        if (!writeBehind) {
+            return;
+        }
+        try {
+            flush();
+        } catch (Exception e) {
+            logger.warning("Could not write seat deltas on shutdown: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Seed all counters of flights that have not departed yet from the database,
+     * after lowering the seats a write-behind crash may have left too high.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void reconcile() {
+        flushLock.lock();
+        try {
+            LocalDateTime now = LocalDateTime.now();
+            if (writeBehind) {
+                capSeatsToBookings(now);
+            }
+            seed(now);
+        } finally {
+            flushLock.unlock();
+        }
+    }
+
+    private void capSeatsToBookings(LocalDateTime now) {
+        Integer lowered = transactionTemplate.execute(status ->
+                flightRepository.capSeatsToBookings(now, BookingStatus.CANCELLED));
+        if (lowered != null && lowered > 0) {
+            logger.warning("Seats of " + lowered + " upcoming flights exceeded what their bookings leave "
+                    + "(seat changes lost before a restart), lowered to match");
+        }
+    }
+
+    private void seed(LocalDateTime now) {
+        Map<Long, FlightInventory> loaded = new HashMap<>();
+
+        for (Object[] row : flightRepository.findSeatSnapshotDepartingAfter(now)) {
+            loaded.put((Long) row[0], new FlightInventory((Integer) row[1]));
+        }
+        for (Object[] row : fareClassPriceRepository.findSeatSnapshotDepartingAfter(now)) {
+            FlightInventory inventory = loaded.get((Long) row[0]);
+            if (inventory != null) {
+                inventory.fareAvailable.set(((FareClass) row[1]).ordinal(), (Integer) row[2]);
+            }
+        }
+
+        // Counters loaded on demand before now may already hold unflushed deltas, keep them
+        int seeded = 0;
+        for (Map.Entry<Long, FlightInventory> entry : loaded.entrySet()) {
+            if (inventories.putIfAbsent(entry.getKey(), entry.getValue()) == null) {
+                seeded++;
+            }
+        }
+        logger.info("Seat inventory reconciled for " + seeded + " of " + loaded.size() + " upcoming flights");
+    }
+
+    private FlightInventory getInventory(Long flightId) {
+        FlightInventory inventory = inventories.get(flightId);
+        if (inventory != null) {
+            return inventory;
+        }
+
+        // Load outside of computeIfAbsent so the map is never locked during a query
+        FlightInventory loaded = load(flightId);
+        FlightInventory existing = inventories.putIfAbsent(flightId, loaded);
+        return existing != null ? existing : loaded;
+    }
+
+    // Replace the counters of a flight with fresh ones from the database, carrying over
+    // unflushed deltas and open holds; drops them if the flight no longer exists
+    private void reload(Long flightId) {
+        flushLock.lock();
+        try {
+            FlightInventory fresh;
+            try {
+                fresh = load(flightId);
+            } catch (ResourceNotFoundException e) {
+                FlightInventory old = inventories.get(flightId);
+                if (old != null) {
+                    retire(old, () -> inventories.remove(flightId, old));
+                }
+                return;
+            }
+
+            FlightInventory old = inventories.putIfAbsent(flightId, fresh);
+            if (old != null) {
+                retire(old, () -> {
+                    fresh.carryOver(old);
+                    inventories.replace(flightId, old, fresh);
+                });
+            }
+        } finally {
+            flushLock.unlock();
+        }
+    }
+
+    // Runs a replacement of the counters while no change is being applied to them;
+    // changes arriving later see them retired and go to the current counters instead
+    private static void retire(FlightInventory inventory, Runnable replacement) {
+        long stamp = inventory.lock.writeLock();
+        try {
+            inventory.retired = true;
+            replacement.run();
+        } finally {
+            inventory.lock.unlockWrite(stamp);
+        }
+    }
+
+    // Take seats from the current counters and hold them until the transaction completes
+    private boolean take(Long flightId, FareClass fareClass, int seats) {
+        while (true) {
+            FlightInventory inventory = getInventory(flightId);
+            int fareIndex = fareIndex(inventory, fareClass);
+            long stamp = inventory.lock.readLock();
+            try {
+                if (inventory.retired) {
+                    continue;
+                }
+                if (!tryTake(inventory, fareIndex, seats)) {
+                    return false;
+                }
+                addHeld(inventory, fareIndex, seats);
+                return true;
+            } finally {
+                inventory.lock.unlockRead(stamp);
+            }
+        }
+    }
+
+    // Apply a change to the current counters of a flight; null if the flight was dropped
+    private FlightInventory apply(Long flightId, Consumer<FlightInventory> change) {
+        while (true) {
+            FlightInventory inventory = inventories.get(flightId);
+            if (inventory == null) {
+                return null;
+            }
+            long stamp = inventory.lock.readLock();
+            try {
+                if (!inventory.retired) {
+                    change.accept(inventory);
+                    return inventory;
+                }
+            } finally {
+                inventory.lock.unlockRead(stamp);
+            }
+        }
+    }
+
+    private FlightInventory load(Long flightId) {
+        int available = flightRepository.findAvailableSeatsById(flightId)
+                .orElseThrow(() -> new ResourceNotFoundException("Flight", flightId));
+        FlightInventory inventory = new FlightInventory(available);
+        for (Object[] row : fareClassPriceRepository.findSeatSnapshotByFlightId(flightId)) {
+            inventory.fareAvailable.set(((FareClass) row[0]).ordinal(), (Integer) row[1]);
+        }
+        return inventory;
+    }
+
+    private int fareIndex(FlightInventory inventory, FareClass fareClass) {
+        if (fareClass == null) {
+            return NOT_OFFERED;
+        }
+        if (inventory.fareAvailable.get(fareClass.ordinal()) == NOT_OFFERED) {
+            throw new BadRequestException("Fare class not available for this flight");
+        }
+        return fareClass.ordinal();
+    }
+
+    private boolean writeFlightSeats(Long flightId, int delta) {
+        return delta < 0
+                ? flightRepository.reserveSeats(flightId, -delta) > 0
+                : flightRepository.releaseSeats(flightId, delta) > 0;
+    }
+
+    private boolean writeFareSeats(Long flightId, FareClass fareClass, int delta) {
+        return delta < 0
+                ? fareClassPriceRepository.reserveSeats(flightId, fareClass, -delta) > 0
+                : fareClassPriceRepository.releaseSeats(flightId, fareClass, delta) > 0;
+    }
+
+    private static BadRequestException notEnoughSeats(FareClass fareClass) {
+        return fareClass == null
+                ? new BadRequestException("Not enough available seats on this flight")
+                : new BadRequestException("Not enough available seats in " + fareClass + " on this flight");
+    }
+
+    private static void addAvailable(FlightInventory inventory, int fareIndex, int seats) {
+        inventory.available.addAndGet(seats);
+        if (fareIndex != NOT_OFFERED) {
+            // A reload may have found the fare class no longer offered
+            inventory.fareAvailable.getAndUpdate(fareIndex, left -> left == NOT_OFFERED ? NOT_OFFERED : left + seats);
+        }
+    }
+
+    private static void addHeld(FlightInventory inventory, int fareIndex, int seats) {
+        inventory.held.addAndGet(seats);
+        if (fareIndex != NOT_OFFERED) {
+            inventory.fareHeld.addAndGet(fareIndex, seats);
+        }
+    }
+
+    private static void addPending(FlightInventory inventory, int fareIndex, int seats) {
+        inventory.pending.addAndGet(seats);
+        if (fareIndex != NOT_OFFERED) {
+            inventory.farePending.addAndGet(fareIndex, seats);
+        }
+    }
+
+    private List<PendingDelta> drainPendingDeltas() {
+        List<PendingDelta> batch = new ArrayList<>();
+        for (Long flightId : dirtyFlights) {
+            dirtyFlights.remove(flightId);
+            FlightInventory inventory = inventories.get(flightId);
+            if (inventory == null) {
+                continue;
+            }
+            PendingDelta delta = new PendingDelta(flightId, inventory.pending.getAndSet(0));
+            boolean hasChanges = delta.seats != 0;
+            for (int i = 0; i < FARE_CLASS_COUNT; i++) {
+                delta.fareSeats[i] = inventory.farePending.getAndSet(i, 0);
+                hasChanges |= delta.fareSeats[i] != 0;
+            }
+            if (hasChanges) {
+                batch.add(delta);
+            }
+        }
+        return batch;
+    }
+
+    private void restore(PendingDelta delta) {
+        FlightInventory inventory = inventories.get(delta.flightId);
+        if (inventory == null) {
+            logger.warning("Dropping unflushed seat delta for invalidated flight " + delta.flightId);
+            return;
+        }
+        inventory.pending.addAndGet(delta.seats);
+        for (int i = 0; i < FARE_CLASS_COUNT; i++) {
+            inventory.farePending.addAndGet(i, delta.fareSeats[i]);
+        }
+        dirtyFlights.add(delta.flightId);
+    }
+
+    private static void afterCompletion(Runnable onCommit, Runnable onRollback) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            onCommit.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                if (status == STATUS_COMMITTED) {
+                    onCommit.run();
+                } else {
+                    onRollback.run();
+                }
+            }
+        });
+    }
+
+    private static boolean tryTake(FlightInventory inventory, int fareIndex, int seats) {
+        if (!tryTake(inventory.available, seats)) {
+            return false;
+        }
+        if (fareIndex != NOT_OFFERED && !tryTake(inventory.fareAvailable, fareIndex, seats)) {
+            inventory.available.addAndGet(seats);
+            return false;
+        }
+        return true;
+    }
+
+    private static boolean tryTake(AtomicInteger counter, int seats) {
+        while (true) {
+            int current = counter.get();
+            if (current < seats) {
+                return false;
+            }
+            if (counter.compareAndSet(current, current - seats)) {
+                return true;
+            }
+        }
+    }
+
+    private static boolean tryTake(AtomicIntegerArray counters, int index, int seats) {
+        while (true) {
+            int current = counters.get(index);
+            if (current < seats) {
+                return false;
+            }
+            if (counters.compareAndSet(index, current, current - seats)) {
+                return true;
+            }
+        }
+    }
+
+    private static final class FlightInventory {
+        final AtomicInteger available;
+        final AtomicIntegerArray fareAvailable = new AtomicIntegerArray(FARE_CLASS_COUNT);
+        // Committed changes not written to the database yet
+        final AtomicInteger pending = new AtomicInteger();
+        final AtomicIntegerArray farePending = new AtomicIntegerArray(FARE_CLASS_COUNT);
+        // Seats taken by transactions that have not completed yet
+        final AtomicInteger held = new AtomicInteger();
+        final AtomicIntegerArray fareHeld = new AtomicIntegerArray(FARE_CLASS_COUNT);
+
+        // Read-locked while a change is applied, write-locked while the counters are replaced
+        final StampedLock lock = new StampedLock();
+        boolean retired;
+
+        FlightInventory(int available) {
+            this.available = new AtomicInteger(available);
+            for (int i = 0; i < FARE_CLASS_COUNT; i++) {
+                fareAvailable.set(i, NOT_OFFERED);
+            }
+        }
+
+        // Fresh database values plus what the replaced counters had not written yet, minus their open holds
+        void carryOver(FlightInventory old) {
+            int seats = old.pending.get();
+            int holds = old.held.get();
+            pending.set(seats);
+            held.set(holds);
+            available.addAndGet(seats - holds);
+            for (int i = 0; i < FARE_CLASS_COUNT; i++) {
+                int fareSeats = old.farePending.get(i);
+                int fareHolds = old.fareHeld.get(i);
+                farePending.set(i, fareSeats);
+                fareHeld.set(i, fareHolds);
+                if (fareAvailable.get(i) != NOT_OFFERED) {
+                    fareAvailable.addAndGet(i, fareSeats - fareHolds);
+                }
+            }
+        }
+    }
+
+    private static final class PendingDelta {
+        final Long flightId;
+        final int seats;
+        final int[] fareSeats = new int[FARE_CLASS_COUNT];
+
+        PendingDelta(Long flightId, int seats) {
+            this.flightId = flightId;
+            this.seats = seats;
+        }
+    }
+}
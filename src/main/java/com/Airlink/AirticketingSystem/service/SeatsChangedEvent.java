@@ -0,0 +1,10 @@
+package com.Airlink.AirticketingSystem.service;
+
+import com.Airlink.AirticketingSystem.model.enums.FareClass;
+
+/**
+ * Published by the seat inventory once a committed booking or cancellation
+ * changes the seats left in a fare class.
+ */
+public record SeatsChangedEvent(Long flightId, FareClass fareClass, int seatsBefore, int seatsAfter) {
+}
@@ -1,5 +1,6 @@
 package com.Airlink.AirticketingSystem.service;
 
+import com.Airlink.AirticketingSystem.dto.CursorPage;
 import com.Airlink.AirticketingSystem.dto.UserResponseDTO;
 import com.Airlink.AirticketingSystem.model.enums.Gender;
 import com.Airlink.AirticketingSystem.model.enums.LocationType;
@@ -14,8 +15,11 @@ public interface UserService {
     UserResponseDTO getUserById(Long id);
     UserResponseDTO getUserByEmail(String email);
     Page<UserResponseDTO> getAllUsers(Pageable pageable);
+    // Keyset pagination without a count query; pass null for the first slice
+    CursorPage<UserResponseDTO> scrollUsers(String cursor, int size);
     Page<UserResponseDTO> getUsersByRole(UserRole role, Pageable pageable);
     Page<UserResponseDTO> getUsersByLocation(Long locationId, Pageable pageable);
+    Page<UserResponseDTO> getUsersInLocationSubtree(Long locationId, Pageable pageable);
     Page<UserResponseDTO> getUsersByProvinceCode(String provinceCode, Pageable pageable);
     Page<UserResponseDTO> getUsersByProvinceName(String provinceName, Pageable pageable);
     UserResponseDTO updateUser(Long id, String fullName, String phone, Gender gender, 
@@ -7,13 +7,21 @@ import com.Airlink.AirticketingSystem.exception.ResourceNotFoundException;
 import com.Airlink.AirticketingSystem.model.Airport;
 import com.Airlink.AirticketingSystem.model.enums.AirportType;
 import com.Airlink.AirticketingSystem.repository.AirportRepository;
+import com.Airlink.AirticketingSystem.repository.FlightRepository;
+import com.Airlink.AirticketingSystem.service.AirportCatalogService;
 import com.Airlink.AirticketingSystem.service.AirportService;
-import org.modelmapper.ModelMapper;
+import com.Airlink.AirticketingSystem.service.AirportSpatialIndex;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
+import java.util.ArrayList;
 import java.util.List;
 
 @Service
@@ -21,11 +29,25 @@ import java.util.List;
 public class AirportServiceImpl implements AirportService {
 
     private final AirportRepository airportRepository;
-    private final ModelMapper modelMapper;
+    private final FlightRepository flightRepository;
+    private final AirportCatalogService airportCatalogService;
+    private final AirportSpatialIndex airportSpatialIndex;
+    private final boolean spatialIndexEnabled;
+    // For the database fallback of reads that run without a transaction
+    private final TransactionTemplate readOnlyTransaction;
 
-    public AirportServiceImpl(AirportRepository airportRepository, ModelMapper modelMapper) {
+    public AirportServiceImpl(AirportRepository airportRepository, FlightRepository flightRepository,
+                              AirportCatalogService airportCatalogService,
+                              AirportSpatialIndex airportSpatialIndex,
+                              PlatformTransactionManager transactionManager,
+                              @Value("${airports.spatial-index.enabled:true}") boolean spatialIndexEnabled) {
         this.airportRepository = airportRepository;
-        this.modelMapper = modelMapper;
+        this.flightRepository = flightRepository;
+        this.airportCatalogService = airportCatalogService;
+        this.airportSpatialIndex = airportSpatialIndex;
+        this.spatialIndexEnabled = spatialIndexEnabled;
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
     }
 
     @Override
@@ -53,23 +75,31 @@ public class AirportServiceImpl implements AirportService {
         airport.setTimezone(request.getTimezone());
 
         Airport savedAirport = airportRepository.save(airport);
+        airportCatalogService.put(savedAirport);
+        airportSpatialIndex.invalidate();
         return convertToDTO(savedAirport);
     }
 
+    // Served from the in-memory catalog, without a transaction or connection
+
     @Override
-    @Transactional(readOnly = true)
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
     public AirportResponseDTO getAirportById(Long id) {
-        return airportRepository.findById(id)
-                .map(this::convertToDTO)
-                .orElseThrow(() -> new ResourceNotFoundException("Airport", id));
+        AirportResponseDTO airport = airportCatalogService.get(id);
+        if (airport == null) {
+            throw new ResourceNotFoundException("Airport", id);
+        }
+        return airport;
     }
 
     @Override
-    @Transactional(readOnly = true)
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
     public AirportResponseDTO getAirportByCode(String code) {
-        return airportRepository.findByCode(code)
-                .map(this::convertToDTO)
-                .orElseThrow(() -> new ResourceNotFoundException("Airport with code: " + code));
+        AirportResponseDTO airport = airportCatalogService.getByCode(code);
+        if (airport == null) {
+            throw new ResourceNotFoundException("Airport with code: " + code);
+        }
+        return airport;
     }
 
     @Override
@@ -85,15 +115,27 @@ public class AirportServiceImpl implements AirportService {
     }
 
     @Override
-    @Transactional(readOnly = true)
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
     public Page<AirportResponseDTO> getAirportsByCity(String city, Pageable pageable) {
-        return airportRepository.findByCityIgnoreCase(city, pageable).map(this::convertToDTO);
+        Page<AirportResponseDTO> airports = airportCatalogService.getByCity(city, pageable);
+        if (airports != null) {
+            return airports;
+        }
+        // Sorted by a property the catalog does not index
+        return readOnlyTransaction.execute(status ->
+                airportRepository.findByCityIgnoreCase(city, pageable).map(this::convertToDTO));
     }
 
     @Override
-    @Transactional(readOnly = true)
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
     public Page<AirportResponseDTO> getAirportsByCountry(String country, Pageable pageable) {
-        return airportRepository.findByCountryIgnoreCase(country, pageable).map(this::convertToDTO);
+        Page<AirportResponseDTO> airports = airportCatalogService.getByCountry(country, pageable);
+        if (airports != null) {
+            return airports;
+        }
+        // Sorted by a property the catalog does not index
+        return readOnlyTransaction.execute(status ->
+                airportRepository.findByCountryIgnoreCase(country, pageable).map(this::convertToDTO));
     }
 
     @Override
@@ -146,6 +188,12 @@ public class AirportServiceImpl implements AirportService {
         }
 
         Airport updatedAirport = airportRepository.save(airport);
+        airportCatalogService.put(updatedAirport);
+        if (request.getLatitude() != null || request.getLongitude() != null) {
+            airportSpatialIndex.invalidate();
+        }
+        // Names, codes, cities and countries are part of the flight search text
+        flightRepository.refreshSearchTextByAirportId(id);
         return convertToDTO(updatedAirport);
     }
 
@@ -155,39 +203,98 @@ public class AirportServiceImpl implements AirportService {
             throw new ResourceNotFoundException("Airport", id);
         }
         airportRepository.deleteById(id);
+        airportCatalogService.remove(id);
+        airportSpatialIndex.invalidate();
     }
     
     @Override
     @Transactional(readOnly = true)
-    public List<AirportResponseDTO> getNearestAirports(Double latitude, Double longitude, Double radiusKm) {
+    public List<AirportResponseDTO> getNearestAirports(Double latitude, Double longitude, Double radiusKm, Integer limit) {
         if (latitude == null || longitude == null) {
             throw new BadRequestException("Latitude and longitude are required");
         }
-        if (radiusKm == null || radiusKm <= 0) {
+        if (latitude < -90 || latitude > 90 || longitude < -180 || longitude > 180) {
+            throw new BadRequestException("Latitude must be between -90 and 90 and longitude between -180 and 180");
+        }
+        if (limit != null && limit <= 0) {
+            throw new BadRequestException("Limit must be positive");
+        }
+        if (radiusKm != null ? radiusKm <= 0 : limit == null) {
             radiusKm = 100.0; // Default radius of 100km
         }
-        return airportRepository.findNearbyAirports(latitude, longitude, radiusKm).stream()
-                .map(this::convertToDTO)
+
+        if (!spatialIndexEnabled) {
+            return findNearbyInDatabase(latitude, longitude, radiusKm, limit);
+        }
+        List<AirportResponseDTO> airports = new ArrayList<>();
+        for (AirportSpatialIndex.Neighbor neighbor : airportSpatialIndex.findNearest(latitude, longitude, radiusKm, limit)) {
+            AirportResponseDTO airport = airportCatalogService.get(neighbor.airportId());
+            if (airport != null) {
+                airport.setDistanceKm(roundDistance(neighbor.distanceKm()));
+                airports.add(airport);
+            }
+        }
+        return airports;
+    }
+
+    // Same lookup without the in-memory index: a bounding-box prefilter, then the exact distance
+    private List<AirportResponseDTO> findNearbyInDatabase(double latitude, double longitude, Double radiusKm, Integer limit) {
+        double radius = radiusKm != null ? radiusKm : Math.PI * AirportSpatialIndex.EARTH_RADIUS_KM;
+        double angle = radius / AirportSpatialIndex.EARTH_RADIUS_KM;
+        double minLatitude = latitude - Math.toDegrees(angle);
+        double maxLatitude = latitude + Math.toDegrees(angle);
+        double minLongitude = -180;
+        double maxLongitude = 180;
+        // Longitudes can only be narrowed when the circle contains no pole and does not cross the 180th meridian
+        if (minLatitude > -90 && maxLatitude < 90) {
+            double longitudeAngle = Math.toDegrees(Math.asin(
+                    Math.min(1.0, Math.sin(angle) / Math.cos(Math.toRadians(latitude)))));
+            if (longitude - longitudeAngle >= -180 && longitude + longitudeAngle <= 180) {
+                minLongitude = longitude - longitudeAngle;
+                maxLongitude = longitude + longitudeAngle;
+            }
+        }
+
+        return airportRepository.findNearbyAirports(latitude, longitude, radius,
+                        minLatitude, maxLatitude, minLongitude, maxLongitude,
+                        limit != null ? Limit.of(limit) : Limit.unlimited())
+                .stream()
+                .map(airport -> convertToDTO(airport, AirportSpatialIndex.distanceKm(
+                        latitude, longitude, airport.getLatitude(), airport.getLongitude())))
                 .toList();
     }
 
+    private AirportResponseDTO convertToDTO(Airport airport, double distanceKm) {
+        AirportResponseDTO dto = convertToDTO(airport);
+        dto.setDistanceKm(roundDistance(distanceKm));
+        return dto;
+    }
+
+    private static double roundDistance(double distanceKm) {
+        return Math.round(distanceKm * 100.0) / 100.0;
+    }
+
     private AirportResponseDTO convertToDTO(Airport airport) {
         if (airport == null) {
             return null;
         }
 
-        AirportResponseDTO dto = modelMapper.map(airport, AirportResponseDTO.class);
-        
-        // Flight counts: the domain currently models flights via a
-        // many-to-many join (Flight.airports). For now we do not compute
-        // departing/arriving counts here to avoid expensive queries; set
-        // them to zero. If you want accurate counts add repository methods
-        // to count flights for an airport or add explicit departure/arrival
-        // fields on Flight.
-        dto.setDepartingFlightsCount(0);
-        dto.setArrivingFlightsCount(0);
-        
-        return dto;
+        return AirportResponseDTO.builder()
+                .id(airport.getId())
+                .name(airport.getName())
+                .code(airport.getCode())
+                .description(airport.getDescription())
+                .type(airport.getType())
+                .city(airport.getCity())
+                .country(airport.getCountry())
+                .iataCityCode(airport.getIataCityCode())
+                .latitude(airport.getLatitude())
+                .longitude(airport.getLongitude())
+                .timezone(airport.getTimezone())
+                // Counter columns kept up to date by flight writes (see AirportFlightCountService)
+                .departingFlightsCount(airport.getDepartingFlightsCount())
+                .arrivingFlightsCount(airport.getArrivingFlightsCount())
+                .build();
     }
 }
 
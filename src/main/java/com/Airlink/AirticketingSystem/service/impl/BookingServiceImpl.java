@@ -2,19 +2,34 @@ package com.Airlink.AirticketingSystem.service.impl;
 
 import java.time.LocalDateTime;
 import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
 import java.util.UUID;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 
-import org.modelmapper.ModelMapper;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
 import com.Airlink.AirticketingSystem.dto.BookingRequestDTO;
 import com.Airlink.AirticketingSystem.dto.BookingResponseDTO;
+import com.Airlink.AirticketingSystem.dto.CursorPage;
 import com.Airlink.AirticketingSystem.dto.FlightResponseDTO;
+import com.Airlink.AirticketingSystem.dto.LocationResponseDTO;
 import com.Airlink.AirticketingSystem.dto.PassengerRequestDTO;
 import com.Airlink.AirticketingSystem.dto.PassengerResponseDTO;
 import com.Airlink.AirticketingSystem.dto.UserResponseDTO;
@@ -22,6 +37,7 @@ import com.Airlink.AirticketingSystem.exception.BadRequestException;
 import com.Airlink.AirticketingSystem.exception.ResourceNotFoundException;
 import com.Airlink.AirticketingSystem.model.Booking;
 import com.Airlink.AirticketingSystem.model.Flight;
+import com.Airlink.AirticketingSystem.model.Location;
 import com.Airlink.AirticketingSystem.model.Passenger;
 import com.Airlink.AirticketingSystem.model.User;
 import com.Airlink.AirticketingSystem.model.enums.BookingStatus;
@@ -34,6 +50,8 @@ import com.Airlink.AirticketingSystem.repository.PaymentRepository;
 import com.Airlink.AirticketingSystem.model.Payment;
 import com.Airlink.AirticketingSystem.dto.PaymentResponseDTO;
 import com.Airlink.AirticketingSystem.service.BookingService;
+import com.Airlink.AirticketingSystem.service.SeatHoldService;
+import com.Airlink.AirticketingSystem.service.SeatInventoryService;
 
 @Service
 @Transactional
@@ -55,23 +73,36 @@ public class BookingServiceImpl implements BookingService {
     private PaymentRepository paymentRepository;
 
     @Autowired
-    private ModelMapper modelMapper;
+    private SeatInventoryService seatInventoryService;
+
+    @Autowired
+    private SeatHoldService seatHoldService;
+
+    private TransactionTemplate readOnlyTransaction;
+
+    // Load the parts of a booking detail concurrently on virtual threads
+    @Value("${booking.detail.parallel:false}")
+    private boolean parallelDetail;
+
+    @Autowired
+    void setTransactionManager(PlatformTransactionManager transactionManager) {
+        readOnlyTransaction = new TransactionTemplate(transactionManager);
+        readOnlyTransaction.setReadOnly(true);
+    }
 
     @Override
     public BookingResponseDTO createBooking(BookingRequestDTO request) {
-        // Validate flight
-        Flight flight = flightRepository.findById(request.getFlightId())
-                .orElseThrow(() -> new ResourceNotFoundException("Flight", request.getFlightId()));
-
         // Validate user
         User user = userRepository.findById(request.getUserId())
                 .orElseThrow(() -> new ResourceNotFoundException("User", request.getUserId()));
 
-        // Check if flight has enough available seats
-        int passengersCount = request.getPassengers() != null ? request.getPassengers().size() : 1;
-        if (flight.getAvailableSeats() < passengersCount) {
-            throw new BadRequestException("Not enough available seats on this flight");
-        }
+        // Reserve seats with a guarded decrement (validates the flight and is returned if this transaction rolls back)
+        int passengersCount = request.getPassengers() != null && !request.getPassengers().isEmpty()
+                ? request.getPassengers().size() : 1;
+        seatInventoryService.reserve(request.getFlightId(), request.getFareClass(), passengersCount);
+
+        // The flight row is never loaded or rewritten here, a reference is enough for the foreign key
+        Flight flight = flightRepository.getReferenceById(request.getFlightId());
 
         // Generate unique booking code
         String bookingCode = generateUniqueBookingCode();
@@ -83,13 +114,14 @@ public class BookingServiceImpl implements BookingService {
         booking.setFlight(flight);
         booking.setUser(user);
         booking.setTotalAmount(request.getTotalAmount());
+        booking.setFareClass(request.getFareClass());
         booking.setStatus(BookingStatus.PENDING);
 
         Booking savedBooking = bookingRepository.save(booking);
 
-        // Create passengers and attach to booking
-        List<Passenger> savedPassengers = new ArrayList<>();
+        // Create passengers and attach to booking (inserted as one JDBC batch on flush)
         if (request.getPassengers() != null && !request.getPassengers().isEmpty()) {
+            List<Passenger> passengers = new ArrayList<>(request.getPassengers().size());
             for (PassengerRequestDTO passengerDTO : request.getPassengers()) {
                 Passenger passenger = new Passenger();
                 passenger.setFirstName(passengerDTO.getFirstName());
@@ -98,68 +130,95 @@ public class BookingServiceImpl implements BookingService {
                 passenger.setDateOfBirth(passengerDTO.getDateOfBirth());
                 passenger.setGender(passengerDTO.getGender());
                 passenger.setBooking(savedBooking);
-
-                Passenger savedPassenger = passengerRepository.save(passenger);
-                savedPassengers.add(savedPassenger);
+                passengers.add(passenger);
             }
             // Ensure booking has the passengers list populated
-            savedBooking.setPassengers(savedPassengers);
-            bookingRepository.save(savedBooking);
+            savedBooking.setPassengers(passengerRepository.saveAll(passengers));
         }
 
-        // Update flight available seats
-        flight.setAvailableSeats(flight.getAvailableSeats() - passengersCount);
-        flightRepository.save(flight);
+        // Seats are only held until the payment arrives
+        seatHoldService.hold(savedBooking.getId(), savedBooking.getBookingDate());
 
         return convertToDTO(savedBooking);
     }
 
     @Override
-    @Transactional(readOnly = true)
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
     public BookingResponseDTO getBookingById(Long id) {
-        Booking booking = bookingRepository.findWithPaymentById(id)
-                .orElseThrow(() -> new ResourceNotFoundException("Booking", id));
-        return convertToDTO(booking);
+        return assembleDetail(() -> bookingRepository.findDetailById(id)
+                .orElseThrow(() -> new ResourceNotFoundException("Booking", id)));
     }
 
     @Override
-    @Transactional(readOnly = true)
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
     public BookingResponseDTO getBookingByCode(String bookingCode) {
-        Booking booking = bookingRepository.findWithPaymentByBookingCode(bookingCode)
-                .orElseThrow(() -> new ResourceNotFoundException("Booking with code: " + bookingCode));
-        return convertToDTO(booking);
+        return assembleDetail(() -> bookingRepository.findDetailByBookingCode(bookingCode)
+                .orElseThrow(() -> new ResourceNotFoundException("Booking with code: " + bookingCode)));
     }
 
     @Override
     @Transactional(readOnly = true)
     public Page<BookingResponseDTO> getAllBookings(Pageable pageable) {
-        return bookingRepository.findAll(pageable)
-                .map(this::convertToDTO);
+        return toDTOPage(bookingRepository.findPageIds(pageable));
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public CursorPage<BookingResponseDTO> scrollBookings(String cursor, int size) {
+        int limit = CursorPage.clampSize(size);
+        // One extra row tells whether another slice follows
+        List<Long> ids = bookingRepository.findIdsAfter(CursorPage.decodeIdCursor(cursor), Limit.of(limit + 1));
+        String nextCursor = null;
+        if (ids.size() > limit) {
+            ids = ids.subList(0, limit);
+            nextCursor = CursorPage.encodeCursor(ids.get(limit - 1));
+        }
+        return new CursorPage<>(toDTOs(ids), nextCursor);
     }
 
     @Override
     @Transactional(readOnly = true)
     public Page<BookingResponseDTO> getBookingsByUser(Long userId, Pageable pageable) {
-        return bookingRepository.findByUser_Id(userId, pageable)
-                .map(this::convertToDTO);
+        return toDTOPage(bookingRepository.findPageIdsByUserId(userId, pageable));
     }
 
     @Override
     @Transactional(readOnly = true)
     public Page<BookingResponseDTO> getBookingsByFlight(Long flightId, Pageable pageable) {
-        return bookingRepository.findByFlight_Id(flightId, pageable)
-                .map(this::convertToDTO);
+        return toDTOPage(bookingRepository.findPageIdsByFlightId(flightId, pageable));
     }
 
     @Override
     public BookingResponseDTO updateBookingStatus(Long id, String status) {
-        Booking booking = bookingRepository.findById(id)
+        Booking booking = bookingRepository.findWithPaymentById(id)
                 .orElseThrow(() -> new ResourceNotFoundException("Booking", id));
+        BookingStatus current = booking.getStatus();
+        BookingStatus next = BookingStatus.valueOf(status);
+        if (next == current) {
+            return convertToDTO(booking);
+        }
 
-        booking.setStatus(BookingStatus.valueOf(status));
-        Booking updatedBooking = bookingRepository.save(booking);
+        // A cancelled booking holds no seats, take them again before reopening it
+        if (current == BookingStatus.CANCELLED) {
+            seatInventoryService.reserve(booking.getFlight().getId(), booking.getFareClass(), passengersCount(booking));
+        }
+        // Conditional update so a concurrent hold expiry or cancellation cannot be overwritten
+        if (bookingRepository.updateStatusIfCurrent(id, current, next) == 0) {
+            throw new BadRequestException("Booking status was changed by another request, please retry");
+        }
 
-        return convertToDTO(updatedBooking);
+        if (next == BookingStatus.CANCELLED) {
+            releaseSeats(booking);
+        }
+        if (next == BookingStatus.PENDING) {
+            seatHoldService.hold(id, LocalDateTime.now());
+        } else {
+            seatHoldService.releaseHold(id);
+        }
+
+        BookingResponseDTO dto = convertToDTO(booking);
+        dto.setStatus(next.name());
+        return dto;
     }
 
     @Override
@@ -167,21 +226,62 @@ public class BookingServiceImpl implements BookingService {
         Booking booking = bookingRepository.findById(id)
                 .orElseThrow(() -> new ResourceNotFoundException("Booking", id));
 
-        // Restore flight seats
-        Flight flight = booking.getFlight();
-        int passengersCount = booking.getPassengers() != null ? booking.getPassengers().size() : 0;
-        flight.setAvailableSeats(flight.getAvailableSeats() + passengersCount);
-        flightRepository.save(flight);
+        // Conditional update so a concurrent hold expiry cannot release the seats a second time
+        if (booking.getStatus() == BookingStatus.CANCELLED
+                || bookingRepository.updateStatusIfCurrent(id, booking.getStatus(), BookingStatus.CANCELLED) == 0) {
+            throw new BadRequestException("Booking is already cancelled");
+        }
+
+        releaseSeats(booking);
+        seatHoldService.releaseHold(id);
+    }
+
+    @Override
+    public void expireBooking(Long id) {
+        Booking booking = bookingRepository.findById(id).orElse(null);
+
+        // Paid, cancelled or deleted since the hold was placed
+        if (booking == null || booking.getStatus() != BookingStatus.PENDING) {
+            return;
+        }
+        // A payment pending since, possibly started on another instance, extends the hold
+        Payment payment = booking.getPayment();
+        if (payment != null && payment.getStatus() == PaymentStatus.PENDING
+                && seatHoldService.rearmIfHeld(id, booking.getBookingDate(), payment.getPaymentDate())) {
+            return;
+        }
+        if (bookingRepository.updateStatusIfCurrent(id, BookingStatus.PENDING, BookingStatus.CANCELLED) == 0) {
+            return;
+        }
 
-        booking.setStatus(BookingStatus.CANCELLED);
-        bookingRepository.save(booking);
+        releaseSeats(booking);
     }
 
     @Override
     public void deleteBooking(Long id) {
         Booking booking = bookingRepository.findById(id)
                 .orElseThrow(() -> new ResourceNotFoundException("Booking", id));
+
+        // A live booking still holds seats: cancel it first, guarded against a concurrent expiry
+        if (booking.getStatus() != BookingStatus.CANCELLED) {
+            if (bookingRepository.updateStatusIfCurrent(id, booking.getStatus(), BookingStatus.CANCELLED) == 0) {
+                throw new BadRequestException("Booking status was changed by another request, please retry");
+            }
+            releaseSeats(booking);
+        }
+
         bookingRepository.delete(booking);
+        seatHoldService.releaseHold(id);
+    }
+
+    private void releaseSeats(Booking booking) {
+        // Restore flight seats once the cancellation commits
+        seatInventoryService.release(booking.getFlight().getId(), booking.getFareClass(), passengersCount(booking));
+    }
+
+    private static int passengersCount(Booking booking) {
+        return booking.getPassengers() != null && !booking.getPassengers().isEmpty()
+                ? booking.getPassengers().size() : 1;
     }
 
     private String generateUniqueBookingCode() {
@@ -193,22 +293,138 @@ public class BookingServiceImpl implements BookingService {
         return code;
     }
 
+    private Page<BookingResponseDTO> toDTOPage(Page<Long> ids) {
+        return new PageImpl<>(toDTOs(ids.getContent()), ids.getPageable(), ids.getTotalElements());
+    }
+
+    private List<BookingResponseDTO> toDTOs(List<Long> ids) {
+        if (ids.isEmpty()) {
+            return List.of();
+        }
+
+        // One fetch for the whole page, then put the bookings back in the page order
+        Map<Long, Booking> bookings = new HashMap<>();
+        for (Booking booking : bookingRepository.findWithPaymentByIdIn(ids)) {
+            bookings.put(booking.getId(), booking);
+        }
+        return ids.stream()
+                .map(bookings::get)
+                // Deleted between the two queries
+                .filter(Objects::nonNull)
+                .map(this::convertToDTO)
+                .toList();
+    }
+
+    /**
+     * Booking detail in a fixed number of queries: the booking with its payment, then
+     * its flight (with route), user (with location) and passengers by id. With
+     * booking.detail.parallel the last three run concurrently, each in its own read-only
+     * transaction, so the response waits for the slowest of them rather than their sum.
+     * No connection is held while waiting for them.
+     */
+    private BookingResponseDTO assembleDetail(Callable<Booking> bookingLoader) {
+        if (!parallelDetail) {
+            return readOnlyTransaction.execute(status -> {
+                DetailHead head = loadDetailHead(bookingLoader);
+                head.dto.setFlight(call(head.flightLoader));
+                head.dto.setUser(call(head.userLoader));
+                head.dto.setPassengers(call(head.passengersLoader));
+                return head.dto;
+            });
+        }
+
+        DetailHead head = readOnlyTransaction.execute(status -> loadDetailHead(bookingLoader));
+        try (ExecutorService scope = Executors.newVirtualThreadPerTaskExecutor()) {
+            Future<FlightResponseDTO> flight = scope.submit(() -> readOnlyTransaction.execute(status -> call(head.flightLoader)));
+            Future<UserResponseDTO> user = scope.submit(() -> readOnlyTransaction.execute(status -> call(head.userLoader)));
+            Future<List<PassengerResponseDTO>> passengers = scope.submit(() -> readOnlyTransaction.execute(status -> call(head.passengersLoader)));
+            try {
+                head.dto.setFlight(join(flight));
+                head.dto.setUser(join(user));
+                head.dto.setPassengers(join(passengers));
+            } catch (RuntimeException e) {
+                // Do not wait for the other parts once one has failed
+                scope.shutdownNow();
+                throw e;
+            }
+        }
+        return head.dto;
+    }
+
+    private DetailHead loadDetailHead(Callable<Booking> bookingLoader) {
+        Booking booking = call(bookingLoader);
+        BookingResponseDTO dto = convertToDTO(booking, false);
+
+        // Ids of lazy associations are read without loading them
+        Long flightId = booking.getFlight() != null ? booking.getFlight().getId() : null;
+        Long userId = booking.getUser() != null ? booking.getUser().getId() : null;
+        Long bookingId = booking.getId();
+
+        return new DetailHead(dto,
+                () -> flightId == null ? null
+                        : flightRepository.findByIdWithRelationships(flightId).map(this::convertFlightToDTO).orElse(null),
+                () -> userId == null ? null
+                        : userRepository.findWithLocationById(userId).map(this::convertUserToDTO).orElse(null),
+                () -> {
+                    List<PassengerResponseDTO> passengers = passengerRepository.findByBooking_Id(bookingId).stream()
+                            .map(this::convertPassengerToDTO)
+                            .toList();
+                    // Same as the listings: no passengers is left out of the response
+                    return passengers.isEmpty() ? null : passengers;
+                });
+    }
+
+    private static <T> T call(Callable<T> loader) {
+        try {
+            return loader.call();
+        } catch (RuntimeException e) {
+            throw e;
+        } catch (Exception e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static <T> T join(Future<T> part) {
+        try {
+            return part.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while loading booking details", e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw new IllegalStateException("Error loading booking details", e.getCause());
+        }
+    }
+
+    private record DetailHead(BookingResponseDTO dto,
+                              Callable<FlightResponseDTO> flightLoader,
+                              Callable<UserResponseDTO> userLoader,
+                              Callable<List<PassengerResponseDTO>> passengersLoader) {
+    }
+
     private BookingResponseDTO convertToDTO(Booking booking) {
+        return convertToDTO(booking, true);
+    }
+
+    // Maps the given booking as is; callers load it with the relationships they need.
+    // Without relationships only the booking fields and its payment are mapped.
+    private BookingResponseDTO convertToDTO(Booking booking, boolean withRelationships) {
         if (booking == null) {
             throw new IllegalArgumentException("Booking cannot be null");
         }
         
         try {
-            // Get the booking with its relationships including payment
-            Booking managedBooking = bookingRepository.findWithPaymentById(booking.getId())
-                    .orElseThrow(() -> new ResourceNotFoundException("Booking", booking.getId()));
-            
+            Booking managedBooking = booking;
+
             // Create the DTO with the booking data
             BookingResponseDTO dto = new BookingResponseDTO();
             dto.setId(managedBooking.getId());
             dto.setBookingCode(managedBooking.getBookingCode());
             dto.setBookingDate(managedBooking.getBookingDate());
             dto.setTotalAmount(managedBooking.getTotalAmount());
+            dto.setFareClass(managedBooking.getFareClass());
             
             // Set status from managed entity
             if (managedBooking.getStatus() != null) {
@@ -217,14 +433,23 @@ public class BookingServiceImpl implements BookingService {
                 dto.setStatus(BookingStatus.PENDING.name());
             }
 
+            // Set payment if present
+            if (managedBooking.getPayment() != null) {
+                dto.setPayment(convertPaymentToDTO(managedBooking.getPayment()));
+            }
+
+            if (!withRelationships) {
+                return dto;
+            }
+
             // Convert flight if present
             if (managedBooking.getFlight() != null) {
-                dto.setFlight(modelMapper.map(managedBooking.getFlight(), FlightResponseDTO.class));
+                dto.setFlight(convertFlightToDTO(managedBooking.getFlight()));
             }
 
             // Convert user if present
             if (managedBooking.getUser() != null) {
-                dto.setUser(modelMapper.map(managedBooking.getUser(), UserResponseDTO.class));
+                dto.setUser(convertUserToDTO(managedBooking.getUser()));
             }
 
             // Convert passengers if present
@@ -234,18 +459,98 @@ public class BookingServiceImpl implements BookingService {
                         .toList());
             }
 
-            // Set payment if present
-            if (managedBooking.getPayment() != null) {
-                dto.setPayment(modelMapper.map(managedBooking.getPayment(), PaymentResponseDTO.class));
-            }
-
             return dto;
         } catch (Exception e) {
             throw new RuntimeException("Error converting booking to DTO", e);
         }
     }
 
+    private FlightResponseDTO convertFlightToDTO(Flight flight) {
+        FlightResponseDTO dto = new FlightResponseDTO();
+        dto.setId(flight.getId());
+        dto.setFlightNumber(flight.getFlightNumber());
+        dto.setAirline(flight.getAirline());
+        dto.setFlightType(flight.getFlightType());
+        dto.setDepartureTime(flight.getDepartureTime());
+        dto.setArrivalTime(flight.getArrivalTime());
+        dto.setStatus(flight.getStatus() != null ? flight.getStatus().name() : null);
+        dto.setPrice(flight.getPrice());
+        dto.setTotalCapacity(flight.getTotalCapacity());
+        // Live where the counters are loaded, the stored seats lag them with write-behind on
+        dto.setAvailableSeats(seatInventoryService.peekAvailableSeats(flight.getId(), flight.getAvailableSeats()));
+
+        if (flight.getOriginLocation() != null) {
+            dto.setOriginLocationId(flight.getOriginLocation().getId());
+            dto.setOriginLocationName(flight.getOriginLocation().getName());
+            dto.setOriginLocationCode(flight.getOriginLocation().getCode());
+        }
+        if (flight.getDestinationLocation() != null) {
+            dto.setDestinationLocationId(flight.getDestinationLocation().getId());
+            dto.setDestinationLocationName(flight.getDestinationLocation().getName());
+            dto.setDestinationLocationCode(flight.getDestinationLocation().getCode());
+        }
+        if (flight.getOriginAirport() != null) {
+            dto.setOriginAirportId(flight.getOriginAirport().getId());
+            dto.setOriginAirportName(flight.getOriginAirport().getName());
+            dto.setOriginAirportCode(flight.getOriginAirport().getCode());
+            dto.setOriginAirportCity(flight.getOriginAirport().getCity());
+            dto.setOriginAirportCountry(flight.getOriginAirport().getCountry());
+        }
+        if (flight.getDestinationAirport() != null) {
+            dto.setDestinationAirportId(flight.getDestinationAirport().getId());
+            dto.setDestinationAirportName(flight.getDestinationAirport().getName());
+            dto.setDestinationAirportCode(flight.getDestinationAirport().getCode());
+            dto.setDestinationAirportCity(flight.getDestinationAirport().getCity());
+            dto.setDestinationAirportCountry(flight.getDestinationAirport().getCountry());
+        }
+        return dto;
+    }
+
+    private UserResponseDTO convertUserToDTO(User user) {
+        UserResponseDTO dto = new UserResponseDTO();
+        dto.setId(user.getId());
+        dto.setFullName(user.getFullName());
+        dto.setEmail(user.getEmail());
+        dto.setPhone(user.getPhone());
+        dto.setGender(user.getGender() != null ? user.getGender().name() : null);
+        dto.setRole(user.getRole() != null ? user.getRole().name() : null);
+
+        if (user.getLocation() != null) {
+            Location location = user.getLocation();
+            LocationResponseDTO locationDTO = new LocationResponseDTO();
+            locationDTO.setId(location.getId());
+            locationDTO.setName(location.getName());
+            locationDTO.setCode(location.getCode());
+            locationDTO.setType(location.getType());
+            locationDTO.setProvinceName(location.getProvinceName());
+            locationDTO.setDistrictName(location.getDistrictName());
+            locationDTO.setSectorName(location.getSectorName());
+            locationDTO.setCellName(location.getCellName());
+            locationDTO.setVillageName(location.getVillageName());
+            dto.setLocation(locationDTO);
+        }
+        return dto;
+    }
+
+    private PaymentResponseDTO convertPaymentToDTO(Payment payment) {
+        PaymentResponseDTO dto = new PaymentResponseDTO();
+        dto.setId(payment.getId());
+        dto.setPaymentReference(payment.getPaymentReference());
+        dto.setAmount(payment.getAmount());
+        dto.setPaymentMethod(payment.getMethod() != null ? payment.getMethod().toString() : null);
+        dto.setPaymentStatus(payment.getStatus() != null ? payment.getStatus().toString() : null);
+        dto.setPaymentDate(payment.getPaymentDate());
+        return dto;
+    }
+
     private PassengerResponseDTO convertPassengerToDTO(Passenger passenger) {
-        return modelMapper.map(passenger, PassengerResponseDTO.class);
+        PassengerResponseDTO dto = new PassengerResponseDTO();
+        dto.setId(passenger.getId());
+        dto.setFirstName(passenger.getFirstName());
+        dto.setLastName(passenger.getLastName());
+        dto.setPassportNumber(passenger.getPassportNumber());
+        dto.setDateOfBirth(passenger.getDateOfBirth());
+        dto.setGender(passenger.getGender() != null ? passenger.getGender().name() : null);
+        return dto;
     }
 }
@@ -1,8 +1,13 @@
 package com.Airlink.AirticketingSystem.service.impl;
 
+import com.Airlink.AirticketingSystem.dto.AirportResponseDTO;
 import com.Airlink.AirticketingSystem.dto.FlightRequestDTO;
+import com.Airlink.AirticketingSystem.dto.CursorPage;
+import com.Airlink.AirticketingSystem.dto.FlightAvailabilityDTO;
 import com.Airlink.AirticketingSystem.dto.FlightResponseDTO;
+import com.Airlink.AirticketingSystem.dto.FlightSearchCriteria;
 import com.Airlink.AirticketingSystem.dto.LocationResponseDTO;
+import com.Airlink.AirticketingSystem.exception.BadRequestException;
 import com.Airlink.AirticketingSystem.exception.ResourceNotFoundException;
 import com.Airlink.AirticketingSystem.model.FareClassPrice;
 import com.Airlink.AirticketingSystem.model.Airport;
@@ -12,13 +17,19 @@ import com.Airlink.AirticketingSystem.model.enums.FareClass;
 import com.Airlink.AirticketingSystem.model.enums.FlightStatus;
 import com.Airlink.AirticketingSystem.model.enums.FlightType;
 import com.Airlink.AirticketingSystem.repository.FlightRepository;
+import com.Airlink.AirticketingSystem.repository.FlightSpecifications;
 import com.Airlink.AirticketingSystem.repository.AirportRepository;
 import com.Airlink.AirticketingSystem.repository.LocationRepository;
+import com.Airlink.AirticketingSystem.service.AirportCatalogService;
+import com.Airlink.AirticketingSystem.service.AirportFlightCountService;
+import com.Airlink.AirticketingSystem.service.FareRepricingService;
 import com.Airlink.AirticketingSystem.service.FlightService;
 import com.Airlink.AirticketingSystem.service.PricingService;
-import org.modelmapper.ModelMapper;
+import com.Airlink.AirticketingSystem.service.RouteAvailabilityService;
+import com.Airlink.AirticketingSystem.service.SeatInventoryService;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.data.domain.*;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.Pageable;
@@ -26,9 +37,12 @@ import org.springframework.data.domain.Pageable;
 import java.util.List;
 import java.util.stream.Collectors;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.time.LocalDate;
 import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
 import java.util.*;
 import java.util.logging.Logger;
 import java.util.stream.Collectors;
@@ -42,19 +56,31 @@ public class FlightServiceImpl implements FlightService {
     private final FlightRepository flightRepository;
     private final LocationRepository locationRepository;
     private final AirportRepository airportRepository;
-    private final ModelMapper modelMapper;
     private final PricingService pricingService;
+    private final SeatInventoryService seatInventoryService;
+    private final RouteAvailabilityService routeAvailabilityService;
+    private final FareRepricingService fareRepricingService;
+    private final AirportCatalogService airportCatalogService;
+    private final AirportFlightCountService airportFlightCountService;
 
     public FlightServiceImpl(FlightRepository flightRepository,
                            LocationRepository locationRepository,
                            AirportRepository airportRepository,
-                           ModelMapper modelMapper,
-                           PricingService pricingService) {
+                           PricingService pricingService,
+                           SeatInventoryService seatInventoryService,
+                           RouteAvailabilityService routeAvailabilityService,
+                           FareRepricingService fareRepricingService,
+                           AirportCatalogService airportCatalogService,
+                           AirportFlightCountService airportFlightCountService) {
         this.flightRepository = flightRepository;
         this.locationRepository = locationRepository;
         this.airportRepository = airportRepository;
-        this.modelMapper = modelMapper;
         this.pricingService = pricingService;
+        this.seatInventoryService = seatInventoryService;
+        this.routeAvailabilityService = routeAvailabilityService;
+        this.fareRepricingService = fareRepricingService;
+        this.airportCatalogService = airportCatalogService;
+        this.airportFlightCountService = airportFlightCountService;
     }
 
     @Override
@@ -120,6 +146,11 @@ public class FlightServiceImpl implements FlightService {
         }
 
         Flight savedFlight = flightRepository.save(flight);
+        flightRepository.refreshSearchText(savedFlight.getId());
+        airportFlightCountService.flightChanged(null, null,
+                idOf(savedFlight.getOriginAirport()), idOf(savedFlight.getDestinationAirport()));
+        routeAvailabilityService.invalidate(savedFlight);
+        fareRepricingService.repriceLater(savedFlight.getId());
         return convertToDTO(savedFlight);
     }
 
@@ -149,67 +180,92 @@ public class FlightServiceImpl implements FlightService {
     }
 
     @Override
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public List<FlightAvailabilityDTO> getRouteAvailability(FlightType flightType, Long originId,
+                                                           Long destinationId, LocalDate date) {
+        // Cache hits need no connection; the route cache opens its own transaction on a miss
+        return routeAvailabilityService.getAvailability(flightType, originId, destinationId, date);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public CursorPage<FlightResponseDTO> scrollFlights(String cursor, int size) {
+        int limit = CursorPage.clampSize(size);
+        // One extra row tells whether another slice follows
+        List<Flight> flights;
+        if (cursor == null || cursor.isEmpty()) {
+            flights = flightRepository.findFirstByDeparture(Limit.of(limit + 1));
+        } else {
+            String[] keys = CursorPage.decodeCursor(cursor, 2);
+            try {
+                flights = flightRepository.findNextByDeparture(
+                        LocalDateTime.parse(keys[0]), Long.parseLong(keys[1]), Limit.of(limit + 1));
+            } catch (DateTimeParseException | NumberFormatException e) {
+                throw new BadRequestException("Invalid cursor");
+            }
+        }
+
+        String nextCursor = null;
+        if (flights.size() > limit) {
+            flights = flights.subList(0, limit);
+            Flight last = flights.get(limit - 1);
+            nextCursor = CursorPage.encodeCursor(last.getDepartureTime(), last.getId());
+        }
+        return new CursorPage<>(flights.stream().map(this::convertToDTO).toList(), nextCursor);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
     public Page<FlightResponseDTO> searchFlights(String query, FlightType flightType, LocalDateTime departureDate, Pageable pageable) {
+        FlightSearchCriteria criteria = FlightSearchCriteria.builder()
+                .query(query)
+                .flightType(flightType)
+                .build();
+        if (departureDate != null) {
+            criteria.setDepartureFrom(departureDate.toLocalDate().atStartOfDay());
+            criteria.setDepartureTo(criteria.getDepartureFrom().plusDays(1));
+        }
+        return searchFlights(criteria, pageable);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public Page<FlightResponseDTO> searchFlights(FlightSearchCriteria criteria, Pageable pageable) {
         if (pageable == null) {
             pageable = PageRequest.of(0, 10); // Default pagination
         }
-        
-        Page<Flight> flightsPage;
-        
-        try {
-            if (query != null && !query.trim().isEmpty()) {
-                // Search by query string
-                if (flightType == null) {
-                    flightsPage = flightRepository.searchFlights(query, pageable);
-                } else if (flightType == FlightType.DOMESTIC) {
-                    flightsPage = flightRepository.searchDomesticFlights(query, pageable);
-                } else {
-                    flightsPage = flightRepository.searchInternationalFlights(query, pageable);
-                }
-            } else {
-                // Fallback to basic search if no query provided
-                if (flightType != null) {
-                    flightsPage = flightRepository.findByFlightType(flightType, pageable);
-                } else {
-                    flightsPage = flightRepository.findAll(pageable);
-                }
-            }
-            
-            // Apply date filter if provided
-            if (departureDate != null) {
-                LocalDateTime startOfDay = departureDate.toLocalDate().atStartOfDay();
-                LocalDateTime endOfDay = startOfDay.plusDays(1);
-                
-                List<Flight> filteredFlights = flightsPage.getContent().stream()
-                    .filter(flight -> 
-                        flight != null && 
-                        flight.getDepartureTime() != null &&
-                        !flight.getDepartureTime().isBefore(startOfDay) && 
-                        flight.getDepartureTime().isBefore(endOfDay)
-                    )
-                    .collect(Collectors.toList());
-                
-                // Convert back to page
-                return new PageImpl<>(
-                    filteredFlights,
-                    pageable,
-                    filteredFlights.size()
-                ).map(this::convertToDTO);
-            }
-            
-            return flightsPage.map(this::convertToDTO);
-            
-        } catch (Exception e) {
-            // Log the error and return empty page
-            logger.severe("Error searching flights: " + e.getMessage());
-            return new PageImpl<>(Collections.emptyList());
+        // All filters run in the database, so pages are full and totals are exact
+        Page<Flight> flights = flightRepository.findAll(FlightSpecifications.matching(criteria), pageable);
+        int passengerCount = criteria.getPassengerCount() != null ? criteria.getPassengerCount() : 1;
+        if (passengerCount > 1) {
+            flights = withLiveSeatsFor(flights, passengerCount);
+        }
+        // Fares of the whole page are priced in one pass instead of walking each flight's fare classes
+        Map<Long, PricingService.FareQuote> quotes = pricingService.quote(flights.getContent(), passengerCount);
+        return flights.map(flight -> convertToDTO(flight, quotes.get(flight.getId())));
+    }
+
+    // The seat filter ran on the stored seats, which lag the live counters by up to one
+    // inventory flush with write-behind on: drop the flights the counters have filled since
+    private Page<Flight> withLiveSeatsFor(Page<Flight> flights, int passengerCount) {
+        List<Flight> seated = flights.getContent().stream()
+                .filter(flight -> seatInventoryService.peekAvailableSeats(flight.getId(), flight.getAvailableSeats()) >= passengerCount)
+                .toList();
+        if (seated.size() == flights.getNumberOfElements()) {
+            return flights;
         }
+        long dropped = flights.getNumberOfElements() - seated.size();
+        return new PageImpl<>(seated, flights.getPageable(), flights.getTotalElements() - dropped);
     }
 
     @Override
     public FlightResponseDTO updateFlight(Long id, FlightRequestDTO flightRequestDTO) {
         Flight flight = flightRepository.findById(id)
                 .orElseThrow(() -> new ResourceNotFoundException("Flight not found with id: " + id));
+        // The route or day may change, evict the one the flight is leaving
+        routeAvailabilityService.invalidate(flight);
+        Long oldOriginAirportId = idOf(flight.getOriginAirport());
+        Long oldDestinationAirportId = idOf(flight.getDestinationAirport());
 
         // Update basic flight information
         flight.setFlightNumber(flightRequestDTO.getFlightNumber());
@@ -289,6 +345,14 @@ public class FlightServiceImpl implements FlightService {
         }
 
         Flight updatedFlight = flightRepository.save(flight);
+        flightRepository.refreshSearchText(id);
+        airportFlightCountService.flightChanged(oldOriginAirportId, oldDestinationAirportId,
+                idOf(updatedFlight.getOriginAirport()), idOf(updatedFlight.getDestinationAirport()));
+        routeAvailabilityService.invalidate(updatedFlight);
+        // Seat counts were rewritten, reload the live inventory from the database
+        seatInventoryService.invalidate(id);
+        pricingService.invalidate(id);
+        fareRepricingService.repriceLater(id);
         return convertToDTO(updatedFlight);
     }
 
@@ -296,7 +360,12 @@ public class FlightServiceImpl implements FlightService {
     public void deleteFlight(Long id) {
         Flight flight = flightRepository.findById(id)
                 .orElseThrow(() -> new ResourceNotFoundException("Flight not found with id: " + id));
+        routeAvailabilityService.invalidate(flight);
+        airportFlightCountService.flightChanged(idOf(flight.getOriginAirport()), idOf(flight.getDestinationAirport()),
+                null, null);
         flightRepository.delete(flight);
+        seatInventoryService.invalidate(id);
+        pricingService.invalidate(id);
     }
 
     @Override
@@ -332,8 +401,24 @@ public class FlightServiceImpl implements FlightService {
     }
 
     private FlightResponseDTO convertToDTO(Flight flight) {
-        FlightResponseDTO dto = modelMapper.map(flight, FlightResponseDTO.class);
+        return convertToDTO(flight, null);
+    }
+
+    /**
+     * @param quote prices of the flight's fare classes, or null to read the base prices from the flight
+     */
+    private FlightResponseDTO convertToDTO(Flight flight, PricingService.FareQuote quote) {
+        FlightResponseDTO dto = new FlightResponseDTO();
+        dto.setId(flight.getId());
+        dto.setFlightNumber(flight.getFlightNumber());
+        dto.setAirline(flight.getAirline());
         dto.setFlightType(flight.getFlightType());
+        dto.setDepartureTime(flight.getDepartureTime());
+        dto.setArrivalTime(flight.getArrivalTime());
+        dto.setStatus(flight.getStatus() != null ? flight.getStatus().name() : null);
+        dto.setTotalCapacity(flight.getTotalCapacity());
+        // Live where the counters are loaded, the stored seats lag them with write-behind on
+        dto.setAvailableSeats(seatInventoryService.peekAvailableSeats(flight.getId(), flight.getAvailableSeats()));
         
         // Map origin and destination details based on flight type
         if (flight.getFlightType() == FlightType.DOMESTIC) {
@@ -348,34 +433,40 @@ public class FlightServiceImpl implements FlightService {
                 dto.setDestinationLocationCode(flight.getDestinationLocation().getCode());
             }
         } else {
+            // Airport details come from the catalog, so lazy airports are never initialized
             if (flight.getOriginAirport() != null) {
-                dto.setOriginAirportId(flight.getOriginAirport().getId());
-                dto.setOriginAirportName(flight.getOriginAirport().getName());
-                dto.setOriginAirportCode(flight.getOriginAirport().getCode());
-                dto.setOriginAirportCity(flight.getOriginAirport().getCity());
-                dto.setOriginAirportCountry(flight.getOriginAirport().getCountry());
+                AirportResponseDTO origin = airportOf(flight.getOriginAirport());
+                dto.setOriginAirportId(origin.getId());
+                dto.setOriginAirportName(origin.getName());
+                dto.setOriginAirportCode(origin.getCode());
+                dto.setOriginAirportCity(origin.getCity());
+                dto.setOriginAirportCountry(origin.getCountry());
             }
             if (flight.getDestinationAirport() != null) {
-                dto.setDestinationAirportId(flight.getDestinationAirport().getId());
-                dto.setDestinationAirportName(flight.getDestinationAirport().getName());
-                dto.setDestinationAirportCode(flight.getDestinationAirport().getCode());
-                dto.setDestinationAirportCity(flight.getDestinationAirport().getCity());
-                dto.setDestinationAirportCountry(flight.getDestinationAirport().getCountry());
+                AirportResponseDTO destination = airportOf(flight.getDestinationAirport());
+                dto.setDestinationAirportId(destination.getId());
+                dto.setDestinationAirportName(destination.getName());
+                dto.setDestinationAirportCode(destination.getCode());
+                dto.setDestinationAirportCity(destination.getCity());
+                dto.setDestinationAirportCountry(destination.getCountry());
             }
         }
         
-        // Map fare class prices if any
-        if (flight.getFareClassPrices() != null && !flight.getFareClassPrices().isEmpty()) {
-            Map<FareClass, Double> fareClassPrices = new EnumMap<>(FareClass.class);
-            flight.getFareClassPrices().forEach(fcp -> 
-                fareClassPrices.put(fcp.getFareClass(), fcp.getBasePrice())
-            );
+        // Map fare class prices if any (a quote already holds them, so the fares are not walked again)
+        Map<FareClass, Double> fareClassPrices = new EnumMap<>(FareClass.class);
+        if (quote != null) {
+            fareClassPrices = quote.basePriceMap();
+            dto.setDynamicFareClassPrices(quote.priceMap());
+        } else if (flight.getFareClassPrices() != null) {
+            for (FareClassPrice fcp : flight.getFareClassPrices()) {
+                fareClassPrices.put(fcp.getFareClass(), fcp.getBasePrice());
+            }
+        }
+        if (!fareClassPrices.isEmpty()) {
             dto.setFareClassPrices(fareClassPrices);
             // Set the base price to economy class price or first available price
-            if (!fareClassPrices.isEmpty()) {
-                dto.setPrice(fareClassPrices.getOrDefault(FareClass.ECONOMY, 
-                    fareClassPrices.values().iterator().next()));
-            }
+            dto.setPrice(fareClassPrices.getOrDefault(FareClass.ECONOMY, 
+                fareClassPrices.values().iterator().next()));
         } else {
             dto.setPrice(flight.getPrice());
         }
@@ -383,10 +474,32 @@ public class FlightServiceImpl implements FlightService {
         return dto;
     }
 
+    private static Long idOf(Airport airport) {
+        return airport != null ? airport.getId() : null;
+    }
+
+    private AirportResponseDTO airportOf(Airport airport) {
+        AirportResponseDTO cached = airportCatalogService.get(airport.getId());
+        if (cached != null) {
+            return cached;
+        }
+        return AirportResponseDTO.builder()
+                .id(airport.getId())
+                .name(airport.getName())
+                .code(airport.getCode())
+                .city(airport.getCity())
+                .country(airport.getCountry())
+                .build();
+    }
+
     @Deprecated
     private LocationResponseDTO convertToLocationDTO(Location location) {
         if (location == null) return null;
-        LocationResponseDTO dto = modelMapper.map(location, LocationResponseDTO.class);
+        LocationResponseDTO dto = new LocationResponseDTO();
+        dto.setId(location.getId());
+        dto.setName(location.getName());
+        dto.setCode(location.getCode());
+        dto.setType(location.getType());
         if (location.getParent() != null) {
             dto.setParentId(location.getParent().getId());
             dto.setParentName(location.getParent().getName());
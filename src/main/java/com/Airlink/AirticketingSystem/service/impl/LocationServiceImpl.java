@@ -8,14 +8,18 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
 
 import com.Airlink.AirticketingSystem.dto.LocationResponseDTO;
+import com.Airlink.AirticketingSystem.exception.BadRequestException;
 import com.Airlink.AirticketingSystem.exception.ResourceNotFoundException;
 import com.Airlink.AirticketingSystem.model.Location;
 import com.Airlink.AirticketingSystem.model.enums.LocationType;
+import com.Airlink.AirticketingSystem.repository.FlightRepository;
 import com.Airlink.AirticketingSystem.repository.LocationRepository;
 import com.Airlink.AirticketingSystem.service.LocationService;
+import com.Airlink.AirticketingSystem.service.LocationTreeService;
 
 @Service
 @Transactional
@@ -24,9 +28,15 @@ public class LocationServiceImpl implements LocationService {
     @Autowired
     private LocationRepository locationRepository;
 
+    @Autowired
+    private FlightRepository flightRepository;
+
     @Autowired
     private ModelMapper modelMapper;
 
+    @Autowired
+    private LocationTreeService locationTreeService;
+
     @Override
     public LocationResponseDTO createLocation(String name, String code, LocationType type, Long parentId) {
         Location location = new Location();
@@ -51,40 +61,41 @@ public class LocationServiceImpl implements LocationService {
         setLocationHierarchyField(location);
 
         Location savedLocation = locationRepository.save(location);
+        // The id is part of the path, so it is known only once saved
+        savedLocation.setPath(pathUnder(savedLocation.getParent(), savedLocation.getId()));
+        locationTreeService.invalidate();
         return convertToDTO(savedLocation);
     }
 
+    // Reads are served from the in-memory location tree, without a transaction or connection;
+    // a cold tree is loaded by a single repository query in its own transaction
+
     @Override
-    @Transactional(readOnly = true)
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
     public LocationResponseDTO getLocationById(Long id) {
-        Location location = locationRepository.findById(id)
-                .orElseThrow(() -> new ResourceNotFoundException("Location", id));
-        return convertToDTO(location);
+        LocationResponseDTO location = locationTreeService.get(id);
+        if (location == null) {
+            throw new ResourceNotFoundException("Location", id);
+        }
+        return location;
     }
 
     @Override
-    @Transactional(readOnly = true)
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
     public Page<LocationResponseDTO> getAllLocations(Pageable pageable) {
-        return locationRepository.findAll(pageable)
-                .map(this::convertToDTO);
+        return locationTreeService.getPage(pageable);
     }
 
     @Override
-    @Transactional(readOnly = true)
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
     public List<LocationResponseDTO> getLocationsByType(LocationType type) {
-        List<Location> locations = locationRepository.findByType(type);
-        return locations.stream()
-                .map(this::convertToDTO)
-                .toList();
+        return locationTreeService.getByType(type);
     }
 
     @Override
-    @Transactional(readOnly = true)
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
     public List<LocationResponseDTO> getChildrenLocations(Long parentId) {
-        List<Location> children = locationRepository.findByParent_Id(parentId);
-        return children.stream()
-                .map(this::convertToDTO)
-                .toList();
+        return locationTreeService.getChildren(parentId);
     }
 
     @Override
@@ -93,6 +104,7 @@ public class LocationServiceImpl implements LocationService {
                 .orElseThrow(() -> new ResourceNotFoundException("Location", id));
 
         boolean needsHierarchyUpdate = false;
+        boolean moved = false;
         
         if (name != null) location.setName(name);
         if (code != null) location.setCode(code);
@@ -105,16 +117,38 @@ public class LocationServiceImpl implements LocationService {
         if (parentId != null && (location.getParent() == null || !parentId.equals(location.getParent().getId()))) {
             Location parent = locationRepository.findById(parentId)
                     .orElseThrow(() -> new ResourceNotFoundException("Location", parentId));
+            if (location.getPath() != null && parent.getPath() != null && parent.getPath().startsWith(location.getPath())) {
+                throw new BadRequestException("A location cannot be moved under itself or one of its descendants");
+            }
             location.setParent(parent);
             copyParentHierarchy(location, parent);
             needsHierarchyUpdate = true;
+            moved = true;
         }
         
         if (needsHierarchyUpdate) {
             setLocationHierarchyField(location);
         }
 
+        String oldPath = location.getPath();
+        if (moved) {
+            location.setPath(pathUnder(location.getParent(), id));
+        }
+
         Location updatedLocation = locationRepository.save(location);
+        // Move the whole subtree along, in bulk
+        if (moved && oldPath != null) {
+            locationRepository.moveSubtree(oldPath, oldPath.length(), updatedLocation.getPath());
+        }
+        // Descendants keep the names of their ancestors in their hierarchy columns
+        if (moved || needsHierarchyUpdate || name != null) {
+            locationRepository.refreshHierarchyNames(updatedLocation.getPath());
+        }
+        locationTreeService.invalidate();
+        // Names and codes are part of the flight search text
+        if (name != null || code != null) {
+            flightRepository.refreshSearchTextByLocationId(id);
+        }
         return convertToDTO(updatedLocation);
     }
 
@@ -123,36 +157,33 @@ public class LocationServiceImpl implements LocationService {
         Location location = locationRepository.findById(id)
                 .orElseThrow(() -> new ResourceNotFoundException("Location", id));
         locationRepository.delete(location);
+        locationTreeService.invalidate();
     }
 
     @Override
-    @Transactional(readOnly = true)
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
     public LocationResponseDTO getLocationHierarchy(Long id) {
-        Location location = locationRepository.findById(id)
-                .orElseThrow(() -> new ResourceNotFoundException("Location", id));
-
-        LocationResponseDTO dto = convertToDTO(location);
-
-        // Build hierarchy by going up to parent
-        List<String> hierarchyPath = new ArrayList<>();
-        Location current = location;
-        while (current != null) {
-            hierarchyPath.add(0, current.getName());
-            current = current.getParent();
-        }
-
-        return dto;
+        // The full path is part of every location read from the tree
+        return getLocationById(id);
     }
 
     @Override
-    @Transactional(readOnly = true)
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
     public List<LocationResponseDTO> searchLocationsByName(String name) {
-        List<Location> locations = locationRepository.findByNameContainingIgnoreCase(name);
-        return locations.stream()
-                .map(this::convertToDTO)
-                .toList();
+        return locationTreeService.searchByName(name);
     }
 
+    @Override
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public List<LocationResponseDTO> getDescendantLocations(Long id, LocationType type) {
+        List<LocationResponseDTO> descendants = locationTreeService.getDescendants(id, type);
+        if (descendants == null) {
+            throw new ResourceNotFoundException("Location", id);
+        }
+        return descendants;
+    }
+
+    // Used for the result of a change, when the tree does not have it yet
     private LocationResponseDTO convertToDTO(Location location) {
         LocationResponseDTO dto = new LocationResponseDTO();
         dto.setId(location.getId());
@@ -245,6 +276,11 @@ public class LocationServiceImpl implements LocationService {
         }
     }
     
+    private static String pathUnder(Location parent, Long id) {
+        String parentPath = parent != null && parent.getPath() != null ? parent.getPath() : "/";
+        return parentPath + id + "/";
+    }
+    
     private void copyParentHierarchy(Location location, Location parent) {
         location.setProvinceName(parent.getProvinceName());
         location.setDistrictName(parent.getDistrictName());
@@ -274,6 +310,14 @@ public class LocationServiceImpl implements LocationService {
     }
     
     private String buildFullHierarchy(Location location) {
+        // The parent did not change in this transaction, so its path in the tree is current
+        if (location.getParent() != null) {
+            String parentPath = locationTreeService.findPath(location.getParent().getId());
+            if (parentPath != null) {
+                return parentPath + " > " + location.getName();
+            }
+        }
+
         List<String> hierarchy = new ArrayList<>();
         Location current = location;
         
@@ -1,7 +1,6 @@
 package com.Airlink.AirticketingSystem.service.impl;
 
 import java.time.LocalDate;
-import org.modelmapper.ModelMapper;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
@@ -28,9 +27,6 @@ public class PassengerServiceImpl implements PassengerService {
     @Autowired
     private BookingRepository bookingRepository;
 
-    @Autowired
-    private ModelMapper modelMapper;
-
     @Override
     public PassengerResponseDTO createPassenger(Long bookingId, String firstName, String lastName,
                                                 String passportNumber, Gender gender, String dateOfBirthStr) {
@@ -120,7 +116,13 @@ public class PassengerServiceImpl implements PassengerService {
     }
 
     private PassengerResponseDTO convertToDTO(Passenger passenger) {
-        PassengerResponseDTO dto = modelMapper.map(passenger, PassengerResponseDTO.class);
+        PassengerResponseDTO dto = new PassengerResponseDTO();
+        dto.setId(passenger.getId());
+        dto.setFirstName(passenger.getFirstName());
+        dto.setLastName(passenger.getLastName());
+        dto.setPassportNumber(passenger.getPassportNumber());
+        dto.setDateOfBirth(passenger.getDateOfBirth());
+        dto.setGender(passenger.getGender() != null ? passenger.getGender().name() : null);
         return dto;
     }
 }
@@ -1,16 +1,20 @@
 package com.Airlink.AirticketingSystem.service.impl;
 
+import java.util.List;
 import java.time.LocalDateTime;
 import java.util.UUID;
 
 import org.modelmapper.ModelMapper;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import com.Airlink.AirticketingSystem.dto.CursorPage;
 import com.Airlink.AirticketingSystem.dto.PaymentResponseDTO;
+import com.Airlink.AirticketingSystem.exception.BadRequestException;
 import com.Airlink.AirticketingSystem.exception.ResourceNotFoundException;
 import com.Airlink.AirticketingSystem.model.Booking;
 import com.Airlink.AirticketingSystem.model.Payment;
@@ -20,6 +24,7 @@ import com.Airlink.AirticketingSystem.model.enums.PaymentStatus;
 import com.Airlink.AirticketingSystem.repository.BookingRepository;
 import com.Airlink.AirticketingSystem.repository.PaymentRepository;
 import com.Airlink.AirticketingSystem.service.PaymentService;
+import com.Airlink.AirticketingSystem.service.SeatHoldService;
 import org.springframework.data.domain.PageImpl;
 
 @Service
@@ -35,6 +40,9 @@ public class PaymentServiceImpl implements PaymentService {
     @Autowired
     private ModelMapper modelMapper;
 
+    @Autowired
+    private SeatHoldService seatHoldService;
+
     @Override
     @Transactional
     public PaymentResponseDTO createPayment(Long bookingId, Double amount, PaymentMethod method, PaymentStatus status) {
@@ -42,6 +50,10 @@ public class PaymentServiceImpl implements PaymentService {
         Booking booking = bookingRepository.findById(bookingId)
                 .orElseThrow(() -> new ResourceNotFoundException("Booking", bookingId));
 
+        if (booking.getStatus() == BookingStatus.CANCELLED) {
+            throw new BadRequestException("Booking has been cancelled");
+        }
+
         // Create the payment
         Payment payment = new Payment();
         payment.setBooking(booking);
@@ -59,6 +71,7 @@ public class PaymentServiceImpl implements PaymentService {
         
         // Update booking status if payment is completed
         if (status == PaymentStatus.COMPLETED) {
+            claimHeldBooking(booking);
             booking.setStatus(BookingStatus.CONFIRMED);
             
             // Ensure the booking's payment reference is set
@@ -71,6 +84,10 @@ public class PaymentServiceImpl implements PaymentService {
         } else {
             // Save the booking with the payment reference
             bookingRepository.save(booking);
+            if (status == PaymentStatus.PENDING && booking.getStatus() == BookingStatus.PENDING) {
+                // The hold must not run out while the payment is in progress
+                seatHoldService.hold(booking.getId(), booking.getBookingDate(), savedPayment.getPaymentDate());
+            }
         }
 
         return convertToDTO(savedPayment);
@@ -99,6 +116,20 @@ public class PaymentServiceImpl implements PaymentService {
                 .map(this::convertToDTO);
     }
 
+    @Override
+    @Transactional(readOnly = true)
+    public CursorPage<PaymentResponseDTO> scrollPayments(String cursor, int size) {
+        int limit = CursorPage.clampSize(size);
+        // One extra row tells whether another slice follows
+        List<Payment> payments = paymentRepository.findAfter(CursorPage.decodeIdCursor(cursor), Limit.of(limit + 1));
+        String nextCursor = null;
+        if (payments.size() > limit) {
+            payments = payments.subList(0, limit);
+            nextCursor = CursorPage.encodeCursor(payments.get(limit - 1).getId());
+        }
+        return new CursorPage<>(payments.stream().map(this::convertToDTO).toList(), nextCursor);
+    }
+
     @Override
     @Transactional(readOnly = true)
     public Page<PaymentResponseDTO> getPaymentsByStatus(PaymentStatus status, Pageable pageable) {
@@ -138,6 +169,7 @@ public class PaymentServiceImpl implements PaymentService {
                     .orElseThrow(() -> new ResourceNotFoundException("Booking", payment.getBooking().getId()));
             
             // Update the booking status
+            claimHeldBooking(booking);
             booking.setStatus(BookingStatus.CONFIRMED);
             
             // Ensure the booking's payment reference is set
@@ -147,6 +179,11 @@ public class PaymentServiceImpl implements PaymentService {
             
             // Save the booking with updated status
             bookingRepository.saveAndFlush(booking);
+        } else if (payment.getBooking().getStatus() == BookingStatus.PENDING) {
+            // A pending payment extends the seat hold, a failed one takes the extension back
+            Booking booking = payment.getBooking();
+            seatHoldService.hold(booking.getId(), booking.getBookingDate(),
+                    newStatus == PaymentStatus.PENDING ? payment.getPaymentDate() : null);
         }
         
         // Save the payment
@@ -162,6 +199,18 @@ public class PaymentServiceImpl implements PaymentService {
         paymentRepository.delete(payment);
     }
 
+    private void claimHeldBooking(Booking booking) {
+        // Confirm before the seat hold expires the booking; a conditional update settles the race
+        if (booking.getStatus() == BookingStatus.PENDING
+                && bookingRepository.updateStatusIfCurrent(booking.getId(), BookingStatus.PENDING, BookingStatus.CONFIRMED) == 0) {
+            throw new BadRequestException("Booking hold has expired");
+        }
+        if (booking.getStatus() == BookingStatus.CANCELLED) {
+            throw new BadRequestException("Booking has been cancelled");
+        }
+        seatHoldService.releaseHold(booking.getId());
+    }
+
     private String generateUniquePaymentReference() {
         String reference;
         do {
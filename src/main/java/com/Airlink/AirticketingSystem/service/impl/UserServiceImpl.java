@@ -1,7 +1,10 @@
 package com.Airlink.AirticketingSystem.service.impl;
 
+import java.util.List;
 import org.modelmapper.ModelMapper;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.security.crypto.password.PasswordEncoder;
@@ -10,6 +13,7 @@ import org.springframework.transaction.annotation.Transactional;
 
 import com.Airlink.AirticketingSystem.dto.LocationResponseDTO;
 import com.Airlink.AirticketingSystem.dto.UserRequestDTO;
+import com.Airlink.AirticketingSystem.dto.CursorPage;
 import com.Airlink.AirticketingSystem.dto.UserResponseDTO;
 import com.Airlink.AirticketingSystem.exception.BadRequestException;
 import com.Airlink.AirticketingSystem.exception.ResourceNotFoundException;
@@ -20,6 +24,9 @@ import com.Airlink.AirticketingSystem.model.enums.LocationType;
 import com.Airlink.AirticketingSystem.model.enums.UserRole;
 import com.Airlink.AirticketingSystem.repository.LocationRepository;
 import com.Airlink.AirticketingSystem.repository.UserRepository;
+import com.Airlink.AirticketingSystem.security.TokenRevocationService;
+import com.Airlink.AirticketingSystem.security.UserAccessChangedEvent;
+import com.Airlink.AirticketingSystem.service.LocationTreeService;
 import com.Airlink.AirticketingSystem.service.UserService;
 
 @Service
@@ -38,6 +45,12 @@ public class UserServiceImpl implements UserService {
     @Autowired
     private PasswordEncoder passwordEncoder;
 
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    @Autowired
+    private LocationTreeService locationTreeService;
+
     @Override
     public UserResponseDTO createUser(String fullName, String email, String phone,
                                     Gender gender, UserRole role, Long locationId) {
@@ -126,6 +139,20 @@ public class UserServiceImpl implements UserService {
                 .map(this::convertToDTO);
     }
 
+    @Override
+    @Transactional(readOnly = true)
+    public CursorPage<UserResponseDTO> scrollUsers(String cursor, int size) {
+        int limit = CursorPage.clampSize(size);
+        // One extra row tells whether another slice follows
+        List<User> users = userRepository.findAfter(CursorPage.decodeIdCursor(cursor), Limit.of(limit + 1));
+        String nextCursor = null;
+        if (users.size() > limit) {
+            users = users.subList(0, limit);
+            nextCursor = CursorPage.encodeCursor(users.get(limit - 1).getId());
+        }
+        return new CursorPage<>(users.stream().map(this::convertToDTO).toList(), nextCursor);
+    }
+
     @Override
     @Transactional(readOnly = true)
     public Page<UserResponseDTO> getUsersByRole(UserRole role, Pageable pageable) {
@@ -140,17 +167,26 @@ public class UserServiceImpl implements UserService {
                 .map(this::convertToDTO);
     }
 
+    @Override
+    @Transactional(readOnly = true)
+    public Page<UserResponseDTO> getUsersInLocationSubtree(Long locationId, Pageable pageable) {
+        Location location = locationRepository.findById(locationId)
+                .orElseThrow(() -> new ResourceNotFoundException("Location", locationId));
+        return userRepository.findInLocationSubtree(location.getPath(), pageable)
+                .map(this::convertToDTO);
+    }
+
     @Override
     @Transactional(readOnly = true)
     public Page<UserResponseDTO> getUsersByProvinceCode(String provinceCode, Pageable pageable) {
-        return userRepository.findByLocationTypeAndCode(LocationType.PROVINCE, provinceCode, pageable)
+        return userRepository.findInSubtreeOfLocationTypeAndCode(LocationType.PROVINCE, provinceCode, pageable)
                 .map(this::convertToDTO);
     }
 
     @Override
     @Transactional(readOnly = true)
     public Page<UserResponseDTO> getUsersByProvinceName(String provinceName, Pageable pageable) {
-        return userRepository.findByLocationTypeAndName(LocationType.PROVINCE, provinceName, pageable)
+        return userRepository.findInSubtreeOfLocationTypeAndName(LocationType.PROVINCE, provinceName, pageable)
                 .map(this::convertToDTO);
     }
 
@@ -163,7 +199,12 @@ public class UserServiceImpl implements UserService {
         if (fullName != null) user.setFullName(fullName);
         if (phone != null) user.setPhone(phone);
         if (gender != null) user.setGender(gender);
-        if (role != null) user.setRole(role);
+        if (role != null && role != user.getRole()) {
+            user.setRole(role);
+            // Access tokens and cached user details carry the role, the old ones must not be honoured any more
+            user.setTokensValidAfter(TokenRevocationService.revocationTime());
+            eventPublisher.publishEvent(new UserAccessChangedEvent(user.getEmail()));
+        }
 
         if (locationId != null) {
             Location location = locationRepository.findById(locationId)
@@ -185,6 +226,8 @@ public class UserServiceImpl implements UserService {
         User user = userRepository.findById(id)
                 .orElseThrow(() -> new ResourceNotFoundException("User", id));
         userRepository.delete(user);
+        // Other instances and restarts find the user gone, see TokenRevocationService
+        eventPublisher.publishEvent(new UserAccessChangedEvent(user.getEmail()));
     }
 
     @Override
@@ -211,6 +254,12 @@ public class UserServiceImpl implements UserService {
     }
 
     private LocationResponseDTO convertLocationToDTO(Location location) {
+        // Served from the location tree, without walking the parents
+        LocationResponseDTO fromTree = locationTreeService.get(location.getId());
+        if (fromTree != null) {
+            return fromTree;
+        }
+
         LocationResponseDTO dto = new LocationResponseDTO();
         dto.setId(location.getId());
         dto.setName(location.getName());
@@ -0,0 +1,191 @@
+package com.Airlink.AirticketingSystem.controller;
+
+import com.Airlink.AirticketingSystem.AirticketingSystemApplication;
+import com.Airlink.AirticketingSystem.config.FlightSearchIndexInitializer;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.support.BeanDefinitionRegistry;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * GET /api/flights/search under 2,000 concurrent clients, each sending its next search as soon
+ * as the last one answers: the application as configured (platform request threads, Hikari's
+ * default pool) against the virtual-threads profile (virtual request threads, a fixed pool of 20
+ * behind the database concurrency limiter). Prints requests per second, median and p99 latency,
+ * and the requests that failed, such as 503s from the limiter's acquire timeout.
+ *
+ * Run with mvn test -Pbenchmark (H2 in-process, clients in the same JVM as the server).
+ */
+@Tag("benchmark")
+class FlightSearchLoadBenchmark {
+
+    private static final int CLIENTS = 2_000;
+    private static final int AIRPORTS = 500;
+    private static final int FLIGHTS = 5_000;
+    private static final int CITIES = 200;
+    private static final long WARM_UP_MS = 20_000;
+    private static final long MEASURE_MS = 20_000;
+    private static final String H2_URL = "jdbc:h2:mem:searchload;MODE=PostgreSQL;LOCK_TIMEOUT=30000;DB_CLOSE_DELAY=-1";
+
+    @Test
+    void platformAgainstVirtualThreads() throws Exception {
+        for (String profile : new String[]{"default", "virtual-threads"}) {
+            try (ConfigurableApplicationContext context = start(profile)) {
+                JdbcTemplate jdbcTemplate = context.getBean(JdbcTemplate.class);
+                if (jdbcTemplate.queryForObject("SELECT count(*) FROM flights", Long.class) == 0) {
+                    generate(jdbcTemplate);
+                    // Fills search_text for the generated flights, as at startup
+                    context.getBean(FlightSearchIndexInitializer.class).createIndex();
+                }
+                int port = ((WebServerApplicationContext) context).getWebServer().getPort();
+                assertThat(search(port, 150).body()).contains("\"flightNumber\"");
+
+                load(port, WARM_UP_MS);
+                Load load = load(port, MEASURE_MS);
+                System.out.printf("flight search, %-15s %,d clients: %,7.0f requests/s, median %7.1f ms, " +
+                                "p99 %7.1f ms, %,d failed%n",
+                        profile, CLIENTS, load.perSecond(), load.medianMs(), load.p99Ms(), load.failed());
+                assertThat(load.perSecond()).isPositive();
+            }
+        }
+    }
+
+    private static ConfigurableApplicationContext start(String profile) {
+        // As command line arguments, so they win over application.properties
+        return new SpringApplicationBuilder(AirticketingSystemApplication.class)
+                .profiles(profile)
+                // Location paths are built with a Postgres-only UPDATE ... FROM, and no flight here has a location
+                .initializers(context -> context.addBeanFactoryPostProcessor(beanFactory ->
+                        ((BeanDefinitionRegistry) beanFactory).removeBeanDefinition("locationPathInitializer")))
+                .run("--server.port=0",
+                        "--spring.datasource.url=" + H2_URL,
+                        "--spring.datasource.driver-class-name=org.h2.Driver",
+                        "--spring.datasource.username=sa",
+                        "--spring.datasource.password=",
+                        "--spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+                        "--spring.jpa.show-sql=false",
+                        // Per-request DEBUG logging would be most of what is measured
+                        "--logging.level.com.Airlink.AirticketingSystem=INFO",
+                        "--logging.level.org.springframework.security=INFO");
+    }
+
+    // Airports in CITIES cities, flights between them over the next 90 days, each with an economy fare
+    private static void generate(JdbcTemplate jdbcTemplate) {
+        jdbcTemplate.update("INSERT INTO airports (name, code, type, city, country, " +
+                "departing_flights_count, arriving_flights_count) " +
+                "SELECT CONCAT('Airport ', X), CONCAT(CHAR(65 + X / 676 % 26), CHAR(65 + X / 26 % 26), CHAR(65 + X % 26)), " +
+                "'INTERNATIONAL', CONCAT('City ', MOD(X, ?)), CONCAT('Country ', MOD(X, 50)), 0, 0 " +
+                "FROM SYSTEM_RANGE(0, ?)", CITIES, AIRPORTS - 1);
+        long airport = jdbcTemplate.queryForObject("SELECT min(id) FROM airports", Long.class);
+        jdbcTemplate.update("INSERT INTO flights (id, flight_number, airline, flight_type, " +
+                "origin_airport_id, destination_airport_id, departure_time, arrival_time, status, price, " +
+                "total_capacity, available_seats) " +
+                "SELECT X, CONCAT('AL', X), 'Airlink', 'INTERNATIONAL', ? + MOD(X, ?), ? + MOD(X * 7 + 1, ?), " +
+                "DATEADD(DAY, MOD(X, 90) + 1, CURRENT_TIMESTAMP), DATEADD(HOUR, 3, DATEADD(DAY, MOD(X, 90) + 1, CURRENT_TIMESTAMP)), " +
+                "'SCHEDULED', 100 + MOD(X, 400), 180, 180 " +
+                "FROM SYSTEM_RANGE(1, ?)", airport, AIRPORTS, airport, AIRPORTS, FLIGHTS);
+        jdbcTemplate.update("INSERT INTO fare_class_prices (id, flight_id, fare_class, base_price, current_price, available_seats) " +
+                "SELECT id, id, 'ECONOMY', price, price, available_seats FROM flights");
+    }
+
+    // CLIENTS clients searching a random city for a page of flights, for the given time
+    private static Load load(int port, long millis) throws Exception {
+        AtomicBoolean stop = new AtomicBoolean();
+        CountDownLatch start = new CountDownLatch(1);
+        HttpClient client = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .connectTimeout(Duration.ofSeconds(30))
+                .build();
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            List<Future<long[]>> futures = new ArrayList<>();
+            for (int c = 0; c < CLIENTS; c++) {
+                futures.add(executor.submit(() -> {
+                    start.await();
+                    long[] latencies = new long[64];
+                    int count = 0;
+                    long failed = 0;
+                    while (!stop.get()) {
+                        HttpRequest request = request(port, ThreadLocalRandom.current().nextInt(CITIES));
+                        long started = System.nanoTime();
+                        try {
+                            if (client.send(request, HttpResponse.BodyHandlers.discarding()).statusCode() != 200) {
+                                failed++;
+                            }
+                        } catch (java.io.IOException e) {
+                            failed++;
+                        }
+                        if (count == latencies.length) {
+                            latencies = Arrays.copyOf(latencies, count * 2);
+                        }
+                        latencies[count++] = System.nanoTime() - started;
+                    }
+                    // The failures ride along as the last element
+                    latencies = Arrays.copyOf(latencies, count + 1);
+                    latencies[count] = failed;
+                    return latencies;
+                }));
+            }
+            start.countDown();
+            long started = System.nanoTime();
+            Thread.sleep(millis);
+            stop.set(true);
+            long failed = 0;
+            List<long[]> perClient = new ArrayList<>();
+            for (Future<long[]> future : futures) {
+                long[] latencies = future.get(2, TimeUnit.MINUTES);
+                failed += latencies[latencies.length - 1];
+                perClient.add(Arrays.copyOf(latencies, latencies.length - 1));
+            }
+            double seconds = (System.nanoTime() - started) / 1e9;
+            long[] latencies = perClient.stream().flatMapToLong(Arrays::stream).sorted().toArray();
+            return new Load(latencies.length / seconds, percentile(latencies, 50), percentile(latencies, 99), failed);
+        } finally {
+            client.close();
+        }
+    }
+
+    // The first page of flights from or to airports in one city
+    private static HttpRequest request(int port, int city) {
+        return HttpRequest.newBuilder(URI.create("http://localhost:" + port + "/api/flights/search?query=City%20" + city))
+                .timeout(Duration.ofSeconds(60))
+                .build();
+    }
+
+    private static HttpResponse<String> search(int port, int city) throws Exception {
+        try (HttpClient client = HttpClient.newHttpClient()) {
+            return client.send(request(port, city), HttpResponse.BodyHandlers.ofString());
+        }
+    }
+
+    private static double percentile(long[] sorted, int percentile) {
+        if (sorted.length == 0) {
+            return 0;
+        }
+        int index = (int) Math.ceil(percentile / 100.0 * sorted.length) - 1;
+        return sorted[Math.max(index, 0)] / 1e6;
+    }
+
+    private record Load(double perSecond, double medianMs, double p99Ms, long failed) {
+    }
+}
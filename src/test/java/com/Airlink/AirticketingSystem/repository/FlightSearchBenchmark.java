@@ -0,0 +1,173 @@
+package com.Airlink.AirticketingSystem.repository;
+
+import com.Airlink.AirticketingSystem.config.FlightSearchIndexInitializer;
+import com.Airlink.AirticketingSystem.model.Flight;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.Arrays;
+import java.util.function.Supplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Flight text search at 100k and 1M flights: the trigram-indexed search_text match that
+ * FlightService.searchFlights runs against the LIKE over the joined airport and location
+ * columns it replaced. Prints median and p99 latency of a page plus its count per query.
+ *
+ * Needs Postgres with pg_trgm available, so it only runs when pointed at a scratch database,
+ * whose tables it drops and recreates:
+ *   mvn test -Pbenchmark -Dtest=FlightSearchBenchmark -Dbenchmark.postgres.url=jdbc:postgresql://localhost:5432/bench
+ *   (-Dbenchmark.postgres.username / -Dbenchmark.postgres.password default to postgres / empty)
+ * Generating the million flights takes a few minutes.
+ */
+@Tag("benchmark")
+@EnabledIfSystemProperty(named = "benchmark.postgres.url", matches = ".+")
+@DataJpaTest(properties = {
+        "spring.datasource.url=${benchmark.postgres.url}",
+        "spring.datasource.username=${benchmark.postgres.username:postgres}",
+        "spring.datasource.password=${benchmark.postgres.password:}",
+        "spring.jpa.hibernate.ddl-auto=create-drop",
+        "spring.jpa.show-sql=false"
+})
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Import(FlightSearchIndexInitializer.class)
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class FlightSearchBenchmark {
+
+    private static final int[] FLIGHTS = {100_000, 1_000_000};
+    private static final int AIRPORTS = 5_000;
+    private static final int LOCATIONS = 1_000;
+    private static final int RUNS = 30;
+    private static final PageRequest PAGE = PageRequest.of(0, 20);
+
+    // From a few matches to a large share of the flights, and none
+    private static final String[] QUERIES = {"Airport 4321", "KGL", "City 17", "Country 42", "District 7", "nowhere"};
+
+    // As FlightRepository searched before search_text: every column of the four joined tables
+    private static final String JOINED_LIKE = "FROM Flight f " +
+            "LEFT JOIN f.originLocation ol LEFT JOIN f.destinationLocation dl " +
+            "LEFT JOIN f.originAirport oa LEFT JOIN f.destinationAirport da WHERE " +
+            "(f.flightType = 'DOMESTIC' AND " +
+            " (ol.name LIKE :pattern OR ol.code LIKE :pattern OR dl.name LIKE :pattern OR dl.code LIKE :pattern)) " +
+            "OR (f.flightType = 'INTERNATIONAL' AND " +
+            " (oa.name LIKE :pattern OR oa.code LIKE :pattern OR da.name LIKE :pattern OR da.code LIKE :pattern OR " +
+            "  oa.city LIKE :pattern OR da.city LIKE :pattern OR oa.country LIKE :pattern OR da.country LIKE :pattern))";
+
+    @Autowired
+    private FlightRepository flightRepository;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Test
+    void trigramSearchAgainstJoinedLike() {
+        TransactionTemplate readOnly = new TransactionTemplate(transactionManager);
+        readOnly.setReadOnly(true);
+        generateAirportsAndLocations();
+
+        int generated = 0;
+        for (int flights : FLIGHTS) {
+            generateFlights(generated, flights);
+            generated = flights;
+
+            for (String query : QUERIES) {
+                long[] trigram = measure(() -> readOnly.execute(status -> searchText(query)));
+                long[] joined = measure(() -> readOnly.execute(status -> joinedLike(query)));
+                Long matches = readOnly.execute(status -> searchText(query));
+                Long joinedMatches = readOnly.execute(status -> joinedLike(query));
+                assertThat(joinedMatches).isEqualTo(matches);
+                System.out.printf("%,9d flights, %-14s %,9d matches: search_text median %6.1f ms p99 %6.1f ms, " +
+                                "joined LIKE median %6.1f ms p99 %6.1f ms%n",
+                        flights, "\"" + query + "\"", matches,
+                        percentile(trigram, 50), percentile(trigram, 99), percentile(joined, 50), percentile(joined, 99));
+            }
+        }
+    }
+
+    // A page and its total, as FlightServiceImpl.searchFlights reads them
+    private long searchText(String query) {
+        Page<Flight> page = flightRepository.findAll(FlightSpecifications.searchTextContains(query), PAGE);
+        return page.getTotalElements();
+    }
+
+    private long joinedLike(String query) {
+        String pattern = "%" + query + "%";
+        entityManager.createQuery("SELECT f " + JOINED_LIKE, Flight.class)
+                .setParameter("pattern", pattern)
+                .setFirstResult((int) PAGE.getOffset())
+                .setMaxResults(PAGE.getPageSize())
+                .getResultList();
+        return entityManager.createQuery("SELECT count(f) " + JOINED_LIKE, Long.class)
+                .setParameter("pattern", pattern)
+                .getSingleResult();
+    }
+
+    // Latencies in nanoseconds, sorted, after a few runs to warm caches
+    private static long[] measure(Supplier<?> search) {
+        for (int i = 0; i < 3; i++) {
+            search.get();
+        }
+        long[] latencies = new long[RUNS];
+        for (int i = 0; i < RUNS; i++) {
+            long started = System.nanoTime();
+            search.get();
+            latencies[i] = System.nanoTime() - started;
+        }
+        Arrays.sort(latencies);
+        return latencies;
+    }
+
+    private static double percentile(long[] sorted, int percentile) {
+        int index = (int) Math.ceil(percentile / 100.0 * sorted.length) - 1;
+        return sorted[Math.max(index, 0)] / 1e6;
+    }
+
+    // Airports with unique three-letter codes; cities and countries repeat across them
+    private void generateAirportsAndLocations() {
+        jdbcTemplate.update("INSERT INTO airports (name, code, type, city, country) " +
+                "SELECT 'Airport ' || i, chr(65 + i / 676 % 26) || chr(65 + i / 26 % 26) || chr(65 + i % 26), " +
+                "'INTERNATIONAL', 'City ' || (i % 2000), 'Country ' || (i % 200) " +
+                "FROM generate_series(0, ?) i", AIRPORTS - 1);
+        jdbcTemplate.update("INSERT INTO locations (name, code, type) " +
+                "SELECT 'District ' || i, 'D' || i, 'DISTRICT' FROM generate_series(0, ?) i", LOCATIONS - 1);
+    }
+
+    // Flights with ids from + 1 to to, one in five domestic, then their search text as at startup
+    private void generateFlights(int from, int to) {
+        long airport = jdbcTemplate.queryForObject("SELECT min(id) FROM airports", Long.class);
+        long location = jdbcTemplate.queryForObject("SELECT min(id) FROM locations", Long.class);
+        jdbcTemplate.update("INSERT INTO flights (id, flight_number, airline, flight_type, " +
+                "origin_airport_id, destination_airport_id, origin_location_id, destination_location_id, " +
+                "departure_time, arrival_time, status, price, total_capacity, available_seats) " +
+                "SELECT i, 'AL' || i, 'Airlink', CASE WHEN i % 5 = 0 THEN 'DOMESTIC' ELSE 'INTERNATIONAL' END, " +
+                "CASE WHEN i % 5 <> 0 THEN ? + i % ? END, CASE WHEN i % 5 <> 0 THEN ? + (i * 7 + 1) % ? END, " +
+                "CASE WHEN i % 5 = 0 THEN ? + i % ? END, CASE WHEN i % 5 = 0 THEN ? + (i * 7 + 1) % ? END, " +
+                "now() + (i % 365) * interval '1 day', now() + (i % 365) * interval '1 day' + interval '3 hours', " +
+                "'SCHEDULED', 100 + i % 400, 180, 180 " +
+                "FROM generate_series(?, ?) i",
+                airport, AIRPORTS, airport, AIRPORTS, location, LOCATIONS, location, LOCATIONS, from + 1, to);
+        jdbcTemplate.update("UPDATE flights f SET search_text = " + FlightRepository.SEARCH_TEXT +
+                " WHERE f.search_text IS NULL");
+        jdbcTemplate.execute("ANALYZE flights");
+    }
+}
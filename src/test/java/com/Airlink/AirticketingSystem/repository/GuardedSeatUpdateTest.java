@@ -0,0 +1,220 @@
+package com.Airlink.AirticketingSystem.repository;
+
+import com.Airlink.AirticketingSystem.model.Booking;
+import com.Airlink.AirticketingSystem.model.Flight;
+import com.Airlink.AirticketingSystem.model.Passenger;
+import com.Airlink.AirticketingSystem.model.enums.BookingStatus;
+import com.Airlink.AirticketingSystem.model.enums.FareClass;
+import com.Airlink.AirticketingSystem.model.enums.FlightType;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Many transactions hammering one flight through the guarded seat UPDATEs: none may take
+ * a seat that is not left, or give back more seats than the flight holds. Also the startup
+ * repair lowering seats to what the bookings leave.
+ */
+@DataJpaTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:seats;MODE=PostgreSQL;LOCK_TIMEOUT=30000;DB_CLOSE_DELAY=-1",
+        "spring.datasource.driver-class-name=org.h2.Driver",
+        "spring.datasource.username=sa",
+        "spring.datasource.password=",
+        "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+        "spring.jpa.show-sql=false"
+})
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class GuardedSeatUpdateTest {
+
+    private static final int CAPACITY = 40;
+    private static final int THREADS = 16;
+
+    @Autowired
+    private FlightRepository flightRepository;
+
+    @Autowired
+    private FareClassPriceRepository fareClassPriceRepository;
+
+    @Autowired
+    private BookingRepository bookingRepository;
+
+    @Autowired
+    private PassengerRepository passengerRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private TransactionTemplate transactionTemplate;
+    private Long flightId;
+
+    @BeforeEach
+    void setUp() {
+        transactionTemplate = new TransactionTemplate(transactionManager);
+        passengerRepository.deleteAll();
+        bookingRepository.deleteAll();
+        fareClassPriceRepository.deleteAll();
+        flightRepository.deleteAll();
+
+        Flight flight = new Flight();
+        flight.setFlightNumber("AL100");
+        flight.setAirline("Airlink");
+        flight.setFlightType(FlightType.INTERNATIONAL);
+        flight.setDepartureTime(LocalDateTime.now().plusDays(10));
+        flight.setArrivalTime(LocalDateTime.now().plusDays(10).plusHours(3));
+        flight.setPrice(100.0);
+        flight.setTotalCapacity(CAPACITY);
+        flight.setAvailableSeats(CAPACITY);
+        flight.addFareClassPrice(FareClass.ECONOMY, 100.0, CAPACITY);
+        flightId = flightRepository.save(flight).getId();
+    }
+
+    @Test
+    void concurrentReservationsNeverOversell() throws Exception {
+        int reserved = hammer(() -> transactionTemplate.execute(status -> {
+            // Flight first, then fare class, as SeatInventoryService writes them
+            if (flightRepository.reserveSeats(flightId, 1) == 0
+                    || fareClassPriceRepository.reserveSeats(flightId, FareClass.ECONOMY, 1) == 0) {
+                status.setRollbackOnly();
+                return false;
+            }
+            return true;
+        }));
+
+        assertThat(reserved).isEqualTo(CAPACITY);
+        assertThat(flightSeats()).isZero();
+        assertThat(economySeats()).isZero();
+    }
+
+    @Test
+    void concurrentReleasesNeverExceedCapacity() throws Exception {
+        transactionTemplate.executeWithoutResult(status -> {
+            flightRepository.reserveSeats(flightId, CAPACITY / 2);
+            fareClassPriceRepository.reserveSeats(flightId, FareClass.ECONOMY, CAPACITY / 2);
+        });
+
+        int released = hammer(() -> transactionTemplate.execute(status -> {
+            if (flightRepository.releaseSeats(flightId, 1) == 0) {
+                status.setRollbackOnly();
+                return false;
+            }
+            fareClassPriceRepository.releaseSeats(flightId, FareClass.ECONOMY, 1);
+            return true;
+        }));
+
+        assertThat(released).isEqualTo(CAPACITY / 2);
+        assertThat(flightSeats()).isEqualTo(CAPACITY);
+        assertThat(economySeats()).isEqualTo(CAPACITY);
+    }
+
+    @Test
+    void reserveRejectsMoreSeatsThanLeft() {
+        Integer tooMany = transactionTemplate.execute(status -> flightRepository.reserveSeats(flightId, CAPACITY + 1));
+        Integer notOffered = transactionTemplate.execute(status ->
+                fareClassPriceRepository.reserveSeats(flightId, FareClass.BUSINESS, 1));
+
+        assertThat(tooMany).isZero();
+        assertThat(notOffered).isZero();
+        assertThat(flightSeats()).isEqualTo(CAPACITY);
+    }
+
+    @Test
+    void seatsLostBeforeARestartAreCappedByTheBookings() {
+        book(BookingStatus.CONFIRMED, 3);
+        // A booking without passengers holds one seat
+        book(BookingStatus.PENDING, 0);
+        book(BookingStatus.CANCELLED, 5);
+
+        assertThat(capSeatsToBookings()).isEqualTo(1);
+        assertThat(flightSeats()).isEqualTo(CAPACITY - 4);
+        assertThat(capSeatsToBookings()).isZero();
+
+        // Seats below what the bookings leave (lost releases) are left alone
+        transactionTemplate.executeWithoutResult(status -> flightRepository.reserveSeats(flightId, 6));
+        assertThat(capSeatsToBookings()).isZero();
+        assertThat(flightSeats()).isEqualTo(CAPACITY - 10);
+    }
+
+    // Runs the attempt on every thread until it fails there; returns how many attempts succeeded
+    private int hammer(Attempt attempt) throws Exception {
+        AtomicInteger succeeded = new AtomicInteger();
+        CountDownLatch start = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int t = 0; t < THREADS; t++) {
+                futures.add(executor.submit(() -> {
+                    start.await();
+                    while (Boolean.TRUE.equals(attempt.run())) {
+                        succeeded.incrementAndGet();
+                    }
+                    return null;
+                }));
+            }
+            start.countDown();
+            for (Future<?> future : futures) {
+                future.get(60, TimeUnit.SECONDS);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+        return succeeded.get();
+    }
+
+    private void book(BookingStatus status, int passengers) {
+        transactionTemplate.executeWithoutResult(tx -> {
+            Booking booking = new Booking();
+            booking.setFlight(flightRepository.getReferenceById(flightId));
+            booking.setStatus(status);
+            booking.setFareClass(FareClass.ECONOMY);
+            booking = bookingRepository.save(booking);
+            for (int i = 0; i < passengers; i++) {
+                Passenger passenger = new Passenger();
+                passenger.setFirstName("Passenger " + i);
+                passenger.setPassportNumber(booking.getId() + "-" + i);
+                passenger.setBooking(booking);
+                passengerRepository.save(passenger);
+            }
+        });
+    }
+
+    private Integer capSeatsToBookings() {
+        return transactionTemplate.execute(status ->
+                flightRepository.capSeatsToBookings(LocalDateTime.now(), BookingStatus.CANCELLED));
+    }
+
+    private int flightSeats() {
+        return flightRepository.findAvailableSeatsById(flightId).orElseThrow();
+    }
+
+    private int economySeats() {
+        return fareClassPriceRepository.findSeatSnapshotByFlightId(flightId).stream()
+                .filter(row -> row[0] == FareClass.ECONOMY)
+                .map(row -> (Integer) row[1])
+                .findFirst()
+                .orElseThrow();
+    }
+
+    @FunctionalInterface
+    private interface Attempt {
+        Boolean run();
+    }
+}
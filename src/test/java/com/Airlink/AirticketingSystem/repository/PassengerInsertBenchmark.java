@@ -0,0 +1,146 @@
+package com.Airlink.AirticketingSystem.repository;
+
+import com.Airlink.AirticketingSystem.model.Booking;
+import com.Airlink.AirticketingSystem.model.Passenger;
+import com.Airlink.AirticketingSystem.model.enums.BookingStatus;
+import com.Airlink.AirticketingSystem.model.enums.FareClass;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.Session;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Bookings of 1, 10 and 50 passengers inserted as BookingServiceImpl does (booking, then
+ * passengerRepository.saveAll), with the configured JDBC batch size and with batching off
+ * as under IDENTITY ids. Prints inserts per second and statements per booking.
+ *
+ * Run with mvn test -Pbenchmark. H2 runs in process, so it hides the network round trip
+ * each unbatched statement costs against Postgres; the statement counts carry over as they are.
+ */
+@Tag("benchmark")
+@DataJpaTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:insertbench;MODE=PostgreSQL;LOCK_TIMEOUT=30000;DB_CLOSE_DELAY=-1",
+        "spring.datasource.driver-class-name=org.h2.Driver",
+        "spring.datasource.username=sa",
+        "spring.datasource.password=",
+        "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+        "spring.jpa.properties.hibernate.generate_statistics=true",
+        "spring.jpa.show-sql=false"
+})
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class PassengerInsertBenchmark {
+
+    private static final int[] GROUP_SIZES = {1, 10, 50};
+    // Passengers inserted per measurement, whatever the group size
+    private static final int PASSENGERS = 50_000;
+    // Alternating rounds per group size, keeping the best of each: a single run is skewed by
+    // whichever one happens to pay for GC and H2 page splits
+    private static final int ROUNDS = 3;
+
+    @Autowired
+    private BookingRepository bookingRepository;
+
+    @Autowired
+    private PassengerRepository passengerRepository;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private TransactionTemplate transactionTemplate;
+    private Statistics statistics;
+    private long passports;
+
+    @BeforeEach
+    void setUp() {
+        transactionTemplate = new TransactionTemplate(transactionManager);
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        passengerRepository.deleteAll();
+        bookingRepository.deleteAll();
+    }
+
+    @Test
+    void batchedAgainstUnbatchedInserts() {
+        // Warm-up: JIT, sequences and statement caches
+        insert(10, 1_000, null);
+        insert(10, 1_000, 1);
+
+        for (int groupSize : GROUP_SIZES) {
+            int bookings = PASSENGERS / groupSize;
+            Result batched = null;
+            Result unbatched = null;
+            for (int round = 0; round < ROUNDS; round++) {
+                batched = Result.best(batched, insert(groupSize, bookings, null));
+                unbatched = Result.best(unbatched, insert(groupSize, bookings, 1));
+            }
+            System.out.printf("%2d passengers per booking: batched %,8.0f passengers/s (%.2f statements per booking), " +
+                            "unbatched %,8.0f passengers/s (%.2f statements per booking)%n",
+                    groupSize, batched.passengersPerSecond(), batched.statementsPerBooking(),
+                    unbatched.passengersPerSecond(), unbatched.statementsPerBooking());
+            if (groupSize > 1) {
+                assertThat(batched.statementsPerBooking()).isLessThan(unbatched.statementsPerBooking());
+            }
+        }
+    }
+
+    // Inserts the bookings one transaction each; batchSize null keeps the configured one
+    private Result insert(int groupSize, int bookings, Integer batchSize) {
+        statistics.clear();
+        long started = System.nanoTime();
+        for (int b = 0; b < bookings; b++) {
+            transactionTemplate.executeWithoutResult(status -> {
+                if (batchSize != null) {
+                    entityManager.unwrap(Session.class).setJdbcBatchSize(batchSize);
+                }
+                Booking booking = new Booking();
+                booking.setBookingDate(LocalDateTime.now());
+                booking.setStatus(BookingStatus.CONFIRMED);
+                booking.setFareClass(FareClass.ECONOMY);
+                booking = bookingRepository.save(booking);
+                List<Passenger> passengers = new ArrayList<>(groupSize);
+                for (int i = 0; i < groupSize; i++) {
+                    Passenger passenger = new Passenger();
+                    passenger.setFirstName("Passenger " + i);
+                    passenger.setLastName("Benchmark");
+                    passenger.setPassportNumber("P" + passports++);
+                    passenger.setBooking(booking);
+                    passengers.add(passenger);
+                }
+                passengerRepository.saveAll(passengers);
+            });
+        }
+        double seconds = (System.nanoTime() - started) / 1e9;
+        return new Result((long) bookings * groupSize / seconds,
+                (double) statistics.getPrepareStatementCount() / bookings);
+    }
+
+    private record Result(double passengersPerSecond, double statementsPerBooking) {
+
+        static Result best(Result a, Result b) {
+            return a == null || b.passengersPerSecond > a.passengersPerSecond ? b : a;
+        }
+    }
+}
@@ -0,0 +1,178 @@
+package com.Airlink.AirticketingSystem.repository;
+
+import com.Airlink.AirticketingSystem.model.User;
+import com.Airlink.AirticketingSystem.security.TokenUtil;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Instant;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Millions of refresh tokens, half of them expired: digest lookups from concurrent logins and
+ * refreshes, alone and while the chunked purge deletes the expired half as TokenCleanupScheduler
+ * does. Prints lookups per second with their p99, and the purge rate with its slowest chunk.
+ *
+ * Run with mvn test -Pbenchmark; -Dbenchmark.refresh-tokens sets the number of tokens
+ * (default 2 million), held in in-memory H2 (the benchmark profile gives the tests a 3 GB heap).
+ */
+@Tag("benchmark")
+@DataJpaTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:refreshtokens;MODE=PostgreSQL;LOCK_TIMEOUT=30000;DB_CLOSE_DELAY=-1",
+        "spring.datasource.driver-class-name=org.h2.Driver",
+        "spring.datasource.username=sa",
+        "spring.datasource.password=",
+        "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+        "spring.jpa.show-sql=false"
+})
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class RefreshTokenLoadBenchmark {
+
+    private static final int TOKENS = Integer.getInteger("benchmark.refresh-tokens", 2_000_000);
+    // Rows per generating INSERT, so no single transaction holds millions of rows
+    private static final int GENERATE_CHUNK = 250_000;
+    private static final int LOOKUP_THREADS = 8;
+    private static final long WARM_UP_MS = 20_000;
+    private static final long LOOKUP_MS = 5_000;
+    // As token.purge.batch-size
+    private static final int PURGE_BATCH = 1_000;
+    private static final int WEEK_SECONDS = 7 * 86_400;
+
+    @Autowired
+    private RefreshTokenRepository refreshTokenRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private final TokenUtil tokenUtil = new TokenUtil();
+
+    @Test
+    void lookupsAndPurgeOverMillionsOfTokens() throws Exception {
+        Instant now = Instant.now();
+        long started = System.nanoTime();
+        generate(now);
+        long expired = jdbcTemplate.queryForObject(
+                "SELECT count(*) FROM refresh_tokens WHERE expiry_date < ?", Long.class, at(now));
+        System.out.printf("refresh tokens: generated %,d (%,d expired) in %.1f s%n",
+                TOKENS, expired, (System.nanoTime() - started) / 1e9);
+
+        // Warm-up: JIT and H2 page caches; lookups take a while to reach a steady rate
+        lookups(() -> Thread.sleep(WARM_UP_MS));
+        Lookups idle = lookups(() -> Thread.sleep(LOOKUP_MS));
+        System.out.printf("refresh tokens: %,.0f lookups/s, p99 %.2f ms%n", idle.perSecond(), idle.p99Ms());
+
+        long[] chunkNanos = new long[(int) (expired / PURGE_BATCH) + 1];
+        long[] purged = new long[1];
+        long[] purgeNanos = new long[1];
+        Lookups duringPurge = lookups(() -> {
+            long purgeStarted = System.nanoTime();
+            for (int chunk = 0; ; chunk++) {
+                long chunkStarted = System.nanoTime();
+                int deleted = refreshTokenRepository.deleteExpiredChunk(now, PURGE_BATCH);
+                chunkNanos[chunk] = System.nanoTime() - chunkStarted;
+                purged[0] += deleted;
+                if (deleted < PURGE_BATCH) {
+                    break;
+                }
+            }
+            purgeNanos[0] = System.nanoTime() - purgeStarted;
+        });
+        Arrays.sort(chunkNanos);
+        System.out.printf("refresh tokens: purged %,d in %.1f s (%,.0f rows/s, slowest chunk %.1f ms); " +
+                        "meanwhile %,.0f lookups/s, p99 %.2f ms%n",
+                purged[0], purgeNanos[0] / 1e9, purged[0] / (purgeNanos[0] / 1e9), chunkNanos[chunkNanos.length - 1] / 1e6,
+                duringPurge.perSecond(), duringPurge.p99Ms());
+
+        assertThat(purged[0]).isEqualTo(expired);
+        assertThat(refreshTokenRepository.count()).isEqualTo(TOKENS - expired);
+    }
+
+    // Tokens "token-1".."token-N" stored by digest, expiring within a week either side of now
+    private void generate(Instant now) {
+        User user = new User();
+        user.setFullName("Token Owner");
+        user.setEmail("owner@example.com");
+        user.setPassword("secret");
+        Long userId = userRepository.save(user).getId();
+
+        for (int from = 1; from <= TOKENS; from += GENERATE_CHUNK) {
+            int to = Math.min(from + GENERATE_CHUNK - 1, TOKENS);
+            jdbcTemplate.update("INSERT INTO refresh_tokens (id, token, user_id, expiry_date) " +
+                    "SELECT X, RAWTOHEX(HASH('SHA-256', CONCAT('token-', X))), ?, " +
+                    "DATEADD(SECOND, MOD(X * 7919, ?) - ?, CAST(? AS TIMESTAMP WITH TIME ZONE)) " +
+                    "FROM SYSTEM_RANGE(?, ?)", userId, 2 * WEEK_SECONDS, WEEK_SECONDS, at(now), from, to);
+        }
+    }
+
+    // Looks up random tokens by digest from LOOKUP_THREADS threads while the load runs
+    private Lookups lookups(Load load) throws Exception {
+        AtomicBoolean stop = new AtomicBoolean();
+        ExecutorService executor = Executors.newFixedThreadPool(LOOKUP_THREADS);
+        try {
+            List<Future<long[]>> futures = new ArrayList<>();
+            for (int t = 0; t < LOOKUP_THREADS; t++) {
+                futures.add(executor.submit(() -> {
+                    long[] latencies = new long[1 << 16];
+                    int count = 0;
+                    while (!stop.get()) {
+                        String digest = tokenUtil.digest("token-" + ThreadLocalRandom.current().nextInt(1, TOKENS + 1));
+                        long lookupStarted = System.nanoTime();
+                        refreshTokenRepository.findByTokenHash(digest);
+                        if (count == latencies.length) {
+                            latencies = Arrays.copyOf(latencies, count * 2);
+                        }
+                        latencies[count++] = System.nanoTime() - lookupStarted;
+                    }
+                    return Arrays.copyOf(latencies, count);
+                }));
+            }
+            long started = System.nanoTime();
+            load.run();
+            double seconds = (System.nanoTime() - started) / 1e9;
+            stop.set(true);
+            List<long[]> perThread = new ArrayList<>();
+            for (Future<long[]> future : futures) {
+                perThread.add(future.get(1, TimeUnit.MINUTES));
+            }
+            long[] latencies = perThread.stream().flatMapToLong(Arrays::stream).sorted().toArray();
+            return new Lookups(latencies.length / seconds,
+                    latencies.length > 0 ? latencies[(int) Math.ceil(0.99 * latencies.length) - 1] / 1e6 : 0);
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private static OffsetDateTime at(Instant instant) {
+        return instant.atOffset(ZoneOffset.UTC);
+    }
+
+    @FunctionalInterface
+    private interface Load {
+        void run() throws Exception;
+    }
+
+    private record Lookups(double perSecond, double p99Ms) {
+    }
+}
@@ -0,0 +1,95 @@
+package com.Airlink.AirticketingSystem.repository;
+
+import com.Airlink.AirticketingSystem.model.RefreshToken;
+import com.Airlink.AirticketingSystem.model.User;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * The chunked purge of expired refresh tokens: bounded, oldest first, unexpired tokens untouched.
+ */
+@DataJpaTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:tokens;MODE=PostgreSQL;DB_CLOSE_DELAY=-1",
+        "spring.datasource.driver-class-name=org.h2.Driver",
+        "spring.datasource.username=sa",
+        "spring.datasource.password=",
+        "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+        "spring.jpa.show-sql=false"
+})
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+class RefreshTokenRepositoryTest {
+
+    private static final Instant NOW = Instant.parse("2026-01-01T00:00:00Z");
+
+    @Autowired
+    private RefreshTokenRepository refreshTokenRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    private User user;
+
+    @BeforeEach
+    void setUp() {
+        user = new User();
+        user.setFullName("Token Owner");
+        user.setEmail("owner@example.com");
+        user.setPassword("secret");
+        user = userRepository.save(user);
+    }
+
+    @Test
+    void deletesExpiredTokensInBoundedChunks() {
+        save(7, -1);
+        save(3, 1);
+
+        assertThat(refreshTokenRepository.deleteExpiredChunk(NOW, 3)).isEqualTo(3);
+        assertThat(refreshTokenRepository.deleteExpiredChunk(NOW, 3)).isEqualTo(3);
+        assertThat(refreshTokenRepository.deleteExpiredChunk(NOW, 3)).isEqualTo(1);
+        assertThat(refreshTokenRepository.deleteExpiredChunk(NOW, 3)).isZero();
+
+        assertThat(refreshTokenRepository.findAll())
+                .hasSize(3)
+                .allMatch(token -> token.getExpiryDate().isAfter(NOW));
+    }
+
+    @Test
+    void deletesTheOldestExpiredTokensFirst() {
+        List<RefreshToken> expired = save(5, -1);
+
+        refreshTokenRepository.deleteExpiredChunk(NOW, 2);
+
+        // Saved newest first: the last two saved expired earliest
+        assertThat(refreshTokenRepository.findAll())
+                .extracting(RefreshToken::getTokenHash)
+                .containsExactlyInAnyOrder(expired.get(0).getTokenHash(), expired.get(1).getTokenHash(),
+                        expired.get(2).getTokenHash());
+    }
+
+    @Test
+    void keepsTokensExpiringExactlyNow() {
+        refreshTokenRepository.saveAndFlush(new RefreshToken("now", user, NOW));
+
+        assertThat(refreshTokenRepository.deleteExpiredChunk(NOW, 10)).isZero();
+    }
+
+    // Tokens expiring 1, 2, 3... hours from now, counted in the direction of the sign
+    private List<RefreshToken> save(int count, int sign) {
+        List<RefreshToken> tokens = new ArrayList<>();
+        for (int i = 1; i <= count; i++) {
+            Instant expiry = NOW.plus((long) sign * i, ChronoUnit.HOURS);
+            tokens.add(new RefreshToken((sign < 0 ? "expired-" : "valid-") + i, user, expiry));
+        }
+        return refreshTokenRepository.saveAllAndFlush(tokens);
+    }
+}
@@ -0,0 +1,172 @@
+package com.Airlink.AirticketingSystem.repository;
+
+import com.Airlink.AirticketingSystem.model.FareClassPrice;
+import com.Airlink.AirticketingSystem.model.Flight;
+import com.Airlink.AirticketingSystem.model.enums.FareClass;
+import com.Airlink.AirticketingSystem.model.enums.FlightType;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BooleanSupplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Seats reserved per second on one flight by 1, 8 and 32 threads: the guarded seat UPDATEs
+ * against the entity load and save they replaced, with the seats each approach loses.
+ *
+ * Run with mvn test -Pbenchmark (H2 in PostgreSQL mode, so absolute numbers are lower
+ * than against Postgres; the ratio is what to compare).
+ */
+@Tag("benchmark")
+@DataJpaTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:seatbench;MODE=PostgreSQL;LOCK_TIMEOUT=30000;DB_CLOSE_DELAY=-1",
+        "spring.datasource.driver-class-name=org.h2.Driver",
+        "spring.datasource.username=sa",
+        "spring.datasource.password=",
+        "spring.datasource.hikari.maximum-pool-size=40",
+        "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+        "spring.jpa.show-sql=false"
+})
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class SeatReservationBenchmark {
+
+    private static final int CAPACITY = 1_000_000;
+    private static final int RESERVATIONS = 20_000;
+    private static final int[] THREADS = {1, 8, 32};
+
+    @Autowired
+    private FlightRepository flightRepository;
+
+    @Autowired
+    private FareClassPriceRepository fareClassPriceRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private TransactionTemplate transactionTemplate;
+    private Long flightId;
+    private int flights;
+
+    @BeforeEach
+    void setUp() {
+        transactionTemplate = new TransactionTemplate(transactionManager);
+        fareClassPriceRepository.deleteAll();
+        flightRepository.deleteAll();
+    }
+
+    @Test
+    void guardedUpdatesAgainstLoadAndSave() throws Exception {
+        // Warm-up: JIT, connection pool and statement caches
+        newFlight();
+        run(8, this::reserveGuarded);
+        run(8, this::reserveByLoadAndSave);
+
+        for (int threads : THREADS) {
+            newFlight();
+            double guarded = run(threads, this::reserveGuarded);
+            int guardedLost = lostSeats();
+
+            newFlight();
+            double loadAndSave = run(threads, this::reserveByLoadAndSave);
+            int loadAndSaveLost = lostSeats();
+
+            System.out.printf("seat reservations, %2d threads: guarded %,8.0f/s (%d seats lost), " +
+                    "load and save %,8.0f/s (%d seats lost)%n", threads, guarded, guardedLost, loadAndSave, loadAndSaveLost);
+            assertThat(guardedLost).isZero();
+        }
+    }
+
+    // As SeatInventoryService writes through: flight first, then fare class
+    private boolean reserveGuarded() {
+        return Boolean.TRUE.equals(transactionTemplate.execute(status -> {
+            if (flightRepository.reserveSeats(flightId, 1) == 0
+                    || fareClassPriceRepository.reserveSeats(flightId, FareClass.ECONOMY, 1) == 0) {
+                status.setRollbackOnly();
+                return false;
+            }
+            return true;
+        }));
+    }
+
+    // As BookingServiceImpl did before the guarded UPDATEs
+    private boolean reserveByLoadAndSave() {
+        return Boolean.TRUE.equals(transactionTemplate.execute(status -> {
+            Flight flight = flightRepository.findById(flightId).orElseThrow();
+            FareClassPrice economy = flight.getFareClassPrices().stream()
+                    .filter(fare -> fare.getFareClass() == FareClass.ECONOMY)
+                    .findFirst()
+                    .orElseThrow();
+            if (flight.getAvailableSeats() < 1 || economy.getAvailableSeats() < 1) {
+                return false;
+            }
+            flight.setAvailableSeats(flight.getAvailableSeats() - 1);
+            economy.setAvailableSeats(economy.getAvailableSeats() - 1);
+            flightRepository.save(flight);
+            return true;
+        }));
+    }
+
+    // Runs RESERVATIONS reservations spread over the threads; returns reservations per second
+    private double run(int threads, BooleanSupplier reservation) throws Exception {
+        CountDownLatch start = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int t = 0; t < threads; t++) {
+                int share = RESERVATIONS / threads + (t < RESERVATIONS % threads ? 1 : 0);
+                futures.add(executor.submit(() -> {
+                    start.await();
+                    for (int i = 0; i < share; i++) {
+                        assertThat(reservation.getAsBoolean()).isTrue();
+                    }
+                    return null;
+                }));
+            }
+            long started = System.nanoTime();
+            start.countDown();
+            for (Future<?> future : futures) {
+                future.get(10, TimeUnit.MINUTES);
+            }
+            return RESERVATIONS / ((System.nanoTime() - started) / 1e9);
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private void newFlight() {
+        Flight flight = new Flight();
+        flight.setFlightNumber("AL" + (100 + flights++));
+        flight.setAirline("Airlink");
+        flight.setFlightType(FlightType.INTERNATIONAL);
+        flight.setDepartureTime(LocalDateTime.now().plusDays(10));
+        flight.setArrivalTime(LocalDateTime.now().plusDays(10).plusHours(3));
+        flight.setPrice(100.0);
+        flight.setTotalCapacity(CAPACITY);
+        flight.setAvailableSeats(CAPACITY);
+        flight.addFareClassPrice(FareClass.ECONOMY, 100.0, CAPACITY);
+        flightId = flightRepository.save(flight).getId();
+    }
+
+    // Seats taken by the reservations that the flight no longer shows as taken
+    private int lostSeats() {
+        return flightRepository.findAvailableSeatsById(flightId).orElseThrow() - (CAPACITY - RESERVATIONS);
+    }
+}
@@ -0,0 +1,161 @@
+package com.Airlink.AirticketingSystem.scheduler;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class TimingWheelTest {
+
+    private static final long TICK_MS = 10;
+    private static final long ORIGIN_MS = 1_000_000;
+
+    private final TimingWheel<Long> wheel = new TimingWheel<>(TICK_MS, ORIGIN_MS);
+
+    @Test
+    void firesOnceTheDeadlinePasses() {
+        wheel.schedule(1L, at(5));
+
+        assertThat(wheel.advanceTo(at(4))).isEmpty();
+        assertThat(wheel.advanceTo(at(5))).containsExactly(1L);
+        assertThat(wheel.advanceTo(at(100))).isEmpty();
+        assertThat(wheel.size()).isZero();
+    }
+
+    @Test
+    void deadlineBetweenTicksRoundsUp() {
+        wheel.schedule(1L, at(5) + 1);
+
+        assertThat(wheel.advanceTo(at(5))).isEmpty();
+        assertThat(wheel.advanceTo(at(6))).containsExactly(1L);
+    }
+
+    @Test
+    void pastDeadlineFiresOnTheNextTick() {
+        wheel.advanceTo(at(10));
+        wheel.schedule(1L, at(3));
+
+        assertThat(wheel.advanceTo(at(10) + TICK_MS - 1)).isEmpty();
+        assertThat(wheel.advanceTo(at(11))).containsExactly(1L);
+    }
+
+    @Test
+    void cancelledTimerNeverFires() {
+        wheel.schedule(1L, at(5));
+        wheel.schedule(2L, at(5));
+
+        assertThat(wheel.cancel(1L)).isTrue();
+        assertThat(wheel.cancel(1L)).isFalse();
+        assertThat(wheel.size()).isEqualTo(1);
+        assertThat(wheel.advanceTo(at(10))).containsExactly(2L);
+    }
+
+    @Test
+    void rescheduleReplacesTheEarlierDeadline() {
+        wheel.schedule(1L, at(5));
+        wheel.schedule(1L, at(500));
+
+        assertThat(wheel.size()).isEqualTo(1);
+        assertThat(wheel.advanceTo(at(499))).isEmpty();
+        assertThat(wheel.advanceTo(at(500))).containsExactly(1L);
+    }
+
+    @Test
+    void keysExpiringTogetherComeInDeadlineOrder() {
+        wheel.schedule(3L, at(300));
+        wheel.schedule(1L, at(2));
+        wheel.schedule(2L, at(70));
+
+        assertThat(wheel.advanceTo(at(1000))).containsExactly(1L, 2L, 3L);
+    }
+
+    @Test
+    void timersOnEveryLevelFireOnTheirTick() {
+        // First wheel, second wheel, third wheel, fourth wheel and beyond the horizon
+        long[] deadlines = {63, 64, 65, 4_095, 4_096, 4_097, 262_143, 262_144, 300_000, 16_777_216, 17_000_000};
+        for (int i = 0; i < deadlines.length; i++) {
+            wheel.schedule((long) i, at(deadlines[i]));
+        }
+
+        Map<Long, Long> firedAt = new HashMap<>();
+        long tick = 0;
+        int index = 0;
+        while (index < deadlines.length) {
+            // Jump close to the next deadline, then step tick by tick across it
+            long next = deadlines[index];
+            if (next - 2 > tick) {
+                assertThat(wheel.advanceTo(at(next - 2))).isEmpty();
+                tick = next - 2;
+            }
+            for (; tick <= next; tick++) {
+                for (Long key : wheel.advanceTo(at(tick))) {
+                    firedAt.put(key, tick);
+                }
+            }
+            index++;
+        }
+
+        for (int i = 0; i < deadlines.length; i++) {
+            assertThat(firedAt.get((long) i)).as("timer due at tick %d", deadlines[i]).isEqualTo(deadlines[i]);
+        }
+    }
+
+    @Test
+    void matchesASortedScanOfRandomTimers() {
+        Random random = new Random(42);
+        Map<Long, Long> deadlines = new HashMap<>();
+        long tick = 0;
+        long key = 0;
+
+        while (tick < 200_000) {
+            // Schedule, reschedule and cancel around the current tick
+            for (int i = 0; i < 5; i++) {
+                long deadline = tick + 1 + (long) (Math.pow(random.nextDouble(), 3) * 300_000);
+                if (!deadlines.isEmpty() && random.nextInt(4) == 0) {
+                    Long existing = deadlines.keySet().iterator().next();
+                    if (random.nextBoolean()) {
+                        wheel.cancel(existing);
+                        deadlines.remove(existing);
+                    } else {
+                        wheel.schedule(existing, at(deadline));
+                        deadlines.put(existing, deadline);
+                    }
+                } else {
+                    wheel.schedule(key, at(deadline));
+                    deadlines.put(key++, deadline);
+                }
+            }
+
+            tick += 1 + random.nextInt(200);
+            List<Long> expected = new ArrayList<>();
+            for (Map.Entry<Long, Long> entry : deadlines.entrySet()) {
+                if (entry.getValue() <= tick) {
+                    expected.add(entry.getKey());
+                }
+            }
+            List<Long> expired = wheel.advanceTo(at(tick));
+
+            assertThat(expired).containsExactlyInAnyOrderElementsOf(expected);
+            for (int i = 1; i < expired.size(); i++) {
+                assertThat(deadlines.get(expired.get(i))).isGreaterThanOrEqualTo(deadlines.get(expired.get(i - 1)));
+            }
+            expected.forEach(deadlines::remove);
+            assertThat(wheel.size()).isEqualTo(deadlines.size());
+        }
+    }
+
+    @Test
+    void rejectsNonPositiveTick() {
+        assertThatThrownBy(() -> new TimingWheel<Long>(0, ORIGIN_MS)).isInstanceOf(IllegalArgumentException.class);
+    }
+
+    private static long at(long tick) {
+        return ORIGIN_MS + tick * TICK_MS;
+    }
+}
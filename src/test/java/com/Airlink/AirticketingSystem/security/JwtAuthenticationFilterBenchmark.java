@@ -0,0 +1,146 @@
+package com.Airlink.AirticketingSystem.security;
+
+import com.Airlink.AirticketingSystem.repository.UserRepository;
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.security.Keys;
+import jakarta.servlet.FilterChain;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.core.userdetails.User;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import javax.crypto.SecretKey;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.withSettings;
+
+/**
+ * Requests authenticated per second by JwtAuthenticationFilter at 1, 8 and 32 threads, with
+ * tokens carrying their roles (jwt.stateless=true), against verifying a token as JwtService
+ * did before: a new key and parser for each of the three parses of a request.
+ *
+ * Run with mvn test -Pbenchmark.
+ */
+@Tag("benchmark")
+class JwtAuthenticationFilterBenchmark {
+
+    private static final String SECRET = "JWTSecretKeyForAirtaketingSystemJWTSecretKeyForAirtaketingSystemJWTSecretKeyForAirtaketingSystem";
+    private static final long LIFETIME_MS = 86_400_000;
+    private static final int[] THREADS = {1, 8, 32};
+    private static final int USERS = 1_000;
+    private static final long WARM_UP_MS = 2_000;
+    private static final long MEASURE_MS = 5_000;
+
+    private final JwtService jwtService = new JwtService();
+    private final JwtAuthenticationFilter filter = new JwtAuthenticationFilter();
+    private final List<String> tokens = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(jwtService, "jwtSecret", SECRET);
+        ReflectionTestUtils.setField(jwtService, "jwtExpirationMs", LIFETIME_MS);
+        jwtService.init();
+
+        TokenRevocationService revocationService = new TokenRevocationService(
+                mock(UserRepository.class, withSettings().stubOnly()),
+                mock(ApplicationEventPublisher.class, withSettings().stubOnly()),
+                LIFETIME_MS);
+        ReflectionTestUtils.setField(filter, "jwtService", jwtService);
+        ReflectionTestUtils.setField(filter, "tokenRevocationService", revocationService);
+        ReflectionTestUtils.setField(filter, "stateless", true);
+
+        for (int i = 0; i < USERS; i++) {
+            tokens.add(jwtService.generateToken(new User("user" + i + "@example.com", "",
+                    List.of(new SimpleGrantedAuthority("ROLE_CUSTOMER"))), (long) i));
+        }
+    }
+
+    @Test
+    void filterAgainstAParserPerParse() throws Exception {
+        FilterChain chain = (request, response) -> { };
+        for (int threads : THREADS) {
+            double filtered = run(threads, token -> {
+                MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/flights");
+                request.addHeader("Authorization", "Bearer " + token);
+                filter.doFilterInternal(request, new MockHttpServletResponse(), chain);
+                boolean authenticated = SecurityContextHolder.getContext().getAuthentication() != null;
+                SecurityContextHolder.clearContext();
+                return authenticated;
+            });
+            double parserPerParse = run(threads, JwtAuthenticationFilterBenchmark::parseAsBefore);
+            System.out.printf("token validation, %2d threads: filter %,10.0f requests/s, " +
+                    "new key and parser per parse %,10.0f requests/s%n", threads, filtered, parserPerParse);
+        }
+    }
+
+    // validateToken, extractUsername and extractExpiration, each with its own key and parser
+    private static boolean parseAsBefore(String token) {
+        Claims claims = null;
+        for (int parse = 0; parse < 3; parse++) {
+            SecretKey key = Keys.hmacShaKeyFor(SECRET.getBytes());
+            claims = Jwts.parser().verifyWith(key).build().parseSignedClaims(token).getPayload();
+        }
+        return claims.getSubject() != null;
+    }
+
+    // Requests per second over MEASURE_MS, each thread cycling through the tokens
+    private double run(int threads, Authentication authentication) throws Exception {
+        AtomicBoolean measuring = new AtomicBoolean();
+        AtomicBoolean stop = new AtomicBoolean();
+        CountDownLatch start = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        try {
+            List<Future<Long>> futures = new ArrayList<>();
+            for (int t = 0; t < threads; t++) {
+                int offset = t * USERS / threads;
+                futures.add(executor.submit(() -> {
+                    start.await();
+                    long requests = 0;
+                    for (int i = offset; !stop.get(); i++) {
+                        assertThat(authentication.authenticate(tokens.get(i % USERS))).isTrue();
+                        if (measuring.get()) {
+                            requests++;
+                        }
+                    }
+                    return requests;
+                }));
+            }
+            start.countDown();
+            Thread.sleep(WARM_UP_MS);
+            measuring.set(true);
+            long started = System.nanoTime();
+            Thread.sleep(MEASURE_MS);
+            measuring.set(false);
+            double seconds = (System.nanoTime() - started) / 1e9;
+            stop.set(true);
+            long total = 0;
+            for (Future<Long> future : futures) {
+                total += future.get(1, TimeUnit.MINUTES);
+            }
+            return total / seconds;
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @FunctionalInterface
+    private interface Authentication {
+        boolean authenticate(String token) throws Exception;
+    }
+}
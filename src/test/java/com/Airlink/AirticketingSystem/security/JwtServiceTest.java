@@ -0,0 +1,29 @@
+package com.Airlink.AirticketingSystem.security;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.security.core.userdetails.User;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class JwtServiceTest {
+
+    @Test
+    void refreshTokensIssuedInTheSameSecondDiffer() {
+        JwtService jwtService = new JwtService();
+        ReflectionTestUtils.setField(jwtService, "jwtSecret",
+                "JWTSecretKeyForAirtaketingSystemJWTSecretKeyForAirtaketingSystemJWTSecretKeyForAirtaketingSystem");
+        ReflectionTestUtils.setField(jwtService, "refreshTokenExpirationMs", 604_800_000L);
+        jwtService.init();
+        UserDetails user = new User("user@example.com", "", List.of());
+
+        String first = jwtService.generateRefreshToken(user);
+        String second = jwtService.generateRefreshToken(user);
+
+        assertThat(first).isNotEqualTo(second);
+        assertThat(jwtService.extractUsername(second)).isEqualTo("user@example.com");
+    }
+}
@@ -0,0 +1,112 @@
+package com.Airlink.AirticketingSystem.security;
+
+import com.Airlink.AirticketingSystem.repository.UserRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.context.ApplicationEventPublisher;
+
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Date;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+import static org.mockito.Mockito.withSettings;
+
+/**
+ * Revocations rebuilt from stubbed user rows, as after a restart or on another instance:
+ * persisted role and password changes, disabled accounts and deleted users.
+ */
+class TokenRevocationServiceTest {
+
+    private static final long LIFETIME_MS = 86_400_000;
+
+    private final UserRepository userRepository = mock(UserRepository.class, withSettings().stubOnly());
+    private final ApplicationEventPublisher eventPublisher = mock(ApplicationEventPublisher.class, withSettings().stubOnly());
+
+    // [email, tokensValidAfter] rows as stored
+    private final List<Object[]> revocations = new ArrayList<>();
+    private final Set<String> disabled = new HashSet<>();
+    private final Set<String> existing = new HashSet<>();
+
+    private TokenRevocationService revocationService;
+
+    @BeforeEach
+    void setUp() {
+        when(userRepository.findTokenRevocationsAfter(any())).thenAnswer(call -> {
+            Instant since = call.getArgument(0);
+            return revocations.stream().filter(row -> ((Instant) row[1]).isAfter(since)).toList();
+        });
+        when(userRepository.findEmailsByIsActiveFalse()).thenAnswer(call -> List.copyOf(disabled));
+        when(userRepository.findExistingEmails(any())).thenAnswer(call ->
+                call.<Collection<String>>getArgument(0).stream().filter(existing::contains).toList());
+
+        revocationService = new TokenRevocationService(userRepository, eventPublisher, LIFETIME_MS);
+        // Events are delivered straight back, as after commit
+        doAnswer(call -> {
+            revocationService.onUserAccessChanged(call.getArgument(0));
+            return null;
+        }).when(eventPublisher).publishEvent(any(Object.class));
+    }
+
+    @Test
+    void persistedRevocationsAreLoadedAtStartup() {
+        Instant changed = Instant.now().minus(1, ChronoUnit.HOURS).truncatedTo(ChronoUnit.SECONDS);
+        revocations.add(new Object[] {"demoted@example.com", changed});
+        // Older than any unexpired token
+        revocations.add(new Object[] {"old@example.com", Instant.now().minusMillis(LIFETIME_MS + 60_000)});
+
+        revocationService.syncFromDatabase();
+
+        assertThat(revocationService.isRevoked("demoted@example.com", issuedAt(changed.minusSeconds(60)))).isTrue();
+        assertThat(revocationService.isRevoked("demoted@example.com", issuedAt(changed))).isFalse();
+        assertThat(revocationService.isRevoked("old@example.com", issuedAt(Instant.now().minusSeconds(60)))).isFalse();
+    }
+
+    @Test
+    void revocationsPersistedSinceTheLastSyncArePickedUp() {
+        existing.add("user@example.com");
+        revocationService.syncFromDatabase();
+        Instant issued = Instant.now().minusSeconds(60);
+        assertThat(revocationService.isRevoked("user@example.com", issuedAt(issued))).isFalse();
+
+        revocations.add(new Object[] {"user@example.com", Instant.now().truncatedTo(ChronoUnit.SECONDS)});
+        revocationService.syncFromDatabase();
+
+        assertThat(revocationService.isRevoked("user@example.com", issuedAt(issued))).isTrue();
+    }
+
+    @Test
+    void usersSeenSinceTheLastSyncAreRevokedOnceDeleted() {
+        existing.add("kept@example.com");
+        Instant issued = Instant.now().minusSeconds(60);
+        assertThat(revocationService.isRevoked("kept@example.com", issuedAt(issued))).isFalse();
+        assertThat(revocationService.isRevoked("deleted@example.com", issuedAt(issued))).isFalse();
+
+        revocationService.syncFromDatabase();
+
+        assertThat(revocationService.isRevoked("kept@example.com", issuedAt(issued))).isFalse();
+        assertThat(revocationService.isRevoked("deleted@example.com", issuedAt(issued))).isTrue();
+    }
+
+    @Test
+    void disabledAccountsAreRevoked() {
+        disabled.add("disabled@example.com");
+
+        revocationService.syncFromDatabase();
+
+        assertThat(revocationService.isRevoked("disabled@example.com", issuedAt(Instant.now().minusSeconds(60)))).isTrue();
+    }
+
+    private static Date issuedAt(Instant instant) {
+        return Date.from(instant);
+    }
+}
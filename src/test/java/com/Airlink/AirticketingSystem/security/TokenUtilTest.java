@@ -0,0 +1,34 @@
+package com.Airlink.AirticketingSystem.security;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class TokenUtilTest {
+
+    private final TokenUtil tokenUtil = new TokenUtil();
+
+    @Test
+    void digestIsLowercaseHexSha256() {
+        // FIPS 180-2 test vector
+        assertThat(tokenUtil.digest("abc"))
+                .isEqualTo("ba7816bf8f01cfea414140de5dae2223b00361a396177a9cb410ff61f20015ad");
+    }
+
+    @Test
+    void digestOfAGeneratedTokenFitsTheColumn() {
+        String token = tokenUtil.generateToken();
+
+        assertThat(tokenUtil.digest(token))
+                .hasSize(64)
+                .matches("[0-9a-f]{64}")
+                .isEqualTo(tokenUtil.digest(token))
+                .isNotEqualTo(token);
+    }
+
+    @Test
+    void differentTokensHaveDifferentDigests() {
+        assertThat(tokenUtil.digest(tokenUtil.generateToken()))
+                .isNotEqualTo(tokenUtil.digest(tokenUtil.generateToken()));
+    }
+}
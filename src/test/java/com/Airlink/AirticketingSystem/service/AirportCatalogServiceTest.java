@@ -0,0 +1,85 @@
+package com.Airlink.AirticketingSystem.service;
+
+import com.Airlink.AirticketingSystem.model.Airport;
+import com.Airlink.AirticketingSystem.repository.AirportRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+import static org.mockito.Mockito.withSettings;
+
+/**
+ * Airports written by another instance, straight into the stubbed table: the catalog
+ * reloads once the table's row count or last write moved, and only then.
+ */
+class AirportCatalogServiceTest {
+
+    private final AirportRepository airportRepository = mock(AirportRepository.class, withSettings().stubOnly());
+
+    // Rows of the airports table, and the time of its last write
+    private final List<Airport> airports = new ArrayList<>();
+    private Instant lastWrite = Instant.parse("2026-01-01T00:00:00Z");
+
+    private AirportCatalogService catalog;
+
+    @BeforeEach
+    void setUp() {
+        when(airportRepository.findAll()).thenAnswer(call -> List.copyOf(airports));
+        when(airportRepository.findCatalogFingerprint()).thenAnswer(call ->
+                List.<Object[]>of(new Object[] {(long) airports.size(), lastWrite}));
+
+        catalog = new AirportCatalogService(airportRepository, new SimpleMeterRegistry());
+        airports.add(airport(1L, "LHR", "London"));
+        catalog.load();
+    }
+
+    @Test
+    void unchangedTableIsNotReloaded() {
+        assertThat(catalog.refreshIfChanged()).isFalse();
+    }
+
+    @Test
+    void airportCreatedElsewhereIsPickedUp() {
+        airports.add(airport(2L, "CDG", "Paris"));
+        lastWrite = lastWrite.plusSeconds(1);
+
+        assertThat(catalog.refreshIfChanged()).isTrue();
+        assertThat(catalog.getByCode("cdg")).isNotNull();
+        assertThat(catalog.refreshIfChanged()).isFalse();
+    }
+
+    @Test
+    void airportEditedElsewhereIsPickedUp() {
+        airports.get(0).setCity("Heathrow");
+        lastWrite = lastWrite.plusSeconds(1);
+
+        catalog.refreshIfChanged();
+
+        assertThat(catalog.get(1L).getCity()).isEqualTo("Heathrow");
+    }
+
+    @Test
+    void airportDeletedElsewhereIsDropped() {
+        airports.clear();
+
+        assertThat(catalog.refreshIfChanged()).isTrue();
+        assertThat(catalog.get(1L)).isNull();
+    }
+
+    private static Airport airport(Long id, String code, String city) {
+        Airport airport = new Airport();
+        airport.setId(id);
+        airport.setName(city + " Airport");
+        airport.setCode(code);
+        airport.setCity(city);
+        airport.setCountry("Somewhere");
+        return airport;
+    }
+}
@@ -0,0 +1,156 @@
+package com.Airlink.AirticketingSystem.service;
+
+import com.Airlink.AirticketingSystem.repository.AirportRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.PriorityQueue;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+import static org.mockito.Mockito.withSettings;
+
+/**
+ * Nearby airport lookups over 70k airports, about the size of the global dataset (every
+ * airfield, heliport and seaplane base): AirportSpatialIndex against computing the haversine
+ * distance to every airport, as findNearbyAirports did before it had a bounding box. Prints
+ * lookups per second for the ten nearest airports, the airports within 100 km (at most 20)
+ * and all airports within 500 km, plus the time to build the tree.
+ *
+ * The airports are generated, clustered like real ones around a few hundred regions, since
+ * the airports table only holds three-letter codes. Run with mvn test -Pbenchmark.
+ */
+@Tag("benchmark")
+class AirportSpatialIndexBenchmark {
+
+    private static final int AIRPORTS = 70_000;
+    private static final int REGIONS = 300;
+    private static final int LOOKUPS = 2_000;
+    private static final long WARM_UP_MS = 3_000;
+    private static final long MEASURE_MS = 5_000;
+
+    private final AirportRepository airportRepository = mock(AirportRepository.class, withSettings().stubOnly());
+    // [id, latitude, longitude], as returned by findCoordinates
+    private final List<Object[]> coordinates = new ArrayList<>();
+    private final double[][] lookups = new double[LOOKUPS][];
+
+    @BeforeEach
+    void setUp() {
+        Random random = new Random(42);
+        double[][] regions = new double[REGIONS][];
+        for (int r = 0; r < REGIONS; r++) {
+            regions[r] = new double[] {random.nextDouble(-55, 70), random.nextDouble(-180, 180)};
+        }
+        // Three in four airports within a few hundred kilometers of a region, the rest anywhere
+        for (long id = 1; id <= AIRPORTS; id++) {
+            double latitude;
+            double longitude;
+            if (random.nextInt(4) > 0) {
+                double[] region = regions[random.nextInt(REGIONS)];
+                latitude = Math.max(-90, Math.min(90, region[0] + random.nextGaussian() * 3));
+                longitude = wrap(region[1] + random.nextGaussian() * 4);
+            } else {
+                latitude = Math.toDegrees(Math.asin(random.nextDouble(-1, 1)));
+                longitude = random.nextDouble(-180, 180);
+            }
+            coordinates.add(new Object[] {id, latitude, longitude});
+        }
+        // Lookups from near where the airports are, as from a user's position
+        for (int i = 0; i < LOOKUPS; i++) {
+            Object[] airport = coordinates.get(random.nextInt(AIRPORTS));
+            lookups[i] = new double[] {
+                    Math.max(-90, Math.min(90, (Double) airport[1] + random.nextGaussian() * 0.5)),
+                    wrap((Double) airport[2] + random.nextGaussian() * 0.5)};
+        }
+        when(airportRepository.findCoordinates()).thenReturn(coordinates);
+    }
+
+    @Test
+    void kdTreeAgainstHaversineScan() {
+        AirportSpatialIndex index = new AirportSpatialIndex(airportRepository);
+        for (int i = 0; i < 5; i++) {
+            index.invalidate();
+            index.findNearest(0, 0, null, 1);
+        }
+        long started = System.nanoTime();
+        index.invalidate();
+        index.findNearest(0, 0, null, 1);
+        System.out.printf("airport spatial index: built over %,d airports in %.1f ms%n",
+                AIRPORTS, (System.nanoTime() - started) / 1e6);
+
+        Double[] radii = {null, 100.0, 500.0};
+        Integer[] limits = {10, 20, null};
+        String[] names = {"10 nearest", "within 100 km, 20", "within 500 km"};
+        for (int q = 0; q < radii.length; q++) {
+            Double radiusKm = radii[q];
+            Integer limit = limits[q];
+            for (double[] lookup : Arrays.copyOf(lookups, 50)) {
+                assertThat(ids(index.findNearest(lookup[0], lookup[1], radiusKm, limit)))
+                        .isEqualTo(ids(scan(lookup[0], lookup[1], radiusKm, limit)));
+            }
+
+            double tree = run(lookup -> index.findNearest(lookup[0], lookup[1], radiusKm, limit).size());
+            double scan = run(lookup -> scan(lookup[0], lookup[1], radiusKm, limit).size());
+            System.out.printf("airport spatial index, %-18s %,10.0f lookups/s k-d tree, %,8.0f lookups/s haversine scan%n",
+                    names[q] + ":", tree, scan);
+        }
+    }
+
+    // Distance to every airport, keeping the closest within the radius in a bounded heap as ORDER BY ... LIMIT does
+    private List<AirportSpatialIndex.Neighbor> scan(double latitude, double longitude, Double radiusKm, Integer limit) {
+        Comparator<AirportSpatialIndex.Neighbor> closest = Comparator.comparingDouble(AirportSpatialIndex.Neighbor::distanceKm);
+        PriorityQueue<AirportSpatialIndex.Neighbor> farthestFirst = new PriorityQueue<>(closest.reversed());
+        for (Object[] airport : coordinates) {
+            double distanceKm = AirportSpatialIndex.distanceKm(latitude, longitude, (Double) airport[1], (Double) airport[2]);
+            if (radiusKm != null && distanceKm > radiusKm) {
+                continue;
+            }
+            if (limit == null || farthestFirst.size() < limit) {
+                farthestFirst.add(new AirportSpatialIndex.Neighbor((Long) airport[0], distanceKm));
+            } else if (distanceKm < farthestFirst.peek().distanceKm()) {
+                farthestFirst.poll();
+                farthestFirst.add(new AirportSpatialIndex.Neighbor((Long) airport[0], distanceKm));
+            }
+        }
+        List<AirportSpatialIndex.Neighbor> neighbors = new ArrayList<>(farthestFirst);
+        neighbors.sort(closest);
+        return neighbors;
+    }
+
+    private static List<Long> ids(List<AirportSpatialIndex.Neighbor> neighbors) {
+        return neighbors.stream().map(AirportSpatialIndex.Neighbor::airportId).toList();
+    }
+
+    private static double wrap(double longitude) {
+        return ((longitude + 540) % 360) - 180;
+    }
+
+    // Lookups per second over MEASURE_MS, cycling through the lookup points
+    private double run(Lookup lookup) {
+        long found = 0;
+        long warmUpEnd = System.nanoTime() + WARM_UP_MS * 1_000_000;
+        for (int i = 0; System.nanoTime() < warmUpEnd; i++) {
+            found += lookup.find(lookups[i % LOOKUPS]);
+        }
+        long count = 0;
+        long started = System.nanoTime();
+        long end = started + MEASURE_MS * 1_000_000;
+        for (int i = 0; System.nanoTime() < end; i++, count++) {
+            found += lookup.find(lookups[i % LOOKUPS]);
+        }
+        assertThat(found).isNotNegative();
+        return count / ((System.nanoTime() - started) / 1e9);
+    }
+
+    @FunctionalInterface
+    private interface Lookup {
+        int find(double[] point);
+    }
+}
@@ -0,0 +1,151 @@
+package com.Airlink.AirticketingSystem.service;
+
+import com.Airlink.AirticketingSystem.model.enums.FareClass;
+import com.Airlink.AirticketingSystem.repository.FareClassPriceRepository;
+import com.Airlink.AirticketingSystem.repository.FlightRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.Limit;
+import org.springframework.transaction.support.TransactionCallback;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.Arrays;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+import static org.mockito.Mockito.withSettings;
+
+/**
+ * Full repricing passes over 500k fare rows (125k upcoming flights, four fare classes each)
+ * held in memory in place of the fare_class_prices table: the first pass, which writes every
+ * price, a pass with nothing to write, and one after a tenth of the flights sold seats.
+ * Prints fares and flights repriced per second and the pricing.reprice.throughput gauge,
+ * with one pricing thread and with all cores.
+ *
+ * Measures the pricing and change detection of the job; the chunk queries and UPDATEs
+ * against Postgres are not part of it. Run with mvn test -Pbenchmark.
+ */
+@Tag("benchmark")
+class FareRepricingBenchmark {
+
+    private static final int FLIGHTS = 125_000;
+    private static final FareClass[] OFFERED = {FareClass.ECONOMY, FareClass.PREMIUM_ECONOMY, FareClass.BUSINESS, FareClass.FIRST};
+    private static final int FARES = FLIGHTS * OFFERED.length;
+    private static final int CAPACITY = 180;
+    // As pricing.reprice.chunk-size
+    private static final int CHUNK_SIZE = 5_000;
+    private static final int WARM_UP_PASSES = 5;
+
+    private final FareClassPriceRepository fareClassPriceRepository =
+            mock(FareClassPriceRepository.class, withSettings().stubOnly());
+    private final TransactionTemplate transactionTemplate = mock(TransactionTemplate.class, withSettings().stubOnly());
+
+    // [id, flightId, fareClass, basePrice, currentPrice, availableSeats, departureTime, totalCapacity];
+    // fare ids are 1..FARES, so a fare's row is at id - 1
+    private final Object[][] fares = new Object[FARES][];
+
+    @BeforeEach
+    void setUp() {
+        when(fareClassPriceRepository.findRepricingRowsAfter(any(), any(), any())).thenAnswer(call -> {
+            int from = call.<Long>getArgument(1).intValue();
+            int to = Math.min(from + call.<Limit>getArgument(2).max(), FARES);
+            return Arrays.stream(fares, from, to).map(Object[]::clone).toList();
+        });
+        when(fareClassPriceRepository.updateCurrentPrices(any(), any())).thenAnswer(call -> {
+            Long[] ids = call.getArgument(0);
+            Double[] prices = call.getArgument(1);
+            for (int i = 0; i < ids.length; i++) {
+                fares[ids[i].intValue() - 1][4] = prices[i];
+            }
+            return ids.length;
+        });
+        when(transactionTemplate.execute(any())).thenAnswer(call -> call.<TransactionCallback<?>>getArgument(0).doInTransaction(null));
+    }
+
+    @Test
+    void fullPassesOverHalfAMillionFares() {
+        // No counters loaded, so seats come from the rows
+        SeatInventoryService seatInventoryService = new SeatInventoryService(
+                mock(FlightRepository.class, withSettings().stubOnly()), fareClassPriceRepository, transactionTemplate,
+                mock(ApplicationEventPublisher.class, withSettings().stubOnly()), false);
+
+        int cores = Runtime.getRuntime().availableProcessors();
+        for (int parallelism : cores > 1 ? new int[] {1, cores} : new int[] {1}) {
+            SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+            FareRepricingService repricing = new FareRepricingService(fareClassPriceRepository, seatInventoryService,
+                    transactionTemplate, meterRegistry, CHUNK_SIZE, parallelism);
+            repricing.registerMetrics();
+            try {
+                generate();
+                for (int i = 0; i < WARM_UP_PASSES; i++) {
+                    repricing.repriceAll();
+                }
+
+                generate();
+                pass("first pass", parallelism, repricing, meterRegistry);
+                assertPricedAsQuoted();
+                pass("nothing changed", parallelism, repricing, meterRegistry);
+                sellSeats();
+                pass("a tenth sold seats", parallelism, repricing, meterRegistry);
+                assertPricedAsQuoted();
+            } finally {
+                repricing.shutdown();
+            }
+        }
+    }
+
+    private void pass(String name, int parallelism, FareRepricingService repricing, SimpleMeterRegistry meterRegistry) {
+        double updatedBefore = meterRegistry.counter("pricing.reprice.fares.updated").count();
+        long started = System.nanoTime();
+        int flights = repricing.repriceAll();
+        double seconds = (System.nanoTime() - started) / 1e9;
+        double updated = meterRegistry.counter("pricing.reprice.fares.updated").count() - updatedBefore;
+
+        assertThat(flights).isEqualTo(FLIGHTS);
+        System.out.printf("repricing, parallelism %d, %-20s %,9.0f fares/s, %,9.0f flights/s " +
+                        "(gauge %,9.0f), %,7.0f fares written%n",
+                parallelism, name + ":", FARES / seconds, flights / seconds,
+                meterRegistry.get("pricing.reprice.throughput").gauge().value(), updated);
+    }
+
+    // Current prices start out as the base prices, as for fares never repriced
+    private void generate() {
+        LocalDateTime now = LocalDateTime.now();
+        for (int i = 0; i < FARES; i++) {
+            long flightId = i / OFFERED.length + 1;
+            FareClass fareClass = OFFERED[i % OFFERED.length];
+            double basePrice = 100.0 + flightId % 400 + 200 * fareClass.ordinal();
+            int seats = (int) ((flightId * 31 + fareClass.ordinal() * 17) % CAPACITY);
+            // Departing within a year, so all three date steps occur
+            fares[i] = new Object[] {(long) i + 1, flightId, fareClass, basePrice, basePrice, seats,
+                    now.plusDays(flightId % 365 + 1), CAPACITY};
+        }
+    }
+
+    // Every tenth flight sells 40 seats in each fare class that has them
+    private void sellSeats() {
+        for (int i = 0; i < FARES; i += 10 * OFFERED.length) {
+            for (int f = i; f < i + OFFERED.length; f++) {
+                fares[f][5] = Math.max(0, (Integer) fares[f][5] - 40);
+            }
+        }
+    }
+
+    private void assertPricedAsQuoted() {
+        LocalDate today = LocalDate.now();
+        for (int i = 0; i < FARES; i += 997) {
+            Object[] fare = fares[i];
+            long days = ChronoUnit.DAYS.between(today, ((LocalDateTime) fare[6]).toLocalDate());
+            assertThat((Double) fare[4])
+                    .isEqualTo(PricingService.currentPrice((Double) fare[3], days, (Integer) fare[5], CAPACITY));
+        }
+    }
+}
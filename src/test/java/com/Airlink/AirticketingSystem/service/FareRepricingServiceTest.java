@@ -0,0 +1,257 @@
+package com.Airlink.AirticketingSystem.service;
+
+import com.Airlink.AirticketingSystem.model.Flight;
+import com.Airlink.AirticketingSystem.model.enums.FareClass;
+import com.Airlink.AirticketingSystem.repository.FareClassPriceRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.Limit;
+import org.springframework.transaction.support.TransactionCallback;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+import static org.mockito.Mockito.withSettings;
+
+/**
+ * Repricing passes against an in-memory stand-in for the fare_class_prices rows:
+ * the prices written match what quotes charge one passenger, chunks and fork-join
+ * leaves cover every fare once, and only seat changes crossing a price step mark a flight.
+ */
+class FareRepricingServiceTest {
+
+    private static final int CAPACITY = 100;
+
+    private final FareClassPriceRepository fareClassPriceRepository =
+            mock(FareClassPriceRepository.class, withSettings().stubOnly());
+    private final SeatInventoryService seatInventoryService = mock(SeatInventoryService.class, withSettings().stubOnly());
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    // [id, flightId, fareClass, basePrice, currentPrice, availableSeats, departureTime, totalCapacity], in id order
+    private final List<Object[]> fares = new ArrayList<>();
+    // "flightId:fareClass" -> live seat counter, for flights whose counters are loaded
+    private final Map<String, Integer> liveSeats = new HashMap<>();
+    // afterId of every chunk query of a full pass
+    private final List<Long> chunkQueries = new ArrayList<>();
+    // flight ids of every query of a pass over changed flights
+    private final List<List<Long>> changedQueries = new ArrayList<>();
+    private int updateStatements;
+
+    private FareRepricingService repricing;
+
+    @BeforeEach
+    void setUp() {
+        when(fareClassPriceRepository.findRepricingRowsAfter(any(), any(), any())).thenAnswer(call -> {
+            Long afterId = call.getArgument(1);
+            chunkQueries.add(afterId);
+            return fares.stream()
+                    .filter(fare -> (Long) fare[0] > afterId)
+                    .limit(call.<Limit>getArgument(2).max())
+                    .map(Object[]::clone)
+                    .toList();
+        });
+        when(fareClassPriceRepository.findRepricingRowsByFlightIds(any(), any())).thenAnswer(call -> {
+            List<Long> flightIds = List.copyOf(call.<Collection<Long>>getArgument(1));
+            changedQueries.add(flightIds);
+            return fares.stream().filter(fare -> flightIds.contains((Long) fare[1])).map(Object[]::clone).toList();
+        });
+        when(fareClassPriceRepository.updateCurrentPrices(any(), any())).thenAnswer(call -> {
+            updateStatements++;
+            Long[] ids = call.getArgument(0);
+            Double[] prices = call.getArgument(1);
+            for (int i = 0; i < ids.length; i++) {
+                fare(ids[i])[4] = prices[i];
+            }
+            return ids.length;
+        });
+        when(fareClassPriceRepository.findFareRowsByFlightIds(any())).thenAnswer(call -> {
+            Collection<Long> flightIds = call.getArgument(0);
+            return fares.stream()
+                    .filter(fare -> flightIds.contains((Long) fare[1]))
+                    .map(fare -> new Object[] {fare[1], fare[2], fare[3], fare[5]})
+                    .toList();
+        });
+        when(seatInventoryService.peekAvailableSeats(anyLong(), any(FareClass.class), anyInt())).thenAnswer(call ->
+                liveSeats.getOrDefault(call.getArgument(0) + ":" + call.getArgument(1), call.<Integer>getArgument(2)));
+
+        repricing = repricing(5000);
+    }
+
+    @AfterEach
+    void tearDown() {
+        repricing.shutdown();
+    }
+
+    @Test
+    void pricesWrittenMatchAQuoteForOnePassenger() {
+        int[] days = {1, 10, 45};
+        int[] seats = {5, 30, 90};
+        long id = 1;
+        for (int d = 0; d < days.length; d++) {
+            for (int s = 0; s < seats.length; s++) {
+                long flightId = d * seats.length + s + 1;
+                addFare(id++, flightId, FareClass.ECONOMY, 100.0 + flightId, seats[s], days[d]);
+                addFare(id++, flightId, FareClass.BUSINESS, 400.0 + flightId, seats[seats.length - 1 - s], days[d]);
+            }
+        }
+        // Loaded counters win over the stored seats, for quotes and passes alike
+        liveSeats.put("1:" + FareClass.ECONOMY, 60);
+
+        repricing.repriceAll();
+
+        PricingService pricingService = new PricingService(fareClassPriceRepository, seatInventoryService, 1000);
+        List<Flight> flights = flights();
+        Map<Long, PricingService.FareQuote> quotes = pricingService.quote(flights, 1);
+        for (Object[] fare : fares) {
+            double quoted = quotes.get((Long) fare[1]).prices()[((FareClass) fare[2]).ordinal()];
+            assertThat((Double) fare[4]).as("fare %d", fare[0]).isEqualTo(quoted);
+        }
+    }
+
+    @Test
+    void fullPassWalksTheFaresInChunks() {
+        repricing.shutdown();
+        repricing = repricing(3);
+        for (long id = 1; id <= 7; id++) {
+            addFare(id, id, FareClass.ECONOMY, 100.0, 90, 45);
+        }
+
+        assertThat(repricing.repriceAll()).isEqualTo(7);
+
+        // The last chunk is short, so no query follows it
+        assertThat(chunkQueries).containsExactly(0L, 3L, 6L);
+        assertThat(updateStatements).isEqualTo(3);
+        assertThat(fares).allMatch(fare -> (Double) fare[4] == 100.0);
+    }
+
+    @Test
+    void fullPassStopsOnAnEmptyChunkAfterAFullOne() {
+        repricing.shutdown();
+        repricing = repricing(3);
+        for (long id = 1; id <= 6; id++) {
+            addFare(id, id, FareClass.ECONOMY, 100.0, 90, 45);
+        }
+
+        assertThat(repricing.repriceAll()).isEqualTo(6);
+        assertThat(chunkQueries).containsExactly(0L, 3L, 6L);
+        assertThat(updateStatements).isEqualTo(2);
+    }
+
+    @Test
+    void chunkSpanningSeveralLeavesPricesEveryFare() {
+        // Three fork-join leaves and then some, with prices varying from fare to fare
+        for (long id = 1; id <= 3500; id++) {
+            addFare(id, id, FareClass.ECONOMY, 100.0 + id % 7, (int) (id % CAPACITY), (int) (id % 40));
+        }
+
+        repricing.repriceAll();
+
+        LocalDate today = LocalDate.now();
+        for (Object[] fare : fares) {
+            long daysUntilDeparture = ChronoUnit.DAYS.between(today, ((LocalDateTime) fare[6]).toLocalDate());
+            double expected = PricingService.currentPrice((Double) fare[3], daysUntilDeparture, (Integer) fare[5], CAPACITY);
+            assertThat((Double) fare[4]).as("fare %d", fare[0]).isEqualTo(expected);
+        }
+        assertThat(updateStatements).isEqualTo(1);
+    }
+
+    @Test
+    void pricesAlreadyCurrentAreNotWrittenAgain() {
+        addFare(1L, 1L, FareClass.ECONOMY, 100.0, 10, 45);
+        repricing.repriceAll();
+        assertThat(updateStatements).isEqualTo(1);
+
+        repricing.repriceAll();
+        assertThat(updateStatements).isEqualTo(1);
+    }
+
+    @Test
+    void onlySeatChangesCrossingAPriceStepMarkTheFlight() {
+        addFare(1L, 1L, FareClass.ECONOMY, 100.0, 90, 45);
+        addFare(2L, 2L, FareClass.ECONOMY, 100.0, 90, 45);
+        repricing.repriceAll();
+
+        // Both above half the capacity: same price step
+        repricing.onSeatsChanged(new SeatsChangedEvent(1L, FareClass.ECONOMY, 80, 51));
+        assertThat(repricing.repriceChanged()).isZero();
+        assertThat(changedQueries).isEmpty();
+
+        // Down to less than half the capacity
+        repricing.onSeatsChanged(new SeatsChangedEvent(1L, FareClass.ECONOMY, 51, 49));
+        // Back above a fifth of the capacity
+        repricing.onSeatsChanged(new SeatsChangedEvent(2L, FareClass.ECONOMY, 19, 20));
+        assertThat(repricing.repriceChanged()).isEqualTo(2);
+        assertThat(changedQueries).hasSize(1);
+        assertThat(changedQueries.get(0)).containsExactlyInAnyOrder(1L, 2L);
+
+        assertThat(repricing.repriceChanged()).isZero();
+    }
+
+    @Test
+    void seatChangeOfAFlightNotSeenYetMarksIt() {
+        repricing.onSeatsChanged(new SeatsChangedEvent(9L, FareClass.ECONOMY, 80, 79));
+
+        assertThat(repricing.repriceChanged()).isEqualTo(1);
+        assertThat(changedQueries).containsExactly(List.of(9L));
+    }
+
+    @Test
+    void throughputGaugeFollowsTheLastFullPass() {
+        addFare(1L, 1L, FareClass.ECONOMY, 100.0, 90, 45);
+
+        repricing.repriceAll();
+
+        assertThat(meterRegistry.get("pricing.reprice.throughput").gauge().value()).isPositive();
+    }
+
+    private FareRepricingService repricing(int chunkSize) {
+        TransactionTemplate transactionTemplate = new TransactionTemplate() {
+            @Override
+            public <T> T execute(TransactionCallback<T> action) {
+                return action.doInTransaction(null);
+            }
+        };
+        FareRepricingService service = new FareRepricingService(fareClassPriceRepository, seatInventoryService,
+                transactionTemplate, meterRegistry, chunkSize, 4);
+        service.registerMetrics();
+        return service;
+    }
+
+    private void addFare(long id, long flightId, FareClass fareClass, double basePrice, int seats, int daysUntilDeparture) {
+        LocalDateTime departure = LocalDate.now().plusDays(daysUntilDeparture).atTime(12, 0);
+        fares.add(new Object[] {id, flightId, fareClass, basePrice, 0.0, seats, departure, CAPACITY});
+    }
+
+    private Object[] fare(Long id) {
+        return fares.stream().filter(fare -> fare[0].equals(id)).findFirst().orElseThrow();
+    }
+
+    private List<Flight> flights() {
+        Map<Long, Flight> flights = new HashMap<>();
+        for (Object[] fare : fares) {
+            flights.computeIfAbsent((Long) fare[1], flightId -> {
+                Flight flight = new Flight();
+                flight.setId(flightId);
+                flight.setDepartureTime((LocalDateTime) fare[6]);
+                flight.setTotalCapacity(CAPACITY);
+                return flight;
+            });
+        }
+        return List.copyOf(flights.values());
+    }
+}
@@ -0,0 +1,106 @@
+package com.Airlink.AirticketingSystem.service;
+
+import com.Airlink.AirticketingSystem.model.User;
+import com.Airlink.AirticketingSystem.repository.UserRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.support.TransactionCallback;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Instant;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+/**
+ * Failed attempts and lockouts against a mocked user row: batched writes with write-behind,
+ * immediate ones without, and states dropped once the row holds them and no lockout is in force.
+ */
+class LoginAttemptServiceTest {
+
+    private final UserRepository userRepository = mock(UserRepository.class);
+
+    @Test
+    void writeBehindWritesTheLatestStateOnFlush() {
+        LoginAttemptService service = service(true);
+        User user = user(0, null);
+
+        service.loginFailed(user);
+        service.loginFailed(user);
+        verify(userRepository, never()).updateLoginState(anyLong(), anyInt(), any());
+
+        assertThat(service.flush()).isEqualTo(1);
+        verify(userRepository).updateLoginState(eq(1L), eq(2), isNull());
+        assertThat(service.flush()).isZero();
+    }
+
+    @Test
+    void withoutWriteBehindEachChangeIsWrittenRightAway() {
+        LoginAttemptService service = service(false);
+        User user = user(0, null);
+
+        service.loginFailed(user);
+
+        verify(userRepository).updateLoginState(eq(1L), eq(1), isNull());
+    }
+
+    @Test
+    void fifthFailureLocksTheAccountAndTheLockoutOutlivesAFlush() {
+        LoginAttemptService service = service(true);
+        User user = user(0, null);
+        for (int i = 0; i < 5; i++) {
+            service.loginFailed(user);
+        }
+        service.flush();
+
+        // The user as read before the flush, without the lockout: memory still has it
+        assertThat(service.isLocked(user)).isTrue();
+    }
+
+    @Test
+    void writtenStatesWithoutALockoutAreDroppedOnFlush() {
+        LoginAttemptService service = service(true);
+        service.loginFailed(user(0, null));
+        service.flush();
+
+        // The row is read again: an admin reset it meanwhile, so counting restarts from it
+        service.loginFailed(user(0, null));
+        service.flush();
+
+        verify(userRepository, times(2)).updateLoginState(eq(1L), eq(1), isNull());
+    }
+
+    @Test
+    void expiredLockoutIsNotInForce() {
+        LoginAttemptService service = service(true);
+
+        assertThat(service.isLocked(user(5, Instant.now().minusSeconds(1)))).isFalse();
+        assertThat(service.isLocked(user(5, Instant.now().plusSeconds(60)))).isTrue();
+    }
+
+    private LoginAttemptService service(boolean writeBehind) {
+        TransactionTemplate transactionTemplate = new TransactionTemplate() {
+            @Override
+            public <T> T execute(TransactionCallback<T> action) {
+                return action.doInTransaction(null);
+            }
+        };
+        return new LoginAttemptService(userRepository, transactionTemplate, writeBehind);
+    }
+
+    private static User user(int failedAttempts, Instant lockoutUntil) {
+        User user = new User();
+        user.setId(1L);
+        user.setEmail("user@example.com");
+        user.setFailedLoginAttempts(failedAttempts);
+        user.setLockoutUntil(lockoutUntil);
+        return user;
+    }
+}
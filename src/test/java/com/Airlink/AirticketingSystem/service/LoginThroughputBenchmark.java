@@ -0,0 +1,231 @@
+package com.Airlink.AirticketingSystem.service;
+
+import com.Airlink.AirticketingSystem.dto.LoginRequest;
+import com.Airlink.AirticketingSystem.exception.BadRequestException;
+import com.Airlink.AirticketingSystem.model.User;
+import com.Airlink.AirticketingSystem.model.enums.UserRole;
+import com.Airlink.AirticketingSystem.repository.RefreshTokenRepository;
+import com.Airlink.AirticketingSystem.repository.UserRepository;
+import com.Airlink.AirticketingSystem.security.CustomUserDetailsService;
+import com.Airlink.AirticketingSystem.security.JwtService;
+import com.Airlink.AirticketingSystem.security.TokenUtil;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.modelmapper.ModelMapper;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.security.authentication.ProviderManager;
+import org.springframework.security.authentication.dao.DaoAuthenticationProvider;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.withSettings;
+
+/**
+ * A login storm through AuthService.login: 16 threads logging 200 users in, one attempt in ten
+ * with a wrong password. Prints logins per second with the bookkeeping written on each login
+ * and with write-behind, next to the BCrypt checks per second alone, which bound both.
+ *
+ * Runs at BCrypt strength 10, the lowest the application hashes with, where the password
+ * check dominates, and at strength 4, which leaves the bookkeeping visible.
+ * Run with mvn test -Pbenchmark (H2, so writes cost no network round trip).
+ */
+@Tag("benchmark")
+@DataJpaTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:loginbench;MODE=PostgreSQL;LOCK_TIMEOUT=30000;DB_CLOSE_DELAY=-1",
+        "spring.datasource.driver-class-name=org.h2.Driver",
+        "spring.datasource.username=sa",
+        "spring.datasource.password=",
+        "spring.datasource.hikari.maximum-pool-size=20",
+        "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+        "spring.jpa.show-sql=false"
+})
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class LoginThroughputBenchmark {
+
+    private static final String PASSWORD = "Passw0rd!";
+    private static final int[] STRENGTHS = {10, 4};
+    private static final int USERS = 200;
+    private static final int THREADS = 16;
+    private static final long WARM_UP_MS = 3_000;
+    private static final long MEASURE_MS = 10_000;
+    // As auth.login.flush-interval-ms
+    private static final long FLUSH_INTERVAL_MS = 200;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private RefreshTokenRepository refreshTokenRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private TransactionTemplate transactionTemplate;
+    private final JwtService jwtService = new JwtService();
+
+    @BeforeEach
+    void setUp() {
+        transactionTemplate = new TransactionTemplate(transactionManager);
+        refreshTokenRepository.deleteAll();
+        userRepository.deleteAll();
+        ReflectionTestUtils.setField(jwtService, "jwtSecret",
+                "JWTSecretKeyForAirtaketingSystemJWTSecretKeyForAirtaketingSystemJWTSecretKeyForAirtaketingSystem");
+        ReflectionTestUtils.setField(jwtService, "jwtExpirationMs", 86_400_000L);
+        ReflectionTestUtils.setField(jwtService, "refreshTokenExpirationMs", 604_800_000L);
+        ReflectionTestUtils.invokeMethod(jwtService, "init");
+    }
+
+    @Test
+    void loginStorm() throws Exception {
+        for (int strength : STRENGTHS) {
+            PasswordEncoder passwordEncoder = new BCryptPasswordEncoder(strength);
+            saveUsers(passwordEncoder.encode(PASSWORD));
+            String hash = passwordEncoder.encode(PASSWORD);
+
+            double bcrypt = run(() -> passwordEncoder.matches(PASSWORD, hash));
+            double writeThrough = logins(passwordEncoder, false);
+            double writeBehind = logins(passwordEncoder, true);
+            System.out.printf("login storm, BCrypt strength %2d: %,8.1f logins/s writing through, " +
+                            "%,8.1f logins/s with write-behind, %,8.1f BCrypt checks/s%n",
+                    strength, writeThrough, writeBehind, bcrypt);
+        }
+    }
+
+    private double logins(PasswordEncoder passwordEncoder, boolean writeBehind) throws Exception {
+        LoginAttemptService loginAttemptService = new LoginAttemptService(userRepository, transactionTemplate, writeBehind);
+        RefreshTokenBatcher refreshTokenBatcher = new RefreshTokenBatcher(refreshTokenRepository, transactionTemplate, writeBehind);
+        AuthService authService = authService(passwordEncoder, loginAttemptService, refreshTokenBatcher);
+
+        // As LoginStateFlushScheduler
+        ScheduledExecutorService flusher = Executors.newSingleThreadScheduledExecutor();
+        flusher.scheduleWithFixedDelay(() -> {
+            refreshTokenBatcher.flush();
+            loginAttemptService.flush();
+        }, FLUSH_INTERVAL_MS, FLUSH_INTERVAL_MS, TimeUnit.MILLISECONDS);
+        try {
+            return run(() -> {
+                ThreadLocalRandom random = ThreadLocalRandom.current();
+                String email = email(random.nextInt(USERS));
+                String password = random.nextInt(10) == 0 ? "wrong" : PASSWORD;
+                try {
+                    authService.login(new LoginRequest(email, password));
+                } catch (BadRequestException e) {
+                    // Wrong password, or locked out after five of them
+                } finally {
+                    SecurityContextHolder.clearContext();
+                }
+            });
+        } finally {
+            flusher.shutdown();
+            flusher.awaitTermination(1, TimeUnit.MINUTES);
+            refreshTokenBatcher.flush();
+            loginAttemptService.flush();
+        }
+    }
+
+    private AuthService authService(PasswordEncoder passwordEncoder, LoginAttemptService loginAttemptService,
+                                    RefreshTokenBatcher refreshTokenBatcher) {
+        CustomUserDetailsService userDetailsService =
+                new CustomUserDetailsService(userRepository, new SimpleMeterRegistry(), 10_000, 300);
+        DaoAuthenticationProvider authProvider = new DaoAuthenticationProvider();
+        authProvider.setUserDetailsService(userDetailsService);
+        authProvider.setPasswordEncoder(passwordEncoder);
+
+        AuthService authService = new AuthService();
+        ReflectionTestUtils.setField(authService, "authenticationManager", new ProviderManager(authProvider));
+        ReflectionTestUtils.setField(authService, "jwtService", jwtService);
+        ReflectionTestUtils.setField(authService, "userRepository", userRepository);
+        ReflectionTestUtils.setField(authService, "passwordEncoder", passwordEncoder);
+        ReflectionTestUtils.setField(authService, "modelMapper", new ModelMapper());
+        ReflectionTestUtils.setField(authService, "tokenUtil", new TokenUtil());
+        ReflectionTestUtils.setField(authService, "eventPublisher",
+                mock(ApplicationEventPublisher.class, withSettings().stubOnly()));
+        ReflectionTestUtils.setField(authService, "loginAttemptService", loginAttemptService);
+        ReflectionTestUtils.setField(authService, "refreshTokenBatcher", refreshTokenBatcher);
+        return authService;
+    }
+
+    private void saveUsers(String passwordHash) {
+        refreshTokenRepository.deleteAll();
+        userRepository.deleteAll();
+        List<User> users = new ArrayList<>();
+        for (int i = 0; i < USERS; i++) {
+            User user = new User();
+            user.setFullName("User " + i);
+            user.setEmail(email(i));
+            user.setPassword(passwordHash);
+            user.setRole(UserRole.CUSTOMER);
+            user.setEmailVerified(true);
+            users.add(user);
+        }
+        userRepository.saveAll(users);
+    }
+
+    private static String email(int user) {
+        return "user" + user + "@example.com";
+    }
+
+    // Operations per second over MEASURE_MS, on THREADS threads after WARM_UP_MS
+    private static double run(Runnable operation) throws Exception {
+        AtomicBoolean measuring = new AtomicBoolean();
+        AtomicBoolean stop = new AtomicBoolean();
+        CountDownLatch start = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        try {
+            List<Future<Long>> futures = new ArrayList<>();
+            for (int t = 0; t < THREADS; t++) {
+                futures.add(executor.submit(() -> {
+                    start.await();
+                    long operations = 0;
+                    while (!stop.get()) {
+                        boolean counted = measuring.get();
+                        operation.run();
+                        if (counted && measuring.get()) {
+                            operations++;
+                        }
+                    }
+                    return operations;
+                }));
+            }
+            start.countDown();
+            Thread.sleep(WARM_UP_MS);
+            measuring.set(true);
+            long started = System.nanoTime();
+            Thread.sleep(MEASURE_MS);
+            measuring.set(false);
+            double seconds = (System.nanoTime() - started) / 1e9;
+            stop.set(true);
+            long total = 0;
+            for (Future<Long> future : futures) {
+                total += future.get(1, TimeUnit.MINUTES);
+            }
+            return total / seconds;
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+}
@@ -0,0 +1,220 @@
+package com.Airlink.AirticketingSystem.service;
+
+import com.Airlink.AirticketingSystem.model.FareClassPrice;
+import com.Airlink.AirticketingSystem.model.Flight;
+import com.Airlink.AirticketingSystem.model.enums.FareClass;
+import com.Airlink.AirticketingSystem.repository.FareClassPriceRepository;
+import com.Airlink.AirticketingSystem.repository.FlightRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+import static org.mockito.Mockito.withSettings;
+
+/**
+ * Fare quotes per second for pages of 20 search results at 1 and 8 threads: PricingService.quote
+ * with the fare tables cached, with every page loading its tables (rows from a stubbed query,
+ * so without the database round trip), and pricing each fare class of each flight as
+ * calculateDynamicPrice did before, by streaming the flight's FareClassPrice entities.
+ * A quote is one fare class of one flight priced.
+ *
+ * Run with mvn test -Pbenchmark.
+ */
+@Tag("benchmark")
+class PricingQuoteBenchmark {
+
+    private static final int FLIGHTS = 10_000;
+    private static final int PAGE = 20;
+    private static final int CAPACITY = 180;
+    private static final FareClass[] OFFERED = {FareClass.ECONOMY, FareClass.PREMIUM_ECONOMY, FareClass.BUSINESS, FareClass.FIRST};
+    private static final int[] THREADS = {1, 8};
+    private static final long WARM_UP_MS = 3_000;
+    private static final long MEASURE_MS = 5_000;
+
+    private final FareClassPriceRepository fareClassPriceRepository =
+            mock(FareClassPriceRepository.class, withSettings().stubOnly());
+    private final List<List<Flight>> pages = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() {
+        List<Flight> page = new ArrayList<>();
+        for (long id = 1; id <= FLIGHTS; id++) {
+            page.add(flight(id));
+            if (page.size() == PAGE) {
+                pages.add(page);
+                page = new ArrayList<>();
+            }
+        }
+        when(fareClassPriceRepository.findFareRowsByFlightIds(any())).thenAnswer(call -> {
+            List<Object[]> rows = new ArrayList<>();
+            for (Long flightId : call.<Collection<Long>>getArgument(0)) {
+                for (FareClass fareClass : OFFERED) {
+                    rows.add(new Object[] {flightId, fareClass, basePrice(flightId, fareClass), seats(flightId, fareClass)});
+                }
+            }
+            return rows;
+        });
+    }
+
+    @Test
+    void fareTablesAgainstStreamingTheFares() throws Exception {
+        // No counters loaded, so seats come from the fare tables, as for flights nobody is booking
+        SeatInventoryService seatInventoryService = new SeatInventoryService(
+                mock(FlightRepository.class, withSettings().stubOnly()), fareClassPriceRepository,
+                mock(TransactionTemplate.class, withSettings().stubOnly()),
+                mock(ApplicationEventPublisher.class, withSettings().stubOnly()), false);
+        PricingService cached = new PricingService(fareClassPriceRepository, seatInventoryService, FLIGHTS);
+        // Keeps a single page, so every other page loads its tables again
+        PricingService uncached = new PricingService(fareClassPriceRepository, seatInventoryService, PAGE);
+
+        List<Flight> sample = pages.get(0);
+        Map<Long, PricingService.FareQuote> quotes = cached.quote(sample, 1);
+        for (Flight flight : sample) {
+            for (FareClass fareClass : OFFERED) {
+                assertThat(quotes.get(flight.getId()).prices()[fareClass.ordinal()])
+                        .isEqualTo(priceAsBefore(flight, fareClass, 1));
+            }
+        }
+
+        for (int threads : THREADS) {
+            double warm = run(threads, page -> cached.quote(page, 1).size() * OFFERED.length);
+            double cold = run(threads, page -> uncached.quote(page, 1).size() * OFFERED.length);
+            double streamed = run(threads, page -> {
+                int priced = 0;
+                for (Flight flight : page) {
+                    for (FareClass fareClass : OFFERED) {
+                        if (priceAsBefore(flight, fareClass, 1) > 0) {
+                            priced++;
+                        }
+                    }
+                }
+                return priced;
+            });
+            System.out.printf("fare quotes, %d threads: %,12.0f quotes/s from cached fare tables, " +
+                    "%,12.0f quotes/s loading them, %,12.0f quotes/s streaming the fares%n", threads, warm, cold, streamed);
+        }
+    }
+
+    // calculateDynamicPrice before the fare tables
+    private static double priceAsBefore(Flight flight, FareClass fareClass, int passengerCount) {
+        FareClassPrice price = flight.getFareClassPrices().stream()
+                .filter(p -> p.getFareClass() == fareClass)
+                .findFirst()
+                .orElseThrow(() -> new IllegalArgumentException("Fare class not available for this flight"));
+
+        double basePrice = price.getBasePrice();
+        double dynamicPrice = basePrice;
+        long daysUntilDeparture = ChronoUnit.DAYS.between(LocalDate.now(), flight.getDepartureTime().toLocalDate());
+        if (daysUntilDeparture < 7) {
+            dynamicPrice *= 1.3;
+        } else if (daysUntilDeparture < 30) {
+            dynamicPrice *= 1.15;
+        }
+        double seatRatio = (double) price.getAvailableSeats() / flight.getTotalCapacity();
+        if (seatRatio < 0.2) {
+            dynamicPrice *= 1.2;
+        } else if (seatRatio < 0.5) {
+            dynamicPrice *= 1.1;
+        }
+        if (passengerCount >= 10) {
+            dynamicPrice *= 0.9;
+        } else if (passengerCount >= 4) {
+            dynamicPrice *= 0.95;
+        }
+        return Math.max(basePrice, Math.round(dynamicPrice * 100.0) / 100.0);
+    }
+
+    // Quotes per second over MEASURE_MS, each thread cycling through the pages
+    private double run(int threads, Quoting quoting) throws Exception {
+        AtomicBoolean measuring = new AtomicBoolean();
+        AtomicBoolean stop = new AtomicBoolean();
+        CountDownLatch start = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        try {
+            List<Future<Long>> futures = new ArrayList<>();
+            for (int t = 0; t < threads; t++) {
+                int offset = t * pages.size() / threads;
+                futures.add(executor.submit(() -> {
+                    start.await();
+                    long quotes = 0;
+                    for (int i = offset; !stop.get(); i++) {
+                        int priced = quoting.quote(pages.get(i % pages.size()));
+                        if (measuring.get()) {
+                            quotes += priced;
+                        }
+                    }
+                    return quotes;
+                }));
+            }
+            start.countDown();
+            Thread.sleep(WARM_UP_MS);
+            measuring.set(true);
+            long started = System.nanoTime();
+            Thread.sleep(MEASURE_MS);
+            measuring.set(false);
+            double seconds = (System.nanoTime() - started) / 1e9;
+            stop.set(true);
+            long total = 0;
+            for (Future<Long> future : futures) {
+                total += future.get(1, TimeUnit.MINUTES);
+            }
+            return total / seconds;
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    // Departing within the next 60 days, so all three date steps occur
+    private static Flight flight(long id) {
+        Flight flight = new Flight();
+        flight.setId(id);
+        flight.setDepartureTime(LocalDateTime.now().plusDays(id % 60 + 1));
+        flight.setTotalCapacity(CAPACITY);
+        Set<FareClassPrice> fares = new HashSet<>();
+        for (FareClass fareClass : OFFERED) {
+            FareClassPrice fare = new FareClassPrice();
+            fare.setFareClass(fareClass);
+            fare.setBasePrice(basePrice(id, fareClass));
+            fare.setAvailableSeats(seats(id, fareClass));
+            fares.add(fare);
+        }
+        flight.setFareClassPrices(fares);
+        return flight;
+    }
+
+    private static double basePrice(long flightId, FareClass fareClass) {
+        return 100 + flightId % 400 + 200 * fareClass.ordinal();
+    }
+
+    // From full to nearly sold out, so all three seat steps occur
+    private static int seats(long flightId, FareClass fareClass) {
+        return (int) ((flightId * 31 + fareClass.ordinal() * 17) % CAPACITY);
+    }
+
+    @FunctionalInterface
+    private interface Quoting {
+        int quote(List<Flight> page);
+    }
+}
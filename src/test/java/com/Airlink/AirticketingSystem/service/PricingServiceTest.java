@@ -0,0 +1,211 @@
+package com.Airlink.AirticketingSystem.service;
+
+import com.Airlink.AirticketingSystem.model.Flight;
+import com.Airlink.AirticketingSystem.model.enums.FareClass;
+import com.Airlink.AirticketingSystem.repository.FareClassPriceRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Quotes against stubbed fare rows and seat counters: one query per page of cold flights,
+ * live seats where counters are loaded, and no fare table kept past an eviction.
+ */
+class PricingServiceTest {
+
+    private static final int CAPACITY = 100;
+
+    private final FareClassPriceRepository fareClassPriceRepository = mock(FareClassPriceRepository.class);
+    private final SeatInventoryService seatInventoryService = mock(SeatInventoryService.class);
+
+    // flight id -> [fareClass, basePrice, seats] rows as stored
+    private final Map<Long, List<Object[]>> fareRows = new HashMap<>();
+    // "flightId:fareClass" -> live seat counter, for flights whose counters are loaded
+    private final Map<String, Integer> liveSeats = new HashMap<>();
+    // Run once the fare query has read its rows, to race with it
+    private Runnable duringLoad = () -> { };
+
+    private PricingService pricingService;
+
+    @BeforeEach
+    void setUp() {
+        when(fareClassPriceRepository.findFareRowsByFlightIds(any())).thenAnswer(call -> {
+            List<Object[]> rows = new ArrayList<>();
+            for (Long flightId : call.<Collection<Long>>getArgument(0)) {
+                for (Object[] fare : fareRows.getOrDefault(flightId, List.of())) {
+                    rows.add(new Object[] {flightId, fare[0], fare[1], fare[2]});
+                }
+            }
+            duringLoad.run();
+            return rows;
+        });
+        when(seatInventoryService.peekAvailableSeats(anyLong(), any(FareClass.class), anyInt())).thenAnswer(call ->
+                liveSeats.getOrDefault(call.getArgument(0) + ":" + call.getArgument(1), call.<Integer>getArgument(2)));
+
+        pricingService = new PricingService(fareClassPriceRepository, seatInventoryService, 1000);
+    }
+
+    @Test
+    void quotesEveryFareClassOfAPageWithOneQuery() {
+        Flight first = flight(1L, 60);
+        Flight second = flight(2L, 60);
+        fare(1L, FareClass.ECONOMY, 100.0, 80);
+        fare(1L, FareClass.BUSINESS, 500.0, 10);
+        fare(2L, FareClass.ECONOMY, 200.0, 40);
+
+        Map<Long, PricingService.FareQuote> quotes = pricingService.quote(List.of(first, second), 1);
+
+        assertThat(quotes.get(1L).priceMap()).containsExactlyInAnyOrderEntriesOf(Map.of(
+                FareClass.ECONOMY, 100.0,
+                FareClass.BUSINESS, 600.0));
+        assertThat(quotes.get(1L).prices()[FareClass.PREMIUM_ECONOMY.ordinal()]).isNaN();
+        assertThat(quotes.get(1L).basePriceMap()).containsEntry(FareClass.BUSINESS, 500.0);
+        assertThat(quotes.get(2L).priceMap()).containsExactlyEntriesOf(Map.of(FareClass.ECONOMY, 220.0));
+
+        pricingService.quote(List.of(first, second), 1);
+        verify(fareClassPriceRepository, times(1)).findFareRowsByFlightIds(any());
+    }
+
+    @Test
+    void loadedCountersOverrideTheSeatsLoadedWithTheTable() {
+        Flight flight = flight(1L, 60);
+        fare(1L, FareClass.ECONOMY, 100.0, 80);
+        pricingService.quote(List.of(flight), 1);
+
+        liveSeats.put("1:" + FareClass.ECONOMY, 10);
+
+        assertThat(pricingService.quote(List.of(flight), 1).get(1L).priceMap())
+                .containsEntry(FareClass.ECONOMY, 120.0);
+    }
+
+    @Test
+    void neverLoadsCountersForAQuote() {
+        Flight flight = flight(1L, 60);
+        fare(1L, FareClass.ECONOMY, 100.0, 15);
+
+        assertThat(pricingService.quote(List.of(flight), 1).get(1L).priceMap())
+                .containsEntry(FareClass.ECONOMY, 120.0);
+        verify(seatInventoryService, never()).getAvailableSeats(any());
+        verify(seatInventoryService, never()).getAvailableSeats(any(), any());
+    }
+
+    @Test
+    void groupAndDepartureFactorsCombine() {
+        Flight flight = flight(1L, 3);
+        fare(1L, FareClass.ECONOMY, 100.0, 80);
+
+        assertThat(pricingService.quote(List.of(flight), 1).get(1L).priceMap()).containsEntry(FareClass.ECONOMY, 130.0);
+        assertThat(pricingService.quote(List.of(flight), 4).get(1L).priceMap()).containsEntry(FareClass.ECONOMY, 123.5);
+        assertThat(pricingService.quote(List.of(flight), 10).get(1L).priceMap()).containsEntry(FareClass.ECONOMY, 117.0);
+        // A group discount never goes below the base price
+        fare(2L, FareClass.ECONOMY, 100.0, 80);
+        assertThat(pricingService.quote(List.of(flight(2L, 60)), 10).get(2L).priceMap()).containsEntry(FareClass.ECONOMY, 100.0);
+    }
+
+    @Test
+    void tableLoadedWhileTheFlightWasEvictedIsNotKept() {
+        Flight flight = flight(1L, 60);
+        fare(1L, FareClass.ECONOMY, 100.0, 80);
+        duringLoad = () -> {
+            // The fares change while the old row is being read
+            pricingService.invalidate(1L);
+            fareRows.clear();
+            fare(1L, FareClass.ECONOMY, 150.0, 80);
+        };
+
+        assertThat(pricingService.quote(List.of(flight), 1).get(1L).priceMap()).containsEntry(FareClass.ECONOMY, 100.0);
+
+        duringLoad = () -> { };
+        assertThat(pricingService.quote(List.of(flight), 1).get(1L).priceMap()).containsEntry(FareClass.ECONOMY, 150.0);
+        verify(fareClassPriceRepository, times(2)).findFareRowsByFlightIds(any());
+    }
+
+    @Test
+    void invalidateDropsTheTable() {
+        Flight flight = flight(1L, 60);
+        fare(1L, FareClass.ECONOMY, 100.0, 80);
+        pricingService.quote(List.of(flight), 1);
+
+        fareRows.clear();
+        fare(1L, FareClass.ECONOMY, 180.0, 80);
+        pricingService.invalidate(1L);
+
+        assertThat(pricingService.quote(List.of(flight), 1).get(1L).priceMap()).containsEntry(FareClass.ECONOMY, 180.0);
+    }
+
+    @Test
+    void fareClassNotOfferedIsRejected() {
+        Flight flight = flight(1L, 60);
+        fare(1L, FareClass.ECONOMY, 100.0, 80);
+
+        assertThat(pricingService.calculateDynamicPrice(flight, FareClass.ECONOMY, 1)).isEqualTo(100.0);
+        assertThatThrownBy(() -> pricingService.calculateDynamicPrice(flight, FareClass.FIRST, 1))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    void currentPriceMatchesAQuoteForOnePassenger() {
+        int[] days = {0, 6, 7, 29, 30, 90};
+        int[] seats = {0, 19, 20, 49, 50, 100};
+        long flightId = 1;
+        for (int d : days) {
+            for (int s : seats) {
+                Flight flight = flight(flightId, d);
+                fare(flightId, FareClass.ECONOMY, 123.45, s);
+
+                double quoted = pricingService.quote(List.of(flight), 1).get(flightId).prices()[FareClass.ECONOMY.ordinal()];
+                assertThat(PricingService.currentPrice(123.45, d, s, CAPACITY)).as("%d days, %d seats", d, s).isEqualTo(quoted);
+                flightId++;
+            }
+        }
+    }
+
+    @Test
+    void currentPriceWithUnknownSeatsIgnoresAvailability() {
+        assertThat(PricingService.currentPrice(100.0, 90, -1, CAPACITY)).isEqualTo(100.0);
+        assertThat(PricingService.currentPrice(100.0, 3, -1, CAPACITY)).isEqualTo(130.0);
+    }
+
+    @Test
+    void seatThresholdsSitAtAFifthAndAHalfOfTheCapacity() {
+        assertThat(PricingService.crossesSeatThreshold(20, 19, CAPACITY)).isTrue();
+        assertThat(PricingService.crossesSeatThreshold(50, 49, CAPACITY)).isTrue();
+        assertThat(PricingService.crossesSeatThreshold(49, 50, CAPACITY)).isTrue();
+        assertThat(PricingService.crossesSeatThreshold(60, 50, CAPACITY)).isFalse();
+        assertThat(PricingService.crossesSeatThreshold(49, 20, CAPACITY)).isFalse();
+        assertThat(PricingService.crossesSeatThreshold(19, 0, CAPACITY)).isFalse();
+        assertThat(PricingService.crossesSeatThreshold(80, 60, CAPACITY)).isFalse();
+        // Unknown seats price like plenty left
+        assertThat(PricingService.crossesSeatThreshold(-1, 80, CAPACITY)).isFalse();
+        assertThat(PricingService.crossesSeatThreshold(-1, 10, CAPACITY)).isTrue();
+    }
+
+    private void fare(Long flightId, FareClass fareClass, double basePrice, int seats) {
+        fareRows.computeIfAbsent(flightId, id -> new ArrayList<>()).add(new Object[] {fareClass, basePrice, seats});
+    }
+
+    private static Flight flight(Long id, int daysUntilDeparture) {
+        Flight flight = new Flight();
+        flight.setId(id);
+        flight.setDepartureTime(LocalDateTime.now().plusDays(daysUntilDeparture));
+        flight.setTotalCapacity(CAPACITY);
+        return flight;
+    }
+}
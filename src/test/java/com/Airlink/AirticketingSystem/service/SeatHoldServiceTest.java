@@ -0,0 +1,99 @@
+package com.Airlink.AirticketingSystem.service;
+
+import com.Airlink.AirticketingSystem.model.enums.BookingStatus;
+import com.Airlink.AirticketingSystem.model.enums.PaymentStatus;
+import com.Airlink.AirticketingSystem.repository.BookingRepository;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+import static org.mockito.Mockito.withSettings;
+
+/**
+ * Hold deadlines of pending bookings, with and without a pending payment,
+ * and bookings found past their hold at startup.
+ */
+class SeatHoldServiceTest {
+
+    private static final long TICK_MS = 10;
+
+    private final BookingRepository bookingRepository = mock(BookingRepository.class, withSettings().stubOnly());
+
+    // [bookingId, bookingDate, pending paymentDate or null] rows as stored
+    private final List<Object[]> pendingBookings = new ArrayList<>();
+
+    @Test
+    void pendingPaymentExtendsTheHold() throws InterruptedException {
+        SeatHoldService holds = holds(false);
+        LocalDateTime now = LocalDateTime.now();
+
+        // Hold of 15 minutes ran out, the payment started 5 minutes ago holds for 30
+        holds.hold(1L, now.minusMinutes(20), now.minusMinutes(5));
+        holds.hold(2L, now.minusMinutes(20));
+
+        assertThat(expireAfterATick(holds)).containsExactly(2L);
+        assertThat(holds.getActiveHolds()).isEqualTo(1);
+    }
+
+    @Test
+    void failedPaymentTakesTheExtensionBack() throws InterruptedException {
+        SeatHoldService holds = holds(false);
+        LocalDateTime bookingDate = LocalDateTime.now().minusMinutes(20);
+        holds.hold(1L, bookingDate, LocalDateTime.now());
+
+        holds.hold(1L, bookingDate, null);
+
+        assertThat(expireAfterATick(holds)).containsExactly(1L);
+    }
+
+    @Test
+    void firedHoldIsRearmedWhileAPaymentIsPending() {
+        SeatHoldService holds = holds(false);
+        LocalDateTime bookingDate = LocalDateTime.now().minusMinutes(20);
+
+        assertThat(holds.rearmIfHeld(1L, bookingDate, LocalDateTime.now().minusMinutes(1))).isTrue();
+        assertThat(holds.getActiveHolds()).isEqualTo(1);
+        assertThat(holds.rearmIfHeld(2L, bookingDate, LocalDateTime.now().minusMinutes(45))).isFalse();
+        assertThat(holds.rearmIfHeld(3L, bookingDate, null)).isFalse();
+    }
+
+    @Test
+    void overdueBookingsGetAFreshHoldAtStartup() throws InterruptedException {
+        pendingBookings.add(new Object[] {1L, LocalDateTime.now().minusDays(3), null});
+        pendingBookings.add(new Object[] {2L, LocalDateTime.now(), null});
+        SeatHoldService holds = holds(false);
+
+        holds.rearmPendingHolds();
+
+        assertThat(expireAfterATick(holds)).isEmpty();
+        assertThat(holds.getActiveHolds()).isEqualTo(2);
+    }
+
+    @Test
+    void overdueBookingsAreExpiredAtStartupWhenConfigured() throws InterruptedException {
+        pendingBookings.add(new Object[] {1L, LocalDateTime.now().minusDays(3), null});
+        // Payment still within its own hold
+        pendingBookings.add(new Object[] {2L, LocalDateTime.now().minusMinutes(20), LocalDateTime.now().minusMinutes(1)});
+        SeatHoldService holds = holds(true);
+
+        holds.rearmPendingHolds();
+
+        assertThat(expireAfterATick(holds)).containsExactly(1L);
+    }
+
+    private SeatHoldService holds(boolean expireOverdueOnStartup) {
+        when(bookingRepository.findHoldsByStatus(BookingStatus.PENDING, PaymentStatus.PENDING)).thenReturn(pendingBookings);
+        return new SeatHoldService(bookingRepository, 15, 30, expireOverdueOnStartup, TICK_MS);
+    }
+
+    // Deadlines in the past fire on the next tick
+    private static List<Long> expireAfterATick(SeatHoldService holds) throws InterruptedException {
+        Thread.sleep(3 * TICK_MS);
+        return holds.collectExpired();
+    }
+}
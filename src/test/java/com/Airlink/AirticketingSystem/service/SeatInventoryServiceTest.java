@@ -0,0 +1,291 @@
+package com.Airlink.AirticketingSystem.service;
+
+import com.Airlink.AirticketingSystem.exception.BadRequestException;
+import com.Airlink.AirticketingSystem.model.enums.FareClass;
+import com.Airlink.AirticketingSystem.repository.FareClassPriceRepository;
+import com.Airlink.AirticketingSystem.repository.FlightRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.TransactionStatus;
+import org.springframework.transaction.support.TransactionCallback;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+import static org.mockito.Mockito.withSettings;
+
+/**
+ * Seat inventory against an in-memory stand-in for the flights and fare_class_prices rows,
+ * whose guarded UPDATEs behave like the repository queries.
+ */
+class SeatInventoryServiceTest {
+
+    private static final Long FLIGHT_ID = 1L;
+    private static final int CAPACITY = 100;
+
+    private final AtomicInteger flightSeats = new AtomicInteger(CAPACITY);
+    private final AtomicInteger economySeats = new AtomicInteger(CAPACITY);
+    // Guarded UPDATEs that matched no row: the counters admitted something the database would not
+    private final AtomicInteger rejectedWrites = new AtomicInteger();
+
+    private SeatInventoryService inventory;
+
+    @BeforeEach
+    void setUp() {
+        FlightRepository flightRepository = mock(FlightRepository.class, withSettings().stubOnly());
+        FareClassPriceRepository fareClassPriceRepository = mock(FareClassPriceRepository.class, withSettings().stubOnly());
+
+        when(flightRepository.findAvailableSeatsById(FLIGHT_ID)).thenAnswer(call -> Optional.of(flightSeats.get()));
+        when(flightRepository.findSeatSnapshotDepartingAfter(any()))
+                .thenAnswer(call -> rows(new Object[] {FLIGHT_ID, flightSeats.get()}));
+        when(flightRepository.reserveSeats(eq(FLIGHT_ID), anyInt()))
+                .thenAnswer(call -> guardedAdd(flightSeats, -call.<Integer>getArgument(1)));
+        when(flightRepository.releaseSeats(eq(FLIGHT_ID), anyInt()))
+                .thenAnswer(call -> guardedAdd(flightSeats, call.<Integer>getArgument(1)));
+
+        when(fareClassPriceRepository.findSeatSnapshotByFlightId(FLIGHT_ID))
+                .thenAnswer(call -> rows(new Object[] {FareClass.ECONOMY, economySeats.get()}));
+        when(fareClassPriceRepository.findSeatSnapshotDepartingAfter(any()))
+                .thenAnswer(call -> rows(new Object[] {FLIGHT_ID, FareClass.ECONOMY, economySeats.get()}));
+        when(fareClassPriceRepository.reserveSeats(eq(FLIGHT_ID), eq(FareClass.ECONOMY), anyInt()))
+                .thenAnswer(call -> guardedAdd(economySeats, -call.<Integer>getArgument(2)));
+        when(fareClassPriceRepository.releaseSeats(eq(FLIGHT_ID), eq(FareClass.ECONOMY), anyInt()))
+                .thenAnswer(call -> guardedAdd(economySeats, call.<Integer>getArgument(2)));
+
+        TransactionTemplate transactionTemplate = new TransactionTemplate() {
+            @Override
+            public <T> T execute(TransactionCallback<T> action) {
+                return action.doInTransaction(null);
+            }
+        };
+        inventory = new SeatInventoryService(flightRepository, fareClassPriceRepository, transactionTemplate,
+                event -> { }, true);
+    }
+
+    @AfterEach
+    void tearDown() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
+    @Test
+    void concurrentReservationsNeverOversell() throws Exception {
+        int threads = 32;
+        AtomicInteger reserved = new AtomicInteger();
+        CountDownLatch start = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int t = 0; t < threads; t++) {
+                futures.add(executor.submit(() -> {
+                    start.await();
+                    while (true) {
+                        try {
+                            inventory.reserve(FLIGHT_ID, FareClass.ECONOMY, 1);
+                            reserved.incrementAndGet();
+                        } catch (BadRequestException e) {
+                            return null;
+                        }
+                    }
+                }));
+            }
+            start.countDown();
+            for (Future<?> future : futures) {
+                future.get(30, TimeUnit.SECONDS);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        assertThat(reserved.get()).isEqualTo(CAPACITY);
+        assertThat(inventory.getAvailableSeats(FLIGHT_ID)).isZero();
+        assertThat(inventory.getAvailableSeats(FLIGHT_ID, FareClass.ECONOMY)).isZero();
+
+        assertThat(inventory.flush()).isEqualTo(1);
+        assertThat(flightSeats.get()).isZero();
+        assertThat(economySeats.get()).isZero();
+        assertThat(rejectedWrites.get()).isZero();
+    }
+
+    @Test
+    void invalidateKeepsUnflushedDeltas() {
+        inventory.reserve(FLIGHT_ID, FareClass.ECONOMY, 5);
+        inventory.invalidate(FLIGHT_ID);
+
+        assertThat(inventory.getAvailableSeats(FLIGHT_ID)).isEqualTo(CAPACITY - 5);
+        assertThat(inventory.getAvailableSeats(FLIGHT_ID, FareClass.ECONOMY)).isEqualTo(CAPACITY - 5);
+
+        inventory.flush();
+        assertThat(flightSeats.get()).isEqualTo(CAPACITY - 5);
+        assertThat(economySeats.get()).isEqualTo(CAPACITY - 5);
+    }
+
+    @Test
+    void reconcileKeepsCountersLoadedOnDemand() {
+        inventory.reserve(FLIGHT_ID, FareClass.ECONOMY, 5);
+        inventory.reconcile();
+
+        assertThat(inventory.getAvailableSeats(FLIGHT_ID)).isEqualTo(CAPACITY - 5);
+        inventory.flush();
+        assertThat(flightSeats.get()).isEqualTo(CAPACITY - 5);
+    }
+
+    @Test
+    void holdCommittedAfterReloadLandsOnCurrentCounters() throws Exception {
+        TransactionSynchronizationManager.initSynchronization();
+        inventory.reserve(FLIGHT_ID, FareClass.ECONOMY, 3);
+
+        // Reloaded by another thread while the booking transaction is still open
+        reloadElsewhere();
+        assertThat(inventory.getAvailableSeats(FLIGHT_ID)).isEqualTo(CAPACITY - 3);
+
+        complete(TransactionSynchronization.STATUS_COMMITTED);
+        assertThat(inventory.getAvailableSeats(FLIGHT_ID)).isEqualTo(CAPACITY - 3);
+        inventory.flush();
+        assertThat(flightSeats.get()).isEqualTo(CAPACITY - 3);
+        assertThat(economySeats.get()).isEqualTo(CAPACITY - 3);
+    }
+
+    @Test
+    void holdRolledBackAfterReloadReturnsSeats() throws Exception {
+        TransactionSynchronizationManager.initSynchronization();
+        inventory.reserve(FLIGHT_ID, FareClass.ECONOMY, 3);
+        reloadElsewhere();
+
+        complete(TransactionSynchronization.STATUS_ROLLED_BACK);
+        assertThat(inventory.getAvailableSeats(FLIGHT_ID)).isEqualTo(CAPACITY);
+        assertThat(inventory.getAvailableSeats(FLIGHT_ID, FareClass.ECONOMY)).isEqualTo(CAPACITY);
+        assertThat(inventory.flush()).isZero();
+    }
+
+    @Test
+    void countersMatchDatabaseAfterConcurrentBookingsFlushesAndReloads() throws Exception {
+        int threads = 8;
+        int operations = 2_000;
+        AtomicBoolean running = new AtomicBoolean(true);
+        ExecutorService executor = Executors.newFixedThreadPool(threads + 2);
+        try {
+            List<Future<?>> bookers = new ArrayList<>();
+            for (int t = 0; t < threads; t++) {
+                bookers.add(executor.submit(() -> {
+                    List<Integer> booked = new ArrayList<>();
+                    ThreadLocalRandom random = ThreadLocalRandom.current();
+                    for (int i = 0; i < operations; i++) {
+                        TransactionSynchronizationManager.initSynchronization();
+                        try {
+                            boolean commit = random.nextInt(5) > 0;
+                            if (!booked.isEmpty() && random.nextBoolean()) {
+                                int seats = booked.remove(booked.size() - 1);
+                                inventory.release(FLIGHT_ID, FareClass.ECONOMY, seats);
+                                if (!commit) {
+                                    booked.add(seats);
+                                }
+                            } else {
+                                int seats = 1 + random.nextInt(3);
+                                try {
+                                    inventory.reserve(FLIGHT_ID, FareClass.ECONOMY, seats);
+                                    if (commit) {
+                                        booked.add(seats);
+                                    }
+                                } catch (BadRequestException e) {
+                                    commit = false;
+                                }
+                            }
+                            complete(commit ? TransactionSynchronization.STATUS_COMMITTED
+                                    : TransactionSynchronization.STATUS_ROLLED_BACK);
+                        } finally {
+                            if (TransactionSynchronizationManager.isSynchronizationActive()) {
+                                TransactionSynchronizationManager.clearSynchronization();
+                            }
+                        }
+                    }
+                    return null;
+                }));
+            }
+            Future<?> flusher = executor.submit(() -> {
+                while (running.get()) {
+                    inventory.flush();
+                }
+                return null;
+            });
+            Future<?> reloader = executor.submit(() -> {
+                while (running.get()) {
+                    inventory.invalidate(FLIGHT_ID);
+                    Thread.sleep(1);
+                }
+                return null;
+            });
+
+            for (Future<?> booker : bookers) {
+                booker.get(60, TimeUnit.SECONDS);
+            }
+            running.set(false);
+            flusher.get(10, TimeUnit.SECONDS);
+            reloader.get(10, TimeUnit.SECONDS);
+        } finally {
+            executor.shutdownNow();
+        }
+
+        inventory.flush();
+        assertThat(rejectedWrites.get()).isZero();
+        assertThat(flightSeats.get()).isBetween(0, CAPACITY);
+        assertThat(economySeats.get()).isEqualTo(flightSeats.get());
+        assertThat(inventory.getAvailableSeats(FLIGHT_ID)).isEqualTo(flightSeats.get());
+        assertThat(inventory.getAvailableSeats(FLIGHT_ID, FareClass.ECONOMY)).isEqualTo(economySeats.get());
+    }
+
+    private void reloadElsewhere() throws Exception {
+        Thread reloader = new Thread(() -> inventory.invalidate(FLIGHT_ID));
+        reloader.start();
+        reloader.join();
+    }
+
+    private static void complete(int status) {
+        List<TransactionSynchronization> synchronizations = TransactionSynchronizationManager.getSynchronizations();
+        TransactionSynchronizationManager.clearSynchronization();
+        for (TransactionSynchronization synchronization : synchronizations) {
+            synchronization.afterCompletion(status);
+        }
+    }
+
+    private int guardedAdd(AtomicInteger seats, int delta) {
+        while (true) {
+            int current = seats.get();
+            int next = current + delta;
+            if (next < 0 || next > CAPACITY) {
+                rejectedWrites.incrementAndGet();
+                return 0;
+            }
+            if (seats.compareAndSet(current, next)) {
+                return 1;
+            }
+        }
+    }
+
+    private static List<Object[]> rows(Object[] row) {
+        List<Object[]> rows = new ArrayList<>();
+        rows.add(row);
+        return rows;
+    }
+}